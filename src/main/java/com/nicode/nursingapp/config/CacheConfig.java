@@ -0,0 +1,61 @@
+package com.nicode.nursingapp.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Caché en memoria (Caffeine) de las lecturas de pacientes y de Historias
+ * Clínicas por paciente.
+ *
+ * Cada caché está acotada por cantidad de entradas y por tiempo de vida según
+ * `spring.cache.caffeine.spec`, y registra estadísticas que Actuator publica
+ * como `cache.gets`, `cache.puts` y `cache.evictions`. Las invalidaciones de
+ * los servicios se aplican después del commit, para que una lectura
+ * concurrente no vuelva a guardar en caché datos anteriores a la
+ * modificación.
+ *
+ * Se desactiva por perfil con `spring.cache.type=none`, en cuyo caso Spring
+ * Boot registra una caché que no almacena nada.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Pacientes por identificador.
+     */
+    public static final String PATIENTS = "patients";
+
+    /**
+     * Historias Clínicas por identificador de paciente.
+     */
+    public static final String HISTORIES_BY_PATIENT = "historiesByPatient";
+
+    /**
+     * Crea el administrador de cachés.
+     *
+     * @param spec Especificación de Caffeine (tamaño máximo y vigencia).
+     * @return Administrador de cachés que aplica las modificaciones al confirmar
+     *         la transacción.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine", matchIfMissing = true)
+    public CacheManager cacheManager(
+            @Value("${spring.cache.caffeine.spec:maximumSize=10000,expireAfterWrite=10m}") String spec) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        caffeine.setCaffeine(Caffeine.from(spec).recordStats());
+        caffeine.setCacheNames(List.of(PATIENTS, HISTORIES_BY_PATIENT));
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
@@ -0,0 +1,74 @@
+package com.nicode.nursingapp.config;
+
+import static com.nicode.nursingapp.entities.NursingControlEntity.ID_ALLOCATION_SIZE;
+import static com.nicode.nursingapp.entities.NursingControlEntity.ID_GENERATOR_NAME;
+import static com.nicode.nursingapp.entities.NursingControlEntity.ID_GENERATOR_TABLE;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Migra la generación de identificadores de los controles de enfermería de
+ * AUTO_INCREMENT (IDENTITY) a la tabla generadora.
+ *
+ * Al iniciar, y antes de que la aplicación acepte solicitudes, garantiza que
+ * el próximo valor de la tabla generadora quede por encima del mayor
+ * identificador existente, de modo que los controles cargados con IDENTITY
+ * nunca colisionen con los nuevos. Es idempotente: si la tabla ya está
+ * adelantada no la modifica.
+ *
+ * La tabla generadora debe existir (la crea Hibernate con `ddl-auto`, o
+ * manualmente con `CREATE TABLE id_generators (sequence_name VARCHAR(255) NOT
+ * NULL PRIMARY KEY, next_val BIGINT)`).
+ */
+@Component
+public class ControlIdGeneratorInitializer implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ControlIdGeneratorInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor que inicializa las dependencias del inicializador.
+     *
+     * @param jdbcTemplate         Acceso JDBC a la base de datos.
+     * @param entityManagerFactory Fábrica de EntityManager; se recibe para que
+     *                             el esquema ya esté creado o validado.
+     */
+    public ControlIdGeneratorInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Long maxId = this.jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(nursing_control_id), 0) FROM nursing_controls", Long.class);
+
+        // Con el optimizador "pooled" el valor guardado es el límite superior del
+        // próximo bloque, que empieza ID_ALLOCATION_SIZE - 1 posiciones antes.
+        long required = maxId + ID_ALLOCATION_SIZE + 1;
+
+        List<Long> current = this.jdbcTemplate.queryForList(
+                "SELECT next_val FROM " + ID_GENERATOR_TABLE + " WHERE sequence_name = ?", Long.class,
+                ID_GENERATOR_NAME);
+
+        if (current.isEmpty()) {
+            this.jdbcTemplate.update("INSERT INTO " + ID_GENERATOR_TABLE + " (sequence_name, next_val) VALUES (?, ?)",
+                    ID_GENERATOR_NAME, required);
+        } else if (current.get(0) == null || current.get(0) < required) {
+            this.jdbcTemplate.update("UPDATE " + ID_GENERATOR_TABLE + " SET next_val = ? WHERE sequence_name = ?",
+                    required, ID_GENERATOR_NAME);
+        } else {
+            return;
+        }
+        log.info("Generador de identificadores de controles ajustado: próximo valor {} (máximo existente {})",
+                required, maxId);
+    }
+}
@@ -0,0 +1,321 @@
+package com.nicode.nursingapp.config;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+import com.nicode.nursingapp.search.ObservationSearchIndex;
+
+/**
+ * Particionado mensual por rango de `nursing_controls` según `control_date`
+ * (solo MySQL). Con la tabla particionada, las consultas por rango de fechas
+ * solo leen las particiones de los meses involucrados.
+ *
+ * La migración se ejecuta una única vez, al iniciar, si la tabla todavía no
+ * está particionada:
+ * <ol>
+ * <li>MySQL no admite claves foráneas en tablas particionadas, por lo que se
+ * elimina la de `patient_history_id` y la eliminación en cascada de los
+ * controles pasa a dos triggers, sobre `patients` y sobre
+ * `patients_histories`.</li>
+ * <li>Toda clave única debe incluir la columna de particionado: la clave
+ * primaria pasa a ser (`nursing_control_id`, `control_date`), por lo que
+ * `control_date` no puede ser null.</li>
+ * <li>Se particiona por RANGE COLUMNS (`control_date`) si la columna es
+ * DATETIME, como la crea Hibernate, o por `UNIX_TIMESTAMP(control_date)` si es
+ * TIMESTAMP, que no admite RANGE COLUMNS; en ambos casos MySQL descarta las
+ * particiones que no intersecan el rango consultado. Hay una partición por mes
+ * desde el control más antiguo y una partición `pmax` para fechas futuras.</li>
+ * </ol>
+ *
+ * Después, todos los días (`cron`) se crean las particiones de los próximos
+ * `months-ahead` meses dividiendo `pmax`, que está vacía, y, si
+ * `retention-months` es mayor que 0, se eliminan las particiones de meses más
+ * antiguos, copiando antes sus controles a `nursing_controls_archive` si
+ * `export-before-drop` está habilitado. Los controles eliminados se quitan del
+ * índice de observaciones y se recalcula la copia del control más reciente de
+ * las Historias Clínicas que apuntaba a alguno de ellos. Cada paso es
+ * idempotente.
+ *
+ * Se habilita con `controls.partitioning.enabled=true`. El usuario de la base
+ * de datos necesita los permisos ALTER y TRIGGER (y, con el log binario
+ * activado, `log_bin_trust_function_creators`).
+ */
+@Component
+public class ControlPartitioning {
+
+    private static final Logger log = LoggerFactory.getLogger(ControlPartitioning.class);
+
+    private static final String TABLE = "nursing_controls";
+
+    private static final String OVERFLOW_PARTITION = "pmax";
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM", Locale.ROOT);
+
+    private static final String COLUMNS = "nursing_control_id, temperature, systolic, diastolic, heart_rate_bpm, "
+            + "respiratory_rate_rpm, spo2, observations, control_date, patient_history_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PatientHistoryRepository historyRepository;
+    private final ObservationSearchIndex observationIndex;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean exportBeforeDrop;
+
+    /**
+     * Constructor que inicializa las dependencias del particionado.
+     *
+     * @param jdbcTemplate      Acceso JDBC a la base de datos.
+     * @param historyRepository Repositorio de Historias Clínicas, para
+     *                          recalcular su control más reciente.
+     * @param observationIndex  Índice de búsqueda de texto completo sobre las
+     *                          observaciones.
+     * @param enabled           Indica si se particiona y mantiene la tabla.
+     * @param monthsAhead       Meses futuros que deben tener su partición creada.
+     * @param retentionMonths   Meses completos que se conservan; 0 para no
+     *                          eliminar particiones.
+     * @param exportBeforeDrop  Indica si los controles de una partición se
+     *                          copian al archivo antes de eliminarla.
+     */
+    public ControlPartitioning(JdbcTemplate jdbcTemplate, PatientHistoryRepository historyRepository,
+            ObservationSearchIndex observationIndex,
+            @Value("${controls.partitioning.enabled:false}") boolean enabled,
+            @Value("${controls.partitioning.months-ahead:3}") int monthsAhead,
+            @Value("${controls.partitioning.retention-months:0}") int retentionMonths,
+            @Value("${controls.partitioning.export-before-drop:true}") boolean exportBeforeDrop) {
+        if (monthsAhead < 1 || retentionMonths < 0) {
+            throw new IllegalArgumentException(
+                    "Debe crearse al menos un mes por adelantado y la retención no puede ser negativa.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.historyRepository = historyRepository;
+        this.observationIndex = observationIndex;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.exportBeforeDrop = exportBeforeDrop;
+    }
+
+    /**
+     * Particiona la tabla, si todavía no lo está, y crea las particiones
+     * faltantes al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!this.enabled) {
+            return;
+        }
+        if (!isMySql()) {
+            log.warn("El particionado de {} solo está disponible en MySQL; se omite.", TABLE);
+            return;
+        }
+        if (partitions().isEmpty()) {
+            migrate(LocalDate.now());
+        }
+        maintain(LocalDate.now());
+    }
+
+    /**
+     * Crea las particiones futuras y elimina las vencidas una vez por día.
+     */
+    @Scheduled(cron = "${controls.partitioning.cron:0 30 3 * * *}")
+    public void scheduledMaintenance() {
+        if (this.enabled && isMySql() && !partitions().isEmpty()) {
+            maintain(LocalDate.now());
+        }
+    }
+
+    /**
+     * Migra la tabla sin particionar a particiones mensuales.
+     *
+     * @param today Fecha actual.
+     */
+    public void migrate(LocalDate today) {
+        long start = System.currentTimeMillis();
+
+        List<String> foreignKeys = this.jdbcTemplate.queryForList("SELECT CONSTRAINT_NAME FROM "
+                + "information_schema.REFERENTIAL_CONSTRAINTS WHERE CONSTRAINT_SCHEMA = DATABASE() "
+                + "AND TABLE_NAME = ?", String.class, TABLE);
+        for (String foreignKey : foreignKeys) {
+            this.jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP FOREIGN KEY `" + foreignKey + "`");
+        }
+        this.jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_patients_delete_controls");
+        this.jdbcTemplate.execute("CREATE TRIGGER trg_patients_delete_controls BEFORE DELETE ON patients "
+                + "FOR EACH ROW DELETE c FROM " + TABLE + " c JOIN patients_histories h "
+                + "ON h.patient_history_id = c.patient_history_id WHERE h.patient_id = OLD.id");
+        this.jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_histories_delete_controls");
+        this.jdbcTemplate.execute("CREATE TRIGGER trg_histories_delete_controls BEFORE DELETE ON patients_histories "
+                + "FOR EACH ROW DELETE FROM " + TABLE + " WHERE patient_history_id = OLD.patient_history_id");
+
+        this.jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PRIMARY KEY, "
+                + "ADD PRIMARY KEY (nursing_control_id, control_date)");
+
+        LocalDate oldest = this.jdbcTemplate.queryForObject("SELECT DATE(MIN(control_date)) FROM " + TABLE,
+                LocalDate.class);
+        YearMonth first = YearMonth.from(oldest != null && oldest.isBefore(today) ? oldest : today);
+        this.jdbcTemplate.execute(partitionByStatement(first, YearMonth.from(today).plusMonths(this.monthsAhead),
+                isTimestampColumn()));
+
+        log.info("Tabla {} particionada por mes desde {}, en {} ms", TABLE, first,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Crea las particiones de los próximos meses y elimina las vencidas.
+     *
+     * @param today Fecha actual.
+     */
+    public void maintain(LocalDate today) {
+        List<YearMonth> existing = partitions();
+        if (existing.isEmpty()) {
+            return;
+        }
+
+        List<YearMonth> created = monthsToCreate(existing.get(existing.size() - 1), today, this.monthsAhead);
+        if (!created.isEmpty()) {
+            this.jdbcTemplate.execute(reorganizeStatement(created, isTimestampColumn()));
+            log.info("Particiones creadas en {}: {}", TABLE, created);
+        }
+
+        List<YearMonth> dropped = monthsToDrop(existing, today, this.retentionMonths);
+        for (YearMonth month : dropped) {
+            String partition = partitionName(month);
+            if (this.exportBeforeDrop) {
+                int exported = this.jdbcTemplate.update("INSERT IGNORE INTO nursing_controls_archive (" + COLUMNS
+                        + ") SELECT " + COLUMNS + " FROM " + TABLE + " PARTITION (" + partition + ")");
+                log.info("Controles de {} copiados al archivo: {}", month, exported);
+            }
+            List<Long> indexed = this.jdbcTemplate.queryForList("SELECT nursing_control_id FROM " + TABLE
+                    + " PARTITION (" + partition + ") WHERE observations IS NOT NULL", Long.class);
+            this.jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition);
+            this.observationIndex.removeControls(indexed);
+            log.info("Partición {} de {} eliminada", partition, TABLE);
+        }
+        if (!dropped.isEmpty()) {
+            LocalDateTime bound = dropped.get(dropped.size() - 1).plusMonths(1).atDay(1).atStartOfDay();
+            int refreshed = this.historyRepository.refreshLatestVitalsBefore(bound);
+            log.info("Control más reciente recalculado en {} historias clínicas", refreshed);
+        }
+    }
+
+    /**
+     * Obtiene los meses con partición, en orden, sin contar `pmax`.
+     *
+     * @return Meses particionados, o vacío si la tabla no está particionada.
+     */
+    public List<YearMonth> partitions() {
+        List<String> names = this.jdbcTemplate.queryForList("SELECT PARTITION_NAME FROM "
+                + "information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? "
+                + "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION", String.class, TABLE);
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            if (!OVERFLOW_PARTITION.equals(name)) {
+                months.add(YearMonth.parse(name, PARTITION_NAME));
+            }
+        }
+        return months;
+    }
+
+    private boolean isMySql() {
+        String product = this.jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection
+                .getMetaData().getDatabaseProductName());
+        return product != null && (product.equalsIgnoreCase("MySQL") || product.equalsIgnoreCase("MariaDB"));
+    }
+
+    private boolean isTimestampColumn() {
+        String type = this.jdbcTemplate.queryForObject("SELECT DATA_TYPE FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = 'control_date'",
+                String.class, TABLE);
+        return "timestamp".equalsIgnoreCase(type);
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_NAME.format(month);
+    }
+
+    /**
+     * Definición de la partición de un mes: controles anteriores al primer
+     * instante del mes siguiente.
+     */
+    static String partitionDefinition(YearMonth month, boolean timestampColumn) {
+        String bound = "'" + month.plusMonths(1).atDay(1) + " 00:00:00'";
+        return "PARTITION " + partitionName(month) + " VALUES LESS THAN ("
+                + (timestampColumn ? "UNIX_TIMESTAMP(" + bound + ")" : bound) + ")";
+    }
+
+    private static String overflowDefinition(boolean timestampColumn) {
+        return "PARTITION " + OVERFLOW_PARTITION + " VALUES LESS THAN "
+                + (timestampColumn ? "MAXVALUE" : "(MAXVALUE)");
+    }
+
+    /**
+     * Sentencia que particiona la tabla con un mes por partición, de `first` a
+     * `last` inclusive, más la partición `pmax`.
+     */
+    static String partitionByStatement(YearMonth first, YearMonth last, boolean timestampColumn) {
+        StringJoiner definitions = new StringJoiner(", ", "ALTER TABLE " + TABLE + " PARTITION BY "
+                + (timestampColumn ? "RANGE (UNIX_TIMESTAMP(control_date))" : "RANGE COLUMNS (control_date)")
+                + " (", ")");
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            definitions.add(partitionDefinition(month, timestampColumn));
+        }
+        definitions.add(overflowDefinition(timestampColumn));
+        return definitions.toString();
+    }
+
+    /**
+     * Sentencia que agrega meses dividiendo la partición `pmax`.
+     */
+    static String reorganizeStatement(List<YearMonth> months, boolean timestampColumn) {
+        StringJoiner definitions = new StringJoiner(", ", "ALTER TABLE " + TABLE + " REORGANIZE PARTITION "
+                + OVERFLOW_PARTITION + " INTO (", ")");
+        months.forEach(month -> definitions.add(partitionDefinition(month, timestampColumn)));
+        definitions.add(overflowDefinition(timestampColumn));
+        return definitions.toString();
+    }
+
+    /**
+     * Meses posteriores al último particionado que faltan para cubrir hasta
+     * `monthsAhead` meses después del actual.
+     */
+    static List<YearMonth> monthsToCreate(YearMonth last, LocalDate today, int monthsAhead) {
+        List<YearMonth> months = new ArrayList<>();
+        YearMonth target = YearMonth.from(today).plusMonths(monthsAhead);
+        for (YearMonth month = last.plusMonths(1); !month.isAfter(target); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    /**
+     * Meses particionados anteriores a los `retentionMonths` meses completos
+     * previos al actual; ninguno si la retención es 0. Nunca incluye la última
+     * partición, para que la tabla siga particionada.
+     */
+    static List<YearMonth> monthsToDrop(List<YearMonth> existing, LocalDate today, int retentionMonths) {
+        if (retentionMonths == 0) {
+            return List.of();
+        }
+        YearMonth oldestKept = YearMonth.from(today).minusMonths(retentionMonths);
+        return existing.subList(0, existing.size() - 1).stream()
+                .filter(month -> month.isBefore(oldestKept))
+                .toList();
+    }
+}
@@ -0,0 +1,94 @@
+package com.nicode.nursingapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+
+/**
+ * Completa, una única vez, la copia del control más reciente (LatestVitals) de
+ * las Historias Clínicas creadas antes de que existiera.
+ *
+ * Recorre las Historias Clínicas por rangos de `batch-size` identificadores,
+ * cada uno en su propia transacción, y solo modifica las que todavía no tienen
+ * copia, por lo que puede interrumpirse y volver a ejecutarse. Los controles
+ * guardados mientras tanto mantienen la copia por sí mismos.
+ *
+ * Se habilita con `histories.latest-vitals-backfill.enabled=true`. Las columnas
+ * deben existir (`ALTER TABLE patients_histories ADD COLUMN latest_control_id
+ * BIGINT, ...`, o con `ddl-auto`).
+ */
+@Component
+public class LatestVitalsBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(LatestVitalsBackfill.class);
+
+    private final PatientHistoryRepository historyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    /**
+     * Constructor que inicializa las dependencias del proceso.
+     *
+     * @param historyRepository  Repositorio de Historias Clínicas.
+     * @param jdbcTemplate       Acceso JDBC a la base de datos.
+     * @param transactionManager Administrador de transacciones para cada rango.
+     * @param enabled            Indica si el proceso debe ejecutarse al iniciar.
+     * @param batchSize          Cantidad de identificadores por rango.
+     */
+    public LatestVitalsBackfill(PatientHistoryRepository historyRepository, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${histories.latest-vitals-backfill.enabled:false}") boolean enabled,
+            @Value("${histories.latest-vitals-backfill.batch-size:1000}") int batchSize) {
+        this.historyRepository = historyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Ejecuta el proceso en segundo plano al iniciar la aplicación, si está
+     * habilitado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (this.enabled) {
+            Thread worker = new Thread(this::backfill, "latest-vitals-backfill");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Completa la copia de todas las Historias Clínicas que no la tienen.
+     *
+     * @return Cantidad de Historias Clínicas actualizadas.
+     */
+    public long backfill() {
+        long start = System.currentTimeMillis();
+        Long maxId = this.jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(patient_history_id), 0) FROM patients_histories", Long.class);
+        long updated = 0;
+
+        for (long from = 1; from <= maxId; from += this.batchSize) {
+            long to = from + this.batchSize - 1;
+            long rangeStart = from;
+            updated += this.transactionTemplate
+                    .execute(status -> this.historyRepository.refreshMissingLatestVitals(rangeStart, to));
+        }
+
+        log.info("Últimos signos vitales completados en {} Historias Clínicas, en {} ms", updated,
+                System.currentTimeMillis() - start);
+        return updated;
+    }
+}
@@ -0,0 +1,55 @@
+package com.nicode.nursingapp.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Conteo de sentencias SQL por solicitud HTTP.
+ *
+ * Registra en Hibernate un inspector que informa cada sentencia preparada a
+ * {@link SqlStatementCounter} y el filtro que aplica el presupuesto de
+ * sentencias por solicitud. El filtro se desactiva con
+ * `sql.statement-budget.enabled=false`; el inspector sigue disponible para las
+ * pruebas.
+ */
+@Configuration
+public class SqlStatementBudgetConfig {
+
+    /**
+     * Registra el inspector de sentencias en la fábrica de sesiones.
+     *
+     * @return Personalización de las propiedades de Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspector() {
+        StatementInspector inspector = sql -> {
+            SqlStatementCounter.record(sql);
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    /**
+     * Crea el filtro que controla las sentencias de cada solicitud.
+     *
+     * @param meterRegistry   Registro de métricas.
+     * @param maxStatements   Cantidad máxima de sentencias por solicitud.
+     * @param repeatThreshold Ejecuciones de una misma sentencia a partir de las
+     *                        cuales se la informa como posible N+1.
+     * @return Filtro de presupuesto de sentencias.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "sql.statement-budget.enabled", havingValue = "true", matchIfMissing = true)
+    public SqlStatementBudgetFilter sqlStatementBudgetFilter(MeterRegistry meterRegistry,
+            @Value("${sql.statement-budget.max-statements:20}") int maxStatements,
+            @Value("${sql.statement-budget.repeat-threshold:5}") int repeatThreshold) {
+        return new SqlStatementBudgetFilter(meterRegistry, maxStatements, repeatThreshold);
+    }
+}
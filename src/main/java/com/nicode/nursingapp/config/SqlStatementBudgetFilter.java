@@ -0,0 +1,89 @@
+package com.nicode.nursingapp.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Controla la cantidad de sentencias SQL de cada solicitud HTTP.
+ *
+ * Abre un ámbito de {@link SqlStatementCounter} durante la solicitud y, al
+ * terminar, registra una advertencia si se superó el presupuesto de sentencias
+ * o si una misma sentencia se repitió tantas veces que sugiere una carga N+1
+ * (por ejemplo, asociaciones perezosas que Jackson inicializa una por una al
+ * serializar entidades). Publica las métricas `sql.statements.per.request`,
+ * `sql.statements.budget.exceeded` y `sql.statements.repeated`.
+ */
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementBudgetFilter.class);
+
+    private final int maxStatements;
+    private final int repeatThreshold;
+
+    private final DistributionSummary statementsPerRequest;
+    private final Counter budgetExceeded;
+    private final Counter repeated;
+
+    /**
+     * Constructor que inicializa el filtro y sus métricas.
+     *
+     * @param meterRegistry   Registro de métricas.
+     * @param maxStatements   Cantidad máxima de sentencias por solicitud.
+     * @param repeatThreshold Ejecuciones de una misma sentencia a partir de las
+     *                        cuales se la informa como posible N+1.
+     */
+    public SqlStatementBudgetFilter(MeterRegistry meterRegistry, int maxStatements, int repeatThreshold) {
+        if (maxStatements < 0 || repeatThreshold < 2) {
+            throw new IllegalArgumentException(
+                    "El presupuesto no puede ser negativo y el umbral de repetición debe ser al menos 2.");
+        }
+        this.maxStatements = maxStatements;
+        this.repeatThreshold = repeatThreshold;
+        this.statementsPerRequest = DistributionSummary.builder("sql.statements.per.request")
+                .description("Sentencias SQL ejecutadas por solicitud HTTP").register(meterRegistry);
+        this.budgetExceeded = Counter.builder("sql.statements.budget.exceeded")
+                .description("Solicitudes que superaron el presupuesto de sentencias SQL").register(meterRegistry);
+        this.repeated = Counter.builder("sql.statements.repeated")
+                .description("Solicitudes con sentencias SQL repetidas (posible N+1)").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                inspect(request, sql);
+            }
+        }
+    }
+
+    private void inspect(HttpServletRequest request, SqlStatementCounter.Scope sql) {
+        this.statementsPerRequest.record(sql.count());
+        String target = request.getMethod() + " " + request.getRequestURI();
+
+        if (sql.count() > this.maxStatements) {
+            this.budgetExceeded.increment();
+            log.warn("{} ejecutó {} sentencias SQL (presupuesto: {}).", target, sql.count(), this.maxStatements);
+        }
+        Map<String, Integer> repeatedStatements = sql.repeated(this.repeatThreshold);
+        if (!repeatedStatements.isEmpty()) {
+            this.repeated.increment();
+            repeatedStatements.forEach((statement, executions) -> log
+                    .warn("Posible N+1 en {}: {} ejecuciones de {}", target, executions, statement));
+        }
+    }
+}
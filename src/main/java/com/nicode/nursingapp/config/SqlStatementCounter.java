@@ -0,0 +1,114 @@
+package com.nicode.nursingapp.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual.
+ *
+ * El conteo se activa abriendo un ámbito con {@link #open()}; fuera de un
+ * ámbito las sentencias no se registran. Los ámbitos pueden anidarse: cada
+ * sentencia se suma al ámbito actual y a todos los que lo contienen, de modo
+ * que una prueba puede abrir su propio ámbito alrededor de una solicitud de
+ * MockMvc (que abre el suyo en {@link SqlStatementBudgetFilter}) y verificar
+ * cuántas sentencias ejecutó el endpoint:
+ *
+ * <pre>
+ * try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+ *     mockMvc.perform(get("/controls/all/{patientId}", patientId));
+ *     assertThat(sql.count()).isEqualTo(1);
+ * }
+ * </pre>
+ *
+ * Solo se cuentan las sentencias que pasan por Hibernate (consultas JPQL,
+ * nativas y cargas de entidades y colecciones), no las de JdbcTemplate. Un
+ * lote JDBC cuenta como una sentencia.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    /**
+     * Abre un ámbito de conteo en el hilo actual.
+     *
+     * @return Ámbito abierto, que debe cerrarse en el mismo hilo.
+     */
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Registra una sentencia en los ámbitos abiertos del hilo actual.
+     *
+     * @param sql Sentencia SQL preparada.
+     */
+    static void record(String sql) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.count++;
+            scope.statements.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Sentencias contadas desde la apertura de un ámbito.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private final Map<String, Integer> statements = new LinkedHashMap<>();
+        private int count;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * @return Cantidad de sentencias ejecutadas.
+         */
+        public int count() {
+            return this.count;
+        }
+
+        /**
+         * @return Cantidad de ejecuciones de cada sentencia distinta, en orden
+         *         de primera ejecución.
+         */
+        public Map<String, Integer> statements() {
+            return Collections.unmodifiableMap(this.statements);
+        }
+
+        /**
+         * Obtiene las sentencias idénticas ejecutadas varias veces, típicas de
+         * una carga N+1 de asociaciones.
+         *
+         * @param threshold Cantidad mínima de ejecuciones.
+         * @return Sentencias ejecutadas al menos threshold veces y su cantidad.
+         */
+        public Map<String, Integer> repeated(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            this.statements.forEach((sql, executions) -> {
+                if (executions >= threshold) {
+                    repeated.put(sql, executions);
+                }
+            });
+            return repeated;
+        }
+
+        /**
+         * Cierra el ámbito y restablece el que lo contenía.
+         */
+        @Override
+        public void close() {
+            if (this.parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(this.parent);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.nicode.nursingapp.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.nicode.nursingapp.entities.VitalSigns;
+
+/**
+ * Migración única de los signos vitales guardados como texto (`blood_pressure`
+ * VARCHAR(10), `heart_rate` y `respiratory_rate` VARCHAR(5)) a las columnas
+ * numéricas de NursingControlEntity.
+ *
+ * Recorre la tabla por identificador en lotes de `batch-size` filas, cada uno
+ * en su propia transacción y con un UPDATE en lote JDBC, por lo que no carga
+ * entidades ni mantiene bloqueos largos. Cada fila convertida deja sus columnas
+ * de texto en null, de modo que la migración puede interrumpirse y volver a
+ * ejecutarse; los valores que no pueden interpretarse se conservan como texto y
+ * se informan en el log para corregirlos a mano.
+ *
+ * Se habilita con `controls.vitals-migration.enabled=true`. Una vez que el log
+ * informa que no quedan filas pendientes, las columnas de texto pueden
+ * eliminarse con `ALTER TABLE nursing_controls DROP COLUMN ...`.
+ */
+@Component
+public class VitalSignsMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(VitalSignsMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    /**
+     * Constructor que inicializa las dependencias de la migración.
+     *
+     * @param jdbcTemplate       Acceso JDBC a la base de datos.
+     * @param transactionManager Administrador de transacciones para cada lote.
+     * @param enabled            Indica si la migración debe ejecutarse al
+     *                           iniciar.
+     * @param batchSize          Cantidad de filas por lote.
+     */
+    public VitalSignsMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${controls.vitals-migration.enabled:false}") boolean enabled,
+            @Value("${controls.vitals-migration.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Ejecuta la migración en segundo plano al iniciar la aplicación, si está
+     * habilitada.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (this.enabled) {
+            Thread worker = new Thread(this::migrate, "vitals-migration");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Convierte todas las filas pendientes.
+     *
+     * @return Cantidad de filas convertidas, o -1 si la tabla ya no tiene las
+     *         columnas de texto.
+     */
+    public long migrate() {
+        long start = System.currentTimeMillis();
+        long lastId = 0;
+        long migrated = 0;
+        long unparsed = 0;
+
+        try {
+            while (true) {
+                List<LegacyRow> rows = this.jdbcTemplate.query(
+                        "SELECT nursing_control_id, blood_pressure, heart_rate, respiratory_rate "
+                                + "FROM nursing_controls WHERE nursing_control_id > ? AND (blood_pressure IS NOT NULL "
+                                + "OR heart_rate IS NOT NULL OR respiratory_rate IS NOT NULL) "
+                                + "ORDER BY nursing_control_id LIMIT ?",
+                        (rs, rowNum) -> new LegacyRow(rs.getLong(1), rs.getString(2), rs.getString(3),
+                                rs.getString(4)),
+                        lastId, this.batchSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                lastId = rows.get(rows.size() - 1).id();
+
+                List<Object[]> updates = new ArrayList<>(rows.size());
+                for (LegacyRow row : rows) {
+                    Object[] update = convert(row);
+                    if (update == null) {
+                        unparsed++;
+                        log.warn("Signos vitales no convertibles en el control {}: PA='{}', FC='{}', FR='{}'",
+                                row.id(), row.bloodPressure(), row.heartRate(), row.respiratoryRate());
+                    } else {
+                        updates.add(update);
+                    }
+                }
+
+                this.transactionTemplate.executeWithoutResult(status -> this.jdbcTemplate.batchUpdate(
+                        "UPDATE nursing_controls SET systolic = ?, diastolic = ?, heart_rate_bpm = ?, "
+                                + "respiratory_rate_rpm = ?, blood_pressure = NULL, heart_rate = NULL, "
+                                + "respiratory_rate = NULL WHERE nursing_control_id = ?",
+                        updates));
+                migrated += updates.size();
+            }
+        } catch (BadSqlGrammarException e) {
+            log.info("La tabla de controles no tiene columnas de signos vitales en texto, no hay nada que migrar");
+            return -1;
+        }
+
+        log.info("Migración de signos vitales terminada: {} controles convertidos, {} sin convertir, en {} ms",
+                migrated, unparsed, System.currentTimeMillis() - start);
+        return migrated;
+    }
+
+    /**
+     * Convierte una fila; un valor vacío se migra como null, pero si algún valor
+     * no puede interpretarse la fila se deja sin modificar.
+     *
+     * @return Parámetros del UPDATE, o null si la fila no puede convertirse.
+     */
+    private static Object[] convert(LegacyRow row) {
+        int[] bloodPressure = VitalSigns.parseBloodPressure(row.bloodPressure());
+        Integer heartRate = VitalSigns.parseRate(row.heartRate());
+        Integer respiratoryRate = VitalSigns.parseRate(row.respiratoryRate());
+
+        if ((bloodPressure == null && !isBlank(row.bloodPressure()))
+                || (heartRate == null && !isBlank(row.heartRate()))
+                || (respiratoryRate == null && !isBlank(row.respiratoryRate()))) {
+            return null;
+        }
+        return new Object[] { bloodPressure == null ? null : bloodPressure[0],
+                bloodPressure == null ? null : bloodPressure[1], heartRate, respiratoryRate, row.id() };
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
+    }
+
+    private record LegacyRow(long id, String bloodPressure, String heartRate, String respiratoryRate) {
+    }
+}
@@ -1,16 +1,19 @@
 package com.nicode.nursingapp.controllers;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -20,11 +23,25 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.RollupGranularity;
+import com.nicode.nursingapp.entities.VitalSign;
+import com.nicode.nursingapp.entities.VitalSignRollupEntity;
+import com.nicode.nursingapp.entities.dto.CompactionReportDto;
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
 import com.nicode.nursingapp.entities.dto.DateRquestDto;
+import com.nicode.nursingapp.entities.dto.KeysetPageDto;
+import com.nicode.nursingapp.entities.dto.NursingControlDto;
+import com.nicode.nursingapp.entities.dto.ObservationHitDto;
+import com.nicode.nursingapp.entities.dto.VitalSignChartDto;
+import com.nicode.nursingapp.entities.dto.VitalSignsSummaryDto;
 import com.nicode.nursingapp.exceptions.AlreadyExistsException;
 import com.nicode.nursingapp.exceptions.NotFoundException;
+import com.nicode.nursingapp.services.ControlCompactionService;
+import com.nicode.nursingapp.services.ControlIngestionQueue;
 import com.nicode.nursingapp.services.NursingControlService;
+import com.nicode.nursingapp.services.PatientArchiveService;
 import com.nicode.nursingapp.services.PatientService;
+import com.nicode.nursingapp.services.VitalSignRollupService;
 
 /**
  * Controlador que maneja las operaciones relacionadas con los controles de
@@ -36,16 +53,33 @@ import com.nicode.nursingapp.services.PatientService;
 public class NursingControlController {
 
     private final NursingControlService nursingControlService;
+    private final ControlIngestionQueue ingestionQueue;
+    private final VitalSignRollupService rollupService;
+    private final PatientArchiveService archiveService;
+    private final ControlCompactionService compactionService;
 
     /**
      * Constructor que inicializa las dependencias del controlador.
      *
      * @param nursingControlService Servicio para operaciones relacionadas con los
      *                              controles de enfermería.
+     * @param ingestionQueue        Cola de ingesta asíncrona de lecturas.
+     * @param rollupService         Servicio de resúmenes horarios y diarios de
+     *                              signos vitales.
+     * @param archiveService        Servicio de archivo de pacientes dados de
+     *                              alta.
+     * @param compactionService     Servicio de compactación de los controles
+     *                              antiguos.
      */
     @Autowired
-    public NursingControlController(NursingControlService nursingControlService) {
+    public NursingControlController(NursingControlService nursingControlService,
+            ControlIngestionQueue ingestionQueue, VitalSignRollupService rollupService,
+            PatientArchiveService archiveService, ControlCompactionService compactionService) {
         this.nursingControlService = nursingControlService;
+        this.ingestionQueue = ingestionQueue;
+        this.rollupService = rollupService;
+        this.archiveService = archiveService;
+        this.compactionService = compactionService;
     }
 
     /**
@@ -58,7 +92,7 @@ public class NursingControlController {
     @GetMapping("/all/{patientId}")
     public ResponseEntity<?> getAll(@PathVariable Long patientId) {
         try {
-            List<NursingControlEntity> result = this.nursingControlService.getAll(patientId);
+            List<NursingControlDto> result = this.nursingControlService.getAll(patientId);
             return ResponseEntity.ok(result);
         } catch (NotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -68,22 +102,59 @@ public class NursingControlController {
     /**
      * Obtiene una página de controles de enfermería para un paciente.
      *
-     * @param page     Número de página.
-     * @param elements Cantidad de elementos por página.
-     * @param id       Identificador del paciente.
+     * @param page            Número de página.
+     * @param elements        Cantidad de elementos por página.
+     * @param id              Identificador del paciente.
+     * @param includeArchived Si es true y la Historia Clínica no tiene controles
+     *                        vigentes, se consultan sus controles archivados.
      * @return ResponseEntity con la página de controles de enfermería.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Page<NursingControlEntity>> getAllPaged(
+    public ResponseEntity<Page<?>> getAllPaged(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int elements,
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
 
         Page<NursingControlEntity> ctrls = this.nursingControlService.getAllPaged(page, elements, id);
 
+        // Una Historia Clínica archivada ya no tiene controles vigentes.
+        if (includeArchived && ctrls.getTotalElements() == 0) {
+            return ResponseEntity.ok(this.archiveService.getControlsPaged(page, elements, id));
+        }
         return ResponseEntity.ok(ctrls);
     }
 
+    /**
+     * Obtiene una página de controles de enfermería utilizando paginación por
+     * clave. La primera página se obtiene sin cursor; las siguientes usando el
+     * `nextCursor` o `previousCursor` de la respuesta anterior.
+     *
+     * @param id        Identificador del historial médico.
+     * @param cursor    Cursor opaco de la página anterior (opcional).
+     * @param direction Dirección de lectura desde el cursor: `next` o `previous`.
+     * @param elements  Cantidad de elementos por página.
+     * @return ResponseEntity con la página de controles o mensaje de error si el
+     *         cursor no es válido.
+     */
+    @GetMapping("/keyset/{id}")
+    public ResponseEntity<?> getKeysetPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "next") String direction,
+            @RequestParam(defaultValue = "10") int elements) {
+
+        try {
+            KeysetPageDto<NursingControlEntity> result = this.nursingControlService.getKeysetPage(
+                    id, cursor, !"previous".equalsIgnoreCase(direction), elements);
+
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Obtiene controles de enfermería en un rango de fechas descendente para un
      * paciente.
@@ -113,6 +184,194 @@ public class NursingControlController {
         }
     }
 
+    /**
+     * Obtiene los controles de todos los pacientes de las últimas horas con
+     * algún signo vital fuera de los umbrales indicados, por ejemplo
+     * `?hours=24&systolicAbove=160`.
+     *
+     * @param hours                Cantidad de horas hacia atrás.
+     * @param systolicAbove        Umbral de presión sistólica (opcional).
+     * @param heartRateAbove       Umbral de ritmo cardíaco (opcional).
+     * @param respiratoryRateAbove Umbral de ritmo respiratorio (opcional).
+     * @param spo2Below            Umbral de saturación de oxígeno (opcional).
+     * @param page                 Número de página.
+     * @param elements             Cantidad de elementos por página.
+     * @return ResponseEntity con la página de controles o mensaje de error si los
+     *         parámetros no son válidos.
+     */
+    @GetMapping("/vitals/abnormal")
+    public ResponseEntity<?> findAbnormalVitals(
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(required = false) Integer systolicAbove,
+            @RequestParam(required = false) Integer heartRateAbove,
+            @RequestParam(required = false) Integer respiratoryRateAbove,
+            @RequestParam(required = false) Integer spo2Below,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int elements) {
+
+        try {
+            Page<NursingControlEntity> result = this.nursingControlService.findAbnormalVitals(hours, systolicAbove,
+                    heartRateAbove, respiratoryRateAbove, spo2Below, page, elements);
+
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene el resumen (promedio, mínimo y máximo) de los signos vitales de un
+     * historial médico en un rango de fechas.
+     *
+     * @param historyId Identificador del historial médico.
+     * @param startDate Fecha de inicio del rango en formato ISO.
+     * @param endDate   Fecha de fin del rango en formato ISO.
+     * @return ResponseEntity con el resumen o mensaje de error si el rango no es
+     *         válido.
+     */
+    @GetMapping("/vitals/summary/{historyId}")
+    public ResponseEntity<?> getVitalSignsSummary(
+            @PathVariable Long historyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        try {
+            VitalSignsSummaryDto result = this.nursingControlService.getVitalSignsSummary(
+                    historyId, startDate, endDate);
+
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene las series de signos vitales de un historial médico en un rango de
+     * fechas para graficarlas, con a lo sumo `points` puntos por signo vital.
+     *
+     * @param historyId Identificador del historial médico.
+     * @param startDate Fecha de inicio del rango en formato ISO.
+     * @param endDate   Fecha de fin del rango en formato ISO.
+     * @param points    Cantidad máxima de puntos por signo vital.
+     * @param vital     Signo vital (opcional).
+     * @return ResponseEntity con las series o mensaje de error si los parámetros
+     *         no son válidos.
+     */
+    @GetMapping("/chart/{historyId}")
+    public ResponseEntity<?> getVitalSignsChart(
+            @PathVariable Long historyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "500") int points,
+            @RequestParam(required = false) VitalSign vital) {
+
+        try {
+            VitalSignChartDto result = this.nursingControlService.getVitalSignsChart(historyId, startDate, endDate,
+                    points, vital);
+
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene los resúmenes horarios o diarios (cantidad, promedio, mínimo y
+     * máximo) de los signos vitales de un historial médico, para graficar
+     * tendencias sin leer cada control.
+     *
+     * @param historyId   Identificador del historial médico.
+     * @param granularity Granularidad: HOUR o DAY.
+     * @param vital       Signo vital (opcional): TEMPERATURE, SYSTOLIC,
+     *                    DIASTOLIC, HEART_RATE, RESPIRATORY_RATE o SPO2.
+     * @param startDate   Fecha de inicio del rango en formato ISO.
+     * @param endDate     Fecha de fin del rango en formato ISO.
+     * @return ResponseEntity con los resúmenes o mensaje de error si el rango no
+     *         es válido.
+     */
+    @GetMapping("/rollups/{historyId}")
+    public ResponseEntity<?> getVitalSignRollups(
+            @PathVariable Long historyId,
+            @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+            @RequestParam(required = false) VitalSign vital,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        try {
+            List<VitalSignRollupEntity> result = this.rollupService.find(historyId, granularity, vital,
+                    startDate, endDate);
+
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruye los resúmenes de signos vitales de un historial médico a partir
+     * de sus controles.
+     *
+     * @param historyId Identificador del historial médico.
+     * @return ResponseEntity con la cantidad de controles resumidos.
+     */
+    @PostMapping("/rollups/{historyId}/rebuild")
+    public ResponseEntity<?> rebuildVitalSignRollups(@PathVariable Long historyId) {
+        int controls = this.rollupService.rebuild(historyId);
+        return ResponseEntity.ok("Se resumieron " + controls + " controles de enfermería.");
+    }
+
+    /**
+     * Compacta en bloques diarios los controles de enfermería más antiguos que
+     * los días configurados.
+     *
+     * @return ResponseEntity con el reporte de la compactación.
+     */
+    @PostMapping("/compaction/run")
+    public ResponseEntity<CompactionReportDto> compactOldControls() {
+        return ResponseEntity.ok(this.compactionService.compact());
+    }
+
+    /**
+     * Busca texto en las observaciones de los controles de enfermería y de las
+     * Historias Clínicas, por ejemplo "caída" o "dolor torácico", en todos los
+     * pacientes o en los de un servicio.
+     *
+     * @param q         Texto buscado.
+     * @param service   Servicio de los pacientes (opcional).
+     * @param startDate Fecha de inicio del rango en formato ISO (opcional).
+     * @param endDate   Fecha de fin del rango en formato ISO (opcional).
+     * @param page      Número de página.
+     * @param elements  Cantidad de elementos por página.
+     * @return ResponseEntity con la página de observaciones resaltadas, mensaje
+     *         de error si los parámetros no son válidos o estado 503 si el índice
+     *         todavía no está disponible.
+     */
+    @GetMapping("/observations/search")
+    public ResponseEntity<?> searchObservations(
+            @RequestParam String q,
+            @RequestParam(required = false) String service,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int elements) {
+
+        try {
+            Page<ObservationHitDto> result = this.nursingControlService.searchObservations(
+                    q, service, startDate, endDate, page, elements);
+
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
     /**
      * Obtiene un control de enfermería por su identificador.
      *
@@ -158,13 +417,85 @@ public class NursingControlController {
         }
     }
 
+    /**
+     * Guarda en un solo envío los controles de enfermería de una o varias
+     * Historias Clínicas. Si alguna Historia Clínica no existe no se guarda
+     * ningún control.
+     *
+     * @param controls Controles a guardar, cada uno con su Historia Clínica.
+     * @return ResponseEntity con el mensaje de éxito, o mensaje de error si la
+     *         carga no es válida o alguna Historia Clínica no existe.
+     */
+    @PostMapping("/save-all")
+    public ResponseEntity<Map<String, String>> saveAll(@RequestBody List<ControlBatchItemDto> controls) {
+
+        Map<String, String> response = new HashMap<>();
+
+        try {
+            String successMessage = this.nursingControlService.saveAll(controls);
+
+            response.put("message", successMessage);
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+
+            response.put("error", "Error: " + e.getMessage());
+
+            return ResponseEntity.badRequest().body(response);
+        } catch (NotFoundException e) {
+
+            response.put("error", "Error: " + e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    /**
+     * Acepta una lectura de un monitor de cabecera para guardarla de forma
+     * asíncrona, agrupada con otras lecturas en un mismo commit.
+     *
+     * @param historyId Identificador del historial médico.
+     * @param control   Control de enfermería a guardar.
+     * @return ResponseEntity con estado 202 si la lectura fue aceptada, 400 si no
+     *         es válida, 429 si la cola está llena (el emisor debe reintentar) o
+     *         503 si la aplicación se está deteniendo.
+     */
+    @PostMapping("/ingest/{historyId}")
+    public ResponseEntity<Map<String, String>> ingest(@PathVariable Long historyId,
+            @RequestBody NursingControlEntity control) {
+
+        Map<String, String> response = new HashMap<>();
+
+        try {
+            if (this.ingestionQueue.offer(control, historyId)) {
+                response.put("message", "Lectura aceptada.");
+
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            }
+
+            response.put("error", "Error: La cola de ingesta está llena, reintente en unos segundos.");
+
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1").body(response);
+        } catch (IllegalArgumentException e) {
+
+            response.put("error", "Error: " + e.getMessage());
+
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+
+            response.put("error", "Error: " + e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+    }
+
     /**
      * Actualiza un control de enfermería existente asociado a un historial médico.
      *
      * @param historyId Identificador del historial médico.
      * @param control   Control de enfermería a actualizar.
-     * @return ResponseEntity con el mensaje de éxito o mensaje de error si ya
-     *         existe.
+     * @return ResponseEntity con el mensaje de éxito o mensaje de error si no se
+     *         encuentra.
      */
     @PutMapping("/update/{historyId}")
     public ResponseEntity<Map<String, String>> update(@PathVariable Long historyId,
@@ -183,6 +514,38 @@ public class NursingControlController {
             response.put("error", "Error: " + e.getMessage());
 
             return ResponseEntity.badRequest().body(response);
+        } catch (NotFoundException e) {
+
+            response.put("error", "Error: " + e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    /**
+     * Actualiza parcialmente un control de enfermería: solo se modifican los
+     * datos enviados.
+     *
+     * @param id      Identificador del control de enfermería.
+     * @param changes Datos modificados del control de enfermería.
+     * @return ResponseEntity con el mensaje de éxito o mensaje de error si no se
+     *         encuentra.
+     */
+    @PatchMapping("/patch/{id}")
+    public ResponseEntity<Map<String, String>> patch(@PathVariable Long id,
+            @RequestBody NursingControlEntity changes) {
+
+        Map<String, String> response = new HashMap<>();
+
+        try {
+            response.put("message", this.nursingControlService.patch(id, changes));
+
+            return ResponseEntity.ok(response);
+        } catch (NotFoundException e) {
+
+            response.put("error", "Error: " + e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
     }
 
@@ -208,7 +571,7 @@ public class NursingControlController {
 
             response.put("error", "Error: " + e.getMessage());
 
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
     }
-}
\ No newline at end of file
+}
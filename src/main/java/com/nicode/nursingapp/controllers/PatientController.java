@@ -1,26 +1,42 @@
 package com.nicode.nursingapp.controllers;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.dto.ArchiveReportDto;
+import com.nicode.nursingapp.entities.dto.BedCensusDto;
+import com.nicode.nursingapp.entities.dto.IdNumberFilterReportDto;
+import com.nicode.nursingapp.entities.dto.SearchIndexReportDto;
+import com.nicode.nursingapp.entities.dto.WardPatientDto;
 import com.nicode.nursingapp.exceptions.AlreadyExistsException;
 import com.nicode.nursingapp.exceptions.NotFoundException;
+import com.nicode.nursingapp.services.PatientArchiveService;
+import com.nicode.nursingapp.services.PatientExportService;
+import com.nicode.nursingapp.services.PatientExportService.ExportFormat;
+import com.nicode.nursingapp.services.PatientImportService;
 import com.nicode.nursingapp.services.PatientService;
+import com.nicode.nursingapp.services.PatientService.CountMode;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PutMapping;
 
@@ -35,8 +51,21 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PatientExportService exportService;
+
+    @Autowired
+    private PatientImportService importService;
+
+    @Autowired
+    private PatientArchiveService archiveService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
-     * Obtiene todos los pacientes.
+     * Obtiene todos los pacientes. Carga la tabla completa en memoria; para
+     * exportar todos los pacientes utilizar /patients/export.
      *
      * @return ResponseEntity con la lista de pacientes.
      */
@@ -45,21 +74,63 @@ public class PatientController {
         return ResponseEntity.ok(patientService.getAll());
     }
 
+    /**
+     * Exporta todos los pacientes, sin su Historia Clínica, escribiéndolos en la
+     * respuesta a medida que se leen de la base de datos, con memoria constante.
+     *
+     * @param format Formato de exportación: `ndjson` (por defecto, un objeto JSON
+     *               por línea) o `csv`.
+     * @return ResponseEntity con los pacientes o mensaje de error si el formato
+     *         no es válido.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPatients(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            // El cuerpo también se escribe como StreamingResponseBody, porque el tipo
+            // de retorno determina cómo Spring procesa la respuesta.
+            Map<String, String> response = new HashMap<>();
+            response.put("fail", "Error: Formato de exportación no válido: " + format
+                    + ". Valores posibles: ndjson, csv.");
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(output -> objectMapper.writeValue(output, response));
+        }
+
+        StreamingResponseBody body = output -> exportService.export(exportFormat, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.mediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"patients." + exportFormat.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
     /**
      * Obtiene una página de pacientes.
      *
      * @param pageNumber       Número de página.
      * @param elementsQuantity Cantidad de elementos por página.
+     * @param countMode        Modo de conteo: `exact` (por defecto), `none` (solo
+     *                         indica si hay página siguiente) o `approximate`
+     *                         (total en caché).
      * @return ResponseEntity con la página de pacientes.
      */
     @GetMapping("/paged-patients")
-    public ResponseEntity<Page<PatientEntity>> getAllPatientsPaged(
+    public ResponseEntity<?> getAllPatientsPaged(
             @RequestParam(defaultValue = "0") int pageNumber,
-            @RequestParam(defaultValue = "10") int elementsQuantity) {
+            @RequestParam(defaultValue = "10") int elementsQuantity,
+            @RequestParam(defaultValue = "exact") String countMode) {
 
-        Page<PatientEntity> pagedPatients = patientService.getAllPaged(pageNumber, elementsQuantity);
+        try {
+            Slice<PatientEntity> pagedPatients = patientService.getAllPaged(pageNumber, elementsQuantity,
+                    parseCountMode(countMode));
 
-        return ResponseEntity.ok(pagedPatients);
+            return ResponseEntity.ok(pagedPatients);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     /**
@@ -68,35 +139,233 @@ public class PatientController {
      * @param keyword          Término de búsqueda.
      * @param pageNumber       Número de página.
      * @param elementsQuantity Cantidad de elementos por página.
+     * @param countMode        Modo de conteo: `exact` (por defecto), `none` (solo
+     *                         indica si hay página siguiente) o `approximate`
+     *                         (total en caché).
+     * @param fuzzy            Si es true, busca por nombre y apellido de forma
+     *                         aproximada (tolerante a acentos, errores de tipeo y
+     *                         variantes fonéticas) y ordena por relevancia.
      * @return ResponseEntity con la página de resultados de búsqueda.
      */
     @GetMapping("/search/{keyword}")
-    public ResponseEntity<Page<PatientEntity>> getPatientsBy(@PathVariable String keyword,
+    public ResponseEntity<?> getPatientsBy(@PathVariable String keyword,
             @RequestParam(defaultValue = "0") int pageNumber,
-            @RequestParam(defaultValue = "10") int elementsQuantity) {
+            @RequestParam(defaultValue = "10") int elementsQuantity,
+            @RequestParam(defaultValue = "exact") String countMode,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+
+        if (fuzzy) {
+            return ResponseEntity.ok(patientService.fuzzyFindBy(pageNumber, elementsQuantity, keyword));
+        }
+
+        try {
+            Slice<PatientEntity> pagedResults = patientService.findBy(pageNumber, elementsQuantity, keyword,
+                    parseCountMode(countMode));
+
+            return ResponseEntity.ok(pagedResults);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Verifica el índice de búsqueda en memoria contra la tabla de pacientes.
+     *
+     * @param repair Indica si se debe reconstruir el índice cuando no es
+     *               consistente.
+     * @return ResponseEntity con el reporte de consistencia del índice.
+     */
+    @GetMapping("/search-index/check")
+    public ResponseEntity<SearchIndexReportDto> checkSearchIndex(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(patientService.checkSearchIndex(repair));
+    }
+
+    /**
+     * Reconstruye el índice de búsqueda en memoria a partir de la tabla de
+     * pacientes.
+     *
+     * @return ResponseEntity con la cantidad de pacientes indexados.
+     */
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("indexed", patientService.rebuildSearchIndex());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Obtiene los pacientes internados con los signos vitales de su control de
+     * enfermería más reciente.
+     *
+     * @param service Servicio de los pacientes (opcional).
+     * @return ResponseEntity con los pacientes ordenados por habitación y cama.
+     */
+    @GetMapping("/ward")
+    public ResponseEntity<List<WardPatientDto>> getWard(@RequestParam(required = false) String service) {
+        return ResponseEntity.ok(patientService.getWard(service));
+    }
+
+    /**
+     * Obtiene el censo de camas (habitaciones, camas, ocupadas y libres) desde
+     * el índice en memoria.
+     *
+     * @param service Servicio (opcional); si no se indica, se informan todos.
+     * @return ResponseEntity con el censo o mensaje de error si el servicio no
+     *         tiene habitaciones conocidas.
+     */
+    @GetMapping("/census")
+    public ResponseEntity<?> getCensus(@RequestParam(required = false) String service) {
+        if (service == null || service.isBlank()) {
+            return ResponseEntity.ok(patientService.getCensus());
+        }
+        try {
+            BedCensusDto census = patientService.getCensus(service);
+            return ResponseEntity.ok(census);
+        } catch (NotFoundException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    /**
+     * Obtiene las camas libres de un servicio desde el índice en memoria.
+     *
+     * @param service Servicio.
+     * @return ResponseEntity con las camas libres ordenadas por habitación y cama
+     *         o mensaje de error si el servicio no tiene habitaciones conocidas.
+     */
+    @GetMapping("/free-beds")
+    public ResponseEntity<?> getFreeBeds(@RequestParam String service) {
+        try {
+            return ResponseEntity.ok(patientService.getFreeBeds(service));
+        } catch (NotFoundException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    /**
+     * Verifica el índice de ocupación de camas contra la tabla de pacientes.
+     *
+     * @param repair Indica si se debe reconstruir el índice cuando no es
+     *               consistente.
+     * @return ResponseEntity con el reporte de consistencia del índice.
+     */
+    @GetMapping("/bed-occupancy/check")
+    public ResponseEntity<SearchIndexReportDto> checkBedOccupancy(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(patientService.checkBedOccupancy(repair));
+    }
+
+    /**
+     * Verifica si un número de identificación está registrado.
+     *
+     * @param idNumber Número de identificación.
+     * @return ResponseEntity con el DNI y si está registrado.
+     */
+    @GetMapping("/registered/{idNumber}")
+    public ResponseEntity<Map<String, Object>> isRegistered(@PathVariable String idNumber) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("idNumber", idNumber);
+        response.put("registered", patientService.isRegistered(idNumber));
+        return ResponseEntity.ok(response);
+    }
 
-        Page<PatientEntity> pagedResults = patientService.findBy(pageNumber, elementsQuantity, keyword);
+    /**
+     * Obtiene el estado del filtro en memoria de números de identificación:
+     * memoria ocupada y tasas de falsos positivos.
+     *
+     * @return ResponseEntity con el reporte del filtro.
+     */
+    @GetMapping("/id-number-filter")
+    public ResponseEntity<IdNumberFilterReportDto> getIdNumberFilterReport() {
+        return ResponseEntity.ok(patientService.idNumberFilterReport());
+    }
+
+    /**
+     * Reconstruye el filtro en memoria de números de identificación.
+     *
+     * @return ResponseEntity con la cantidad de DNI agregados al filtro.
+     */
+    @PostMapping("/id-number-filter/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildIdNumberFilter() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("idNumbers", patientService.rebuildIdNumberFilter());
+        return ResponseEntity.ok(response);
+    }
 
-        return ResponseEntity.ok(pagedResults);
+    /**
+     * Convierte el parámetro de modo de conteo en su valor correspondiente.
+     *
+     * @param countMode Valor recibido en la solicitud.
+     * @return Modo de conteo.
+     * @throws IllegalArgumentException Si el modo no es válido.
+     */
+    private static CountMode parseCountMode(String countMode) {
+        try {
+            return CountMode.valueOf(countMode.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Modo de conteo no válido: " + countMode
+                    + ". Valores posibles: exact, none, approximate.");
+        }
     }
 
     /**
      * Obtiene un paciente por su identificador.
      *
-     * @param id Identificador del paciente.
+     * @param id              Identificador del paciente.
+     * @param includeArchived Si es true y el paciente no está en la tabla
+     *                        vigente, se lo busca en el archivo.
      * @return ResponseEntity con el paciente o mensaje de error si no se encuentra.
      */
     @GetMapping("/patient/{id}")
-    public ResponseEntity<?> getById(@PathVariable Long id) {
+    public ResponseEntity<?> getById(@PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
             PatientEntity patient = patientService.findById(id);
             return ResponseEntity.ok(patient);
 
         } catch (NotFoundException e) {
+            if (includeArchived) {
+                try {
+                    return ResponseEntity.ok(archiveService.findById(id));
+                } catch (NotFoundException archived) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+                }
+            }
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         }
     }
 
+    /**
+     * Busca pacientes archivados por nombre, apellido, servicio o DNI.
+     *
+     * @param keyword          Palabra clave.
+     * @param pageNumber       Número de página.
+     * @param elementsQuantity Cantidad de elementos por página.
+     * @return ResponseEntity con la página de pacientes archivados.
+     */
+    @GetMapping("/archive/search/{keyword}")
+    public ResponseEntity<?> getArchivedPatientsBy(@PathVariable String keyword,
+            @RequestParam(defaultValue = "0") int pageNumber,
+            @RequestParam(defaultValue = "10") int elementsQuantity) {
+        return ResponseEntity.ok(archiveService.findBy(pageNumber, elementsQuantity, keyword));
+    }
+
+    /**
+     * Traslada al archivo los pacientes dados de alta hace más de los días de
+     * retención configurados, con sus Historias Clínicas y controles.
+     *
+     * @return ResponseEntity con el reporte del archivo.
+     */
+    @PostMapping("/archive/run")
+    public ResponseEntity<ArchiveReportDto> archiveDischargedPatients() {
+        return ResponseEntity.ok(archiveService.archive());
+    }
+
     /**
      * Guarda un nuevo paciente.
      *
@@ -117,13 +386,54 @@ public class PatientController {
         }
     }
 
+    /**
+     * Registra un conjunto de pacientes en una sola transacción.
+     *
+     * @param patients Pacientes a registrar.
+     * @return ResponseEntity con los pacientes registrados o mensaje de error si
+     *         la carga es inválida o algún paciente ya existe.
+     */
+    @PostMapping("/save-all")
+    public ResponseEntity<Map<String, Object>> savePatients(@RequestBody List<PatientEntity> patients) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            return ResponseEntity.ok(patientService.saveAll(patients));
+        } catch (IllegalArgumentException | AlreadyExistsException e) {
+            response.put("fail", "Error: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Importa pacientes desde un archivo CSV enviado como cuerpo de la solicitud
+     * (por ejemplo, `curl --data-binary @pacientes.csv -H "Content-Type:
+     * text/csv"`). Las filas inválidas o con DNI repetido se informan en el
+     * reporte sin interrumpir la importación.
+     *
+     * @param csv Contenido del archivo, con encabezado.
+     * @return ResponseEntity con el reporte de la importación o mensaje de error
+     *         si el encabezado no es válido.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importPatients(InputStream csv) {
+        try {
+            return ResponseEntity.ok(importService.importCsv(csv));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("fail", "Error: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * Actualiza la información de un paciente existente.
      *
      * @param id      Identificador del paciente a actualizar.
      * @param patient Paciente con la información actualizada.
-     * @return ResponseEntity con el mensaje de éxito o mensaje de error si ya
-     *         existe.
+     * @return ResponseEntity con el mensaje de éxito o mensaje de error si no se
+     *         encuentra o ya existe.
      */
     @PutMapping("/update/{id}")
     public ResponseEntity<Map<String, String>> updatePatient(@PathVariable Long id,
@@ -132,12 +442,39 @@ public class PatientController {
         Map<String, String> response = new HashMap<>();
 
         try {
+            patient.setId(id);
             String successMessage = patientService.update(patient);
             response.put("success", successMessage);
             return ResponseEntity.ok(response);
         } catch (AlreadyExistsException e) {
             response.put("fail", "Error: " + e.getMessage());
             return ResponseEntity.badRequest().body(response);
+        } catch (NotFoundException e) {
+            response.put("error", "Error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    /**
+     * Actualiza parcialmente un paciente: solo se modifican los datos enviados.
+     *
+     * @param id      Identificador del paciente a actualizar.
+     * @param changes Datos modificados del paciente.
+     * @return ResponseEntity con el mensaje de éxito o mensaje de error si no se
+     *         encuentra.
+     */
+    @PatchMapping("/patch/{id}")
+    public ResponseEntity<Map<String, String>> patchPatient(@PathVariable Long id,
+            @RequestBody PatientEntity changes) {
+
+        Map<String, String> response = new HashMap<>();
+
+        try {
+            response.put("success", patientService.patch(id, changes));
+            return ResponseEntity.ok(response);
+        } catch (NotFoundException e) {
+            response.put("error", "Error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
     }
 
@@ -159,7 +496,7 @@ public class PatientController {
             return ResponseEntity.ok(response);
         } catch (NotFoundException e) {
             response.put("error", "Error: " + e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
     }
 }
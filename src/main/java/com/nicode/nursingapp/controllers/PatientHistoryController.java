@@ -10,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -18,6 +19,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.dto.PatientHistoryDto;
 import com.nicode.nursingapp.exceptions.AlreadyExistsException;
 import com.nicode.nursingapp.exceptions.NotFoundException;
 import com.nicode.nursingapp.services.PatientHistoryService;
@@ -58,14 +60,25 @@ public class PatientHistoryController {
 
     /**
      * Obtiene la historia clínica de un paciente por su identificador.
+     * Por defecto devuelve solo la cabecera; con `latestControls` se embeben los
+     * últimos controles de enfermería (como máximo
+     * {@link PatientHistoryService#MAX_EMBEDDED_CONTROLS}).
      *
-     * @param id Identificador del paciente.
+     * @param id             Identificador del paciente.
+     * @param latestControls Cantidad de controles recientes a embeber.
      * @return ResponseEntity con la historia clínica del paciente o mensaje de
      *         error si no se encuentra.
      */
     @GetMapping("/history-patient-id/{id}")
-    public ResponseEntity<?> getByPatientId(@PathVariable Long id) {
+    public ResponseEntity<?> getByPatientId(@PathVariable Long id,
+            @RequestParam(defaultValue = "0") int latestControls) {
         try {
+            if (latestControls > 0) {
+                PatientHistoryDto result = this.patientHistoryService.findByPatientId(id, latestControls);
+
+                return ResponseEntity.ok(result);
+            }
+
             PatientHistoryEntity result = this.patientHistoryService.findByPatientId(id);
 
             return ResponseEntity.ok(result);
@@ -77,6 +90,30 @@ public class PatientHistoryController {
         }
     }
 
+    /**
+     * Obtiene la cabecera de una historia clínica junto con sus últimos controles
+     * de enfermería.
+     *
+     * @param id             Identificador de la historia clínica.
+     * @param latestControls Cantidad de controles recientes a embeber.
+     * @return ResponseEntity con la historia clínica o mensaje de error si no se
+     *         encuentra.
+     */
+    @GetMapping("/history-id/{id}/latest-controls")
+    public ResponseEntity<?> getByHistoryIdWithLatestControls(@PathVariable Long id,
+            @RequestParam(defaultValue = "10") int latestControls) {
+        try {
+            PatientHistoryDto result = this.patientHistoryService.findById(id, latestControls);
+
+            return ResponseEntity.ok(result);
+
+        } catch (NotFoundException e) {
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+
+        }
+    }
+
     /**
      * Guarda una nueva historia clínica asociada a un paciente.
      *
@@ -110,7 +147,7 @@ public class PatientHistoryController {
      * Actualiza la información de una historia clínica existente.
      *
      * @param history Historia clínica con la información actualizada.
-     * @param id      Identificador de la historia clínica a actualizar.
+     * @param id      Identificador del paciente de la historia clínica.
      * @return ResponseEntity con el mensaje de éxito o mensaje de error si no se
      *         encuentra.
      */
@@ -131,7 +168,35 @@ public class PatientHistoryController {
 
             response.put("error", "Error: " + e.getMessage());
 
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    /**
+     * Actualiza parcialmente una historia clínica: solo se modifican los datos
+     * enviados.
+     *
+     * @param changes Datos modificados de la historia clínica.
+     * @param id      Identificador del paciente de la historia clínica.
+     * @return ResponseEntity con el mensaje de éxito o mensaje de error si no se
+     *         encuentra.
+     */
+    @PatchMapping("/patch/{id}")
+    public ResponseEntity<Map<String, String>> patch(@RequestBody PatientHistoryEntity changes,
+            @PathVariable Long id) {
+
+        Map<String, String> response = new HashMap<>();
+
+        try {
+            response.put("message", this.patientHistoryService.patch(changes, id));
+
+            return ResponseEntity.ok(response);
+
+        } catch (NotFoundException e) {
+
+            response.put("error", "Error: " + e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
     }
 
@@ -158,7 +223,7 @@ public class PatientHistoryController {
 
             response.put("error", e.getMessage());
 
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.nicode.nursingapp.entities;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Control de enfermería de un paciente archivado, con las mismas columnas e
+ * identificador que en `nursing_controls`. Se serializa igual que
+ * NursingControlEntity. Es de solo lectura.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor
+@Table(name = "nursing_controls_archive", indexes = @Index(name = "idx_controls_archive_history_date_id",
+        columnList = "patient_history_id, controlDate, nursing_control_id"))
+public class ArchivedNursingControlEntity {
+
+    @Id
+    @Column(name = "nursing_control_id")
+    private Long id;
+
+    @Column(columnDefinition = "Decimal(4,2)")
+    private Double temperature;
+
+    @Column(name = "systolic")
+    private Integer systolic;
+
+    @Column(name = "diastolic")
+    private Integer diastolic;
+
+    @Column(name = "heart_rate_bpm")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Integer heartRate;
+
+    @Column(name = "respiratory_rate_rpm")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Integer respiratoryRate;
+
+    @Column(name = "spo2")
+    private Integer spo2;
+
+    @Column(length = 250)
+    private String observations;
+
+    @Column(columnDefinition = "TIMESTAMP")
+    @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime controlDate;
+
+    /**
+     * Identificador de la Historia Clínica archivada.
+     */
+    @Column(name = "patient_history_id")
+    @JsonIgnore
+    private Long historyId;
+
+    /**
+     * Presión arterial en el formato histórico "sistólica/diastólica".
+     *
+     * @return La presión arterial, o null si no fue registrada.
+     */
+    public String getBloodPressure() {
+        return VitalSigns.formatBloodPressure(this.systolic, this.diastolic);
+    }
+}
@@ -0,0 +1,91 @@
+package com.nicode.nursingapp.entities;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.fasterxml.jackson.annotation.JsonManagedReference;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Paciente dado de alta que se trasladó a la tabla de archivo. Tiene las mismas
+ * columnas e identificador que en `patients`, más la fecha en que se archivó.
+ *
+ * Es de solo lectura: las filas las escribe PatientArchiveService con INSERT
+ * ... SELECT desde la tabla de pacientes. El DNI no es único, porque un
+ * paciente archivado puede volver a internarse y archivarse de nuevo.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor
+@Table(name = "patients_archive", indexes = @Index(name = "idx_patients_archive_id_number",
+        columnList = "idNumber"))
+public class ArchivedPatientEntity {
+
+    @Id
+    private Long id;
+
+    @Column(length = 75, nullable = false)
+    private String firstName;
+
+    @Column(length = 75, nullable = false)
+    private String lastName;
+
+    @Column(length = 20, nullable = false)
+    private String idNumber;
+
+    @Column(length = 20, nullable = false)
+    private String phoneNumber;
+
+    @Column(nullable = false, columnDefinition = "DATE")
+    @DateTimeFormat(pattern = "dd-MM-yyyy")
+    private LocalDate dateOfBirth;
+
+    @Column(length = 75)
+    private String email;
+
+    @Column(length = 150)
+    private String address;
+
+    @Column(nullable = false, columnDefinition = "DATE")
+    @DateTimeFormat(pattern = "dd-MM-yyyy")
+    private LocalDate admissionDate;
+
+    @Column(nullable = false, length = 10)
+    private Integer room;
+
+    @Column(nullable = false, length = 10)
+    private Integer bed;
+
+    @Column(nullable = false, length = 35)
+    private String service;
+
+    @Column(columnDefinition = "DATE")
+    @DateTimeFormat(pattern = "dd-MM-yyyy")
+    private LocalDate medicalDischargeDate;
+
+    /**
+     * Fecha y hora en que el paciente se trasladó al archivo.
+     */
+    @Column(name = "archived_at", nullable = false, columnDefinition = "TIMESTAMP")
+    private LocalDateTime archivedAt;
+
+    /**
+     * Historia Clínica archivada junto con el paciente.
+     */
+    @OneToOne(mappedBy = "patient", fetch = FetchType.LAZY)
+    @JsonManagedReference
+    private ArchivedPatientHistoryEntity patientHistory;
+}
@@ -0,0 +1,58 @@
+package com.nicode.nursingapp.entities;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import com.fasterxml.jackson.annotation.JsonBackReference;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Historia Clínica de un paciente archivado, con las mismas columnas e
+ * identificador que en `patients_histories`. La copia del control más
+ * reciente no se archiva. Es de solo lectura.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor
+@Table(name = "patients_histories_archive")
+public class ArchivedPatientHistoryEntity {
+
+    @Id
+    @Column(name = "patient_history_id")
+    private Long id;
+
+    @Column(length = 15)
+    private String sex;
+
+    @Column(columnDefinition = "Decimal(3,2)")
+    private Double height;
+
+    @Column(columnDefinition = "Decimal(5,2)")
+    private Double weight;
+
+    @Column(length = 5)
+    private String bloodType;
+
+    @Column(length = 250)
+    private String observations;
+
+    /**
+     * Paciente archivado al que pertenece la Historia Clínica.
+     */
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonBackReference
+    private ArchivedPatientEntity patient;
+}
@@ -0,0 +1,71 @@
+package com.nicode.nursingapp.entities;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Copia del control de enfermería más reciente de una Historia Clínica (el de
+ * mayor fecha y, a igual fecha, mayor identificador), con los signos vitales
+ * que muestra la vista de la sala.
+ *
+ * Las columnas son de solo lectura para Hibernate: las mantiene
+ * PatientHistoryRepositoryCustom con sentencias SQL condicionales en la misma
+ * transacción que modifica los controles. Una Historia Clínica en la caché de
+ * segundo nivel puede tener una copia desactualizada, por lo que se consultan
+ * mediante proyecciones.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+public class LatestVitals implements Serializable {
+
+    /**
+     * Identificador del control más reciente.
+     */
+    @Column(name = "latest_control_id", insertable = false, updatable = false)
+    private Long controlId;
+
+    /**
+     * Fecha y hora del control más reciente.
+     */
+    @Column(name = "latest_control_date", columnDefinition = "TIMESTAMP", insertable = false, updatable = false)
+    private LocalDateTime controlDate;
+
+    /**
+     * Temperatura registrada en el control más reciente.
+     */
+    @Column(name = "latest_temperature", columnDefinition = "Decimal(4,2)", insertable = false, updatable = false)
+    private Double temperature;
+
+    /**
+     * Presión arterial sistólica registrada en el control más reciente, en mmHg.
+     */
+    @Column(name = "latest_systolic", insertable = false, updatable = false)
+    private Integer systolic;
+
+    /**
+     * Presión arterial diastólica registrada en el control más reciente, en mmHg.
+     */
+    @Column(name = "latest_diastolic", insertable = false, updatable = false)
+    private Integer diastolic;
+
+    /**
+     * Ritmo cardíaco registrado en el control más reciente, en latidos por
+     * minuto.
+     */
+    @Column(name = "latest_heart_rate_bpm", insertable = false, updatable = false)
+    private Integer heartRate;
+
+    /**
+     * Saturación de oxígeno registrada en el control más reciente, en porcentaje.
+     */
+    @Column(name = "latest_spo2", insertable = false, updatable = false)
+    private Integer spo2;
+}
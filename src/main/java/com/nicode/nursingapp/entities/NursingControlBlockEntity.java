@@ -0,0 +1,94 @@
+package com.nicode.nursingapp.entities;
+
+import java.time.LocalDate;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Basic;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Controles de enfermería de un día de una Historia Clínica compactados en un
+ * único bloque binario (ver ControlBlockCodec).
+ *
+ * Los bloques se escriben por JDBC al compactar los controles antiguos, por lo
+ * que la entidad es de solo lectura.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Immutable
+@IdClass(NursingControlBlockId.class)
+@Table(name = "nursing_control_blocks", indexes = {
+        @Index(name = "idx_control_blocks_date", columnList = "block_date"),
+        @Index(name = "idx_control_blocks_control_ids", columnList = "last_control_id, first_control_id") })
+public class NursingControlBlockEntity {
+
+    /**
+     * Identificador de la Historia Clínica.
+     */
+    @Id
+    @Column(name = "history_id")
+    private Long historyId;
+
+    /**
+     * Día de los controles del bloque.
+     */
+    @Id
+    @Column(name = "block_date")
+    private LocalDate blockDate;
+
+    /**
+     * Cantidad de controles del bloque, para paginar sin decodificarlo.
+     */
+    @Column(name = "control_count", nullable = false)
+    private int controlCount;
+
+    /**
+     * Menor identificador de los controles del bloque. Junto con el mayor
+     * permite encontrar el bloque de un control por su identificador.
+     */
+    @Column(name = "first_control_id", nullable = false)
+    private long firstControlId;
+
+    /**
+     * Mayor identificador de los controles del bloque.
+     */
+    @Column(name = "last_control_id", nullable = false)
+    private long lastControlId;
+
+    /**
+     * Controles codificados. Se carga recién al leerlo, para que los bloques que
+     * una página saltea no se lean de la base de datos.
+     */
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(nullable = false)
+    @JsonIgnore
+    private byte[] payload;
+
+    /**
+     * Historia Clínica del bloque. Solo se mapea para que la base de datos
+     * elimine los bloques junto con la historia.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "history_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private PatientHistoryEntity patientHistory;
+}
@@ -0,0 +1,19 @@
+package com.nicode.nursingapp.entities;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clave compuesta de NursingControlBlockEntity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NursingControlBlockId implements Serializable {
+    private Long historyId;
+    private LocalDate blockDate;
+}
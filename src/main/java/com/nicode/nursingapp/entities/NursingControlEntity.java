@@ -6,18 +6,20 @@ import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 import org.springframework.format.annotation.DateTimeFormat;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -33,14 +35,40 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "nursing_controls")
+@Table(name = "nursing_controls", indexes = {
+        @Index(name = "idx_controls_history_date_id", columnList = "patient_history_id, controlDate, nursing_control_id"),
+        @Index(name = "idx_controls_date", columnList = "controlDate")
+})
 public class NursingControlEntity {
 
+    /**
+     * Tabla que guarda el próximo valor de los identificadores generados.
+     */
+    public static final String ID_GENERATOR_TABLE = "id_generators";
+
+    /**
+     * Fila de {@link #ID_GENERATOR_TABLE} correspondiente a los controles.
+     */
+    public static final String ID_GENERATOR_NAME = "nursing_controls";
+
+    /**
+     * Cantidad de identificadores que se reservan por cada acceso a la tabla
+     * generadora.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /**
      * Identificador único del control de enfermería.
+     * Se genera con una tabla y el optimizador "pooled" de Hibernate, que
+     * reserva {@link #ID_ALLOCATION_SIZE} identificadores por acceso: a
+     * diferencia de IDENTITY, el identificador se conoce antes del INSERT y los
+     * controles pueden insertarse en lotes JDBC.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "nursing_control_id_generator")
+    @TableGenerator(name = "nursing_control_id_generator", table = ID_GENERATOR_TABLE,
+            pkColumnName = "sequence_name", valueColumnName = "next_val", pkColumnValue = ID_GENERATOR_NAME,
+            allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "nursing_control_id")
     private Long id;
 
@@ -51,22 +79,38 @@ public class NursingControlEntity {
     private Double temperature;
 
     /**
-     * Presión arterial registrada durante el control.
+     * Presión arterial sistólica registrada durante el control, en mmHg.
      */
-    @Column(length = 10)
-    private String bloodPressure;
+    @Column(name = "systolic")
+    private Integer systolic;
 
     /**
-     * Ritmo cardíaco registrado durante el control.
+     * Presión arterial diastólica registrada durante el control, en mmHg.
      */
-    @Column(length = 5)
-    private String heartRate;
+    @Column(name = "diastolic")
+    private Integer diastolic;
 
     /**
-     * Ritmo respiratorio registrado durante el control.
+     * Ritmo cardíaco registrado durante el control, en latidos por minuto.
+     * Se serializa como texto, igual que la antigua columna VARCHAR.
      */
-    @Column(length = 5)
-    private String respiratoryRate;
+    @Column(name = "heart_rate_bpm")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Integer heartRate;
+
+    /**
+     * Ritmo respiratorio registrado durante el control, en respiraciones por
+     * minuto. Se serializa como texto, igual que la antigua columna VARCHAR.
+     */
+    @Column(name = "respiratory_rate_rpm")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Integer respiratoryRate;
+
+    /**
+     * Saturación de oxígeno registrada durante el control, en porcentaje.
+     */
+    @Column(name = "spo2")
+    private Integer spo2;
 
     /**
      * Observaciones adicionales hechas durante el control.
@@ -83,14 +127,45 @@ public class NursingControlEntity {
 
     /**
      * Entidad de historial de paciente asociada al control de enfermería.
-     * La anotación `@JsonBackReference` se utiliza para evitar ciclos infinitos
-     * al serializar a JSON, ya que la relación entre `NursingControlEntity` y
-     * `PatientHistoryEntity` es bidireccional. Indica que la propiedad
-     * `patientHistoryEntity` actúa como el extremo "atrás" de la relación.
+     * La anotación `@JsonIgnore` evita ciclos infinitos y cargas perezosas al
+     * serializar a JSON, ya que la relación entre `NursingControlEntity` y
+     * `PatientHistoryEntity` es bidireccional y la colección de controles del
+     * historial tampoco se serializa.
      */
-    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_history_id")
     @OnDelete(action = OnDeleteAction.CASCADE)
-    @JsonBackReference
+    @JsonIgnore
     private PatientHistoryEntity patientHistoryEntity;
+
+    /**
+     * Presión arterial en el formato histórico "sistólica/diastólica", derivada
+     * de las columnas numéricas. Se mantiene para no alterar el JSON.
+     *
+     * @return La presión arterial, o null si no fue registrada.
+     */
+    public String getBloodPressure() {
+        return VitalSigns.formatBloodPressure(this.systolic, this.diastolic);
+    }
+
+    /**
+     * Registra la presión arterial a partir del formato histórico
+     * "sistólica/diastólica".
+     *
+     * @param bloodPressure Presión arterial, por ejemplo "120/80".
+     * @throws IllegalArgumentException Si el texto no tiene el formato esperado.
+     */
+    public void setBloodPressure(String bloodPressure) {
+        if (bloodPressure == null || bloodPressure.isBlank()) {
+            this.systolic = null;
+            this.diastolic = null;
+            return;
+        }
+        int[] values = VitalSigns.parseBloodPressure(bloodPressure);
+        if (values == null) {
+            throw new IllegalArgumentException("La presión arterial debe tener el formato sistólica/diastólica.");
+        }
+        this.systolic = values[0];
+        this.diastolic = values[1];
+    }
 }
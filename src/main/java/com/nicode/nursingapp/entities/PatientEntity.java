@@ -2,18 +2,20 @@ package com.nicode.nursingapp.entities;
 
 import java.time.LocalDate;
 
-import org.hibernate.annotations.OnDelete;
-import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -27,9 +29,17 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "patients")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "patients")
+@Table(name = "patients", uniqueConstraints = @UniqueConstraint(name = PatientEntity.ID_NUMBER_CONSTRAINT,
+        columnNames = "idNumber"))
 public class PatientEntity extends PersonEntity {
 
+    /**
+     * Restricción de unicidad del número de identificación del paciente.
+     */
+    public static final String ID_NUMBER_CONSTRAINT = "uk_patients_id_number";
+
     /**
      * Fecha de ingreso del paciente al centro médico.
      */
@@ -73,7 +83,6 @@ public class PatientEntity extends PersonEntity {
      * serializar objetos relacionados.
      */
     @OneToOne(mappedBy = "patient", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
-    @OnDelete(action = OnDeleteAction.CASCADE)
     @JsonManagedReference
     private PatientHistoryEntity patientHistory;
 }
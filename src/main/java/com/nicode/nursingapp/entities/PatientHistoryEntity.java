@@ -2,11 +2,18 @@ package com.nicode.nursingapp.entities;
 
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -27,6 +34,8 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "patientHistories")
 @Table(name = "patients_histories")
 public class PatientHistoryEntity {
 
@@ -72,20 +81,33 @@ public class PatientHistoryEntity {
      * Relación uno a uno con la entidad de paciente.
      * Representa al paciente asociado a este historial médico.
      * Se utiliza @JsonBackReference para evitar ciclos infinitos durante la
-     * serialización.
+     * serialización. La clave foránea elimina la historia en cascada al
+     * eliminar el paciente.
      */
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
     @JsonBackReference
     private PatientEntity patient;
 
     /**
      * Relación uno a muchos con la entidad de controles de enfermería.
      * Representa los controles de enfermería asociados a este historial médico.
-     * Se utiliza @JsonManagedReference para evitar ciclos infinitos durante la
-     * serialización.
+     * Se carga de forma perezosa y no se serializa: un paciente de larga
+     * internación puede acumular decenas de miles de controles, por lo que la
+     * historia clínica se expone solo como "cabecera" y los controles se
+     * consultan paginados a través de NursingControlPagingAndSortingRepository.
      */
-    @OneToMany(mappedBy = "patientHistoryEntity", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
-    @JsonManagedReference
+    @OneToMany(mappedBy = "patientHistoryEntity", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    @JsonIgnore
     private List<NursingControlEntity> nursingControls;
+
+    /**
+     * Copia del control de enfermería más reciente, para listar los pacientes de
+     * una sala con sus últimos signos vitales sin consultar los controles. No se
+     * serializa; se expone a través de la vista de la sala.
+     */
+    @Embedded
+    @JsonIgnore
+    private LatestVitals latestVitals;
 }
\ No newline at end of file
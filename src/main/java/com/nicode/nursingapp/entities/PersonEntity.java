@@ -73,9 +73,11 @@ public abstract class PersonEntity implements java.io.Serializable {
     private String lastName;
 
     /**
-     * Número de identificación único y obligatorio.
+     * Número de identificación único y obligatorio. La restricción de unicidad
+     * se declara con nombre en la tabla de cada entidad, para reconocerla al
+     * registrar duplicados.
      */
-    @Column(length = 20, nullable = false, unique = true)
+    @Column(length = 20, nullable = false)
     private String idNumber;
 
     /**
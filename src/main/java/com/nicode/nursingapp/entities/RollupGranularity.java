@@ -0,0 +1,38 @@
+package com.nicode.nursingapp.entities;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Granularidad de los resúmenes de signos vitales: por hora o por día.
+ */
+public enum RollupGranularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Obtiene el inicio del intervalo que contiene a la fecha indicada.
+     *
+     * @param date Fecha de un control.
+     * @return Inicio del intervalo (hora o día).
+     */
+    public LocalDateTime bucketOf(LocalDateTime date) {
+        return date.truncatedTo(this.unit);
+    }
+
+    /**
+     * Obtiene el fin (exclusivo) del intervalo que empieza en la fecha indicada.
+     *
+     * @param bucketStart Inicio del intervalo.
+     * @return Inicio del intervalo siguiente.
+     */
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return bucketStart.plus(1, this.unit);
+    }
+}
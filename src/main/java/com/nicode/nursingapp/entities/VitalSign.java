@@ -0,0 +1,44 @@
+package com.nicode.nursingapp.entities;
+
+import java.util.function.Function;
+
+/**
+ * Signos vitales numéricos registrados en un control de enfermería, con la
+ * columna donde se guarda cada uno.
+ */
+public enum VitalSign {
+    TEMPERATURE("temperature", NursingControlEntity::getTemperature),
+    SYSTOLIC("systolic", NursingControlEntity::getSystolic),
+    DIASTOLIC("diastolic", NursingControlEntity::getDiastolic),
+    HEART_RATE("heart_rate_bpm", NursingControlEntity::getHeartRate),
+    RESPIRATORY_RATE("respiratory_rate_rpm", NursingControlEntity::getRespiratoryRate),
+    SPO2("spo2", NursingControlEntity::getSpo2);
+
+    private final String column;
+    private final Function<NursingControlEntity, Number> extractor;
+
+    VitalSign(String column, Function<NursingControlEntity, Number> extractor) {
+        this.column = column;
+        this.extractor = extractor;
+    }
+
+    /**
+     * Obtiene el nombre de la columna de la tabla `nursing_controls`.
+     *
+     * @return Nombre de la columna.
+     */
+    public String column() {
+        return this.column;
+    }
+
+    /**
+     * Obtiene el valor del signo vital en un control.
+     *
+     * @param control Control de enfermería.
+     * @return El valor, o null si no fue registrado.
+     */
+    public Double valueOf(NursingControlEntity control) {
+        Number value = this.extractor.apply(control);
+        return value == null ? null : value.doubleValue();
+    }
+}
@@ -0,0 +1,136 @@
+package com.nicode.nursingapp.entities;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Resumen de un signo vital de una Historia Clínica en un intervalo de una hora
+ * o un día: cantidad de mediciones, suma, mínimo y máximo.
+ *
+ * Se mantiene de forma incremental al guardar controles, por lo que las vistas
+ * de tendencia leen unas pocas filas por intervalo en lugar de todos los
+ * controles.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@IdClass(VitalSignRollupId.class)
+@Table(name = "vital_sign_rollups")
+public class VitalSignRollupEntity {
+
+    /**
+     * Identificador de la Historia Clínica.
+     */
+    @Id
+    @Column(name = "history_id")
+    private Long historyId;
+
+    /**
+     * Granularidad del intervalo.
+     */
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 5)
+    private RollupGranularity granularity;
+
+    /**
+     * Inicio del intervalo.
+     */
+    @Id
+    @Column(name = "bucket_start", columnDefinition = "TIMESTAMP")
+    private LocalDateTime bucketStart;
+
+    /**
+     * Signo vital resumido.
+     */
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private VitalSign vital;
+
+    /**
+     * Cantidad de mediciones del intervalo.
+     */
+    @Column(name = "sample_count", nullable = false)
+    private long sampleCount;
+
+    /**
+     * Suma de las mediciones del intervalo.
+     */
+    @Column(name = "value_sum", nullable = false)
+    private double valueSum;
+
+    /**
+     * Menor medición del intervalo.
+     */
+    @Column(name = "min_value")
+    private Double minValue;
+
+    /**
+     * Mayor medición del intervalo.
+     */
+    @Column(name = "max_value")
+    private Double maxValue;
+
+    /**
+     * Historia Clínica del resumen. Solo se mapea para que la base de datos
+     * elimine los resúmenes junto con la historia.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "history_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private PatientHistoryEntity patientHistory;
+
+    /**
+     * Constructor de un resumen vacío.
+     *
+     * @param id Clave del resumen.
+     */
+    public VitalSignRollupEntity(VitalSignRollupId id) {
+        this.historyId = id.getHistoryId();
+        this.granularity = id.getGranularity();
+        this.bucketStart = id.getBucketStart();
+        this.vital = id.getVital();
+    }
+
+    /**
+     * Agrega una medición al resumen.
+     *
+     * @param value Valor medido.
+     */
+    public void add(double value) {
+        this.sampleCount++;
+        this.valueSum += value;
+        this.minValue = this.minValue == null ? value : Math.min(this.minValue, value);
+        this.maxValue = this.maxValue == null ? value : Math.max(this.maxValue, value);
+    }
+
+    /**
+     * Obtiene el promedio de las mediciones del intervalo.
+     *
+     * @return El promedio, o null si no hay mediciones.
+     */
+    public Double getAverage() {
+        return this.sampleCount == 0 ? null : this.valueSum / this.sampleCount;
+    }
+}
@@ -0,0 +1,21 @@
+package com.nicode.nursingapp.entities;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clave compuesta de VitalSignRollupEntity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalSignRollupId implements Serializable {
+    private Long historyId;
+    private RollupGranularity granularity;
+    private LocalDateTime bucketStart;
+    private VitalSign vital;
+}
@@ -0,0 +1,61 @@
+package com.nicode.nursingapp.entities;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conversión entre el formato de texto histórico de los signos vitales
+ * ("120/80", "72 lpm") y sus valores numéricos.
+ */
+public final class VitalSigns {
+
+    private static final Pattern BLOOD_PRESSURE = Pattern.compile("^\\s*(\\d{2,3})\\s*[/-]\\s*(\\d{2,3})\\D*$");
+
+    private static final Pattern RATE = Pattern.compile("^\\s*(\\d{1,3})\\D*$");
+
+    private VitalSigns() {
+    }
+
+    /**
+     * Interpreta una presión arterial escrita como "sistólica/diastólica".
+     *
+     * @param text Texto a interpretar, por ejemplo "120/80" o "120-80 mmHg".
+     * @return Arreglo con la sistólica y la diastólica, o null si el texto está
+     *         vacío o no tiene el formato esperado.
+     */
+    public static int[] parseBloodPressure(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = BLOOD_PRESSURE.matcher(text);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new int[] { Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)) };
+    }
+
+    /**
+     * Interpreta una frecuencia (cardíaca o respiratoria) escrita como texto.
+     *
+     * @param text Texto a interpretar, por ejemplo "72" o "18 rpm".
+     * @return La frecuencia, o null si el texto está vacío o no es numérico.
+     */
+    public static Integer parseRate(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = RATE.matcher(text);
+        return matcher.matches() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+
+    /**
+     * Arma el texto "sistólica/diastólica" de una presión arterial.
+     *
+     * @param systolic  Presión sistólica.
+     * @param diastolic Presión diastólica.
+     * @return El texto, o null si falta alguno de los valores.
+     */
+    public static String formatBloodPressure(Integer systolic, Integer diastolic) {
+        return systolic == null || diastolic == null ? null : systolic + "/" + diastolic;
+    }
+}
@@ -0,0 +1,47 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de una ejecución del archivo de pacientes dados de
+ * alta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveReportDto {
+
+    /**
+     * Se archivaron los pacientes dados de alta antes de esta fecha.
+     */
+    private LocalDate dischargedBefore;
+
+    /**
+     * Cantidad de pacientes archivados.
+     */
+    private long patients;
+
+    /**
+     * Cantidad de Historias Clínicas archivadas.
+     */
+    private long histories;
+
+    /**
+     * Cantidad de controles de enfermería archivados.
+     */
+    private long controls;
+
+    /**
+     * Cantidad de bloques procesados, cada uno en su propia transacción.
+     */
+    private int chunks;
+
+    /**
+     * Duración total en milisegundos.
+     */
+    private long elapsedMillis;
+}
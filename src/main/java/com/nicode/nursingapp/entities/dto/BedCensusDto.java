@@ -0,0 +1,29 @@
+package com.nicode.nursingapp.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el censo de camas de un servicio: habitaciones y camas conocidas,
+ * camas ocupadas por pacientes internados y camas libres.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BedCensusDto {
+    private String service;
+    private int rooms;
+    private int beds;
+    private int occupied;
+    private int free;
+
+    /**
+     * Proporción de camas ocupadas, entre 0 y 1.
+     *
+     * @return La ocupación del servicio, o 0 si no tiene camas.
+     */
+    public double getOccupancyRate() {
+        return this.beds == 0 ? 0 : (double) this.occupied / this.beds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con la ubicación de un paciente (servicio, habitación y cama) y su fecha
+ * de alta, para el índice de ocupación de camas. Se obtiene mediante una
+ * proyección, sin cargar la entidad completa ni su Historia Clínica.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BedPlacementDto {
+    private Long id;
+    private String service;
+    private Integer room;
+    private Integer bed;
+    private LocalDate medicalDischargeDate;
+}
@@ -0,0 +1,26 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa un punto de la serie de un signo vital en un gráfico.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChartPointDto {
+
+    /**
+     * Fecha del control del que se tomó el valor.
+     */
+    private LocalDateTime date;
+
+    /**
+     * Valor medido.
+     */
+    private Double value;
+}
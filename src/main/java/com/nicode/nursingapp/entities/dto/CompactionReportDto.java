@@ -0,0 +1,63 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de una ejecución de la compactación de controles de
+ * enfermería antiguos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactionReportDto {
+
+    /**
+     * Se compactaron los controles anteriores a este día.
+     */
+    private LocalDate compactedBefore;
+
+    /**
+     * Cantidad de controles compactados.
+     */
+    private long controls;
+
+    /**
+     * Cantidad de bloques escritos, uno por Historia Clínica y día.
+     */
+    private long blocks;
+
+    /**
+     * Tamaño de los controles compactados como filas: el de sus columnas en
+     * MySQL, sin la sobrecarga por fila de InnoDB ni los índices, por lo que el
+     * ahorro real es mayor.
+     */
+    private long rowBytes;
+
+    /**
+     * Tamaño de los bloques escritos, con su clave.
+     */
+    private long blockBytes;
+
+    /**
+     * Cantidad de transacciones ejecutadas.
+     */
+    private int chunks;
+
+    /**
+     * Duración total en milisegundos.
+     */
+    private long elapsedMillis;
+
+    /**
+     * Obtiene los bytes ahorrados respecto de las filas.
+     *
+     * @return Diferencia entre el tamaño de las filas y el de los bloques.
+     */
+    public long getSavedBytes() {
+        return this.rowBytes - this.blockBytes;
+    }
+}
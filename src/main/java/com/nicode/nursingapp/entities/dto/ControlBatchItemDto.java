@@ -0,0 +1,27 @@
+package com.nicode.nursingapp.entities.dto;
+
+import com.nicode.nursingapp.entities.NursingControlEntity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa un control de enfermería dentro de una carga masiva,
+ * junto con la Historia Clínica a la que pertenece.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ControlBatchItemDto {
+
+    /**
+     * Identificador de la Historia Clínica del control.
+     */
+    private Long historyId;
+
+    /**
+     * Datos del control de enfermería.
+     */
+    private NursingControlEntity control;
+}
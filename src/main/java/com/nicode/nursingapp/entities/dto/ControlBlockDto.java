@@ -0,0 +1,21 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con un bloque de controles compactados y sus controles codificados. Se
+ * obtiene mediante una proyección, para leer varios bloques en una única
+ * consulta sin cargar las entidades.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ControlBlockDto {
+    private Long historyId;
+    private LocalDate blockDate;
+    private byte[] payload;
+}
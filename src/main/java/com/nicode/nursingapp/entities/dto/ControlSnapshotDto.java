@@ -0,0 +1,23 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los datos de un control de enfermería de los que dependen los
+ * resúmenes de signos vitales, el índice de observaciones y los últimos signos
+ * vitales de su Historia Clínica. Se obtiene antes
+ * de modificar o eliminar el control, mediante una proyección.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ControlSnapshotDto {
+    private Long historyId;
+    private LocalDateTime controlDate;
+    private String observations;
+    private boolean latest;
+}
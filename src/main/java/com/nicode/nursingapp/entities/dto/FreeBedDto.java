@@ -0,0 +1,16 @@
+package com.nicode.nursingapp.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con una cama libre de un servicio.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeBedDto {
+    private Integer room;
+    private Integer bed;
+}
@@ -0,0 +1,72 @@
+package com.nicode.nursingapp.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el estado del filtro en memoria de números de identificación:
+ * dimensiones, memoria ocupada y tasas de falsos positivos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdNumberFilterReportDto {
+
+    /**
+     * Indica si el filtro terminó su construcción inicial.
+     */
+    private boolean ready;
+
+    /**
+     * Cantidad de DNI para la que está dimensionado el filtro.
+     */
+    private long capacity;
+
+    /**
+     * Cantidad de DNI agregados desde la última reconstrucción. No cuenta los
+     * que el filtro ya señalaba como posibles, por lo que puede ser levemente
+     * menor que la cantidad de pacientes.
+     */
+    private long insertions;
+
+    /**
+     * Tamaño del filtro en bits.
+     */
+    private long bits;
+
+    /**
+     * Cantidad de funciones de hash por DNI.
+     */
+    private int hashFunctions;
+
+    /**
+     * Memoria ocupada por el filtro, en bytes.
+     */
+    private long memoryBytes;
+
+    /**
+     * Tasa de falsos positivos estimada según la ocupación de bits.
+     */
+    private double expectedFalsePositiveRate;
+
+    /**
+     * Verificaciones resueltas sin consultar la base de datos.
+     */
+    private long definiteMisses;
+
+    /**
+     * Verificaciones que requirieron confirmación en la base de datos.
+     */
+    private long probableHits;
+
+    /**
+     * Verificaciones señaladas por el filtro que la base de datos descartó.
+     */
+    private long falsePositives;
+
+    /**
+     * Tasa de falsos positivos observada sobre los DNI no registrados.
+     */
+    private double observedFalsePositiveRate;
+}
@@ -0,0 +1,29 @@
+package com.nicode.nursingapp.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el motivo por el que no se importó una fila de un archivo CSV.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowErrorDto {
+
+    /**
+     * Línea del archivo en la que empieza la fila.
+     */
+    private int line;
+
+    /**
+     * Número de identificación de la fila, si pudo leerse.
+     */
+    private String idNumber;
+
+    /**
+     * Motivo del rechazo.
+     */
+    private String message;
+}
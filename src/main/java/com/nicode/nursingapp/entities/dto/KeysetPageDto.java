@@ -0,0 +1,40 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa una página obtenida por clave (keyset/seek pagination).
+ * En lugar de número de página y total de elementos, expone cursores opacos
+ * para avanzar o retroceder, por lo que no requiere consulta de conteo.
+ *
+ * @param <T> Tipo de los elementos de la página.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageDto<T> {
+
+    /**
+     * Elementos de la página en orden ascendente.
+     */
+    private List<T> content;
+
+    /**
+     * Cantidad de elementos solicitados por página.
+     */
+    private int size;
+
+    /**
+     * Cursor para obtener la página siguiente, o null si no hay más elementos.
+     */
+    private String nextCursor;
+
+    /**
+     * Cursor para obtener la página anterior, o null si es la primera página.
+     */
+    private String previousCursor;
+}
@@ -0,0 +1,65 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.VitalSigns;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de solo lectura con los datos de un control de enfermería, proyectado
+ * directamente desde la consulta sin cargar la entidad ni su historia clínica.
+ * Se serializa con la misma forma que NursingControlEntity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NursingControlDto {
+
+    private Long id;
+    private Double temperature;
+    private Integer systolic;
+    private Integer diastolic;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Integer heartRate;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Integer respiratoryRate;
+
+    private Integer spo2;
+    private String observations;
+    private LocalDateTime controlDate;
+
+    /**
+     * Obtiene la presión arterial en el formato histórico "sistólica/diastólica".
+     *
+     * @return La presión arterial, o null si falta alguno de los valores.
+     */
+    public String getBloodPressure() {
+        return VitalSigns.formatBloodPressure(this.systolic, this.diastolic);
+    }
+
+    /**
+     * Convierte el control en una entidad transitoria, sin Historia Clínica.
+     *
+     * @return Entidad con los mismos datos.
+     */
+    public NursingControlEntity toEntity() {
+        NursingControlEntity entity = new NursingControlEntity();
+        entity.setId(this.id);
+        entity.setTemperature(this.temperature);
+        entity.setSystolic(this.systolic);
+        entity.setDiastolic(this.diastolic);
+        entity.setHeartRate(this.heartRate);
+        entity.setRespiratoryRate(this.respiratoryRate);
+        entity.setSpo2(this.spo2);
+        entity.setObservations(this.observations);
+        entity.setControlDate(this.controlDate);
+        return entity;
+    }
+}
@@ -0,0 +1,48 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa un resultado de la búsqueda de texto completo sobre las
+ * observaciones de controles de enfermería e Historias Clínicas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ObservationHitDto {
+
+    /**
+     * Origen de la observación.
+     */
+    private ObservationSource source;
+
+    /**
+     * Identificador del control o de la Historia Clínica, según el origen.
+     */
+    private Long id;
+
+    /**
+     * Identificador de la Historia Clínica a la que pertenece la observación.
+     */
+    private Long historyId;
+
+    /**
+     * Fecha del control, o null si la observación es de la Historia Clínica.
+     */
+    private LocalDateTime controlDate;
+
+    /**
+     * Texto original de las observaciones.
+     */
+    private String observations;
+
+    /**
+     * Texto de las observaciones escapado para HTML, con las palabras que
+     * coinciden con la búsqueda encerradas en `<mark>`.
+     */
+    private String highlight;
+}
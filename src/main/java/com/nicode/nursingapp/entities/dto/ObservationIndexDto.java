@@ -0,0 +1,53 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los campos de una observación que se indexan para la búsqueda de
+ * texto completo. Se obtiene mediante una proyección, sin cargar las entidades
+ * completas.
+ */
+@Data
+@NoArgsConstructor
+public class ObservationIndexDto {
+    private ObservationSource source;
+    private Long id;
+    private Long historyId;
+    private Long patientId;
+    private LocalDateTime controlDate;
+    private String observations;
+
+    /**
+     * Constructor para las observaciones de un control de enfermería.
+     *
+     * @param id           Identificador del control.
+     * @param historyId    Identificador de la Historia Clínica del control.
+     * @param controlDate  Fecha del control.
+     * @param observations Texto de las observaciones.
+     */
+    public ObservationIndexDto(Long id, Long historyId, LocalDateTime controlDate, String observations) {
+        this.source = ObservationSource.CONTROL;
+        this.id = id;
+        this.historyId = historyId;
+        this.controlDate = controlDate;
+        this.observations = observations;
+    }
+
+    /**
+     * Constructor para las observaciones de una Historia Clínica.
+     *
+     * @param historyId    Identificador de la Historia Clínica.
+     * @param patientId    Identificador del paciente.
+     * @param observations Texto de las observaciones.
+     */
+    public ObservationIndexDto(Long historyId, Long patientId, String observations) {
+        this.source = ObservationSource.HISTORY;
+        this.id = historyId;
+        this.historyId = historyId;
+        this.patientId = patientId;
+        this.observations = observations;
+    }
+}
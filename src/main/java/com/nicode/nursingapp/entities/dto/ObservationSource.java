@@ -0,0 +1,10 @@
+package com.nicode.nursingapp.entities.dto;
+
+/**
+ * Origen de una observación clínica: un control de enfermería o la cabecera de
+ * una Historia Clínica.
+ */
+public enum ObservationSource {
+    CONTROL,
+    HISTORY
+}
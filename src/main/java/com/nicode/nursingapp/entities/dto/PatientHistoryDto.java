@@ -0,0 +1,34 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa la cabecera de una Historia Clínica junto con una cantidad
+ * acotada de sus controles de enfermería más recientes.
+ * Los campos de la historia se serializan al mismo nivel que la lista de
+ * controles, por lo que la respuesta conserva la forma de PatientHistoryEntity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientHistoryDto {
+
+    /**
+     * Cabecera de la Historia Clínica (sin la colección completa de controles).
+     */
+    @JsonUnwrapped
+    private PatientHistoryEntity history;
+
+    /**
+     * Últimos controles de enfermería, ordenados por fecha descendente.
+     */
+    private List<NursingControlEntity> latestControls;
+}
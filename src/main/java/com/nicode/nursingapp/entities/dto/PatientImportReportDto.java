@@ -0,0 +1,58 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de una importación masiva de pacientes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientImportReportDto {
+
+    /**
+     * Cantidad de filas leídas, sin contar el encabezado.
+     */
+    private long rows;
+
+    /**
+     * Cantidad de pacientes registrados.
+     */
+    private long imported;
+
+    /**
+     * Filas descartadas porque el DNI se repite en el archivo o ya estaba
+     * registrado.
+     */
+    private long duplicates;
+
+    /**
+     * Filas descartadas por datos inválidos.
+     */
+    private long rejected;
+
+    /**
+     * Motivo de cada fila no importada, hasta un máximo; el resto solo se
+     * cuenta.
+     */
+    private List<ImportRowErrorDto> errors;
+
+    /**
+     * Indica si hubo más filas no importadas que las informadas en errors.
+     */
+    private boolean errorsTruncated;
+
+    /**
+     * Duración de la importación, en milisegundos.
+     */
+    private long elapsedMillis;
+
+    /**
+     * Filas procesadas por segundo.
+     */
+    private double rowsPerSecond;
+}
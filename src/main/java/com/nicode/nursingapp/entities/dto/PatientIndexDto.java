@@ -0,0 +1,21 @@
+package com.nicode.nursingapp.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los campos de un paciente que se indexan para la búsqueda en
+ * memoria. Se obtiene mediante una proyección, sin cargar la entidad completa
+ * ni su Historia Clínica.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientIndexDto {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String service;
+    private String idNumber;
+}
@@ -0,0 +1,57 @@
+package com.nicode.nursingapp.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de la verificación de consistencia de un índice en
+ * memoria contra su tabla de origen.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchIndexReportDto {
+
+    /**
+     * Indica si el índice terminó su construcción inicial.
+     */
+    private boolean ready;
+
+    /**
+     * Cantidad de documentos presentes en el índice.
+     */
+    private long indexed;
+
+    /**
+     * Cantidad de registros presentes en la tabla.
+     */
+    private long inDatabase;
+
+    /**
+     * Registros de la tabla que no están en el índice.
+     */
+    private long missing;
+
+    /**
+     * Registros indexados con datos desactualizados.
+     */
+    private long stale;
+
+    /**
+     * Documentos del índice que ya no existen en la tabla.
+     */
+    private long orphaned;
+
+    /**
+     * Indica si el índice se reconstruyó como parte de la verificación.
+     */
+    private boolean rebuilt;
+
+    /**
+     * Indica si el índice coincide con la tabla.
+     */
+    public boolean isConsistent() {
+        return this.ready && this.missing == 0 && this.stale == 0 && this.orphaned == 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDateTime;
+
+import com.nicode.nursingapp.entities.VitalSign;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con la fecha y los signos vitales numéricos de un control de enfermería,
+ * utilizado para recorrer los controles al armar gráficos sin cargar
+ * entidades.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalSampleDto {
+
+    private LocalDateTime controlDate;
+    private Double temperature;
+    private Integer systolic;
+    private Integer diastolic;
+    private Integer heartRate;
+    private Integer respiratoryRate;
+    private Integer spo2;
+
+    /**
+     * Obtiene el valor de un signo vital.
+     *
+     * @param vital Signo vital.
+     * @return El valor, o null si no fue registrado.
+     */
+    public Double valueOf(VitalSign vital) {
+        Number value = switch (vital) {
+            case TEMPERATURE -> this.temperature;
+            case SYSTOLIC -> this.systolic;
+            case DIASTOLIC -> this.diastolic;
+            case HEART_RATE -> this.heartRate;
+            case RESPIRATORY_RATE -> this.respiratoryRate;
+            case SPO2 -> this.spo2;
+        };
+        return value == null ? null : value.doubleValue();
+    }
+}
@@ -0,0 +1,47 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import com.nicode.nursingapp.entities.VitalSign;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las series reducidas de los signos vitales de un historial médico en
+ * un rango de fechas, para graficarlas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalSignChartDto {
+
+    /**
+     * Fecha de inicio del rango.
+     */
+    private LocalDateTime startDate;
+
+    /**
+     * Fecha de fin del rango.
+     */
+    private LocalDateTime endDate;
+
+    /**
+     * Duración en milisegundos de cada intervalo; de cada uno se conservan el valor
+     * mínimo y el máximo.
+     */
+    private long bucketMillis;
+
+    /**
+     * Cantidad de controles leídos del rango.
+     */
+    private long controls;
+
+    /**
+     * Puntos de cada signo vital, ordenados por fecha.
+     */
+    private Map<VitalSign, List<ChartPointDto>> series;
+}
@@ -0,0 +1,32 @@
+package com.nicode.nursingapp.entities.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resumen de los signos vitales de un conjunto de controles:
+ * cantidad de controles y promedio, mínimo y máximo de cada signo vital.
+ * Se calcula con funciones de agregación en la base de datos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalSignsSummaryDto {
+    private Long controls;
+    private Double systolicAvg;
+    private Integer systolicMin;
+    private Integer systolicMax;
+    private Double diastolicAvg;
+    private Integer diastolicMin;
+    private Integer diastolicMax;
+    private Double heartRateAvg;
+    private Integer heartRateMin;
+    private Integer heartRateMax;
+    private Double respiratoryRateAvg;
+    private Integer respiratoryRateMin;
+    private Integer respiratoryRateMax;
+    private Double spo2Avg;
+    private Integer spo2Min;
+    private Integer spo2Max;
+}
@@ -0,0 +1,48 @@
+package com.nicode.nursingapp.entities.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.nicode.nursingapp.entities.VitalSigns;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con un paciente internado y los signos vitales de su control de
+ * enfermería más reciente, para la vista de la sala.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WardPatientDto {
+    private Long patientId;
+    private String firstName;
+    private String lastName;
+    private String idNumber;
+    private Integer room;
+    private Integer bed;
+    private String service;
+    private Long historyId;
+    private Long latestControlId;
+    private LocalDateTime latestControlDate;
+    private Double temperature;
+    private Integer systolic;
+    private Integer diastolic;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Integer heartRate;
+
+    private Integer spo2;
+
+    /**
+     * Presión arterial en el formato "sistólica/diastólica", igual que en los
+     * controles de enfermería.
+     *
+     * @return La presión arterial, o null si no fue registrada.
+     */
+    public String getBloodPressure() {
+        return VitalSigns.formatBloodPressure(this.systolic, this.diastolic);
+    }
+}
@@ -0,0 +1,29 @@
+package com.nicode.nursingapp.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.stereotype.Repository;
+
+import com.nicode.nursingapp.entities.ArchivedNursingControlEntity;
+
+/**
+ * Interfaz de repositorio de solo lectura para los controles de enfermería
+ * archivados, utilizando el tipo Long como identificador.
+ */
+@Repository
+public interface ArchivedNursingControlRepository
+        extends PagingAndSortingRepository<ArchivedNursingControlEntity, Long> {
+
+    /**
+     * Recupera una página de controles archivados de una Historia Clínica,
+     * ordenados por fecha de control ascendente, igual que los controles
+     * vigentes.
+     *
+     * @param historyId Identificador de la Historia Clínica archivada.
+     * @param pageable  Información de paginación.
+     * @return Página de controles archivados.
+     */
+    Page<ArchivedNursingControlEntity> findByHistoryIdOrderByControlDateAscIdAsc(Long historyId,
+            Pageable pageable);
+}
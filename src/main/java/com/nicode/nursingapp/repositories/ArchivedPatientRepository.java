@@ -0,0 +1,40 @@
+package com.nicode.nursingapp.repositories;
+
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.stereotype.Repository;
+
+import com.nicode.nursingapp.entities.ArchivedPatientEntity;
+
+/**
+ * Interfaz de repositorio de solo lectura para los pacientes archivados,
+ * utilizando el tipo Long como identificador.
+ */
+@Repository
+public interface ArchivedPatientRepository extends PagingAndSortingRepository<ArchivedPatientEntity, Long> {
+
+    /**
+     * Obtiene un paciente archivado por su identificador.
+     *
+     * @param id Identificador del paciente.
+     * @return Paciente archivado, o vacío si no existe.
+     */
+    Optional<ArchivedPatientEntity> findById(Long id);
+
+    /**
+     * Recupera una página de pacientes archivados cuyo nombre, apellido o
+     * servicio contiene la palabra clave, o cuyo DNI es igual a ella.
+     *
+     * @param keyword1 Palabra clave para la búsqueda en el campo de nombre.
+     * @param keyword2 Palabra clave para la búsqueda en el campo de apellido.
+     * @param keyword3 Palabra clave para la búsqueda en el campo de servicio.
+     * @param idNumber DNI buscado.
+     * @param pageable Información de paginación y ordenamiento.
+     * @return Página de pacientes archivados.
+     */
+    Page<ArchivedPatientEntity> findAllByFirstNameContainingOrLastNameContainingOrServiceContainingOrIdNumber(
+            String keyword1, String keyword2, String keyword3, String idNumber, Pageable pageable);
+}
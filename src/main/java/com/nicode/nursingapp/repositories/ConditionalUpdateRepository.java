@@ -0,0 +1,38 @@
+package com.nicode.nursingapp.repositories;
+
+/**
+ * Actualizaciones que se resuelven con una única sentencia UPDATE condicionada
+ * por el identificador, sin cargar la entidad antes de modificarla. La cantidad
+ * de filas afectadas indica si la entidad existía.
+ *
+ * Se actualizan las columnas simples y las claves foráneas de relaciones
+ * muchos a uno; el identificador, la versión y las relaciones uno a uno no se
+ * modifican. Al ser sentencias masivas, Hibernate invalida la región de la
+ * caché de segundo nivel de la entidad.
+ *
+ * @param <T> Tipo de entidad.
+ */
+public interface ConditionalUpdateRepository<T> {
+
+    /**
+     * Reemplaza todos los valores de una entidad, incluidos los nulos.
+     *
+     * @param id     Identificador de la entidad.
+     * @param values Valores nuevos.
+     * @return Cantidad de filas actualizadas (0 si la entidad no existe o el
+     *         identificador es nulo).
+     */
+    int replaceById(Object id, T values);
+
+    /**
+     * Actualiza solo los valores no nulos de una entidad (actualización parcial);
+     * el resto de las columnas no se escribe. Si no hay valores no nulos no se
+     * modifica nada y solo se verifica que la entidad exista.
+     *
+     * @param id      Identificador de la entidad.
+     * @param changes Valores modificados.
+     * @return Cantidad de filas actualizadas (0 si la entidad no existe o el
+     *         identificador es nulo).
+     */
+    int patchById(Object id, T changes);
+}
@@ -0,0 +1,94 @@
+package com.nicode.nursingapp.repositories;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute.PersistentAttributeType;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+/**
+ * Implementación de {@link ConditionalUpdateRepository} con Criteria API,
+ * compartida por los repositorios que la extienden.
+ *
+ * @param <T> Tipo de entidad.
+ */
+public class ConditionalUpdateRepositoryImpl<T> implements ConditionalUpdateRepository<T> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int replaceById(Object id, T values) {
+        return update(id, values, false);
+    }
+
+    @Override
+    @Transactional
+    public int patchById(Object id, T changes) {
+        return update(id, changes, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int update(Object id, T values, boolean skipNulls) {
+        if (id == null) {
+            return 0;
+        }
+        Class<T> type = (Class<T>) values.getClass();
+        EntityType<T> entity = this.entityManager.getMetamodel().entity(type);
+        CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = builder.createCriteriaUpdate(type);
+        Root<T> root = update.from(type);
+        BeanWrapper source = PropertyAccessorFactory.forBeanPropertyAccess(values);
+
+        boolean changed = false;
+        for (SingularAttribute<? super T, ?> attribute : entity.getSingularAttributes()) {
+            if (!isUpdatable(attribute)) {
+                continue;
+            }
+            Object value = source.getPropertyValue(attribute.getName());
+            if (value == null && skipNulls) {
+                continue;
+            }
+            set(update, root, builder, attribute, value);
+            changed = true;
+        }
+        SingularAttribute<? super T, ?> idAttribute = entity.getId(entity.getIdType().getJavaType());
+        if (!changed) {
+            // Sin valores que escribir solo se informa si la entidad existe.
+            CriteriaQuery<Long> count = builder.createQuery(Long.class);
+            Root<T> counted = count.from(type);
+            count.select(builder.count(counted)).where(builder.equal(counted.get(idAttribute), id));
+            return this.entityManager.createQuery(count).getSingleResult().intValue();
+        }
+
+        update.where(builder.equal(root.get(idAttribute), id));
+        return this.entityManager.createQuery(update).executeUpdate();
+    }
+
+    private static boolean isUpdatable(SingularAttribute<?, ?> attribute) {
+        if (attribute.isId() || attribute.isVersion()) {
+            return false;
+        }
+        PersistentAttributeType kind = attribute.getPersistentAttributeType();
+        return kind == PersistentAttributeType.BASIC || kind == PersistentAttributeType.MANY_TO_ONE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, Y> void set(CriteriaUpdate<T> update, Root<T> root, CriteriaBuilder builder,
+            SingularAttribute<? super T, Y> attribute, Object value) {
+        if (value == null) {
+            update.set(root.get(attribute), builder.nullLiteral(attribute.getJavaType()));
+        } else {
+            update.set(root.get(attribute), (Y) value);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.nicode.nursingapp.repositories;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.nicode.nursingapp.entities.NursingControlBlockEntity;
+import com.nicode.nursingapp.entities.NursingControlBlockId;
+import com.nicode.nursingapp.entities.dto.ControlBlockDto;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Interfaz de repositorio para los bloques de controles de enfermería
+ * compactados, utilizando NursingControlBlockId como identificador.
+ */
+@Repository
+public interface NursingControlBlockRepository
+        extends ListCrudRepository<NursingControlBlockEntity, NursingControlBlockId> {
+
+    /**
+     * Recupera los bloques de una Historia Clínica, sin sus controles
+     * codificados, que se cargan al leerlos.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @return Bloques ordenados por día ascendente.
+     */
+    List<NursingControlBlockEntity> findByHistoryIdOrderByBlockDateAsc(Long historyId);
+
+    /**
+     * Recupera los bloques de una Historia Clínica en un rango de días, sin sus
+     * controles codificados, que se cargan al leerlos.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @param startDate Primer día del rango.
+     * @param endDate   Último día del rango.
+     * @return Bloques ordenados por día ascendente.
+     */
+    List<NursingControlBlockEntity> findByHistoryIdAndBlockDateBetweenOrderByBlockDateAsc(Long historyId,
+            LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Recupera en una única consulta los controles codificados de los bloques
+     * de una Historia Clínica en un rango de días.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @param startDate Primer día del rango.
+     * @param endDate   Último día del rango.
+     * @return Bloques ordenados por día ascendente.
+     */
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.ControlBlockDto(b.historyId, b.blockDate, b.payload) "
+            + "FROM NursingControlBlockEntity b WHERE b.historyId = :historyId "
+            + "AND b.blockDate BETWEEN :startDate AND :endDate ORDER BY b.blockDate")
+    List<ControlBlockDto> findPayloads(@Param("historyId") Long historyId, @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Recorre en orden de día los controles codificados de los bloques de una
+     * Historia Clínica en un rango de días, leyéndolos de a pocos, por lo que
+     * debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @param startDate Primer día del rango.
+     * @param endDate   Último día del rango.
+     * @return Stream de bloques ordenados por día ascendente.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10"))
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.ControlBlockDto(b.historyId, b.blockDate, b.payload) "
+            + "FROM NursingControlBlockEntity b WHERE b.historyId = :historyId "
+            + "AND b.blockDate BETWEEN :startDate AND :endDate ORDER BY b.blockDate")
+    Stream<ControlBlockDto> streamPayloads(@Param("historyId") Long historyId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Recupera en una única consulta los controles codificados de los bloques
+     * de una Historia Clínica de los días indicados.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @param days      Días de los bloques.
+     * @return Bloques ordenados por día ascendente.
+     */
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.ControlBlockDto(b.historyId, b.blockDate, b.payload) "
+            + "FROM NursingControlBlockEntity b WHERE b.historyId = :historyId AND b.blockDate IN :days "
+            + "ORDER BY b.blockDate")
+    List<ControlBlockDto> findPayloads(@Param("historyId") Long historyId,
+            @Param("days") Collection<LocalDate> days);
+
+    /**
+     * Recupera los primeros bloques de una Historia Clínica, sin sus controles
+     * codificados.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @param pageable  Cantidad máxima de bloques.
+     * @return Bloques ordenados por día ascendente.
+     */
+    List<NursingControlBlockEntity> findByHistoryIdOrderByBlockDateAsc(Long historyId, Pageable pageable);
+
+    /**
+     * Recupera los últimos bloques de una Historia Clínica, sin sus controles
+     * codificados.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @param pageable  Cantidad máxima de bloques.
+     * @return Bloques ordenados por día descendente.
+     */
+    List<NursingControlBlockEntity> findByHistoryIdOrderByBlockDateDesc(Long historyId, Pageable pageable);
+
+    /**
+     * Recupera los bloques de una Historia Clínica desde un día, sin sus
+     * controles codificados.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @param blockDate Primer día.
+     * @param pageable  Cantidad máxima de bloques.
+     * @return Bloques ordenados por día ascendente.
+     */
+    List<NursingControlBlockEntity> findByHistoryIdAndBlockDateGreaterThanEqualOrderByBlockDateAsc(Long historyId,
+            LocalDate blockDate, Pageable pageable);
+
+    /**
+     * Recupera los bloques de una Historia Clínica hasta un día, sin sus
+     * controles codificados.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @param blockDate Último día.
+     * @param pageable  Cantidad máxima de bloques.
+     * @return Bloques ordenados por día descendente.
+     */
+    List<NursingControlBlockEntity> findByHistoryIdAndBlockDateLessThanEqualOrderByBlockDateDesc(Long historyId,
+            LocalDate blockDate, Pageable pageable);
+
+    /**
+     * Recupera en una única consulta los controles codificados de los bloques
+     * de las Historias Clínicas y días indicados. Puede incluir combinaciones
+     * de historia y día no pedidas, que se descartan al leerlas.
+     *
+     * @param historyIds Identificadores de las Historias Clínicas.
+     * @param days       Días de los bloques.
+     * @return Bloques de esas historias en esos días.
+     */
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.ControlBlockDto(b.historyId, b.blockDate, b.payload) "
+            + "FROM NursingControlBlockEntity b WHERE b.historyId IN :historyIds AND b.blockDate IN :days")
+    List<ControlBlockDto> findPayloadsIn(@Param("historyIds") Collection<Long> historyIds,
+            @Param("days") Collection<LocalDate> days);
+
+    /**
+     * Recupera en una única consulta los controles codificados de todos los
+     * bloques de un paciente.
+     *
+     * @param patientId Identificador del paciente.
+     * @return Bloques ordenados por día ascendente.
+     */
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.ControlBlockDto(b.historyId, b.blockDate, b.payload) "
+            + "FROM NursingControlBlockEntity b JOIN b.patientHistory h WHERE h.patient.id = :patientId "
+            + "ORDER BY b.blockDate")
+    List<ControlBlockDto> findPayloadsByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Recorre los controles codificados de todos los bloques, para construir el
+     * índice de observaciones.
+     *
+     * @return Stream de bloques.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.ControlBlockDto(b.historyId, b.blockDate, b.payload) "
+            + "FROM NursingControlBlockEntity b")
+    Stream<ControlBlockDto> streamPayloads();
+
+    /**
+     * Recupera los controles codificados de los bloques cuyo rango de
+     * identificadores incluye el indicado; el control puede no estar en
+     * ninguno de ellos.
+     *
+     * @param controlId Identificador del control.
+     * @return Bloques candidatos.
+     */
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.ControlBlockDto(b.historyId, b.blockDate, b.payload) "
+            + "FROM NursingControlBlockEntity b WHERE b.lastControlId >= :controlId "
+            + "AND b.firstControlId <= :controlId")
+    List<ControlBlockDto> findPayloadsContaining(@Param("controlId") Long controlId);
+
+    /**
+     * Indica si existen bloques de algún día a partir del indicado.
+     *
+     * @param blockDate Primer día.
+     * @return true si algún control de ese día o posterior está compactado.
+     */
+    boolean existsByBlockDateGreaterThanEqual(LocalDate blockDate);
+}
@@ -1,12 +1,16 @@
 package com.nicode.nursingapp.repositories;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.dto.VitalSignsSummaryDto;
 
 /**
  * Interfaz que extiende de PagingAndSortingRepository para proporcionar
@@ -60,4 +64,152 @@ public interface NursingControlPagingAndSortingRepository
          */
         Page<NursingControlEntity> findByPatientHistoryEntityIdAndControlDateBetweenOrderByControlDateAsc(
                         Long patientHistoryId, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+        /**
+         * Recupera los controles más recientes de un historial médico, ordenados por
+         * fecha de control de forma descendente.
+         * A diferencia de las variantes que devuelven Page, no ejecuta la consulta
+         * adicional de conteo: se utiliza para embeber un número acotado de controles
+         * en la cabecera de la historia clínica.
+         *
+         * @param patientHistoryId Identificador del historial médico asociado a los
+         *                         registros.
+         * @param pageable         Objeto que limita la cantidad de registros a
+         *                         recuperar.
+         * @return Lista con los controles más recientes.
+         */
+        List<NursingControlEntity> findLatestByPatientHistoryEntityIdOrderByControlDateDesc(Long patientHistoryId,
+                        Pageable pageable);
+
+        /**
+         * Recupera la primera página (por clave) de controles de un historial médico,
+         * ordenados por fecha de control y luego por identificador de forma
+         * ascendente. No ejecuta consulta de conteo.
+         *
+         * @param patientHistoryId Identificador del historial médico asociado a los
+         *                         registros.
+         * @param pageable         Objeto que limita la cantidad de registros a
+         *                         recuperar.
+         * @return Lista de controles de la primera página.
+         */
+        List<NursingControlEntity> findByPatientHistoryEntityIdOrderByControlDateAscIdAsc(Long patientHistoryId,
+                        Pageable pageable);
+
+        /**
+         * Recupera los controles posteriores a la posición (fecha de control,
+         * identificador) indicada, en orden ascendente. La búsqueda por clave usa el
+         * índice del historial y no depende de un OFFSET, por lo que su costo no
+         * crece con la profundidad de la página.
+         *
+         * @param patientHistoryId Identificador del historial médico.
+         * @param controlDate      Fecha de control del último registro ya leído.
+         * @param id               Identificador del último registro ya leído.
+         * @param pageable         Objeto que limita la cantidad de registros a
+         *                         recuperar.
+         * @return Lista de controles posteriores a la posición indicada.
+         */
+        @Query("SELECT c FROM NursingControlEntity c WHERE c.patientHistoryEntity.id = :historyId "
+                        + "AND (c.controlDate > :controlDate OR (c.controlDate = :controlDate AND c.id > :id)) "
+                        + "ORDER BY c.controlDate ASC, c.id ASC")
+        List<NursingControlEntity> findAfterPosition(@Param("historyId") Long patientHistoryId,
+                        @Param("controlDate") LocalDateTime controlDate, @Param("id") Long id, Pageable pageable);
+
+        /**
+         * Recupera los controles anteriores a la posición (fecha de control,
+         * identificador) indicada, en orden descendente.
+         *
+         * @param patientHistoryId Identificador del historial médico.
+         * @param controlDate      Fecha de control del primer registro ya leído.
+         * @param id               Identificador del primer registro ya leído.
+         * @param pageable         Objeto que limita la cantidad de registros a
+         *                         recuperar.
+         * @return Lista de controles anteriores a la posición indicada, del más
+         *         cercano al más lejano; los controles sin fecha son los más
+         *         lejanos.
+         */
+        @Query("SELECT c FROM NursingControlEntity c WHERE c.patientHistoryEntity.id = :historyId "
+                        + "AND (c.controlDate IS NULL OR c.controlDate < :controlDate "
+                        + "OR (c.controlDate = :controlDate AND c.id < :id)) "
+                        + "ORDER BY c.controlDate DESC, c.id DESC")
+        List<NursingControlEntity> findBeforePosition(@Param("historyId") Long patientHistoryId,
+                        @Param("controlDate") LocalDateTime controlDate, @Param("id") Long id, Pageable pageable);
+
+        /**
+         * Recupera los controles posteriores a la posición de un control sin
+         * fecha, que se ordenan antes que todos los fechados, en orden
+         * ascendente.
+         *
+         * @param patientHistoryId Identificador del historial médico.
+         * @param id               Identificador del último registro ya leído.
+         * @param pageable         Objeto que limita la cantidad de registros a
+         *                         recuperar.
+         * @return Lista de controles posteriores a la posición indicada.
+         */
+        @Query("SELECT c FROM NursingControlEntity c WHERE c.patientHistoryEntity.id = :historyId "
+                        + "AND (c.controlDate IS NOT NULL OR c.id > :id) "
+                        + "ORDER BY c.controlDate ASC, c.id ASC")
+        List<NursingControlEntity> findAfterUndatedPosition(@Param("historyId") Long patientHistoryId,
+                        @Param("id") Long id, Pageable pageable);
+
+        /**
+         * Recupera los controles sin fecha anteriores a la posición de otro
+         * control sin fecha, en orden descendente.
+         *
+         * @param patientHistoryId Identificador del historial médico.
+         * @param id               Identificador del primer registro ya leído.
+         * @param pageable         Objeto que limita la cantidad de registros a
+         *                         recuperar.
+         * @return Lista de controles anteriores a la posición indicada, del más
+         *         cercano al más lejano.
+         */
+        @Query("SELECT c FROM NursingControlEntity c WHERE c.patientHistoryEntity.id = :historyId "
+                        + "AND c.controlDate IS NULL AND c.id < :id ORDER BY c.id DESC")
+        List<NursingControlEntity> findBeforeUndatedPosition(@Param("historyId") Long patientHistoryId,
+                        @Param("id") Long id, Pageable pageable);
+
+        /**
+         * Recupera los controles de todos los pacientes realizados desde una fecha
+         * cuyos signos vitales superan (o, en la saturación, no alcanzan) alguno de
+         * los umbrales indicados, por ejemplo "sistólica mayor a 160 en las últimas
+         * 24 horas". Los umbrales nulos no se consideran y el filtro se resuelve en
+         * la base de datos sobre las columnas numéricas.
+         *
+         * @param since                Fecha mínima del control.
+         * @param systolicAbove        Umbral de presión sistólica.
+         * @param heartRateAbove       Umbral de ritmo cardíaco.
+         * @param respiratoryRateAbove Umbral de ritmo respiratorio.
+         * @param spo2Below            Umbral de saturación de oxígeno.
+         * @param pageable             Objeto que define la paginación.
+         * @return Página de controles del más reciente al más antiguo.
+         */
+        @Query("SELECT c FROM NursingControlEntity c WHERE c.controlDate >= :since AND ("
+                        + "c.systolic > :systolicAbove OR c.heartRate > :heartRateAbove "
+                        + "OR c.respiratoryRate > :respiratoryRateAbove OR c.spo2 < :spo2Below) "
+                        + "ORDER BY c.controlDate DESC, c.id DESC")
+        Page<NursingControlEntity> findAbnormalVitals(@Param("since") LocalDateTime since,
+                        @Param("systolicAbove") Integer systolicAbove,
+                        @Param("heartRateAbove") Integer heartRateAbove,
+                        @Param("respiratoryRateAbove") Integer respiratoryRateAbove,
+                        @Param("spo2Below") Integer spo2Below, Pageable pageable);
+
+        /**
+         * Calcula en la base de datos el resumen de los signos vitales de un
+         * historial médico dentro de un rango de fechas.
+         *
+         * @param patientHistoryId Identificador del historial médico.
+         * @param startDate        Fecha de inicio del rango.
+         * @param endDate          Fecha de fin del rango.
+         * @return Cantidad de controles y promedio, mínimo y máximo de cada signo
+         *         vital.
+         */
+        @Query("SELECT new com.nicode.nursingapp.entities.dto.VitalSignsSummaryDto(COUNT(c), "
+                        + "AVG(c.systolic), MIN(c.systolic), MAX(c.systolic), "
+                        + "AVG(c.diastolic), MIN(c.diastolic), MAX(c.diastolic), "
+                        + "AVG(c.heartRate), MIN(c.heartRate), MAX(c.heartRate), "
+                        + "AVG(c.respiratoryRate), MIN(c.respiratoryRate), MAX(c.respiratoryRate), "
+                        + "AVG(c.spo2), MIN(c.spo2), MAX(c.spo2)) "
+                        + "FROM NursingControlEntity c WHERE c.patientHistoryEntity.id = :historyId "
+                        + "AND c.controlDate BETWEEN :startDate AND :endDate")
+        VitalSignsSummaryDto summarizeVitals(@Param("historyId") Long patientHistoryId,
+                        @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 }
@@ -1,11 +1,25 @@
 package com.nicode.nursingapp.repositories;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.dto.ControlSnapshotDto;
+import com.nicode.nursingapp.entities.dto.NursingControlDto;
+import com.nicode.nursingapp.entities.dto.ObservationIndexDto;
+import com.nicode.nursingapp.entities.dto.VitalSampleDto;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Interfaz de repositorio que proporciona operaciones CRUD (Crear, Leer,
@@ -14,7 +28,8 @@ import com.nicode.nursingapp.entities.NursingControlEntity;
  * identificador.
  */
 @Repository
-public interface NursingControlRepository extends ListCrudRepository<NursingControlEntity, Long> {
+public interface NursingControlRepository extends ListCrudRepository<NursingControlEntity, Long>,
+        ConditionalUpdateRepository<NursingControlEntity> {
 
     /**
      * Recupera una lista de registros de NursingControlEntity relacionados con un
@@ -24,4 +39,75 @@ public interface NursingControlRepository extends ListCrudRepository<NursingCont
      * @return Lista de registros de NursingControlEntity.
      */
     List<NursingControlEntity> findByPatientHistoryEntityId(Long id);
+
+    /**
+     * Recupera los controles de enfermería de un paciente en una única consulta,
+     * resolviendo la historia clínica por su clave foránea, como proyecciones
+     * de solo lectura.
+     *
+     * @param patientId Identificador del paciente.
+     * @return Controles del paciente ordenados por fecha de control ascendente.
+     */
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.NursingControlDto(c.id, c.temperature, c.systolic, "
+            + "c.diastolic, c.heartRate, c.respiratoryRate, c.spo2, c.observations, c.controlDate) "
+            + "FROM NursingControlEntity c JOIN c.patientHistoryEntity h WHERE h.patient.id = :patientId "
+            + "ORDER BY c.controlDate, c.id")
+    List<NursingControlDto> findByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Recorre las observaciones de todos los controles de enfermería para
+     * construir el índice de búsqueda de texto completo. Solo proyecta los campos
+     * indexados y los lee por lotes, por lo que debe consumirse dentro de una
+     * transacción y cerrarse al terminar.
+     *
+     * @return Stream de proyecciones de los controles con observaciones.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.ObservationIndexDto("
+            + "c.id, c.patientHistoryEntity.id, c.controlDate, c.observations) "
+            + "FROM NursingControlEntity c WHERE c.observations IS NOT NULL AND c.observations <> ''")
+    Stream<ObservationIndexDto> streamObservationDocuments();
+
+    /**
+     * Recorre en orden de fecha los signos vitales de los controles de un
+     * historial médico en un rango de fechas, para reducirlos a una serie de
+     * gráfico. Solo proyecta las columnas numéricas y las lee por lotes, por lo
+     * que debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @param historyId Identificador del historial médico.
+     * @param startDate Fecha de inicio del rango.
+     * @param endDate   Fecha de fin del rango.
+     * @return Stream de proyecciones ordenadas por fecha de control.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.VitalSampleDto(c.controlDate, c.temperature, "
+            + "c.systolic, c.diastolic, c.heartRate, c.respiratoryRate, c.spo2) FROM NursingControlEntity c "
+            + "WHERE c.patientHistoryEntity.id = :historyId AND c.controlDate BETWEEN :startDate AND :endDate "
+            + "ORDER BY c.controlDate, c.id")
+    Stream<VitalSampleDto> streamVitalSamples(@Param("historyId") Long historyId,
+            @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Obtiene la Historia Clínica, la fecha y las observaciones de un control, y
+     * si es el más reciente de su Historia Clínica, necesarios para actualizar
+     * los resúmenes, el índice de búsqueda y los últimos signos vitales al
+     * modificarlo o eliminarlo, sin cargar la entidad.
+     *
+     * @param id Identificador del control de enfermería.
+     * @return Proyección del control, o vacío si no existe.
+     */
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.ControlSnapshotDto(h.id, c.controlDate, c.observations, "
+            + "CASE WHEN h.latestVitals.controlId = c.id THEN true ELSE false END) "
+            + "FROM NursingControlEntity c LEFT JOIN c.patientHistoryEntity h WHERE c.id = :id")
+    Optional<ControlSnapshotDto> findSnapshotById(@Param("id") Long id);
+
+    /**
+     * Elimina un control de enfermería con una única sentencia.
+     *
+     * @param id Identificador del control de enfermería.
+     * @return Cantidad de controles eliminados (0 si no existe).
+     */
+    @Modifying
+    @Query("DELETE FROM NursingControlEntity c WHERE c.id = :id")
+    int deleteIfExists(@Param("id") Long id);
 }
@@ -1,11 +1,22 @@
 package com.nicode.nursingapp.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.ListCrudRepository;
 import org.springframework.stereotype.Repository;
 
 import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.dto.ObservationIndexDto;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Interfaz de repositorio que proporciona operaciones CRUD (Crear, Leer,
@@ -14,7 +25,8 @@ import com.nicode.nursingapp.entities.PatientHistoryEntity;
  * identificador.
  */
 @Repository
-public interface PatientHistoryRepository extends ListCrudRepository<PatientHistoryEntity, Long> {
+public interface PatientHistoryRepository extends ListCrudRepository<PatientHistoryEntity, Long>,
+        ConditionalUpdateRepository<PatientHistoryEntity>, PatientHistoryRepositoryCustom {
 
     /**
      * Recupera un Optional que contiene un objeto PatientHistoryEntity asociado a
@@ -24,5 +36,72 @@ public interface PatientHistoryRepository extends ListCrudRepository<PatientHist
      * @return Optional que puede contener un objeto PatientHistoryEntity si se
      *         encuentra, o estar vacío si no se encuentra.
      */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "patientQueries") })
     Optional<PatientHistoryEntity> getPatientHistoryEntityByPatientId(Long id);
-}
\ No newline at end of file
+
+    /**
+     * Recorre todas las Historias Clínicas proyectando su paciente y sus
+     * observaciones, para construir el índice de búsqueda de texto completo.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @return Stream de proyecciones de las Historias Clínicas.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.ObservationIndexDto("
+            + "h.id, h.patient.id, h.observations) FROM PatientHistoryEntity h")
+    Stream<ObservationIndexDto> streamObservationDocuments();
+
+    /**
+     * Obtiene, de los identificadores indicados, los que corresponden a una
+     * Historia Clínica existente, en una sola consulta y sin cargar entidades.
+     *
+     * @param ids Identificadores a verificar.
+     * @return Identificadores existentes.
+     */
+    @Query("SELECT h.id FROM PatientHistoryEntity h WHERE h.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene una referencia a una Historia Clínica sin consultarla, para
+     * asociarla a otras entidades cuando ya se verificó que existe.
+     *
+     * @param id Identificador de la Historia Clínica.
+     * @return Referencia perezosa a la Historia Clínica.
+     */
+    PatientHistoryEntity getReferenceById(Long id);
+
+    /**
+     * Obtiene el identificador de la Historia Clínica de un paciente sin cargar
+     * la entidad.
+     *
+     * @param patientId Identificador del paciente.
+     * @return Identificador de la Historia Clínica, o vacío si el paciente no
+     *         cuenta con una.
+     */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "patientQueries") })
+    @Query("SELECT h.id FROM PatientHistoryEntity h WHERE h.patient.id = :patientId")
+    Optional<Long> findIdByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Obtiene el identificador del paciente de una Historia Clínica sin cargar
+     * la entidad.
+     *
+     * @param id Identificador de la Historia Clínica.
+     * @return Identificador del paciente, o vacío si la historia no existe.
+     */
+    @Query("SELECT h.patient.id FROM PatientHistoryEntity h WHERE h.id = :id")
+    Optional<Long> findPatientIdById(@Param("id") Long id);
+
+    /**
+     * Elimina una Historia Clínica con una única sentencia; la base de datos
+     * elimina en cascada sus controles y sus resúmenes de signos vitales.
+     *
+     * @param id Identificador de la Historia Clínica.
+     * @return Cantidad de historias eliminadas (0 si no existe).
+     */
+    @Modifying
+    @Query("DELETE FROM PatientHistoryEntity h WHERE h.id = :id")
+    int deleteIfExists(@Param("id") Long id);
+}
@@ -0,0 +1,54 @@
+package com.nicode.nursingapp.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
+
+/**
+ * Mantenimiento de la copia del control más reciente de cada Historia Clínica
+ * (LatestVitals), con SQL y sin cargar entidades. Los recálculos consideran
+ * tanto las filas como los controles compactados.
+ */
+public interface PatientHistoryRepositoryCustom {
+
+    /**
+     * Reemplaza la copia del control más reciente de cada Historia Clínica por
+     * el más reciente de los controles indicados, solo si es posterior al
+     * actual. Se ejecuta como un único lote JDBC con una actualización
+     * condicional por Historia Clínica, segura frente a guardados concurrentes.
+     * Los controles sin fecha no se consideran.
+     *
+     * @param items Controles guardados con su Historia Clínica; deben tener
+     *              identificador.
+     */
+    void advanceLatestVitals(Collection<ControlBatchItemDto> items);
+
+    /**
+     * Vuelve a obtener de los controles la copia del control más reciente de una
+     * Historia Clínica, por ejemplo después de modificar o eliminar ese control.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     */
+    void refreshLatestVitals(Long historyId);
+
+    /**
+     * Vuelve a obtener de los controles la copia del control más reciente de las
+     * Historias Clínicas cuyo control más reciente es anterior a una fecha, por
+     * ejemplo después de eliminar todos los controles anteriores a ella.
+     *
+     * @param before Fecha límite, exclusiva.
+     * @return Cantidad de Historias Clínicas actualizadas.
+     */
+    int refreshLatestVitalsBefore(LocalDateTime before);
+
+    /**
+     * Completa la copia del control más reciente de las Historias Clínicas de un
+     * rango de identificadores que todavía no la tienen.
+     *
+     * @param fromId Primer identificador del rango.
+     * @param toId   Último identificador del rango.
+     * @return Cantidad de Historias Clínicas actualizadas.
+     */
+    int refreshMissingLatestVitals(long fromId, long toId);
+}
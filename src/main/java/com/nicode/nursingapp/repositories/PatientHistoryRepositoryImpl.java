@@ -0,0 +1,190 @@
+package com.nicode.nursingapp.repositories;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
+import com.nicode.nursingapp.entities.dto.NursingControlDto;
+import com.nicode.nursingapp.services.ControlBlockCodec;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementación de {@link PatientHistoryRepositoryCustom} con JdbcTemplate.
+ *
+ * Al recalcular la copia, el control más reciente se busca primero entre las
+ * filas y luego en el último bloque compactado de cada Historia Clínica, que
+ * la reemplaza solo si es posterior; así la copia puede apuntar a un control
+ * compactado, que sigue disponible por su identificador.
+ */
+public class PatientHistoryRepositoryImpl implements PatientHistoryRepositoryCustom {
+
+    private static final Comparator<NursingControlEntity> RECENCY = Comparator
+            .comparing(NursingControlEntity::getControlDate).thenComparing(NursingControlEntity::getId);
+
+    private static final String ADVANCE = "UPDATE patients_histories SET latest_control_id = ?, "
+            + "latest_control_date = ?, latest_temperature = ?, latest_systolic = ?, latest_diastolic = ?, "
+            + "latest_heart_rate_bpm = ?, latest_spo2 = ? WHERE patient_history_id = ? AND (latest_control_date IS NULL "
+            + "OR latest_control_date < ? OR (latest_control_date = ? AND latest_control_id < ?))";
+
+    private static final String SELECT_LATEST_ID = "(SELECT c.nursing_control_id FROM nursing_controls c "
+            + "WHERE c.patient_history_id = h.patient_history_id "
+            + "ORDER BY c.control_date DESC, c.nursing_control_id DESC LIMIT 1)";
+
+    private static final String COPY_LATEST = "latest_control_date = (SELECT control_date FROM nursing_controls "
+            + "WHERE nursing_control_id = h.latest_control_id), latest_temperature = (SELECT temperature FROM "
+            + "nursing_controls WHERE nursing_control_id = h.latest_control_id), latest_systolic = (SELECT systolic "
+            + "FROM nursing_controls WHERE nursing_control_id = h.latest_control_id), latest_diastolic = (SELECT "
+            + "diastolic FROM nursing_controls WHERE nursing_control_id = h.latest_control_id), "
+            + "latest_heart_rate_bpm = (SELECT heart_rate_bpm FROM nursing_controls WHERE nursing_control_id = "
+            + "h.latest_control_id), latest_spo2 = (SELECT spo2 FROM nursing_controls WHERE nursing_control_id = "
+            + "h.latest_control_id)";
+
+    private static final String SELECT_NEWEST_BLOCKS = "SELECT b.history_id, b.block_date, b.payload "
+            + "FROM nursing_control_blocks b WHERE b.block_date = (SELECT MAX(n.block_date) "
+            + "FROM nursing_control_blocks n WHERE n.history_id = b.history_id) AND b.history_id IN ";
+
+    /**
+     * Cantidad máxima de Historias Clínicas por consulta de bloques.
+     */
+    private static final int BLOCKS_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructor que inicializa las dependencias del repositorio.
+     *
+     * @param jdbcTemplate Acceso JDBC a la base de datos.
+     */
+    @Autowired
+    public PatientHistoryRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void advanceLatestVitals(Collection<ControlBatchItemDto> items) {
+        Map<Long, NursingControlEntity> latest = new HashMap<>();
+        for (ControlBatchItemDto item : items) {
+            NursingControlEntity control = item.getControl();
+            if (control.getControlDate() != null) {
+                latest.merge(item.getHistoryId(), control, (a, b) -> RECENCY.compare(a, b) >= 0 ? a : b);
+            }
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        List<ControlBatchItemDto> newest = new ArrayList<>(latest.size());
+        latest.forEach((historyId, control) -> newest.add(new ControlBatchItemDto(historyId, control)));
+        this.jdbcTemplate.batchUpdate(ADVANCE, rows(newest));
+    }
+
+    /**
+     * Parámetros de la actualización condicional de cada Historia Clínica.
+     */
+    private static List<Object[]> rows(List<ControlBatchItemDto> newest) {
+        List<Object[]> rows = new ArrayList<>(newest.size());
+        for (ControlBatchItemDto item : newest) {
+            NursingControlEntity control = item.getControl();
+            Timestamp date = Timestamp.valueOf(control.getControlDate());
+            rows.add(new Object[] { control.getId(), date, control.getTemperature(), control.getSystolic(),
+                    control.getDiastolic(), control.getHeartRate(), control.getSpo2(), item.getHistoryId(), date,
+                    date, control.getId() });
+        }
+        return rows;
+    }
+
+    @Override
+    public void refreshLatestVitals(Long historyId) {
+        // Los cambios pendientes de los controles deben llegar a la base antes de
+        // consultarlos.
+        this.entityManager.flush();
+
+        this.jdbcTemplate.update("UPDATE patients_histories h SET latest_control_id = " + SELECT_LATEST_ID
+                + " WHERE h.patient_history_id = ?", historyId);
+        this.jdbcTemplate.update("UPDATE patients_histories h SET " + COPY_LATEST + " WHERE h.patient_history_id = ?",
+                historyId);
+        advanceFromBlocks(List.of(historyId));
+    }
+
+    @Override
+    public int refreshLatestVitalsBefore(LocalDateTime before) {
+        Timestamp bound = Timestamp.valueOf(before);
+        List<Long> historyIds = this.jdbcTemplate.queryForList("SELECT patient_history_id FROM patients_histories "
+                + "WHERE latest_control_date < ?", Long.class, bound);
+        int updated = this.jdbcTemplate.update("UPDATE patients_histories h SET latest_control_id = "
+                + SELECT_LATEST_ID + " WHERE h.latest_control_date < ?", bound);
+        this.jdbcTemplate.update("UPDATE patients_histories h SET " + COPY_LATEST
+                + " WHERE h.latest_control_date < ?", bound);
+        advanceFromBlocks(historyIds);
+        return updated;
+    }
+
+    @Override
+    public int refreshMissingLatestVitals(long fromId, long toId) {
+        List<Long> missing = this.jdbcTemplate.queryForList("SELECT patient_history_id FROM patients_histories "
+                + "WHERE patient_history_id BETWEEN ? AND ? AND latest_control_id IS NULL", Long.class, fromId, toId);
+        int updated = this.jdbcTemplate.update("UPDATE patients_histories h SET latest_control_id = "
+                + SELECT_LATEST_ID + " WHERE h.patient_history_id BETWEEN ? AND ? AND h.latest_control_id IS NULL "
+                + "AND EXISTS (SELECT 1 FROM nursing_controls c WHERE c.patient_history_id = h.patient_history_id)",
+                fromId, toId);
+        this.jdbcTemplate.update("UPDATE patients_histories h SET " + COPY_LATEST
+                + " WHERE h.patient_history_id BETWEEN ? AND ? AND h.latest_control_id IS NOT NULL "
+                + "AND h.latest_control_date IS NULL", fromId, toId);
+        if (advanceFromBlocks(missing) == 0) {
+            return updated;
+        }
+        // Algunas historias se completaron desde las filas y desde los bloques:
+        // se cuentan las que ya no faltan.
+        return missing.size() - this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patients_histories "
+                + "WHERE patient_history_id BETWEEN ? AND ? AND latest_control_id IS NULL", Integer.class,
+                fromId, toId);
+    }
+
+    /**
+     * Reemplaza la copia del control más reciente de cada Historia Clínica por
+     * el último control de su bloque compactado más reciente, si es posterior.
+     *
+     * @param historyIds Identificadores de las Historias Clínicas.
+     * @return Cantidad de Historias Clínicas actualizadas (o que el controlador
+     *         JDBC no informa).
+     */
+    private int advanceFromBlocks(List<Long> historyIds) {
+        List<ControlBatchItemDto> newest = new ArrayList<>();
+        for (int from = 0; from < historyIds.size(); from += BLOCKS_CHUNK) {
+            List<Long> chunk = historyIds.subList(from, Math.min(historyIds.size(), from + BLOCKS_CHUNK));
+            this.jdbcTemplate.query(SELECT_NEWEST_BLOCKS + "(" + String.join(", ", Collections.nCopies(chunk.size(),
+                    "?")) + ")", rs -> {
+                        List<NursingControlDto> controls = ControlBlockCodec.decode(
+                                rs.getObject("block_date", LocalDate.class), rs.getBytes("payload"));
+                        newest.add(new ControlBatchItemDto(rs.getLong("history_id"),
+                                controls.get(controls.size() - 1).toEntity()));
+                    }, chunk.toArray());
+        }
+        if (newest.isEmpty()) {
+            return 0;
+        }
+
+        int advanced = 0;
+        for (int count : this.jdbcTemplate.batchUpdate(ADVANCE, rows(newest))) {
+            advanced += count != 0 ? 1 : 0;
+        }
+        return advanced;
+    }
+}
@@ -2,6 +2,7 @@ package com.nicode.nursingapp.repositories;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import com.nicode.nursingapp.entities.PatientEntity;
@@ -30,4 +31,43 @@ public interface PatientPagingAndSortingRepository extends PagingAndSortingRepos
      */
     Page<PatientEntity> findAllByFirstNameContainingOrLastNameContainingOrServiceContaining(
             String keyword1, String keyword2, String keyword3, Pageable pageable);
+
+    /**
+     * Recupera una porción de registros de PatientEntity sin calcular el total de
+     * elementos. Solo indica si existe una porción siguiente, por lo que no
+     * ejecuta la consulta de conteo.
+     *
+     * @param pageable Objeto que encapsula información de paginación y
+     *                 ordenamiento.
+     * @return Porción de registros de PatientEntity.
+     */
+    Slice<PatientEntity> findAllBy(Pageable pageable);
+
+    /**
+     * Variante sin conteo de
+     * {@link #findAllByFirstNameContainingOrLastNameContainingOrServiceContaining}:
+     * solo indica si existe una porción siguiente de resultados.
+     *
+     * @param keyword1 Palabra clave para la búsqueda en el campo de primer nombre.
+     * @param keyword2 Palabra clave para la búsqueda en el campo de apellido.
+     * @param keyword3 Palabra clave para la búsqueda en el campo de servicio.
+     * @param pageable Objeto que encapsula información de paginación y
+     *                 ordenamiento.
+     * @return Porción de registros de PatientEntity que cumplen con los criterios
+     *         de búsqueda.
+     */
+    Slice<PatientEntity> findSliceByFirstNameContainingOrLastNameContainingOrServiceContaining(
+            String keyword1, String keyword2, String keyword3, Pageable pageable);
+
+    /**
+     * Cuenta los registros de PatientEntity que coinciden con los criterios de
+     * búsqueda en los campos de nombre, apellido o servicio.
+     *
+     * @param keyword1 Palabra clave para la búsqueda en el campo de primer nombre.
+     * @param keyword2 Palabra clave para la búsqueda en el campo de apellido.
+     * @param keyword3 Palabra clave para la búsqueda en el campo de servicio.
+     * @return Cantidad de registros que cumplen con los criterios de búsqueda.
+     */
+    long countByFirstNameContainingOrLastNameContainingOrServiceContaining(
+            String keyword1, String keyword2, String keyword3);
 }
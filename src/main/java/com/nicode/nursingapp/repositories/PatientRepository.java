@@ -1,9 +1,24 @@
 package com.nicode.nursingapp.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.dto.BedPlacementDto;
+import com.nicode.nursingapp.entities.dto.PatientIndexDto;
+import com.nicode.nursingapp.entities.dto.WardPatientDto;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Interfaz de repositorio que proporciona operaciones CRUD (Crear, Leer,
@@ -12,7 +27,8 @@ import com.nicode.nursingapp.entities.PatientEntity;
  * identificador.
  */
 @Repository
-public interface PatientRepository extends ListCrudRepository<PatientEntity, Long> {
+public interface PatientRepository extends ListCrudRepository<PatientEntity, Long>,
+        ConditionalUpdateRepository<PatientEntity> {
 
     /**
      * Verifica si existe un paciente con el número de identificación especificado.
@@ -21,5 +37,119 @@ public interface PatientRepository extends ListCrudRepository<PatientEntity, Lon
      * @return true si existe un paciente con el número de identificación
      *         especificado, false de lo contrario.
      */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "patientQueries") })
     boolean existsByidNumber(String idNumber);
-}
\ No newline at end of file
+
+    /**
+     * Obtiene, de los números de identificación indicados, los que ya están
+     * registrados, en una sola consulta y sin cargar entidades.
+     *
+     * @param idNumbers Números de identificación a verificar.
+     * @return Números de identificación registrados.
+     */
+    @Query("SELECT p.idNumber FROM PatientEntity p WHERE p.idNumber IN :idNumbers")
+    List<String> findExistingIdNumbers(@Param("idNumbers") Collection<String> idNumbers);
+
+    /**
+     * Recorre todos los pacientes como proyecciones con los campos indexables,
+     * sin cargar las entidades en el contexto de persistencia. Debe consumirse
+     * dentro de una transacción y cerrarse al terminar.
+     *
+     * @return Stream de proyecciones ordenadas por identificador.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.PatientIndexDto("
+            + "p.id, p.firstName, p.lastName, p.service, p.idNumber) FROM PatientEntity p ORDER BY p.id")
+    Stream<PatientIndexDto> streamIndexDocuments();
+
+    /**
+     * Recorre todos los pacientes con un cursor de solo avance, para exportarlos
+     * sin cargar la tabla completa en memoria. Las entidades son de solo lectura
+     * y no se leen ni se guardan en la caché de segundo nivel. Debe consumirse
+     * dentro de una transacción y cerrarse al terminar.
+     *
+     * @return Stream de pacientes ordenados por identificador.
+     */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE") })
+    @Query("SELECT p FROM PatientEntity p ORDER BY p.id")
+    Stream<PatientEntity> streamAll();
+
+    /**
+     * Recorre los números de identificación de todos los pacientes, sin cargar
+     * entidades. Debe consumirse dentro de una transacción y cerrarse al
+     * terminar.
+     *
+     * @return Stream de números de identificación.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.idNumber FROM PatientEntity p")
+    Stream<String> streamIdNumbers();
+
+    /**
+     * Obtiene los campos indexables de un paciente como proyección.
+     *
+     * @param id Identificador del paciente.
+     * @return Proyección del paciente, o vacío si no existe.
+     */
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.PatientIndexDto("
+            + "p.id, p.firstName, p.lastName, p.service, p.idNumber) FROM PatientEntity p WHERE p.id = :id")
+    Optional<PatientIndexDto> findIndexDocument(@Param("id") Long id);
+
+    /**
+     * Obtiene los campos indexables de los pacientes con los números de
+     * identificación indicados, por ejemplo para indexar pacientes registrados
+     * por JDBC.
+     *
+     * @param idNumbers Números de identificación.
+     * @return Proyecciones de los pacientes encontrados.
+     */
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.PatientIndexDto("
+            + "p.id, p.firstName, p.lastName, p.service, p.idNumber) FROM PatientEntity p "
+            + "WHERE p.idNumber IN :idNumbers")
+    List<PatientIndexDto> findIndexDocumentsByIdNumbers(@Param("idNumbers") Collection<String> idNumbers);
+
+    /**
+     * Recorre la ubicación (servicio, habitación y cama) y la fecha de alta de
+     * todos los pacientes, sin cargar entidades. Debe consumirse dentro de una
+     * transacción y cerrarse al terminar.
+     *
+     * @return Stream de proyecciones.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.BedPlacementDto("
+            + "p.id, p.service, p.room, p.bed, p.medicalDischargeDate) FROM PatientEntity p")
+    Stream<BedPlacementDto> streamBedPlacements();
+
+    /**
+     * Obtiene los pacientes internados (sin fecha de alta) con los signos
+     * vitales de su control más reciente, en una única consulta y sin cargar
+     * entidades ni controles.
+     *
+     * @param service Servicio de los pacientes, o null para todos.
+     * @return Pacientes ordenados por habitación y cama.
+     */
+    @Query("SELECT new com.nicode.nursingapp.entities.dto.WardPatientDto(p.id, p.firstName, p.lastName, "
+            + "p.idNumber, p.room, p.bed, p.service, h.id, h.latestVitals.controlId, h.latestVitals.controlDate, "
+            + "h.latestVitals.temperature, h.latestVitals.systolic, h.latestVitals.diastolic, "
+            + "h.latestVitals.heartRate, h.latestVitals.spo2) "
+            + "FROM PatientEntity p LEFT JOIN p.patientHistory h "
+            + "WHERE p.medicalDischargeDate IS NULL AND (:service IS NULL OR p.service = :service) "
+            + "ORDER BY p.room, p.bed, p.id")
+    List<WardPatientDto> findWard(@Param("service") String service);
+
+    /**
+     * Elimina un paciente con una única sentencia; la base de datos elimina en
+     * cascada su Historia Clínica, sus controles y sus resúmenes de signos
+     * vitales. Como Hibernate no conoce las tablas afectadas por la cascada,
+     * invalida por completo la caché de segundo nivel.
+     *
+     * @param id Identificador del paciente.
+     * @return Cantidad de pacientes eliminados (0 si no existe).
+     */
+    @Modifying
+    @Query(value = "DELETE FROM patients WHERE id = :id", nativeQuery = true)
+    int deleteIfExists(@Param("id") Long id);
+}
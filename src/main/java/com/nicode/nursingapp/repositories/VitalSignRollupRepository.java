@@ -0,0 +1,52 @@
+package com.nicode.nursingapp.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.nicode.nursingapp.entities.RollupGranularity;
+import com.nicode.nursingapp.entities.VitalSign;
+import com.nicode.nursingapp.entities.VitalSignRollupEntity;
+import com.nicode.nursingapp.entities.VitalSignRollupId;
+
+/**
+ * Interfaz de repositorio para los resúmenes horarios y diarios de signos
+ * vitales (VitalSignRollupEntity).
+ */
+@Repository
+public interface VitalSignRollupRepository
+        extends ListCrudRepository<VitalSignRollupEntity, VitalSignRollupId>, VitalSignRollupRepositoryCustom {
+
+    /**
+     * Recupera los resúmenes de una Historia Clínica cuyos intervalos empiezan
+     * dentro de un rango de fechas.
+     *
+     * @param historyId   Identificador de la Historia Clínica.
+     * @param granularity Granularidad de los resúmenes.
+     * @param vital       Signo vital, o null para obtener todos.
+     * @param startDate   Fecha de inicio del rango.
+     * @param endDate     Fecha de fin del rango.
+     * @return Resúmenes ordenados por intervalo y signo vital.
+     */
+    @Query("SELECT r FROM VitalSignRollupEntity r WHERE r.historyId = :historyId "
+            + "AND r.granularity = :granularity AND (:vital IS NULL OR r.vital = :vital) "
+            + "AND r.bucketStart BETWEEN :startDate AND :endDate ORDER BY r.bucketStart, r.vital")
+    List<VitalSignRollupEntity> findInRange(@Param("historyId") Long historyId,
+            @Param("granularity") RollupGranularity granularity, @Param("vital") VitalSign vital,
+            @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Elimina todos los resúmenes de una Historia Clínica.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @return Cantidad de resúmenes eliminados.
+     */
+    @Modifying
+    @Query("DELETE FROM VitalSignRollupEntity r WHERE r.historyId = :historyId")
+    int deleteByHistoryId(@Param("historyId") Long historyId);
+}
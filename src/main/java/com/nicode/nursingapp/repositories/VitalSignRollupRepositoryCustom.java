@@ -0,0 +1,35 @@
+package com.nicode.nursingapp.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import com.nicode.nursingapp.entities.RollupGranularity;
+import com.nicode.nursingapp.entities.VitalSignRollupEntity;
+
+/**
+ * Operaciones de mantenimiento de los resúmenes de signos vitales que se
+ * resuelven con SQL, sin cargar entidades.
+ */
+public interface VitalSignRollupRepositoryCustom {
+
+    /**
+     * Acumula mediciones en sus resúmenes: suma las cantidades y los totales y
+     * ajusta el mínimo y el máximo de cada resumen existente, o lo crea si no
+     * existe. Se ejecuta como un único lote JDBC y es seguro frente a
+     * inserciones concurrentes en el mismo intervalo.
+     *
+     * @param deltas Mediciones acumuladas por resumen.
+     */
+    void accumulate(Collection<VitalSignRollupEntity> deltas);
+
+    /**
+     * Vuelve a calcular los resúmenes de un intervalo a partir de los controles,
+     * incluidos los compactados, por ejemplo después de modificar o eliminar un
+     * control, ya que el mínimo y el máximo no pueden descontarse.
+     *
+     * @param historyId   Identificador de la Historia Clínica.
+     * @param granularity Granularidad del intervalo.
+     * @param bucketStart Inicio del intervalo.
+     */
+    void recompute(Long historyId, RollupGranularity granularity, LocalDateTime bucketStart);
+}
@@ -0,0 +1,113 @@
+package com.nicode.nursingapp.repositories;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.nicode.nursingapp.entities.RollupGranularity;
+import com.nicode.nursingapp.entities.VitalSign;
+import com.nicode.nursingapp.entities.VitalSignRollupEntity;
+import com.nicode.nursingapp.entities.VitalSignRollupId;
+import com.nicode.nursingapp.entities.dto.NursingControlDto;
+import com.nicode.nursingapp.services.ControlBlockCodec;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementación de {@link VitalSignRollupRepositoryCustom} con JdbcTemplate.
+ * Los intervalos se recalculan a partir de las filas y del bloque compactado
+ * del día, si existe.
+ */
+public class VitalSignRollupRepositoryImpl implements VitalSignRollupRepositoryCustom {
+
+    private static final String ACCUMULATE = "INSERT INTO vital_sign_rollups "
+            + "(history_id, granularity, bucket_start, vital, sample_count, value_sum, min_value, max_value) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "sample_count = sample_count + VALUES(sample_count), value_sum = value_sum + VALUES(value_sum), "
+            + "min_value = LEAST(min_value, VALUES(min_value)), max_value = GREATEST(max_value, VALUES(max_value))";
+
+    private static final String SELECT_BLOCK = "SELECT payload FROM nursing_control_blocks "
+            + "WHERE history_id = ? AND block_date = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructor que inicializa las dependencias del repositorio.
+     *
+     * @param jdbcTemplate Acceso JDBC a la base de datos.
+     */
+    @Autowired
+    public VitalSignRollupRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void accumulate(Collection<VitalSignRollupEntity> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (VitalSignRollupEntity delta : deltas) {
+            rows.add(new Object[] { delta.getHistoryId(), delta.getGranularity().name(),
+                    Timestamp.valueOf(delta.getBucketStart()), delta.getVital().name(), delta.getSampleCount(),
+                    delta.getValueSum(), delta.getMinValue(), delta.getMaxValue() });
+        }
+        this.jdbcTemplate.batchUpdate(ACCUMULATE, rows);
+    }
+
+    @Override
+    public void recompute(Long historyId, RollupGranularity granularity, LocalDateTime bucketStart) {
+        // Los cambios pendientes de los controles deben llegar a la base antes de
+        // agregarlos.
+        this.entityManager.flush();
+
+        Timestamp start = Timestamp.valueOf(bucketStart);
+        Timestamp end = Timestamp.valueOf(granularity.next(bucketStart));
+
+        this.jdbcTemplate.update("DELETE FROM vital_sign_rollups WHERE history_id = ? AND granularity = ? "
+                + "AND bucket_start = ?", historyId, granularity.name(), start);
+        for (VitalSign vital : VitalSign.values()) {
+            String column = vital.column();
+            this.jdbcTemplate.update("INSERT INTO vital_sign_rollups (history_id, granularity, bucket_start, vital, "
+                    + "sample_count, value_sum, min_value, max_value) SELECT ?, ?, ?, ?, COUNT(" + column + "), SUM("
+                    + column + "), MIN(" + column + "), MAX(" + column + ") FROM nursing_controls "
+                    + "WHERE patient_history_id = ? AND control_date >= ? AND control_date < ? HAVING COUNT("
+                    + column + ") > 0",
+                    historyId, granularity.name(), start, vital.name(), historyId, start, end);
+        }
+
+        // Los controles compactados del día no están como filas: se suman a los
+        // resúmenes recién calculados.
+        List<byte[]> blocks = this.jdbcTemplate.queryForList(SELECT_BLOCK, byte[].class, historyId,
+                bucketStart.toLocalDate());
+        if (blocks.isEmpty()) {
+            return;
+        }
+        LocalDateTime bucketEnd = granularity.next(bucketStart);
+        Map<VitalSign, VitalSignRollupEntity> deltas = new EnumMap<>(VitalSign.class);
+        for (NursingControlDto control : ControlBlockCodec.decode(bucketStart.toLocalDate(), blocks.get(0))) {
+            if (control.getControlDate().isBefore(bucketStart) || !control.getControlDate().isBefore(bucketEnd)) {
+                continue;
+            }
+            for (VitalSign vital : VitalSign.values()) {
+                Double value = vital.valueOf(control.toEntity());
+                if (value != null) {
+                    deltas.computeIfAbsent(vital, key -> new VitalSignRollupEntity(
+                            new VitalSignRollupId(historyId, granularity, bucketStart, key))).add(value);
+                }
+            }
+        }
+        accumulate(deltas.values());
+    }
+}
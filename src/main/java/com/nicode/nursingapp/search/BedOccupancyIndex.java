@@ -0,0 +1,444 @@
+package com.nicode.nursingapp.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.dto.BedCensusDto;
+import com.nicode.nursingapp.entities.dto.BedPlacementDto;
+import com.nicode.nursingapp.entities.dto.FreeBedDto;
+import com.nicode.nursingapp.entities.dto.SearchIndexReportDto;
+import com.nicode.nursingapp.repositories.PatientRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Índice en memoria de la ocupación de camas: por servicio y por habitación,
+ * un conjunto de bits con las camas ocupadas por pacientes internados (sin
+ * fecha de alta).
+ *
+ * La distribución de habitaciones y camas de cada servicio se aprende de la
+ * tabla de pacientes, incluidos los dados de alta: cada habitación tiene al
+ * menos `beds-per-room` camas, o tantas como el número de cama más alto que se
+ * haya registrado en ella. Con esa distribución, el censo de un servicio se
+ * responde en O(1) y sus camas libres en O(camas), sin consultar la base de
+ * datos.
+ *
+ * Se construye al iniciar la aplicación y se mantiene sincronizado desde
+ * PatientService una vez confirmada cada transacción. Cada `reconcile-interval`
+ * se compara con la tabla y, si difiere (por ejemplo, por cambios hechos por
+ * fuera de la aplicación), se reconstruye.
+ *
+ * Publica la métrica `patients.bed_occupancy.repairs`.
+ */
+@Component
+public class BedOccupancyIndex extends InMemoryIndex<BedOccupancyIndex.Segment> {
+
+    private static final Logger log = LoggerFactory.getLogger(BedOccupancyIndex.class);
+
+    /**
+     * Número de cama más alto que se acepta; las ubicaciones que lo superan se
+     * consideran errores de carga y no se indexan.
+     */
+    static final int MAX_BED = 999;
+
+    private final PatientRepository repository;
+    private final boolean enabled;
+    private final int bedsPerRoom;
+    private final Counter repairs;
+
+    /**
+     * Constructor que inicializa las dependencias del índice y sus métricas.
+     *
+     * @param repository         Repositorio para operaciones CRUD en entidades
+     *                           PatientEntity.
+     * @param transactionManager Administrador de transacciones para la lectura
+     *                           en streaming.
+     * @param meterRegistry      Registro de métricas.
+     * @param enabled            Indica si el índice está habilitado.
+     * @param bedsPerRoom        Cantidad mínima de camas de cada habitación.
+     */
+    public BedOccupancyIndex(PatientRepository repository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${patients.bed-occupancy.enabled:true}") boolean enabled,
+            @Value("${patients.bed-occupancy.beds-per-room:2}") int bedsPerRoom) {
+        super(transactionManager, () -> new Segment(bedsPerRoom));
+        if (bedsPerRoom < 1 || bedsPerRoom > MAX_BED) {
+            throw new IllegalArgumentException("La cantidad de camas por habitación debe estar entre 1 y "
+                    + MAX_BED + ".");
+        }
+        this.repository = repository;
+        this.enabled = enabled;
+        this.bedsPerRoom = bedsPerRoom;
+        this.repairs = Counter.builder("patients.bed_occupancy.repairs")
+                .description("Reconstrucciones del índice de ocupación por diferencias con la tabla")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si el índice está habilitado y terminó su construcción inicial.
+     *
+     * @return true si las consultas pueden resolverse desde memoria.
+     */
+    @Override
+    public boolean isReady() {
+        return this.enabled && super.isReady();
+    }
+
+    /**
+     * Construye el índice al iniciar la aplicación. Mientras tanto, las
+     * consultas recorren la tabla de pacientes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (this.enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Compara periódicamente el índice con la tabla y lo reconstruye si
+     * difiere.
+     */
+    @Scheduled(initialDelayString = "${patients.bed-occupancy.reconcile-interval:PT10M}",
+            fixedDelayString = "${patients.bed-occupancy.reconcile-interval:PT10M}")
+    public void reconcile() {
+        if (isReady()) {
+            check(true);
+        }
+    }
+
+    /**
+     * Registra la ubicación de un paciente una vez confirmada la transacción en
+     * curso: ocupa su cama si está internado y la libera si fue dado de alta o
+     * cambió de cama.
+     *
+     * @param patient Paciente registrado o actualizado.
+     */
+    public void place(PatientEntity patient) {
+        place(new BedPlacementDto(patient.getId(), patient.getService(), patient.getRoom(), patient.getBed(),
+                patient.getMedicalDischargeDate()));
+    }
+
+    /**
+     * Registra la ubicación de un paciente una vez confirmada la transacción en
+     * curso.
+     *
+     * @param placement Ubicación y fecha de alta del paciente.
+     */
+    public void place(BedPlacementDto placement) {
+        if (this.enabled && placement.getId() != null) {
+            Bed bed = Bed.of(placement);
+            boolean admitted = placement.getMedicalDischargeDate() == null;
+            mutate(segment -> segment.place(placement.getId(), bed, admitted));
+        }
+    }
+
+    /**
+     * Aplica una actualización parcial de un paciente una vez confirmada la
+     * transacción en curso, sin consultar la base de datos: los datos no nulos
+     * se superponen a la cama indexada. Como una actualización parcial no
+     * puede quitar la fecha de alta, un paciente que no está internado sigue
+     * sin ocupar cama.
+     *
+     * @param id      Identificador del paciente.
+     * @param changes Datos modificados del paciente.
+     */
+    public void patch(Long id, PatientEntity changes) {
+        if (!this.enabled || (changes.getService() == null && changes.getRoom() == null
+                && changes.getBed() == null && changes.getMedicalDischargeDate() == null)) {
+            return;
+        }
+        mutate(segment -> {
+            Bed current = segment.admitted.get(id);
+            if (current != null) {
+                BedPlacementDto placement = new BedPlacementDto(id,
+                        changes.getService() != null ? changes.getService() : current.service(),
+                        changes.getRoom() != null ? changes.getRoom() : current.room(),
+                        changes.getBed() != null ? changes.getBed() : current.bed(),
+                        changes.getMedicalDischargeDate());
+                segment.place(id, Bed.of(placement), placement.getMedicalDischargeDate() == null);
+            }
+        });
+    }
+
+    /**
+     * Libera la cama de un paciente eliminado una vez confirmada la transacción
+     * en curso.
+     *
+     * @param id Identificador del paciente.
+     */
+    public void remove(Long id) {
+        if (this.enabled) {
+            mutate(segment -> segment.place(id, null, false));
+        }
+    }
+
+    /**
+     * Obtiene el censo de camas de todos los servicios.
+     *
+     * @return Censos ordenados por servicio.
+     */
+    public List<BedCensusDto> census() {
+        return query(segment -> segment.wards.entrySet().stream()
+                .map(entry -> entry.getValue().census(entry.getKey())).toList());
+    }
+
+    /**
+     * Obtiene el censo de camas de un servicio.
+     *
+     * @param service Servicio.
+     * @return Censo del servicio, o vacío si no tiene habitaciones conocidas.
+     */
+    public Optional<BedCensusDto> census(String service) {
+        return query(segment -> Optional.ofNullable(segment.wards.get(service)).map(ward -> ward.census(service)));
+    }
+
+    /**
+     * Obtiene las camas libres de un servicio.
+     *
+     * @param service Servicio.
+     * @return Camas libres ordenadas por habitación y cama, o vacío si el
+     *         servicio no tiene habitaciones conocidas.
+     */
+    public Optional<List<FreeBedDto>> freeBeds(String service) {
+        return query(segment -> Optional.ofNullable(segment.wards.get(service)).map(Ward::freeBeds));
+    }
+
+    /**
+     * Reconstruye el índice recorriendo la tabla de pacientes en streaming.
+     *
+     * @return Cantidad de pacientes internados.
+     */
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        Segment fresh = reload();
+        log.info("Índice de ocupación de camas construido: {} servicios, {} pacientes internados, en {} ms",
+                fresh.wards.size(), fresh.admitted.size(), System.currentTimeMillis() - start);
+        return fresh.admitted.size();
+    }
+
+    @Override
+    protected void load(Segment segment) {
+        try (Stream<BedPlacementDto> placements = this.repository.streamBedPlacements()) {
+            placements.forEach(placement -> segment.place(placement.getId(), Bed.of(placement),
+                    placement.getMedicalDischargeDate() == null));
+        }
+    }
+
+    /**
+     * Verifica el índice contra la tabla de pacientes comparando la cama de cada
+     * paciente internado.
+     *
+     * @param repair Indica si se debe reconstruir el índice cuando no es
+     *               consistente.
+     * @return Reporte de consistencia del índice.
+     */
+    public SearchIndexReportDto check(boolean repair) {
+        Segment expected = scan();
+        long[] counters = new long[3]; // faltantes, desactualizados, huérfanos
+
+        long indexed = read(segment -> {
+            expected.admitted.forEach((id, bed) -> {
+                Bed current = segment.admitted.get(id);
+                if (current == null) {
+                    counters[0]++;
+                } else if (!current.equals(bed)) {
+                    counters[1]++;
+                }
+            });
+            segment.admitted.keySet().forEach(id -> {
+                if (!expected.admitted.containsKey(id)) {
+                    counters[2]++;
+                }
+            });
+            return (long) segment.admitted.size();
+        });
+
+        SearchIndexReportDto report = new SearchIndexReportDto(isReady(), indexed, expected.admitted.size(),
+                counters[0], counters[1], counters[2], false);
+
+        if (!report.isConsistent()) {
+            log.warn("Índice de ocupación de camas inconsistente: {}", report);
+            if (repair && this.enabled) {
+                rebuild();
+                this.repairs.increment();
+                report.setRebuilt(true);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Resuelve una consulta desde memoria o, si el índice no está listo,
+     * recorriendo la tabla.
+     */
+    private <T> T query(Function<Segment, T> reader) {
+        return isReady() ? read(reader) : reader.apply(scan());
+    }
+
+    /**
+     * Construye una estructura nueva a partir de la tabla, sin publicarla.
+     */
+    private Segment scan() {
+        Segment segment = new Segment(this.bedsPerRoom);
+        inReadOnlyTransaction(() -> load(segment));
+        return segment;
+    }
+
+    /**
+     * Cama de un servicio.
+     */
+    record Bed(String service, int room, int bed) {
+
+        /**
+         * @return La cama de la ubicación, o null si la ubicación está incompleta
+         *         o fuera de rango.
+         */
+        static Bed of(BedPlacementDto placement) {
+            if (placement.getService() == null || placement.getService().isBlank() || placement.getRoom() == null
+                    || placement.getBed() == null || placement.getBed() < 1 || placement.getBed() > MAX_BED) {
+                return null;
+            }
+            return new Bed(placement.getService(), placement.getRoom(), placement.getBed());
+        }
+    }
+
+    /**
+     * Datos del índice: la cama de cada paciente internado y la ocupación de
+     * cada servicio.
+     */
+    static final class Segment {
+        private final int bedsPerRoom;
+        private final Map<Long, Bed> admitted = new HashMap<>();
+        private final Map<String, Ward> wards = new TreeMap<>();
+
+        Segment(int bedsPerRoom) {
+            this.bedsPerRoom = bedsPerRoom;
+        }
+
+        /**
+         * Actualiza la ubicación de un paciente. Es idempotente: volver a
+         * registrar la misma ubicación no modifica la ocupación.
+         *
+         * @param id       Identificador del paciente.
+         * @param bed      Cama del paciente, o null si no tiene una válida.
+         * @param admitted Indica si el paciente está internado.
+         */
+        void place(Long id, Bed bed, boolean admitted) {
+            if (bed != null) {
+                room(bed).fit(bed.bed(), ward(bed.service()));
+            }
+
+            Bed occupied = admitted ? bed : null;
+            Bed previous = occupied == null ? this.admitted.remove(id) : this.admitted.put(id, occupied);
+            if (occupied != null && occupied.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                room(previous).vacate(previous.bed(), ward(previous.service()));
+            }
+            if (occupied != null) {
+                room(occupied).occupy(occupied.bed(), ward(occupied.service()));
+            }
+        }
+
+        private Ward ward(String service) {
+            return this.wards.computeIfAbsent(service, key -> new Ward());
+        }
+
+        private Room room(Bed bed) {
+            Ward ward = ward(bed.service());
+            return ward.rooms.computeIfAbsent(bed.room(), key -> {
+                ward.beds += this.bedsPerRoom;
+                return new Room(this.bedsPerRoom);
+            });
+        }
+    }
+
+    /**
+     * Habitaciones de un servicio, con los totales de camas y de camas ocupadas.
+     */
+    static final class Ward {
+        private final Map<Integer, Room> rooms = new TreeMap<>();
+        private int beds;
+        private int occupied;
+
+        BedCensusDto census(String service) {
+            return new BedCensusDto(service, this.rooms.size(), this.beds, this.occupied, this.beds - this.occupied);
+        }
+
+        List<FreeBedDto> freeBeds() {
+            List<FreeBedDto> free = new ArrayList<>(this.beds - this.occupied);
+            this.rooms.forEach((number, room) -> {
+                for (int bed = room.occupied.nextClearBit(1); bed <= room.capacity;
+                        bed = room.occupied.nextClearBit(bed + 1)) {
+                    free.add(new FreeBedDto(number, bed));
+                }
+            });
+            return free;
+        }
+    }
+
+    /**
+     * Camas de una habitación. Una cama registrada para más de un paciente
+     * (un error de carga) se cuenta como ocupada una sola vez, y se libera
+     * cuando la desocupa el último de ellos.
+     */
+    static final class Room {
+        private final BitSet occupied = new BitSet();
+        private final Map<Integer, Integer> shared = new HashMap<>();
+        private int capacity;
+
+        Room(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void fit(int bed, Ward ward) {
+            if (bed > this.capacity) {
+                ward.beds += bed - this.capacity;
+                this.capacity = bed;
+            }
+        }
+
+        void occupy(int bed, Ward ward) {
+            if (this.occupied.get(bed)) {
+                this.shared.merge(bed, 1, Integer::sum);
+            } else {
+                this.occupied.set(bed);
+                ward.occupied++;
+            }
+        }
+
+        void vacate(int bed, Ward ward) {
+            Integer others = this.shared.get(bed);
+            if (others != null) {
+                if (others == 1) {
+                    this.shared.remove(bed);
+                } else {
+                    this.shared.put(bed, others - 1);
+                }
+            } else if (this.occupied.get(bed)) {
+                this.occupied.clear(bed);
+                ward.occupied--;
+            }
+        }
+    }
+}
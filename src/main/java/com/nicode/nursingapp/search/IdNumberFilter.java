@@ -0,0 +1,314 @@
+package com.nicode.nursingapp.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.nicode.nursingapp.entities.dto.IdNumberFilterReportDto;
+import com.nicode.nursingapp.repositories.PatientRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Filtro de Bloom en memoria sobre los números de identificación (DNI) de los
+ * pacientes registrados.
+ *
+ * Responde si un DNI "puede estar" registrado: una respuesta negativa es
+ * definitiva y evita consultar la base de datos; una positiva puede ser un
+ * falso positivo y se confirma con PatientRepository. Con la capacidad y la
+ * tasa de falsos positivos configuradas, el filtro ocupa alrededor de 1,2 MB
+ * por millón de DNI (al 1 %).
+ *
+ * Se construye al iniciar la aplicación recorriendo la tabla en streaming y
+ * se actualiza desde PatientService una vez confirmada cada transacción. Un
+ * filtro de Bloom no admite bajas: los DNI de pacientes eliminados siguen
+ * respondiendo "puede estar" hasta la próxima reconstrucción, lo que solo
+ * agrega consultas a la base de datos. Si al reconstruirlo los DNI
+ * registrados superan la capacidad, se redimensiona al doble de ellos.
+ *
+ * Publica las métricas `patients.id_number_filter.checks` (por resultado),
+ * `patients.id_number_filter.false_positives`,
+ * `patients.id_number_filter.memory` y
+ * `patients.id_number_filter.expected_fpp`.
+ */
+@Component
+public class IdNumberFilter extends InMemoryIndex<IdNumberFilter.Filter> {
+
+    private static final Logger log = LoggerFactory.getLogger(IdNumberFilter.class);
+
+    private final PatientRepository repository;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+
+    private volatile long capacity;
+
+    private final Counter definiteMisses;
+    private final Counter probableHits;
+    private final Counter falsePositives;
+
+    /**
+     * Constructor que inicializa las dependencias del filtro y sus métricas.
+     *
+     * @param repository         Repositorio para operaciones CRUD en entidades
+     *                           PatientEntity.
+     * @param transactionManager Administrador de transacciones para la lectura
+     *                           en streaming.
+     * @param meterRegistry      Registro de métricas.
+     * @param enabled            Indica si el filtro está habilitado.
+     * @param capacity           Cantidad de DNI para la que se dimensiona el
+     *                           filtro.
+     * @param falsePositiveRate  Tasa de falsos positivos esperada a plena
+     *                           capacidad.
+     */
+    public IdNumberFilter(PatientRepository repository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${patients.id-number-filter.enabled:true}") boolean enabled,
+            @Value("${patients.id-number-filter.capacity:1000000}") long capacity,
+            @Value("${patients.id-number-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        super(transactionManager, Filter::empty);
+        if (capacity < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException(
+                    "La capacidad debe ser positiva y la tasa de falsos positivos debe estar entre 0 y 1.");
+        }
+        this.repository = repository;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.falsePositiveRate = falsePositiveRate;
+
+        this.definiteMisses = Counter.builder("patients.id_number_filter.checks").tag("result", "definite_miss")
+                .description("DNI descartados sin consultar la base de datos").register(meterRegistry);
+        this.probableHits = Counter.builder("patients.id_number_filter.checks").tag("result", "probable_hit")
+                .description("DNI que requirieron confirmación en la base de datos").register(meterRegistry);
+        this.falsePositives = Counter.builder("patients.id_number_filter.false_positives")
+                .description("DNI señalados por el filtro que no estaban registrados").register(meterRegistry);
+        Gauge.builder("patients.id_number_filter.memory", this, f -> f.read(Filter::memoryBytes))
+                .baseUnit("bytes").description("Memoria ocupada por el filtro").register(meterRegistry);
+        Gauge.builder("patients.id_number_filter.expected_fpp", this,
+                f -> f.read(Filter::expectedFalsePositiveRate))
+                .description("Tasa de falsos positivos estimada según la ocupación").register(meterRegistry);
+    }
+
+    /**
+     * Indica si el filtro está habilitado y terminó su construcción inicial.
+     *
+     * @return true si las respuestas negativas son definitivas.
+     */
+    @Override
+    public boolean isReady() {
+        return this.enabled && super.isReady();
+    }
+
+    /**
+     * Construye el filtro al iniciar la aplicación. Mientras tanto, todos los
+     * DNI se verifican en la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (this.enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Indica si un DNI puede estar registrado. Si el filtro no está listo
+     * responde true, para que se consulte la base de datos.
+     *
+     * @param idNumber Número de identificación.
+     * @return false si el DNI seguro no está registrado; true si puede estarlo.
+     */
+    public boolean mightContain(String idNumber) {
+        if (!isReady() || idNumber == null) {
+            return true;
+        }
+        String key = normalize(idNumber);
+        boolean probable = read(filter -> filter.mightContain(key));
+        (probable ? this.probableHits : this.definiteMisses).increment();
+        return probable;
+    }
+
+    /**
+     * Registra DNI señalados por el filtro que la base de datos confirmó como no
+     * registrados.
+     *
+     * @param count Cantidad de falsos positivos.
+     */
+    public void recordFalsePositives(int count) {
+        if (count > 0) {
+            this.falsePositives.increment(count);
+        }
+    }
+
+    /**
+     * Agrega un DNI una vez confirmada la transacción en curso.
+     *
+     * @param idNumber Número de identificación registrado.
+     */
+    public void add(String idNumber) {
+        if (this.enabled && idNumber != null) {
+            String key = normalize(idNumber);
+            mutate(filter -> filter.add(key));
+        }
+    }
+
+    /**
+     * Reconstruye el filtro recorriendo la tabla de pacientes en streaming; así
+     * se descartan los DNI de pacientes eliminados.
+     *
+     * @return Cantidad de DNI agregados.
+     */
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        Filter fresh = reload();
+
+        if (fresh.insertions > fresh.capacity) {
+            log.warn("El filtro de DNI supera su capacidad ({} de {}); la próxima reconstrucción lo redimensiona.",
+                    fresh.insertions, fresh.capacity);
+        }
+        log.info("Filtro de DNI construido: {} DNI, {} KB, {} funciones de hash, en {} ms", fresh.insertions,
+                fresh.memoryBytes() / 1024, fresh.hashes, System.currentTimeMillis() - start);
+        return fresh.insertions;
+    }
+
+    @Override
+    protected void load(Filter filter) {
+        long count = this.repository.count();
+        if (count > this.capacity) {
+            this.capacity = 2 * count;
+        }
+        filter.allocate(this.capacity, this.falsePositiveRate);
+
+        try (Stream<String> idNumbers = this.repository.streamIdNumbers()) {
+            idNumbers.forEach(idNumber -> filter.add(normalize(idNumber)));
+        }
+    }
+
+    /**
+     * Obtiene el estado del filtro: dimensiones, memoria ocupada y tasas de
+     * falsos positivos estimada y observada.
+     *
+     * @return Reporte del filtro.
+     */
+    public IdNumberFilterReportDto report() {
+        long misses = (long) this.definiteMisses.count();
+        long hits = (long) this.probableHits.count();
+        long falsePositiveCount = (long) this.falsePositives.count();
+
+        return read(filter -> new IdNumberFilterReportDto(isReady(), filter.capacity, filter.insertions,
+                filter.bitCount, filter.hashes, filter.memoryBytes(), filter.expectedFalsePositiveRate(), misses,
+                hits, falsePositiveCount,
+                misses + falsePositiveCount == 0 ? 0 : (double) falsePositiveCount / (misses + falsePositiveCount)));
+    }
+
+    /**
+     * Normaliza el DNI como lo compara la base de datos: sin espacios en los
+     * extremos y sin distinguir mayúsculas.
+     */
+    private static String normalize(String idNumber) {
+        return idNumber.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Arreglo de bits del filtro. Cada DNI marca `hashes` posiciones obtenidas
+     * por doble hashing a partir de un hash de 64 bits.
+     */
+    static final class Filter {
+        private long capacity;
+        private long bitCount;
+        private int hashes;
+        private long[] words;
+        private long setBits;
+        private long insertions;
+
+        static Filter empty() {
+            Filter filter = new Filter();
+            filter.allocate(1, 0.5);
+            return filter;
+        }
+
+        /**
+         * Dimensiona el filtro según la fórmula habitual: m = -n ln p / (ln 2)^2
+         * bits y k = (m / n) ln 2 funciones de hash.
+         */
+        void allocate(long capacity, double falsePositiveRate) {
+            long bits = Math.max(64, (long) Math.ceil(-capacity * Math.log(falsePositiveRate)
+                    / (Math.log(2) * Math.log(2))));
+            this.capacity = capacity;
+            this.words = new long[(int) ((bits + 63) / 64)];
+            this.bitCount = this.words.length * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) this.bitCount / capacity * Math.log(2)));
+            this.setBits = 0;
+            this.insertions = 0;
+        }
+
+        void add(String key) {
+            long hash = hash(key);
+            int high = (int) (hash >>> 32);
+            int low = (int) hash;
+            boolean changed = false;
+            for (int i = 1; i <= this.hashes; i++) {
+                long bit = Integer.toUnsignedLong(low + i * high) % this.bitCount;
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                if ((this.words[word] & mask) == 0) {
+                    this.words[word] |= mask;
+                    this.setBits++;
+                    changed = true;
+                }
+            }
+            if (changed) {
+                this.insertions++;
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            int high = (int) (hash >>> 32);
+            int low = (int) hash;
+            for (int i = 1; i <= this.hashes; i++) {
+                long bit = Integer.toUnsignedLong(low + i * high) % this.bitCount;
+                if ((this.words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long memoryBytes() {
+            return this.words.length * 8L;
+        }
+
+        /**
+         * Tasa de falsos positivos esperada con la ocupación actual de bits.
+         */
+        double expectedFalsePositiveRate() {
+            return Math.pow((double) this.setBits / this.bitCount, this.hashes);
+        }
+
+        /**
+         * Hash FNV-1a de 64 bits seguido del mezclador final de MurmurHash3.
+         */
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.nicode.nursingapp.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Base de los índices en memoria que se construyen a partir de una tabla y se
+ * mantienen sincronizados con las escrituras de los servicios.
+ *
+ * Resuelve la concurrencia (lecturas en paralelo, escrituras exclusivas), la
+ * aplicación de cambios solo después de confirmada la transacción y la
+ * reconstrucción completa sin perder las escrituras que ocurran mientras tanto:
+ * esas escrituras se registran y se reaplican sobre la estructura nueva antes
+ * de reemplazar a la anterior. Las modificaciones deben ser idempotentes.
+ *
+ * @param <S> Tipo de la estructura que contiene los datos del índice.
+ */
+public abstract class InMemoryIndex<S> {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TransactionTemplate readOnlyTransaction;
+    private final Supplier<S> emptySegment;
+
+    private S segment;
+    private List<Consumer<S>> rebuildJournal;
+    private volatile boolean ready;
+
+    /**
+     * Constructor que inicializa la estructura vacía del índice.
+     *
+     * @param transactionManager Administrador de transacciones para las lecturas
+     *                           en streaming.
+     * @param emptySegment       Proveedor de estructuras vacías.
+     */
+    protected InMemoryIndex(PlatformTransactionManager transactionManager, Supplier<S> emptySegment) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.emptySegment = emptySegment;
+        this.segment = emptySegment.get();
+    }
+
+    /**
+     * Carga en la estructura todos los datos de la tabla de origen. Se ejecuta
+     * dentro de una transacción de solo lectura.
+     *
+     * @param segment Estructura vacía a completar.
+     */
+    protected abstract void load(S segment);
+
+    /**
+     * Indica si el índice terminó su construcción inicial.
+     *
+     * @return true si las consultas pueden resolverse desde memoria.
+     */
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * Reconstruye el índice completo a partir de la tabla de origen.
+     *
+     * @return La estructura nueva, ya publicada.
+     */
+    protected synchronized S reload() {
+        S fresh = this.emptySegment.get();
+
+        this.lock.writeLock().lock();
+        try {
+            this.rebuildJournal = new ArrayList<>();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        try {
+            this.readOnlyTransaction.executeWithoutResult(status -> load(fresh));
+        } catch (RuntimeException e) {
+            this.lock.writeLock().lock();
+            try {
+                this.rebuildJournal = null;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            this.rebuildJournal.forEach(mutation -> mutation.accept(fresh));
+            this.rebuildJournal = null;
+            this.segment = fresh;
+            this.ready = true;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        return fresh;
+    }
+
+    /**
+     * Ejecuta una lectura sobre la estructura actual con el bloqueo de lectura
+     * tomado.
+     *
+     * @param reader Función de lectura.
+     * @return El resultado de la lectura.
+     */
+    protected <T> T read(Function<S, T> reader) {
+        this.lock.readLock().lock();
+        try {
+            return reader.apply(this.segment);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica una modificación cuando se confirma la transacción en curso, o de
+     * inmediato si no hay una transacción activa. Así el índice nunca refleja
+     * cambios que terminaron revirtiéndose.
+     *
+     * @param mutation Modificación idempotente sobre la estructura.
+     */
+    protected void mutate(Consumer<S> mutation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(mutation);
+                }
+            });
+        } else {
+            apply(mutation);
+        }
+    }
+
+    /**
+     * Ejecuta una acción dentro de una transacción de solo lectura, por ejemplo
+     * para recorrer la tabla de origen en streaming.
+     *
+     * @param action Acción a ejecutar.
+     */
+    protected void inReadOnlyTransaction(Runnable action) {
+        this.readOnlyTransaction.executeWithoutResult(status -> action.run());
+    }
+
+    private void apply(Consumer<S> mutation) {
+        this.lock.writeLock().lock();
+        try {
+            mutation.accept(this.segment);
+            if (this.rebuildJournal != null) {
+                this.rebuildJournal.add(mutation);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+}
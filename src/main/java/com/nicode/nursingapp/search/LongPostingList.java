@@ -0,0 +1,156 @@
+package com.nicode.nursingapp.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lista de identificadores ordenada y sin duplicados, almacenada en un arreglo
+ * de tipos primitivos para reducir el consumo de memoria del índice invertido.
+ * Los identificadores nuevos suelen ser crecientes, por lo que la inserción
+ * habitual es un agregado al final. No es segura para uso concurrente.
+ */
+final class LongPostingList {
+
+    private long[] ids = new long[4];
+    private int size;
+
+    /**
+     * Agrega un identificador manteniendo el orden.
+     *
+     * @param id Identificador a agregar.
+     */
+    void add(long id) {
+        if (this.size > 0 && this.ids[this.size - 1] < id) {
+            append(id);
+            return;
+        }
+        int position = Arrays.binarySearch(this.ids, 0, this.size, id);
+        if (position >= 0) {
+            return;
+        }
+        int insertion = -position - 1;
+        ensureCapacity();
+        System.arraycopy(this.ids, insertion, this.ids, insertion + 1, this.size - insertion);
+        this.ids[insertion] = id;
+        this.size++;
+    }
+
+    /**
+     * Elimina un identificador si está presente.
+     *
+     * @param id Identificador a eliminar.
+     */
+    void remove(long id) {
+        int position = Arrays.binarySearch(this.ids, 0, this.size, id);
+        if (position >= 0) {
+            System.arraycopy(this.ids, position + 1, this.ids, position, this.size - position - 1);
+            this.size--;
+        }
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(this.ids, 0, this.size, id) >= 0;
+    }
+
+    long get(int index) {
+        return this.ids[index];
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private void append(long id) {
+        ensureCapacity();
+        this.ids[this.size++] = id;
+    }
+
+    private void ensureCapacity() {
+        if (this.size == this.ids.length) {
+            this.ids = Arrays.copyOf(this.ids, this.ids.length * 2);
+        }
+    }
+
+    /**
+     * Une dos listas ordenadas en una nueva lista ordenada sin duplicados.
+     *
+     * @param first  Primera lista.
+     * @param second Segunda lista.
+     * @return Lista con los identificadores de ambas.
+     */
+    static LongPostingList union(LongPostingList first, LongPostingList second) {
+        if (first.isEmpty()) {
+            return second;
+        }
+        if (second.isEmpty()) {
+            return first;
+        }
+        LongPostingList union = new LongPostingList();
+        int i = 0;
+        int j = 0;
+        while (i < first.size || j < second.size) {
+            long next;
+            if (j == second.size || (i < first.size && first.ids[i] <= second.ids[j])) {
+                next = first.ids[i++];
+            } else {
+                next = second.ids[j++];
+            }
+            if (union.isEmpty() || union.ids[union.size - 1] != next) {
+                union.append(next);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Recorre en paralelo varias listas ordenadas y devuelve los identificadores
+     * presentes en al menos `required` de ellas, más todos los de la lista
+     * `always` (si no es null). No utiliza tipos envueltos ni tablas hash.
+     *
+     * @param lists    Listas a combinar.
+     * @param required Cantidad mínima de listas en las que debe aparecer.
+     * @param always   Lista cuyos identificadores se incluyen siempre.
+     * @return Lista ordenada con los identificadores seleccionados.
+     */
+    static LongPostingList atLeast(List<LongPostingList> lists, int required, LongPostingList always) {
+        LongPostingList result = new LongPostingList();
+        int[] cursors = new int[lists.size()];
+        int alwaysCursor = 0;
+
+        while (true) {
+            long minimum = Long.MAX_VALUE;
+            for (int i = 0; i < lists.size(); i++) {
+                if (cursors[i] < lists.get(i).size) {
+                    minimum = Math.min(minimum, lists.get(i).ids[cursors[i]]);
+                }
+            }
+            if (always != null && alwaysCursor < always.size) {
+                minimum = Math.min(minimum, always.ids[alwaysCursor]);
+            }
+            if (minimum == Long.MAX_VALUE) {
+                return result;
+            }
+
+            int count = 0;
+            for (int i = 0; i < lists.size(); i++) {
+                LongPostingList list = lists.get(i);
+                if (cursors[i] < list.size && list.ids[cursors[i]] == minimum) {
+                    cursors[i]++;
+                    count++;
+                }
+            }
+            boolean forced = false;
+            if (always != null && alwaysCursor < always.size && always.ids[alwaysCursor] == minimum) {
+                alwaysCursor++;
+                forced = true;
+            }
+            if (forced || count >= required) {
+                result.append(minimum);
+            }
+        }
+    }
+}
@@ -0,0 +1,577 @@
+package com.nicode.nursingapp.search;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.nicode.nursingapp.entities.NursingControlBlockId;
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.dto.ControlBlockDto;
+import com.nicode.nursingapp.entities.dto.NursingControlDto;
+import com.nicode.nursingapp.entities.dto.ObservationIndexDto;
+import com.nicode.nursingapp.entities.dto.ObservationSource;
+import com.nicode.nursingapp.entities.dto.PatientIndexDto;
+import com.nicode.nursingapp.repositories.NursingControlBlockRepository;
+import com.nicode.nursingapp.repositories.NursingControlRepository;
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+import com.nicode.nursingapp.repositories.PatientRepository;
+import com.nicode.nursingapp.services.ControlBlockCodec;
+
+/**
+ * Índice invertido en memoria sobre las observaciones de los controles de
+ * enfermería y de las Historias Clínicas.
+ *
+ * Cada observación se normaliza (minúsculas y sin acentos) y se divide en
+ * palabras; cada palabra apunta a la lista ordenada de observaciones que la
+ * contienen. El vocabulario se guarda ordenado, por lo que cada palabra buscada
+ * se resuelve como prefijo ("tor" encuentra "torácico") y las palabras se
+ * combinan con intersección. El texto no se guarda en memoria: solo la
+ * Historia Clínica y la fecha de cada observación, para filtrar por servicio y
+ * rango de fechas. La base de datos solo se consulta para hidratar la página de
+ * resultados.
+ *
+ * El índice se construye al iniciar la aplicación, incluidos los controles
+ * compactados, y se mantiene sincronizado desde los servicios de pacientes,
+ * Historias Clínicas y controles una vez confirmada cada transacción.
+ */
+@Component
+public class ObservationSearchIndex extends InMemoryIndex<ObservationSearchIndex.Segment> {
+
+    private static final Logger log = LoggerFactory.getLogger(ObservationSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{M}\\p{N}]+");
+
+    /**
+     * Fecha asignada a las observaciones de Historias Clínicas, que no tienen
+     * fecha: se ordenan después de todos los controles.
+     */
+    private static final long UNDATED = Long.MIN_VALUE;
+
+    private final PatientRepository patientRepository;
+    private final PatientHistoryRepository historyRepository;
+    private final NursingControlRepository controlRepository;
+    private final NursingControlBlockRepository blockRepository;
+    private final boolean enabled;
+
+    /**
+     * Constructor que inicializa las dependencias del índice.
+     *
+     * @param patientRepository  Repositorio para operaciones CRUD en entidades
+     *                           PatientEntity.
+     * @param historyRepository  Repositorio para operaciones CRUD en entidades
+     *                           PatientHistoryEntity.
+     * @param controlRepository  Repositorio para operaciones CRUD en entidades
+     *                           NursingControlEntity.
+     * @param blockRepository    Repositorio de los bloques de controles
+     *                           compactados.
+     * @param transactionManager Administrador de transacciones para la lectura
+     *                           en streaming.
+     * @param enabled            Indica si el índice está habilitado.
+     */
+    public ObservationSearchIndex(PatientRepository patientRepository, PatientHistoryRepository historyRepository,
+            NursingControlRepository controlRepository, NursingControlBlockRepository blockRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${observations.search-index.enabled:true}") boolean enabled) {
+        super(transactionManager, Segment::new);
+        this.patientRepository = patientRepository;
+        this.historyRepository = historyRepository;
+        this.controlRepository = controlRepository;
+        this.blockRepository = blockRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Observación encontrada.
+     *
+     * @param source Origen de la observación.
+     * @param id     Identificador del control o de la Historia Clínica.
+     */
+    public record Hit(ObservationSource source, Long id) {
+    }
+
+    /**
+     * Resultado de una búsqueda: observaciones de la página solicitada y total de
+     * coincidencias.
+     *
+     * @param hits  Observaciones de la página, de la más reciente a la más
+     *              antigua.
+     * @param total Cantidad total de observaciones que coinciden.
+     */
+    public record SearchResult(List<Hit> hits, long total) {
+    }
+
+    @Override
+    public boolean isReady() {
+        return this.enabled && super.isReady();
+    }
+
+    /**
+     * Construye el índice al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (this.enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Busca observaciones que contengan todas las palabras del texto buscado
+     * (cada una como prefijo de una palabra), sin distinguir mayúsculas ni
+     * acentos.
+     *
+     * @param query     Texto buscado.
+     * @param service   Servicio del paciente (opcional).
+     * @param startDate Fecha mínima del control (opcional).
+     * @param endDate   Fecha máxima del control (opcional).
+     * @param offset    Posición del primer resultado de la página.
+     * @param limit     Cantidad máxima de resultados de la página.
+     * @return Observaciones de la página, de la más reciente a la más antigua, y
+     *         total de coincidencias. Si se indica un rango de fechas, solo se
+     *         incluyen observaciones de controles.
+     */
+    public SearchResult search(String query, String service, LocalDateTime startDate, LocalDateTime endDate,
+            long offset, int limit) {
+
+        String[] queryTokens = tokens(query);
+        if (queryTokens.length == 0 || limit <= 0) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        String serviceFilter = service == null || service.isBlank() ? null : TextNormalizer.fold(service).trim();
+        boolean dated = startDate != null || endDate != null;
+        long from = startDate == null ? Long.MIN_VALUE : epochSecond(startDate);
+        long to = endDate == null ? Long.MAX_VALUE : epochSecond(endDate);
+        int topK = (int) Math.min(offset + limit, Integer.MAX_VALUE - 1);
+
+        PriorityQueue<DatedKey> heap = new PriorityQueue<>();
+
+        long total = read(segment -> {
+            long matched = 0;
+            LongPostingList candidates = candidates(segment, queryTokens);
+            for (int i = 0; i < candidates.size(); i++) {
+                long key = candidates.get(i);
+                Document document = segment.docs.get(key);
+                if (document == null
+                        || (dated && (document.date() == UNDATED || document.date() < from || document.date() > to))
+                        || (serviceFilter != null && !serviceFilter.equals(segment.serviceOf(document.historyId())))) {
+                    continue;
+                }
+                matched++;
+                heap.offer(new DatedKey(key, document.date()));
+                if (heap.size() > topK) {
+                    heap.poll();
+                }
+            }
+            return matched;
+        });
+
+        List<DatedKey> ranked = new ArrayList<>(heap);
+        ranked.sort(Collections.reverseOrder());
+
+        List<Hit> page = new ArrayList<>(limit);
+        for (int i = (int) Math.min(offset, ranked.size()); i < ranked.size() && page.size() < limit; i++) {
+            long key = ranked.get(i).key();
+            page.add(new Hit((key & 1) == 1 ? ObservationSource.HISTORY : ObservationSource.CONTROL, key >>> 1));
+        }
+        return new SearchResult(page, total);
+    }
+
+    /**
+     * Marca en el texto las palabras que coinciden con la búsqueda. El texto se
+     * escapa para HTML y cada coincidencia se encierra en `<mark>`.
+     *
+     * @param text  Texto original de las observaciones.
+     * @param query Texto buscado.
+     * @return Texto escapado con las coincidencias marcadas.
+     */
+    public static String highlight(String text, String query) {
+        if (text == null) {
+            return null;
+        }
+        String[] queryTokens = tokens(query);
+        StringBuilder highlighted = new StringBuilder(text.length() + 16);
+        Matcher words = WORD.matcher(text);
+        int last = 0;
+
+        while (words.find()) {
+            escape(highlighted, text.substring(last, words.start()));
+            String word = words.group();
+            String folded = TextNormalizer.fold(word);
+            if (Arrays.stream(queryTokens).anyMatch(folded::startsWith)) {
+                highlighted.append("<mark>");
+                escape(highlighted, word);
+                highlighted.append("</mark>");
+            } else {
+                escape(highlighted, word);
+            }
+            last = words.end();
+        }
+        escape(highlighted, text.substring(last));
+        return highlighted.toString();
+    }
+
+    /**
+     * Obtiene el bloque en el que estaría compactado cada control, según la
+     * Historia Clínica y la fecha indexadas, para hidratar los controles que ya
+     * no están como filas.
+     *
+     * @param controlIds Identificadores de los controles.
+     * @return Bloque de cada control indexado con fecha.
+     */
+    public Map<Long, NursingControlBlockId> locateControls(Collection<Long> controlIds) {
+        return read(segment -> {
+            Map<Long, NursingControlBlockId> locations = new HashMap<>();
+            for (Long controlId : controlIds) {
+                Document document = segment.docs.get(controlKey(controlId));
+                if (document != null && document.date() != UNDATED) {
+                    locations.put(controlId, new NursingControlBlockId(document.historyId(),
+                            LocalDateTime.ofEpochSecond(document.date(), 0, ZoneOffset.UTC).toLocalDate()));
+                }
+            }
+            return locations;
+        });
+    }
+
+    /**
+     * Indexa (o reindexa) las observaciones de un control una vez confirmada la
+     * transacción en curso.
+     *
+     * @param control   Control guardado.
+     * @param historyId Identificador de la Historia Clínica del control.
+     */
+    public void index(NursingControlEntity control, Long historyId) {
+        if (!this.enabled || control.getId() == null) {
+            return;
+        }
+        long key = controlKey(control.getId());
+        Document document = new Document(historyId, dateOf(control.getControlDate()),
+                tokens(control.getObservations()));
+
+        mutate(segment -> segment.put(key, document));
+    }
+
+    /**
+     * Elimina las observaciones de un control una vez confirmada la transacción
+     * en curso.
+     *
+     * @param controlId Identificador del control eliminado.
+     */
+    public void removeControl(Long controlId) {
+        if (this.enabled) {
+            long key = controlKey(controlId);
+            mutate(segment -> segment.remove(key));
+        }
+    }
+
+    /**
+     * Elimina las observaciones de varios controles una vez confirmada la
+     * transacción en curso, con un único bloqueo del índice.
+     *
+     * @param controlIds Identificadores de los controles eliminados.
+     */
+    public void removeControls(Collection<Long> controlIds) {
+        if (this.enabled && !controlIds.isEmpty()) {
+            long[] keys = controlIds.stream().mapToLong(ObservationSearchIndex::controlKey).toArray();
+            mutate(segment -> {
+                for (long key : keys) {
+                    segment.remove(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Indexa (o reindexa) las observaciones de una Historia Clínica una vez
+     * confirmada la transacción en curso.
+     *
+     * @param history   Historia Clínica guardada.
+     * @param patientId Identificador del paciente de la historia.
+     */
+    public void index(PatientHistoryEntity history, Long patientId) {
+        if (!this.enabled || history.getId() == null) {
+            return;
+        }
+        Long historyId = history.getId();
+        Document document = new Document(historyId, UNDATED, tokens(history.getObservations()));
+
+        mutate(segment -> segment.putHistory(historyId, patientId, document));
+    }
+
+    /**
+     * Elimina una Historia Clínica y las observaciones de todos sus controles una
+     * vez confirmada la transacción en curso.
+     *
+     * @param historyId Identificador de la Historia Clínica eliminada.
+     */
+    public void removeHistory(Long historyId) {
+        if (this.enabled) {
+            mutate(segment -> segment.removeHistory(historyId));
+        }
+    }
+
+    /**
+     * Actualiza el servicio de un paciente, usado para filtrar las búsquedas.
+     *
+     * @param patientId Identificador del paciente.
+     * @param service   Servicio en el que está internado.
+     */
+    public void indexPatient(Long patientId, String service) {
+        if (this.enabled && patientId != null) {
+            String folded = TextNormalizer.fold(service).trim();
+            mutate(segment -> segment.patientServices.put(patientId, folded));
+        }
+    }
+
+    /**
+     * Elimina un paciente junto con su Historia Clínica y sus controles una vez
+     * confirmada la transacción en curso.
+     *
+     * @param patientId Identificador del paciente eliminado.
+     */
+    public void removePatient(Long patientId) {
+        if (this.enabled) {
+            mutate(segment -> segment.removePatient(patientId));
+        }
+    }
+
+    /**
+     * Reconstruye el índice recorriendo en streaming pacientes, Historias
+     * Clínicas, controles y bloques de controles compactados.
+     *
+     * @return Cantidad de observaciones indexadas.
+     */
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        Segment fresh = reload();
+
+        log.info("Índice de observaciones construido: {} observaciones, {} palabras en {} ms",
+                fresh.docs.size(), fresh.terms.size(), System.currentTimeMillis() - start);
+        return fresh.docs.size();
+    }
+
+    @Override
+    protected void load(Segment segment) {
+        try (Stream<PatientIndexDto> patients = this.patientRepository.streamIndexDocuments()) {
+            patients.forEach(patient -> segment.patientServices.put(patient.getId(),
+                    TextNormalizer.fold(patient.getService()).trim()));
+        }
+        try (Stream<ObservationIndexDto> histories = this.historyRepository.streamObservationDocuments()) {
+            histories.forEach(history -> segment.putHistory(history.getHistoryId(), history.getPatientId(),
+                    new Document(history.getHistoryId(), UNDATED, tokens(history.getObservations()))));
+        }
+        try (Stream<ObservationIndexDto> controls = this.controlRepository.streamObservationDocuments()) {
+            controls.forEach(control -> segment.put(controlKey(control.getId()), new Document(
+                    control.getHistoryId(), dateOf(control.getControlDate()), tokens(control.getObservations()))));
+        }
+        try (Stream<ControlBlockDto> blocks = this.blockRepository.streamPayloads()) {
+            blocks.forEach(block -> {
+                for (NursingControlDto control : ControlBlockCodec.decode(block.getBlockDate(), block.getPayload())) {
+                    segment.put(controlKey(control.getId()), new Document(block.getHistoryId(),
+                            dateOf(control.getControlDate()), tokens(control.getObservations())));
+                }
+            });
+        }
+    }
+
+    /**
+     * Obtiene las observaciones que contienen todas las palabras buscadas: para
+     * cada palabra se unen las listas de las palabras del vocabulario que
+     * empiezan con ella, y luego se intersectan.
+     */
+    private static LongPostingList candidates(Segment segment, String[] queryTokens) {
+        List<LongPostingList> perToken = new ArrayList<>(queryTokens.length);
+        for (String token : queryTokens) {
+            NavigableMap<String, LongPostingList> prefixed = segment.terms.subMap(token, true,
+                    token + Character.MAX_VALUE, false);
+            if (prefixed.isEmpty()) {
+                return new LongPostingList();
+            }
+            perToken.add(prefixed.size() == 1 ? prefixed.firstEntry().getValue()
+                    : LongPostingList.atLeast(new ArrayList<>(prefixed.values()), 1, null));
+        }
+        return perToken.size() == 1 ? perToken.get(0) : LongPostingList.atLeast(perToken, perToken.size(), null);
+    }
+
+    /**
+     * Las claves combinan el identificador y el origen (bit menos significativo),
+     * para guardar controles e historias en las mismas listas.
+     */
+    private static long controlKey(long controlId) {
+        return controlId << 1;
+    }
+
+    private static long historyKey(long historyId) {
+        return (historyId << 1) | 1;
+    }
+
+    private static long dateOf(LocalDateTime date) {
+        return date == null ? UNDATED : epochSecond(date);
+    }
+
+    private static long epochSecond(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static String[] tokens(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(TextNormalizer.fold(text))).filter(token -> !token.isEmpty())
+                .distinct().toArray(String[]::new);
+    }
+
+    private static void escape(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            switch (character) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(character);
+            }
+        }
+    }
+
+    /**
+     * Observación indexada: Historia Clínica, fecha (segundos epoch, o
+     * {@link #UNDATED}) y palabras normalizadas sin repetir, necesarias para
+     * quitarla de las listas al modificarla o eliminarla.
+     */
+    private record Document(long historyId, long date, String[] terms) {
+    }
+
+    /**
+     * Clave con su fecha; el orden natural pone primero a la más antigua para
+     * usarlo en un montículo de mínimos.
+     */
+    private record DatedKey(long key, long date) implements Comparable<DatedKey> {
+
+        @Override
+        public int compareTo(DatedKey other) {
+            int byDate = Long.compare(this.date, other.date);
+            return byDate != 0 ? byDate : Long.compare(this.key, other.key);
+        }
+    }
+
+    /**
+     * Estructura del índice: observaciones, vocabulario ordenado con sus listas,
+     * observaciones por Historia Clínica y relaciones necesarias para filtrar por
+     * servicio.
+     */
+    static final class Segment {
+
+        private final Map<Long, Document> docs = new HashMap<>();
+        private final TreeMap<String, LongPostingList> terms = new TreeMap<>();
+        private final Map<Long, LongPostingList> historyDocs = new HashMap<>();
+        private final Map<Long, Long> historyPatients = new HashMap<>();
+        private final Map<Long, Long> patientHistories = new HashMap<>();
+        private final Map<Long, String> patientServices = new HashMap<>();
+
+        String serviceOf(long historyId) {
+            Long patientId = this.historyPatients.get(historyId);
+            return patientId == null ? null : this.patientServices.get(patientId);
+        }
+
+        void put(long key, Document document) {
+            remove(key);
+            if (document.terms().length == 0) {
+                return;
+            }
+            this.docs.put(key, document);
+            this.historyDocs.computeIfAbsent(document.historyId(), id -> new LongPostingList()).add(key);
+            for (String term : document.terms()) {
+                this.terms.computeIfAbsent(term, value -> new LongPostingList()).add(key);
+            }
+        }
+
+        void remove(long key) {
+            Document previous = removeDocument(key);
+            if (previous == null) {
+                return;
+            }
+            LongPostingList keys = this.historyDocs.get(previous.historyId());
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    this.historyDocs.remove(previous.historyId());
+                }
+            }
+        }
+
+        void putHistory(Long historyId, Long patientId, Document document) {
+            if (patientId != null) {
+                this.historyPatients.put(historyId, patientId);
+                this.patientHistories.put(patientId, historyId);
+            }
+            put(historyKey(historyId), document);
+        }
+
+        void removeHistory(Long historyId) {
+            LongPostingList keys = this.historyDocs.remove(historyId);
+            if (keys != null) {
+                for (int i = 0; i < keys.size(); i++) {
+                    removeDocument(keys.get(i));
+                }
+            }
+            Long patientId = this.historyPatients.remove(historyId);
+            if (patientId != null) {
+                this.patientHistories.remove(patientId);
+            }
+        }
+
+        void removePatient(Long patientId) {
+            Long historyId = this.patientHistories.get(patientId);
+            if (historyId != null) {
+                removeHistory(historyId);
+            }
+            this.patientServices.remove(patientId);
+        }
+
+        /**
+         * Quita una observación de las listas de palabras sin tocar la lista de
+         * su Historia Clínica, que se descarta completa.
+         */
+        private Document removeDocument(long key) {
+            Document previous = this.docs.remove(key);
+            if (previous == null) {
+                return null;
+            }
+            for (String term : previous.terms()) {
+                LongPostingList postings = this.terms.get(term);
+                if (postings != null) {
+                    postings.remove(key);
+                    if (postings.isEmpty()) {
+                        this.terms.remove(term);
+                    }
+                }
+            }
+            return previous;
+        }
+    }
+}
@@ -0,0 +1,595 @@
+package com.nicode.nursingapp.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.dto.PatientIndexDto;
+import com.nicode.nursingapp.entities.dto.SearchIndexReportDto;
+import com.nicode.nursingapp.repositories.PatientRepository;
+
+/**
+ * Índice invertido en memoria sobre el nombre, apellido, servicio y número de
+ * identificación de los pacientes.
+ *
+ * Cada campo se normaliza (minúsculas y sin acentos) y se descompone en
+ * trigramas; cada trigrama apunta a la lista ordenada de pacientes que lo
+ * contienen. Una búsqueda toma la lista más corta entre los trigramas de la
+ * palabra clave y verifica la coincidencia exacta de subcadena sobre los
+ * documentos almacenados, por lo que responde lo mismo que un `LIKE '%kw%'`
+ * sin recorrer la tabla. La base de datos solo se consulta para hidratar la
+ * página de resultados.
+ *
+ * Además ofrece una búsqueda aproximada por nombre y apellido, tolerante a
+ * acentos, errores de tipeo y variantes fonéticas del español, que devuelve
+ * los mejores resultados ordenados por relevancia.
+ *
+ * El índice se construye al iniciar la aplicación y se mantiene sincronizado
+ * desde PatientService una vez confirmada cada transacción.
+ */
+@Component
+public class PatientSearchIndex extends InMemoryIndex<PatientSearchIndex.Segment> {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchIndex.class);
+
+    private static final int GRAM_SIZE = 3;
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Cantidad máxima de resultados que puede devolver la búsqueda aproximada.
+     */
+    public static final int MAX_FUZZY_RESULTS = 1000;
+
+    /**
+     * Puntaje mínimo (entre 0 y 1) para considerar relevante un resultado de la
+     * búsqueda aproximada.
+     */
+    private static final double MIN_FUZZY_SCORE = 0.5;
+
+    /**
+     * Distancia de edición máxima tolerada por palabra.
+     */
+    private static final int MAX_EDIT_DISTANCE = 2;
+
+    /**
+     * Fracción de los documentos a partir de la cual un trigrama se considera
+     * demasiado frecuente para generar candidatos.
+     */
+    private static final double COMMON_GRAM_RATIO = 0.2;
+
+    private final PatientRepository repository;
+    private final boolean enabled;
+
+    /**
+     * Constructor que inicializa las dependencias del índice.
+     *
+     * @param repository         Repositorio para operaciones CRUD en entidades
+     *                           PatientEntity.
+     * @param transactionManager Administrador de transacciones para la lectura
+     *                           en streaming.
+     * @param enabled            Indica si el índice está habilitado.
+     */
+    public PatientSearchIndex(PatientRepository repository, PlatformTransactionManager transactionManager,
+            @Value("${patients.search-index.enabled:true}") boolean enabled) {
+        super(transactionManager, Segment::new);
+        this.repository = repository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Resultado de una búsqueda: identificadores de la página solicitada y total
+     * de coincidencias.
+     *
+     * @param ids   Identificadores de los pacientes de la página, en orden
+     *              ascendente.
+     * @param total Cantidad total de pacientes que coinciden.
+     */
+    public record SearchResult(List<Long> ids, long total) {
+    }
+
+    /**
+     * Indica si el índice está habilitado y terminó su construcción inicial.
+     *
+     * @return true si las búsquedas pueden resolverse desde memoria.
+     */
+    @Override
+    public boolean isReady() {
+        return this.enabled && super.isReady();
+    }
+
+    /**
+     * Construye el índice al iniciar la aplicación. Mientras tanto, las
+     * búsquedas se resuelven con la consulta a la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (this.enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Busca pacientes cuyo nombre, apellido, servicio o número de identificación
+     * contengan la palabra clave, sin distinguir mayúsculas ni acentos.
+     *
+     * @param keyword Palabra clave de búsqueda.
+     * @param offset  Posición del primer resultado de la página.
+     * @param limit   Cantidad máxima de resultados de la página.
+     * @return Identificadores de la página y total de coincidencias.
+     */
+    public SearchResult search(String keyword, long offset, int limit) {
+        String normalized = TextNormalizer.fold(keyword);
+        List<Long> page = new ArrayList<>(Math.max(limit, 0));
+
+        long total = read(segment -> {
+            long matched = 0;
+            LongPostingList candidates = candidates(segment, normalized);
+            for (int i = 0; i < candidates.size(); i++) {
+                long id = candidates.get(i);
+                if (matches(segment.docs.get(id), normalized)) {
+                    if (matched >= offset && page.size() < limit) {
+                        page.add(id);
+                    }
+                    matched++;
+                }
+            }
+            return matched;
+        });
+
+        return new SearchResult(page, total);
+    }
+
+    /**
+     * Busca pacientes por nombre y apellido de forma aproximada: sin distinguir
+     * acentos, tolerando errores de tipeo (similitud de trigramas y distancia de
+     * edición acotada) y variantes fonéticas del español.
+     *
+     * Los candidatos se obtienen de las listas de trigramas y claves fonéticas de
+     * las palabras buscadas; cada candidato se puntúa y solo los mejores
+     * `offset + limit` se conservan en un montículo acotado, sin ordenar todos los
+     * candidatos.
+     *
+     * @param query  Texto buscado (una o más palabras).
+     * @param offset Posición del primer resultado de la página.
+     * @param limit  Cantidad máxima de resultados de la página.
+     * @return Identificadores de la página ordenados por relevancia y total de
+     *         resultados relevantes.
+     */
+    public SearchResult fuzzySearch(String query, long offset, int limit) {
+        String[] queryTokens = tokens(TextNormalizer.fold(query));
+        int topK = (int) Math.min(offset + limit, MAX_FUZZY_RESULTS);
+        if (queryTokens.length == 0 || topK <= 0 || limit <= 0) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        String[] queryKeys = new String[queryTokens.length];
+        for (int i = 0; i < queryTokens.length; i++) {
+            queryKeys[i] = SpanishPhonetic.key(queryTokens[i]);
+        }
+
+        PriorityQueue<ScoredId> heap = new PriorityQueue<>(topK + 1);
+
+        // Los apellidos y nombres se repiten mucho entre pacientes: la similitud
+        // de cada palabra distinta se calcula una sola vez por búsqueda.
+        List<Map<String, Double>> similarities = new ArrayList<>();
+        for (int i = 0; i < queryTokens.length; i++) {
+            similarities.add(new HashMap<>());
+        }
+
+        long total = read(segment -> {
+            long relevant = 0;
+            LongPostingList candidates = fuzzyCandidates(segment, queryTokens, queryKeys);
+            for (int i = 0; i < candidates.size(); i++) {
+                long id = candidates.get(i);
+                Document document = segment.docs.get(id);
+                double score = document == null ? 0
+                        : score(queryTokens, queryKeys, document.nameTokens(), similarities);
+                if (score < MIN_FUZZY_SCORE) {
+                    continue;
+                }
+                relevant++;
+                heap.offer(new ScoredId(id, score));
+                if (heap.size() > topK) {
+                    heap.poll();
+                }
+            }
+            return relevant;
+        });
+
+        List<ScoredId> ranked = new ArrayList<>(heap);
+        ranked.sort(Collections.reverseOrder());
+
+        List<Long> page = new ArrayList<>(limit);
+        for (int i = (int) Math.min(offset, ranked.size()); i < ranked.size() && page.size() < limit; i++) {
+            page.add(ranked.get(i).id());
+        }
+        return new SearchResult(page, total);
+    }
+
+    /**
+     * Indexa (o reindexa) un paciente una vez confirmada la transacción en curso.
+     *
+     * @param patient Paciente guardado.
+     */
+    public void index(PatientEntity patient) {
+        if (!this.enabled || patient.getId() == null) {
+            return;
+        }
+        Long id = patient.getId();
+        String[] fields = fields(patient.getFirstName(), patient.getLastName(), patient.getService(),
+                patient.getIdNumber());
+
+        mutate(segment -> segment.put(id, fields));
+    }
+
+    /**
+     * Indexa (o reindexa) un paciente a partir de su proyección una vez
+     * confirmada la transacción en curso.
+     *
+     * @param document Campos indexables del paciente.
+     */
+    public void index(PatientIndexDto document) {
+        if (!this.enabled || document.getId() == null) {
+            return;
+        }
+        Long id = document.getId();
+        String[] fields = fields(document);
+
+        mutate(segment -> segment.put(id, fields));
+    }
+
+    /**
+     * Elimina un paciente del índice una vez confirmada la transacción en curso.
+     *
+     * @param patientId Identificador del paciente eliminado.
+     */
+    public void remove(Long patientId) {
+        if (this.enabled) {
+            mutate(segment -> segment.remove(patientId));
+        }
+    }
+
+    /**
+     * Reconstruye el índice recorriendo la tabla de pacientes en streaming. Las
+     * modificaciones confirmadas durante la reconstrucción se registran y se
+     * aplican sobre el índice nuevo antes de reemplazar al anterior.
+     *
+     * @return Cantidad de pacientes indexados.
+     */
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        Segment fresh = reload();
+
+        log.info("Índice de búsqueda de pacientes construido: {} pacientes, {} trigramas en {} ms",
+                fresh.docs.size(), fresh.grams.size(), System.currentTimeMillis() - start);
+        return fresh.docs.size();
+    }
+
+    @Override
+    protected void load(Segment segment) {
+        try (Stream<PatientIndexDto> documents = this.repository.streamIndexDocuments()) {
+            documents.forEach(doc -> segment.put(doc.getId(), fields(doc)));
+        }
+    }
+
+    /**
+     * Verifica el índice contra la tabla de pacientes, recorriéndola en
+     * streaming. Opcionalmente lo reconstruye si encuentra diferencias.
+     *
+     * @param repair Indica si se debe reconstruir el índice cuando no es
+     *               consistente.
+     * @return Reporte de consistencia.
+     */
+    public SearchIndexReportDto check(boolean repair) {
+        long[] counters = new long[3]; // en base de datos, faltantes, desactualizados
+
+        inReadOnlyTransaction(() -> {
+            try (Stream<PatientIndexDto> documents = this.repository.streamIndexDocuments()) {
+                documents.forEach(doc -> {
+                    Document indexed = read(segment -> segment.docs.get(doc.getId()));
+
+                    counters[0]++;
+                    if (indexed == null) {
+                        counters[1]++;
+                    } else if (!Arrays.equals(indexed.fields(), fields(doc))) {
+                        counters[2]++;
+                    }
+                });
+            }
+        });
+
+        long indexedCount = read(segment -> segment.docs.size());
+        long orphaned = Math.max(0, indexedCount - (counters[0] - counters[1]));
+        SearchIndexReportDto report = new SearchIndexReportDto(isReady(), indexedCount, counters[0], counters[1],
+                counters[2], orphaned, false);
+
+        if (!report.isConsistent()) {
+            log.warn("Índice de búsqueda de pacientes inconsistente: {}", report);
+            if (repair && this.enabled) {
+                rebuild();
+                report.setRebuilt(true);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Obtiene los candidatos a verificar: la lista más corta entre los trigramas
+     * de la palabra clave, o todos los documentos si es demasiado corta.
+     */
+    private static LongPostingList candidates(Segment segment, String normalized) {
+        if (normalized.length() < GRAM_SIZE) {
+            return segment.ids;
+        }
+
+        LongPostingList shortest = null;
+        for (String gram : grams(normalized)) {
+            LongPostingList postings = segment.grams.get(gram);
+            if (postings == null) {
+                return new LongPostingList();
+            }
+            if (shortest == null || postings.size() < shortest.size()) {
+                shortest = postings;
+            }
+        }
+        return shortest;
+    }
+
+    /**
+     * Obtiene los candidatos de la búsqueda aproximada: pacientes que comparten
+     * una fracción mínima de trigramas con alguna palabra buscada, o su clave
+     * fonética. Los trigramas demasiado frecuentes se descartan mientras queden
+     * suficientes trigramas selectivos.
+     */
+    private static LongPostingList fuzzyCandidates(Segment segment, String[] queryTokens, String[] queryKeys) {
+        LongPostingList candidates = new LongPostingList();
+        int commonThreshold = (int) Math.max(1, segment.docs.size() * COMMON_GRAM_RATIO);
+
+        for (int t = 0; t < queryTokens.length; t++) {
+            List<LongPostingList> postings = new ArrayList<>();
+            for (String gram : grams(queryTokens[t])) {
+                LongPostingList list = segment.grams.get(gram);
+                if (list != null) {
+                    postings.add(list);
+                }
+            }
+
+            // Se recorren primero las listas más cortas; las de trigramas muy
+            // frecuentes se descartan, conservando siempre al menos la mitad.
+            postings.sort(Comparator.comparingInt(LongPostingList::size));
+            long selective = postings.stream().filter(list -> list.size() <= commonThreshold).count();
+            int kept = (int) Math.max(selective, Math.ceil(postings.size() / 2.0));
+            postings = postings.subList(0, Math.min(kept, postings.size()));
+
+            int required = Math.max(1, (int) Math.ceil(postings.size() / 3.0));
+            candidates = LongPostingList.union(candidates,
+                    LongPostingList.atLeast(postings, required, segment.phonetics.get(queryKeys[t])));
+        }
+        return candidates;
+    }
+
+    /**
+     * Puntúa un paciente como el promedio, para cada palabra buscada, de su mejor
+     * similitud contra las palabras del nombre y apellido.
+     */
+    private static double score(String[] queryTokens, String[] queryKeys, String[] nameTokens,
+            List<Map<String, Double>> similarities) {
+        double sum = 0;
+        for (int i = 0; i < queryTokens.length; i++) {
+            String queryToken = queryTokens[i];
+            String queryKey = queryKeys[i];
+            double best = 0;
+            for (String token : nameTokens) {
+                best = Math.max(best, similarities.get(i).computeIfAbsent(token,
+                        key -> similarity(queryToken, queryKey, key)));
+            }
+            sum += best;
+        }
+        return sum / queryTokens.length;
+    }
+
+    /**
+     * Similitud entre dos palabras normalizadas, entre 0 y 1.
+     */
+    static double similarity(String query, String queryKey, String token) {
+        if (token.equals(query)) {
+            return 1;
+        }
+        if (query.length() >= GRAM_SIZE && token.startsWith(query)) {
+            return 0.95;
+        }
+
+        double similarity = dice(query, token);
+        if (!queryKey.isEmpty() && queryKey.equals(SpanishPhonetic.key(token))) {
+            similarity = Math.max(similarity, 0.9);
+        }
+        int distance = boundedLevenshtein(query, token, MAX_EDIT_DISTANCE);
+        if (distance <= MAX_EDIT_DISTANCE) {
+            similarity = Math.max(similarity, 1 - (double) distance / Math.max(query.length(), token.length()));
+        }
+        return similarity;
+    }
+
+    /**
+     * Coeficiente de Dice sobre los trigramas de ambas palabras.
+     */
+    private static double dice(String first, String second) {
+        Set<String> firstGrams = grams(first);
+        Set<String> secondGrams = grams(second);
+        if (firstGrams.isEmpty() || secondGrams.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String gram : firstGrams) {
+            if (secondGrams.contains(gram)) {
+                shared++;
+            }
+        }
+        return 2.0 * shared / (firstGrams.size() + secondGrams.size());
+    }
+
+    /**
+     * Distancia de Levenshtein que abandona el cálculo en cuanto supera el
+     * máximo indicado.
+     *
+     * @return La distancia, o `max + 1` si es mayor que el máximo.
+     */
+    static int boundedLevenshtein(String first, String second, int max) {
+        if (Math.abs(first.length() - second.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= second.length(); j++) {
+                int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[second.length()], max + 1);
+    }
+
+    private static String[] nameTokens(String[] fields) {
+        return tokens(fields[0] + " " + fields[1]);
+    }
+
+    /**
+     * Documento indexado: campos normalizados y palabras del nombre y apellido.
+     */
+    private record Document(String[] fields, String[] nameTokens) {
+    }
+
+    private static String[] tokens(String text) {
+        return Arrays.stream(TOKEN_SEPARATOR.split(text)).filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Identificador con su puntaje; el orden natural pone primero al menos
+     * relevante para usarlo en un montículo de mínimos.
+     */
+    private record ScoredId(long id, double score) implements Comparable<ScoredId> {
+
+        @Override
+        public int compareTo(ScoredId other) {
+            int byScore = Double.compare(this.score, other.score);
+            return byScore != 0 ? byScore : Long.compare(other.id, this.id);
+        }
+    }
+
+    private static boolean matches(Document document, String normalized) {
+        if (document == null) {
+            return false;
+        }
+        for (String field : document.fields()) {
+            if (field.contains(normalized)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] fields(PatientIndexDto doc) {
+        return fields(doc.getFirstName(), doc.getLastName(), doc.getService(), doc.getIdNumber());
+    }
+
+    private static String[] fields(String firstName, String lastName, String service, String idNumber) {
+        return new String[] { TextNormalizer.fold(firstName), TextNormalizer.fold(lastName),
+                TextNormalizer.fold(service), TextNormalizer.fold(idNumber) };
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    /**
+     * Estructura del índice: documentos normalizados, identificadores ordenados y
+     * listas de identificadores por trigrama y por clave fonética.
+     */
+    static final class Segment {
+
+        private final Map<Long, Document> docs = new HashMap<>();
+        private final LongPostingList ids = new LongPostingList();
+        private final Map<String, LongPostingList> grams = new HashMap<>();
+        private final Map<String, LongPostingList> phonetics = new HashMap<>();
+
+        void put(Long id, String[] fields) {
+            remove(id);
+            Document document = new Document(fields, nameTokens(fields));
+            this.docs.put(id, document);
+            this.ids.add(id);
+            for (String field : fields) {
+                for (String gram : grams(field)) {
+                    this.grams.computeIfAbsent(gram, key -> new LongPostingList()).add(id);
+                }
+            }
+            for (String token : document.nameTokens()) {
+                this.phonetics.computeIfAbsent(SpanishPhonetic.key(token), key -> new LongPostingList()).add(id);
+            }
+        }
+
+        void remove(Long id) {
+            Document previous = this.docs.remove(id);
+            if (previous == null) {
+                return;
+            }
+            this.ids.remove(id);
+            for (String field : previous.fields()) {
+                for (String gram : grams(field)) {
+                    LongPostingList postings = this.grams.get(gram);
+                    if (postings != null) {
+                        postings.remove(id);
+                        if (postings.isEmpty()) {
+                            this.grams.remove(gram);
+                        }
+                    }
+                }
+            }
+            for (String token : previous.nameTokens()) {
+                String key = SpanishPhonetic.key(token);
+                LongPostingList postings = this.phonetics.get(key);
+                if (postings != null) {
+                    postings.remove(id);
+                    if (postings.isEmpty()) {
+                        this.phonetics.remove(key);
+                    }
+                }
+            }
+        }
+    }
+}
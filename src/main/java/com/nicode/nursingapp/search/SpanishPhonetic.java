@@ -0,0 +1,97 @@
+package com.nicode.nursingapp.search;
+
+/**
+ * Codificación fonética simplificada para nombres en español.
+ * Agrupa las grafías que suenan igual ("González", "Gonzales", "Gonsalez";
+ * "Vázquez", "Basques"; "Yamil", "Llamil") bajo una misma clave, para tolerar
+ * los errores de escritura más habituales en la admisión de pacientes.
+ */
+public final class SpanishPhonetic {
+
+    private SpanishPhonetic() {
+    }
+
+    /**
+     * Obtiene la clave fonética de una palabra.
+     *
+     * @param word Palabra a codificar (se normaliza con {@link TextNormalizer}).
+     * @return Clave fonética, o cadena vacía si la palabra no tiene letras.
+     */
+    public static String key(String word) {
+        String text = TextNormalizer.fold(word);
+        StringBuilder key = new StringBuilder(text.length());
+
+        for (int i = 0; i < text.length(); i++) {
+            char current = text.charAt(i);
+            char next = i + 1 < text.length() ? text.charAt(i + 1) : '\0';
+            boolean softVowelNext = next == 'e' || next == 'i';
+
+            switch (current) {
+                case 'h' -> {
+                    // La "h" es muda, salvo en "ch" (que se procesa al leer la "c").
+                }
+                case 'c' -> {
+                    if (next == 'h') {
+                        append(key, 'X');
+                        i++;
+                    } else if (softVowelNext) {
+                        append(key, 's');
+                    } else {
+                        append(key, 'k');
+                    }
+                }
+                case 'q' -> {
+                    append(key, 'k');
+                    if (next == 'u') {
+                        i++;
+                    }
+                }
+                case 'g' -> {
+                    if (next == 'u' && i + 2 < text.length()
+                            && (text.charAt(i + 2) == 'e' || text.charAt(i + 2) == 'i')) {
+                        append(key, 'g');
+                        i++;
+                    } else {
+                        append(key, softVowelNext ? 'j' : 'g');
+                    }
+                }
+                case 'l' -> {
+                    if (next == 'l') {
+                        append(key, 'y');
+                        i++;
+                    } else {
+                        append(key, 'l');
+                    }
+                }
+                case 'y' -> append(key, next == '\0' || !isVowel(next) ? 'i' : 'y');
+                case 'z', 's' -> append(key, 's');
+                case 'v', 'w', 'b' -> append(key, 'b');
+                case 'k' -> append(key, 'k');
+                case 'x' -> {
+                    append(key, 'k');
+                    append(key, 's');
+                }
+                default -> {
+                    if (Character.isLetterOrDigit(current)) {
+                        append(key, current);
+                    }
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Agrega un sonido a la clave evitando repeticiones consecutivas ("rr",
+     * "ss", "nn").
+     */
+    private static void append(StringBuilder key, char sound) {
+        if (key.length() == 0 || key.charAt(key.length() - 1) != sound) {
+            key.append(sound);
+        }
+    }
+
+    private static boolean isVowel(char character) {
+        return "aeiou".indexOf(character) >= 0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.nicode.nursingapp.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utilidad para normalizar texto antes de indexarlo o buscarlo.
+ * Convierte a minúsculas y elimina los acentos y diacríticos, replicando la
+ * comparación insensible a mayúsculas y acentos de la intercalación por defecto
+ * de MySQL (utf8mb4_0900_ai_ci).
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Normaliza un texto: minúsculas y sin diacríticos ("González" → "gonzalez").
+     *
+     * @param text Texto a normalizar (puede ser null).
+     * @return Texto normalizado, o cadena vacía si el texto es null.
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,72 @@
+package com.nicode.nursingapp.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caché en memoria de totales de elementos para las consultas paginadas.
+ * Permite responder páginas con un total aproximado sin ejecutar un COUNT(*)
+ * en cada solicitud: cada total se recalcula como máximo una vez por período
+ * de vigencia.
+ */
+@Component
+public class ApproximateCountCache {
+
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    /**
+     * Constructor que inicializa la configuración de la caché.
+     *
+     * @param ttlSeconds Segundos de vigencia de cada total calculado.
+     * @param maxEntries Cantidad máxima de totales almacenados.
+     */
+    public ApproximateCountCache(@Value("${patients.count-cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${patients.count-cache.max-entries:1000}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Obtiene el total asociado a la clave, calculándolo solo si no existe o si
+     * su vigencia expiró.
+     *
+     * @param key     Clave que identifica la consulta.
+     * @param counter Función que calcula el total exacto.
+     * @return Total aproximado de elementos.
+     */
+    public long get(String key, LongSupplier counter) {
+        long now = System.currentTimeMillis();
+        CachedCount cached = this.counts.get(key);
+
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.value();
+        }
+
+        if (this.counts.size() >= this.maxEntries) {
+            this.counts.values().removeIf(count -> count.expiresAt() <= now);
+            if (this.counts.size() >= this.maxEntries) {
+                this.counts.clear();
+            }
+        }
+
+        long value = counter.getAsLong();
+        this.counts.put(key, new CachedCount(value, now + this.ttlMillis));
+        return value;
+    }
+
+    /**
+     * Descarta todos los totales almacenados.
+     */
+    public void clear() {
+        this.counts.clear();
+    }
+
+    private record CachedCount(long value, long expiresAt) {
+    }
+}
@@ -0,0 +1,235 @@
+package com.nicode.nursingapp.services;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.nicode.nursingapp.entities.dto.NursingControlDto;
+
+/**
+ * Codificación binaria sin pérdida de los controles de enfermería de un día de
+ * una Historia Clínica.
+ *
+ * El bloque comienza con la versión del formato, la cantidad de controles y un
+ * diccionario con las observaciones distintas del día. Cada control se escribe,
+ * en orden de fecha e identificador, como:
+ * <ul>
+ * <li>el identificador, como diferencia con el del control anterior;</li>
+ * <li>los microsegundos transcurridos desde el control anterior (o desde el
+ * inicio del día);</li>
+ * <li>un byte con los valores presentes;</li>
+ * <li>cada signo vital presente como diferencia con el valor anterior del mismo
+ * signo (la temperatura en centésimas, igual que la columna DECIMAL(4,2));</li>
+ * <li>la posición de la observación en el diccionario.</li>
+ * </ul>
+ * Todos los enteros se escriben como varint, y las diferencias que pueden ser
+ * negativas en zigzag, por lo que un control típico ocupa entre 8 y 12 bytes.
+ */
+public final class ControlBlockCodec {
+
+    private static final int VERSION = 1;
+
+    private static final int TEMPERATURE = 1;
+    private static final int SYSTOLIC = 1 << 1;
+    private static final int DIASTOLIC = 1 << 2;
+    private static final int HEART_RATE = 1 << 3;
+    private static final int RESPIRATORY_RATE = 1 << 4;
+    private static final int SPO2 = 1 << 5;
+    private static final int OBSERVATIONS = 1 << 6;
+
+    /**
+     * Orden de los controles dentro de un bloque y entre bloques.
+     */
+    public static final Comparator<NursingControlDto> ORDER = Comparator
+            .comparing(NursingControlDto::getControlDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(NursingControlDto::getId);
+
+    private ControlBlockCodec() {
+    }
+
+    /**
+     * Codifica los controles de un día.
+     *
+     * @param day      Día del bloque.
+     * @param controls Controles del día, en cualquier orden.
+     * @return Bloque codificado.
+     * @throws IllegalArgumentException Si algún control no es de ese día o tiene
+     *                                  más precisión que la que el bloque
+     *                                  conserva (microsegundos y centésimas de
+     *                                  grado).
+     */
+    public static byte[] encode(LocalDate day, List<NursingControlDto> controls) {
+        List<NursingControlDto> sorted = new ArrayList<>(controls);
+        sorted.sort(ORDER);
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (NursingControlDto control : sorted) {
+            if (control.getObservations() != null) {
+                dictionary.putIfAbsent(control.getObservations(), dictionary.size());
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + sorted.size() * 12);
+        writeVarint(out, VERSION);
+        writeVarint(out, sorted.size());
+        writeVarint(out, dictionary.size());
+        for (String observations : dictionary.keySet()) {
+            byte[] text = observations.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, text.length);
+            out.writeBytes(text);
+        }
+
+        long previousId = 0;
+        LocalDateTime previousDate = day.atStartOfDay();
+        long[] previous = new long[6];
+        for (NursingControlDto control : sorted) {
+            LocalDateTime date = control.getControlDate();
+            if (date == null || !date.toLocalDate().equals(day)) {
+                throw new IllegalArgumentException("El control " + control.getId() + " no es del día " + day + ".");
+            }
+            if (date.getNano() % 1_000 != 0) {
+                throw new IllegalArgumentException(
+                        "La fecha del control " + control.getId() + " tiene precisión de nanosegundos.");
+            }
+
+            writeVarint(out, zigzag(control.getId() - previousId));
+            writeVarint(out, ChronoUnit.MICROS.between(previousDate, date));
+            previousId = control.getId();
+            previousDate = date;
+
+            Long[] values = vitals(control);
+            int present = control.getObservations() != null ? OBSERVATIONS : 0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    present |= 1 << i;
+                }
+            }
+            out.write(present);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    writeVarint(out, zigzag(values[i] - previous[i]));
+                    previous[i] = values[i];
+                }
+            }
+            if (control.getObservations() != null) {
+                writeVarint(out, dictionary.get(control.getObservations()));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodifica los controles de un bloque.
+     *
+     * @param day   Día del bloque.
+     * @param block Bloque codificado con {@link #encode}.
+     * @return Controles del día, ordenados por fecha e identificador.
+     * @throws IllegalStateException Si el bloque está dañado o tiene una versión
+     *                               desconocida.
+     */
+    public static List<NursingControlDto> decode(LocalDate day, byte[] block) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(block);
+            int version = (int) readVarint(in);
+            if (version != VERSION) {
+                throw new IllegalStateException("Versión de bloque de controles desconocida: " + version);
+            }
+            int count = (int) readVarint(in);
+            String[] dictionary = new String[(int) readVarint(in)];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] text = new byte[(int) readVarint(in)];
+                in.get(text);
+                dictionary[i] = new String(text, StandardCharsets.UTF_8);
+            }
+
+            List<NursingControlDto> controls = new ArrayList<>(count);
+            long id = 0;
+            LocalDateTime date = day.atStartOfDay();
+            long[] previous = new long[6];
+            for (int c = 0; c < count; c++) {
+                id += unzigzag(readVarint(in));
+                date = date.plus(readVarint(in), ChronoUnit.MICROS);
+                int present = in.get() & 0xFF;
+
+                Long[] values = new Long[6];
+                for (int i = 0; i < values.length; i++) {
+                    if ((present & (1 << i)) != 0) {
+                        previous[i] += unzigzag(readVarint(in));
+                        values[i] = previous[i];
+                    }
+                }
+                String observations = (present & OBSERVATIONS) != 0 ? dictionary[(int) readVarint(in)] : null;
+
+                controls.add(new NursingControlDto(id,
+                        values[0] == null ? null : values[0] / 100.0,
+                        toInteger(values[1]), toInteger(values[2]), toInteger(values[3]), toInteger(values[4]),
+                        toInteger(values[5]), observations, date));
+            }
+            return controls;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalStateException("El bloque de controles del día " + day + " está dañado.");
+        }
+    }
+
+    /**
+     * Signos vitales del control como enteros, en el orden de los bits de
+     * presencia.
+     */
+    private static Long[] vitals(NursingControlDto control) {
+        Long temperature = null;
+        if (control.getTemperature() != null) {
+            temperature = Math.round(control.getTemperature() * 100);
+            if (temperature / 100.0 != control.getTemperature()) {
+                throw new IllegalArgumentException(
+                        "La temperatura del control " + control.getId() + " tiene más de dos decimales.");
+            }
+        }
+        return new Long[] { temperature, toLong(control.getSystolic()), toLong(control.getDiastolic()),
+                toLong(control.getHeartRate()), toLong(control.getRespiratoryRate()), toLong(control.getSpo2()) };
+    }
+
+    private static Long toLong(Integer value) {
+        return value == null ? null : value.longValue();
+    }
+
+    private static Integer toInteger(Long value) {
+        return value == null ? null : Math.toIntExact(value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint demasiado largo en un bloque de controles.");
+    }
+}
@@ -0,0 +1,730 @@
+package com.nicode.nursingapp.services;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.nicode.nursingapp.entities.NursingControlBlockEntity;
+import com.nicode.nursingapp.entities.NursingControlBlockId;
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.dto.CompactionReportDto;
+import com.nicode.nursingapp.entities.dto.ControlBlockDto;
+import com.nicode.nursingapp.entities.dto.NursingControlDto;
+import com.nicode.nursingapp.repositories.NursingControlBlockRepository;
+
+/**
+ * Servicio que compacta los controles de enfermería antiguos, que ya no se
+ * modifican, en un bloque binario por Historia Clínica y día en la tabla
+ * `nursing_control_blocks` (ver ControlBlockCodec), y que los lee de forma
+ * transparente junto con los controles que siguen como filas.
+ *
+ * Se compactan los controles anteriores a `age-days` días, por bloques de
+ * `batch-size` Historias Clínicas, cada uno en su propia transacción: se
+ * bloquean y leen las filas, se escriben los bloques (combinándolos con el
+ * bloque del día si ya existía, por ejemplo si se cargó un control atrasado) y
+ * se eliminan las filas. La ejecución periódica cada `interval` se habilita
+ * con `controls.compaction.enabled=true`.
+ *
+ * Las páginas de controles, las consultas por rango de fechas, los últimos
+ * controles de una Historia Clínica, los resúmenes y gráficos de signos vitales
+ * y la búsqueda de observaciones combinan los bloques con las filas; los
+ * controles compactados siguen en el índice de observaciones y se trasladan al
+ * archivo junto con su paciente. Un control compactado se obtiene por su
+ * identificador desde su bloque; para modificarlo o eliminarlo se restaura
+ * antes el bloque completo como filas, que vuelven a compactarse en la próxima
+ * ejecución. Los resúmenes horarios y diarios de signos
+ * vitales no cambian al compactar. La tabla debe existir (la crea Hibernate con
+ * `ddl-auto`, o manualmente con `history_id BIGINT`, `block_date DATE`,
+ * `control_count INT`, `first_control_id BIGINT`, `last_control_id BIGINT` y
+ * `payload MEDIUMBLOB`, con clave primaria (`history_id`, `block_date`), índices
+ * sobre `block_date` y sobre (`last_control_id`, `first_control_id`) y clave
+ * foránea a `patients_histories` con ON DELETE CASCADE).
+ */
+@Service
+public class ControlCompactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ControlCompactionService.class);
+
+    private static final String COLUMNS = "nursing_control_id, temperature, systolic, diastolic, heart_rate_bpm, "
+            + "respiratory_rate_rpm, spo2, observations, control_date";
+
+    private static final String SELECT_CHUNK = "SELECT DISTINCT patient_history_id FROM nursing_controls "
+            + "WHERE control_date < ? ORDER BY patient_history_id LIMIT ?";
+
+    /**
+     * Condición de los controles del bloque: Historia Clínica en el rango y
+     * fecha anterior al corte.
+     */
+    private static final String IN_CHUNK = " WHERE patient_history_id BETWEEN ? AND ? AND control_date < ?";
+
+    private static final String SELECT_CONTROLS = "SELECT patient_history_id, " + COLUMNS
+            + " FROM nursing_controls" + IN_CHUNK + " ORDER BY patient_history_id, control_date, nursing_control_id "
+            + "FOR UPDATE";
+
+    private static final String SELECT_BLOCK_KEYS = "SELECT history_id, block_date FROM nursing_control_blocks "
+            + "WHERE history_id BETWEEN ? AND ? AND block_date BETWEEN ? AND ?";
+
+    private static final String SELECT_PAYLOAD = "SELECT payload FROM nursing_control_blocks "
+            + "WHERE history_id = ? AND block_date = ? FOR UPDATE";
+
+    private static final String INSERT_BLOCK = "INSERT INTO nursing_control_blocks "
+            + "(history_id, block_date, control_count, first_control_id, last_control_id, payload) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_BLOCK = "UPDATE nursing_control_blocks SET control_count = ?, "
+            + "first_control_id = ?, last_control_id = ?, payload = ? WHERE history_id = ? AND block_date = ?";
+
+    private static final String DELETE_BLOCK = "DELETE FROM nursing_control_blocks "
+            + "WHERE history_id = ? AND block_date = ?";
+
+    private static final String DELETE_CONTROLS = "DELETE FROM nursing_controls" + IN_CHUNK;
+
+    private static final String ARCHIVE_BLOCKS = "SELECT b.history_id, b.block_date, b.payload "
+            + "FROM nursing_control_blocks b JOIN patients_histories h ON h.patient_history_id = b.history_id "
+            + "JOIN patients p ON p.id = h.patient_id WHERE p.id BETWEEN ? AND ? AND p.medical_discharge_date < ?";
+
+    private static final String ARCHIVE_CONTROL = "INSERT INTO nursing_controls_archive (" + COLUMNS
+            + ", patient_history_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String RESTORE_CONTROL = "INSERT INTO nursing_controls (" + COLUMNS
+            + ", patient_history_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Tamaño en bytes de la clave de un bloque: BIGINT, DATE e INT.
+     */
+    private static final int BLOCK_KEY_BYTES = 8 + 3 + 4;
+
+    /**
+     * Orden de los controles como entidades, igual al de los bloques: por fecha
+     * (sin fecha primero) e identificador.
+     */
+    private static final Comparator<NursingControlEntity> ORDER = Comparator
+            .comparing(NursingControlEntity::getControlDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(NursingControlEntity::getId);
+
+    private static final RowMapper<NursingControlDto> CONTROL_MAPPER = (rs, rowNum) -> new NursingControlDto(
+            rs.getLong("nursing_control_id"), rs.getObject("temperature", Double.class),
+            rs.getObject("systolic", Integer.class), rs.getObject("diastolic", Integer.class),
+            rs.getObject("heart_rate_bpm", Integer.class), rs.getObject("respiratory_rate_rpm", Integer.class),
+            rs.getObject("spo2", Integer.class), rs.getString("observations"),
+            rs.getObject("control_date", LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NursingControlBlockRepository blockRepository;
+    private final boolean enabled;
+    private final int ageDays;
+    private final int batchSize;
+
+    /**
+     * Constructor que inicializa las dependencias del servicio.
+     *
+     * @param jdbcTemplate       Acceso JDBC para leer y escribir las filas y los
+     *                           bloques.
+     * @param transactionManager Administrador de transacciones para cada bloque
+     *                           de Historias Clínicas.
+     * @param blockRepository    Repositorio de los bloques de controles.
+     * @param enabled            Indica si la compactación se ejecuta
+     *                           periódicamente.
+     * @param ageDays            Días a partir de los cuales se compacta un
+     *                           control.
+     * @param batchSize          Cantidad de Historias Clínicas por transacción.
+     */
+    public ControlCompactionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            NursingControlBlockRepository blockRepository,
+            @Value("${controls.compaction.enabled:false}") boolean enabled,
+            @Value("${controls.compaction.age-days:90}") int ageDays,
+            @Value("${controls.compaction.batch-size:20}") int batchSize) {
+        if (ageDays < 1 || batchSize < 1) {
+            throw new IllegalArgumentException(
+                    "La antigüedad de compactación y el tamaño de bloque deben ser positivos.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.blockRepository = blockRepository;
+        this.enabled = enabled;
+        this.ageDays = ageDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Compacta periódicamente los controles antiguos, si está habilitado.
+     */
+    @Scheduled(initialDelayString = "${controls.compaction.interval:PT6H}",
+            fixedDelayString = "${controls.compaction.interval:PT6H}")
+    public void scheduledCompaction() {
+        if (this.enabled) {
+            compact();
+        }
+    }
+
+    /**
+     * Compacta los controles de hace más de `age-days` días.
+     *
+     * @return Reporte de la compactación.
+     */
+    public CompactionReportDto compact() {
+        return compact(LocalDate.now().minusDays(this.ageDays));
+    }
+
+    /**
+     * Compacta los controles anteriores a un día, por bloques de Historias
+     * Clínicas.
+     *
+     * @param before Día de corte (excluido).
+     * @return Reporte de la compactación.
+     */
+    public synchronized CompactionReportDto compact(LocalDate before) {
+        long start = System.currentTimeMillis();
+        CompactionReportDto report = new CompactionReportDto(before, 0, 0, 0, 0, 0, 0);
+
+        while (this.transactionTemplate.execute(status -> compactChunk(before.atStartOfDay(), report))) {
+            report.setChunks(report.getChunks() + 1);
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("Compactación de controles anteriores al {}: {} controles en {} bloques, {} bytes como filas y "
+                + "{} como bloques, en {} transacciones y {} ms", before, report.getControls(), report.getBlocks(),
+                report.getRowBytes(), report.getBlockBytes(), report.getChunks(), report.getElapsedMillis());
+        return report;
+    }
+
+    /**
+     * Compacta los controles de las próximas Historias Clínicas. Las filas se
+     * bloquean al leerlas, para que no se modifiquen hasta eliminarlas.
+     *
+     * @return true si había controles para compactar.
+     */
+    private boolean compactChunk(LocalDateTime before, CompactionReportDto report) {
+        List<Long> historyIds = this.jdbcTemplate.queryForList(SELECT_CHUNK, Long.class, before, this.batchSize);
+        if (historyIds.isEmpty()) {
+            return false;
+        }
+        Long from = historyIds.get(0);
+        Long to = historyIds.get(historyIds.size() - 1);
+
+        Map<NursingControlBlockId, List<NursingControlDto>> days = new LinkedHashMap<>();
+        this.jdbcTemplate.query(SELECT_CONTROLS, rs -> {
+            NursingControlDto control = CONTROL_MAPPER.mapRow(rs, 0);
+            days.computeIfAbsent(new NursingControlBlockId(rs.getLong("patient_history_id"),
+                    control.getControlDate().toLocalDate()), key -> new ArrayList<>()).add(control);
+        }, from, to, before);
+
+        LocalDate firstDay = days.keySet().stream().map(NursingControlBlockId::getBlockDate)
+                .min(LocalDate::compareTo).orElseThrow();
+        Set<NursingControlBlockId> existing = new HashSet<>(this.jdbcTemplate.query(SELECT_BLOCK_KEYS,
+                (rs, rowNum) -> new NursingControlBlockId(rs.getLong(1), rs.getObject(2, LocalDate.class)),
+                from, to, firstDay, before.toLocalDate()));
+
+        List<Object[]> inserts = new ArrayList<>();
+        long compacted = 0;
+        for (Map.Entry<NursingControlBlockId, List<NursingControlDto>> day : days.entrySet()) {
+            NursingControlBlockId key = day.getKey();
+            List<NursingControlDto> controls = day.getValue();
+            compacted += controls.size();
+            report.setRowBytes(report.getRowBytes() + controls.stream().mapToLong(ControlCompactionService::rowBytes)
+                    .sum());
+
+            if (existing.contains(key)) {
+                // Control cargado con atraso en un día ya compactado: se
+                // reescribe el bloque del día con todos sus controles.
+                byte[] previous = this.jdbcTemplate.queryForObject(SELECT_PAYLOAD, byte[].class,
+                        key.getHistoryId(), key.getBlockDate());
+                List<NursingControlDto> merged = new ArrayList<>(ControlBlockCodec.decode(key.getBlockDate(),
+                        previous));
+                merged.addAll(controls);
+                byte[] payload = ControlBlockCodec.encode(key.getBlockDate(), merged);
+                this.jdbcTemplate.update(UPDATE_BLOCK, merged.size(), firstId(merged), lastId(merged), payload,
+                        key.getHistoryId(), key.getBlockDate());
+                report.setBlockBytes(report.getBlockBytes() + payload.length - previous.length);
+            } else {
+                byte[] payload = ControlBlockCodec.encode(key.getBlockDate(), controls);
+                inserts.add(new Object[] { key.getHistoryId(), key.getBlockDate(), controls.size(),
+                        firstId(controls), lastId(controls), payload });
+                report.setBlockBytes(report.getBlockBytes() + BLOCK_KEY_BYTES + payload.length);
+            }
+            report.setBlocks(report.getBlocks() + 1);
+        }
+        this.jdbcTemplate.batchUpdate(INSERT_BLOCK, inserts);
+
+        int deleted = this.jdbcTemplate.update(DELETE_CONTROLS, from, to, before);
+        if (deleted != compacted) {
+            throw new IllegalStateException("Se compactaron " + compacted + " controles pero se eliminaron "
+                    + deleted + "; se revierte el bloque.");
+        }
+        report.setControls(report.getControls() + compacted);
+        return true;
+    }
+
+    private static long firstId(List<NursingControlDto> controls) {
+        return controls.stream().mapToLong(NursingControlDto::getId).min().orElseThrow();
+    }
+
+    private static long lastId(List<NursingControlDto> controls) {
+        return controls.stream().mapToLong(NursingControlDto::getId).max().orElseThrow();
+    }
+
+    /**
+     * Tamaño de las columnas de un control como fila de MySQL: BIGINT para el
+     * identificador y la Historia Clínica, TIMESTAMP, DECIMAL(4,2), INT para
+     * los demás signos vitales y el texto de las observaciones con su longitud.
+     * Los valores nulos no ocupan espacio.
+     */
+    private static long rowBytes(NursingControlDto control) {
+        long bytes = 8 + 8 + 4;
+        bytes += control.getTemperature() != null ? 2 : 0;
+        for (Integer value : new Integer[] { control.getSystolic(), control.getDiastolic(), control.getHeartRate(),
+                control.getRespiratoryRate(), control.getSpo2() }) {
+            bytes += value != null ? 4 : 0;
+        }
+        if (control.getObservations() != null) {
+            bytes += 1 + control.getObservations().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Copia al archivo los controles compactados de los pacientes de un bloque
+     * del archivo de pacientes, dentro de su transacción. Los bloques se
+     * eliminan luego en cascada junto con el paciente.
+     *
+     * @param fromPatient      Primer identificador de paciente del bloque.
+     * @param toPatient        Último identificador de paciente del bloque.
+     * @param dischargedBefore Fecha de corte del archivo (excluida).
+     * @return Cantidad de controles copiados.
+     */
+    public long archiveBlocks(Long fromPatient, Long toPatient, LocalDate dischargedBefore) {
+        List<Object[]> rows = new ArrayList<>();
+        long[] archived = new long[1];
+        this.jdbcTemplate.query(ARCHIVE_BLOCKS, rs -> {
+            long historyId = rs.getLong("history_id");
+            for (NursingControlDto control : decode(rs)) {
+                rows.add(row(historyId, control));
+            }
+            if (rows.size() >= 500) {
+                archived[0] += rows.size();
+                this.jdbcTemplate.batchUpdate(ARCHIVE_CONTROL, rows);
+                rows.clear();
+            }
+        }, fromPatient, toPatient, dischargedBefore);
+        archived[0] += rows.size();
+        this.jdbcTemplate.batchUpdate(ARCHIVE_CONTROL, rows);
+        return archived[0];
+    }
+
+    /**
+     * Restaura como filas, con sus identificadores, todos los controles del
+     * bloque que contiene a un control, para poder modificarlo o eliminarlo. El
+     * bloque se bloquea al leerlo y se elimina.
+     *
+     * @param controlId Identificador del control.
+     * @return true si el control estaba compactado y se restauró.
+     */
+    @Transactional
+    public boolean restore(Long controlId) {
+        for (ControlBlockDto block : this.blockRepository.findPayloadsContaining(controlId)) {
+            if (decode(block).stream().noneMatch(control -> control.getId().equals(controlId))) {
+                continue;
+            }
+            List<byte[]> locked = this.jdbcTemplate.queryForList(SELECT_PAYLOAD, byte[].class,
+                    block.getHistoryId(), block.getBlockDate());
+            if (locked.isEmpty()) {
+                // Otra transacción lo restauró mientras tanto.
+                return false;
+            }
+
+            List<NursingControlDto> controls = ControlBlockCodec.decode(block.getBlockDate(), locked.get(0));
+            this.jdbcTemplate.batchUpdate(RESTORE_CONTROL,
+                    controls.stream().map(control -> row(block.getHistoryId(), control)).toList());
+            this.jdbcTemplate.update(DELETE_BLOCK, block.getHistoryId(), block.getBlockDate());
+            log.info("Restaurados como filas los {} controles del día {} de la Historia Clínica {}",
+                    controls.size(), block.getBlockDate(), block.getHistoryId());
+            return true;
+        }
+        return false;
+    }
+
+    private static Object[] row(Long historyId, NursingControlDto control) {
+        return new Object[] { control.getId(), control.getTemperature(), control.getSystolic(),
+                control.getDiastolic(), control.getHeartRate(), control.getRespiratoryRate(), control.getSpo2(),
+                control.getObservations(), control.getControlDate(), historyId };
+    }
+
+    private static List<NursingControlDto> decode(ResultSet rs) throws SQLException {
+        return ControlBlockCodec.decode(rs.getObject("block_date", LocalDate.class), rs.getBytes("payload"));
+    }
+
+    /**
+     * Obtiene una página de controles de una Historia Clínica, en orden de
+     * fecha, combinando los bloques compactados con las filas día por día.
+     *
+     * Primero se cuentan los controles de cada día sin leerlos: los bloques
+     * guardan su cantidad y las filas anteriores al final del último bloque
+     * (controles atrasados todavía sin compactar) se cuentan agrupadas por día.
+     * Luego solo se leen, con una consulta para los bloques y otra para las
+     * filas, los días que se superponen con la página; las filas posteriores a
+     * todos los bloques se leen con LIMIT y OFFSET.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @param startDate Fecha de inicio del rango, o null para todos los
+     *                  controles.
+     * @param endDate   Fecha de fin del rango, o null para todos los controles.
+     * @param pageable  Información de paginación.
+     * @return Página de controles, o vacío si la Historia Clínica no tiene
+     *         bloques en el rango y basta con leer las filas.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Page<NursingControlEntity>> findPage(Long historyId, LocalDateTime startDate,
+            LocalDateTime endDate, Pageable pageable) {
+        boolean ranged = startDate != null && endDate != null;
+        List<NursingControlBlockEntity> blocks = ranged
+                ? this.blockRepository.findByHistoryIdAndBlockDateBetweenOrderByBlockDateAsc(historyId,
+                        startDate.toLocalDate(), endDate.toLocalDate())
+                : this.blockRepository.findByHistoryIdOrderByBlockDateAsc(historyId);
+        if (blocks.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Los bloques de los extremos del rango pueden tener controles fuera de
+        // él: se decodifican para contarlos.
+        Map<LocalDate, List<NursingControlDto>> edges = new HashMap<>();
+        if (ranged) {
+            for (ControlBlockDto block : this.blockRepository.findPayloads(historyId,
+                    List.of(startDate.toLocalDate(), endDate.toLocalDate()))) {
+                edges.put(block.getBlockDate(), inRange(decode(block), startDate, endDate));
+            }
+        }
+        TreeMap<LocalDate, Integer> days = new TreeMap<>();
+        for (NursingControlBlockEntity block : blocks) {
+            List<NursingControlDto> edge = edges.get(block.getBlockDate());
+            days.put(block.getBlockDate(), edge != null ? edge.size() : block.getControlCount());
+        }
+
+        LocalDateTime boundary = blocks.get(blocks.size() - 1).getBlockDate().plusDays(1).atStartOfDay();
+        String range = " FROM nursing_controls WHERE patient_history_id = ?"
+                + (ranged ? " AND control_date BETWEEN ? AND ?" : "");
+        Object[] rangeArgs = ranged ? new Object[] { historyId, startDate, endDate } : new Object[] { historyId };
+        this.jdbcTemplate.query("SELECT CAST(control_date AS DATE), COUNT(*)" + range + " AND control_date < ? "
+                + "GROUP BY CAST(control_date AS DATE)",
+                rs -> {
+                    days.merge(rs.getObject(1, LocalDate.class), rs.getInt(2), Integer::sum);
+                }, concat(rangeArgs, new Object[] { boundary }));
+        long[] counts = this.jdbcTemplate.queryForObject("SELECT COUNT(CASE WHEN control_date IS NULL THEN 1 END), "
+                + "COUNT(CASE WHEN control_date >= ? THEN 1 END)" + range,
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) },
+                concat(new Object[] { boundary }, rangeArgs));
+        long undated = counts[0];
+        long later = counts[1];
+
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+        List<NursingControlDto> content = new ArrayList<>(size);
+
+        // Los controles sin fecha van primero, como en ORDER BY control_date.
+        if (offset < undated) {
+            content.addAll(this.jdbcTemplate.query("SELECT " + COLUMNS + range + " AND control_date IS NULL "
+                    + "ORDER BY nursing_control_id LIMIT ? OFFSET ?", CONTROL_MAPPER,
+                    concat(rangeArgs, new Object[] { size, offset })));
+        }
+
+        long position = undated;
+        long firstPosition = 0;
+        LocalDate first = null;
+        LocalDate last = null;
+        for (Map.Entry<LocalDate, Integer> day : days.entrySet()) {
+            if (position + day.getValue() > offset && position < offset + size) {
+                if (first == null) {
+                    first = day.getKey();
+                    firstPosition = position;
+                }
+                last = day.getKey();
+            }
+            position += day.getValue();
+        }
+        long compacted = position;
+
+        if (first != null) {
+            List<NursingControlDto> window = new ArrayList<>(this.jdbcTemplate.query("SELECT " + COLUMNS + range
+                    + " AND control_date >= ? AND control_date < ?", CONTROL_MAPPER,
+                    concat(rangeArgs, new Object[] { first.atStartOfDay(), last.plusDays(1).atStartOfDay() })));
+            for (ControlBlockDto block : this.blockRepository.findPayloads(historyId, first, last)) {
+                List<NursingControlDto> edge = edges.get(block.getBlockDate());
+                window.addAll(edge != null ? edge : decode(block));
+            }
+            window.sort(ControlBlockCodec.ORDER);
+            int from = (int) Math.max(0, offset - firstPosition);
+            content.addAll(window.subList(Math.min(from, window.size()),
+                    Math.min(window.size(), from + size - content.size())));
+        }
+
+        if (content.size() < size && later > 0) {
+            content.addAll(this.jdbcTemplate.query("SELECT " + COLUMNS + range + " AND control_date >= ? "
+                    + "ORDER BY control_date, nursing_control_id LIMIT ? OFFSET ?", CONTROL_MAPPER,
+                    concat(rangeArgs, new Object[] { boundary, size - content.size(),
+                            Math.max(0, offset - compacted) })));
+        }
+
+        List<NursingControlEntity> controls = content.stream().map(control -> toEntity(historyId, control)).toList();
+        return Optional.of(new PageImpl<>(controls, pageable, compacted + later));
+    }
+
+    /**
+     * Obtiene todos los controles compactados de una Historia Clínica.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @return Controles compactados, en orden de fecha.
+     */
+    @Transactional(readOnly = true)
+    public List<NursingControlEntity> findCompacted(Long historyId) {
+        return this.blockRepository.findByHistoryIdOrderByBlockDateAsc(historyId).stream()
+                .flatMap(block -> ControlBlockCodec.decode(block.getBlockDate(), block.getPayload()).stream())
+                .map(control -> toEntity(historyId, control))
+                .toList();
+    }
+
+    /**
+     * Obtiene los controles compactados de un paciente.
+     *
+     * @param patientId Identificador del paciente.
+     * @return Controles compactados, en orden de fecha.
+     */
+    @Transactional(readOnly = true)
+    public List<NursingControlDto> findByPatientId(Long patientId) {
+        return this.blockRepository.findPayloadsByPatientId(patientId).stream()
+                .flatMap(block -> decode(block).stream())
+                .toList();
+    }
+
+    /**
+     * Recorre los controles compactados de una Historia Clínica en un rango de
+     * fechas, decodificando un bloque diario por vez, por lo que la memoria no
+     * depende del largo del rango. Debe consumirse dentro de una transacción y
+     * cerrarse al terminar.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @param startDate Fecha de inicio del rango.
+     * @param endDate   Fecha de fin del rango.
+     * @return Stream de controles compactados del rango, en orden de fecha.
+     */
+    public Stream<NursingControlDto> streamInRange(Long historyId, LocalDateTime startDate,
+            LocalDateTime endDate) {
+        return this.blockRepository.streamPayloads(historyId, startDate.toLocalDate(), endDate.toLocalDate())
+                .flatMap(block -> inRange(decode(block), startDate, endDate).stream());
+    }
+
+    /**
+     * Indica si hay controles compactados a partir de una fecha, en cualquier
+     * Historia Clínica.
+     *
+     * @param since Fecha desde la que se consulta.
+     * @return true si existe algún bloque de ese día o posterior.
+     */
+    @Transactional(readOnly = true)
+    public boolean hasBlocksSince(LocalDateTime since) {
+        return this.blockRepository.existsByBlockDateGreaterThanEqual(since.toLocalDate());
+    }
+
+    /**
+     * Obtiene un control compactado por su identificador.
+     *
+     * @param controlId Identificador del control.
+     * @return El control, o vacío si no está compactado.
+     */
+    @Transactional(readOnly = true)
+    public Optional<NursingControlEntity> findById(Long controlId) {
+        for (ControlBlockDto block : this.blockRepository.findPayloadsContaining(controlId)) {
+            for (NursingControlDto control : decode(block)) {
+                if (control.getId().equals(controlId)) {
+                    return Optional.of(toEntity(block.getHistoryId(), control));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Obtiene controles compactados por su identificador, con una única
+     * consulta para todos sus bloques.
+     *
+     * @param locations Bloque de cada control buscado.
+     * @return Controles encontrados por identificador; los que ya no están
+     *         compactados no se incluyen.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, NursingControlEntity> findAllById(Map<Long, NursingControlBlockId> locations) {
+        if (locations.isEmpty()) {
+            return Map.of();
+        }
+        Set<NursingControlBlockId> keys = new HashSet<>(locations.values());
+        Set<Long> historyIds = new HashSet<>();
+        Set<LocalDate> days = new HashSet<>();
+        for (NursingControlBlockId key : keys) {
+            historyIds.add(key.getHistoryId());
+            days.add(key.getBlockDate());
+        }
+
+        Map<Long, NursingControlEntity> controls = new HashMap<>();
+        for (ControlBlockDto block : this.blockRepository.findPayloadsIn(historyIds, days)) {
+            if (!keys.contains(new NursingControlBlockId(block.getHistoryId(), block.getBlockDate()))) {
+                continue;
+            }
+            for (NursingControlDto control : decode(block)) {
+                if (locations.containsKey(control.getId())) {
+                    controls.put(control.getId(), toEntity(block.getHistoryId(), control));
+                }
+            }
+        }
+        return controls;
+    }
+
+    /**
+     * Combina controles leídos como filas, a partir de una posición, con los
+     * controles compactados que les corresponden, sin leer más bloques que los
+     * necesarios.
+     *
+     * Se leen los bloques siguientes a la posición (o desde el extremo, si no
+     * hay posición) hasta reunir `limit` controles, sin pasar la fecha del
+     * último control leído como fila cuando las filas ya completan el límite.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @param rows      Controles leídos como filas, en el orden pedido y
+     *                  limitados a `limit`.
+     * @param position  Control a partir del cual se lee (excluido), o null para
+     *                  leer desde el extremo.
+     * @param ascending true para avanzar en orden de fecha, false para
+     *                  retroceder.
+     * @param limit     Cantidad máxima de controles.
+     * @return Los primeros `limit` controles en el orden pedido.
+     */
+    @Transactional(readOnly = true)
+    public List<NursingControlEntity> withCompacted(Long historyId, List<NursingControlEntity> rows,
+            NursingControlEntity position, boolean ascending, int limit) {
+        LocalDate day = null;
+        if (position != null && position.getControlDate() != null) {
+            day = position.getControlDate().toLocalDate();
+        } else if (position != null && !ascending) {
+            // Antes de un control sin fecha solo hay otros sin fecha, que nunca
+            // se compactan.
+            return new ArrayList<>(rows);
+        }
+        Pageable blocksLimit = PageRequest.of(0, limit + 1);
+        List<NursingControlBlockEntity> blocks;
+        if (ascending) {
+            blocks = day == null ? this.blockRepository.findByHistoryIdOrderByBlockDateAsc(historyId, blocksLimit)
+                    : this.blockRepository.findByHistoryIdAndBlockDateGreaterThanEqualOrderByBlockDateAsc(historyId,
+                            day, blocksLimit);
+        } else {
+            blocks = day == null ? this.blockRepository.findByHistoryIdOrderByBlockDateDesc(historyId, blocksLimit)
+                    : this.blockRepository.findByHistoryIdAndBlockDateLessThanEqualOrderByBlockDateDesc(historyId,
+                            day, blocksLimit);
+        }
+
+        // Si las filas completan el límite, los bloques posteriores al día de
+        // la última fila no pueden entrar en el resultado.
+        LocalDateTime lastRow = rows.size() < limit ? null : rows.get(rows.size() - 1).getControlDate();
+        if (ascending && rows.size() >= limit && lastRow == null) {
+            // Las filas completan el límite solo con controles sin fecha.
+            return new ArrayList<>(rows);
+        }
+        LocalDate horizon = lastRow == null ? null : lastRow.toLocalDate();
+        LocalDate first = null;
+        LocalDate last = null;
+        long count = 0;
+        for (NursingControlBlockEntity block : blocks) {
+            LocalDate blockDate = block.getBlockDate();
+            if (count >= limit || (horizon != null
+                    && (ascending ? blockDate.isAfter(horizon) : blockDate.isBefore(horizon)))) {
+                break;
+            }
+            if (first == null) {
+                first = blockDate;
+            }
+            last = blockDate;
+            // El bloque del día de la posición puede tener controles de ambos
+            // lados, por lo que no se cuenta.
+            if (!blockDate.equals(day)) {
+                count += block.getControlCount();
+            }
+        }
+        if (first == null) {
+            return new ArrayList<>(rows);
+        }
+
+        Comparator<NursingControlEntity> order = ascending ? ORDER : ORDER.reversed();
+        List<NursingControlEntity> merged = new ArrayList<>(rows);
+        for (ControlBlockDto block : ascending ? this.blockRepository.findPayloads(historyId, first, last)
+                : this.blockRepository.findPayloads(historyId, last, first)) {
+            for (NursingControlDto control : decode(block)) {
+                NursingControlEntity entity = toEntity(historyId, control);
+                if (position == null || order.compare(entity, position) > 0) {
+                    merged.add(entity);
+                }
+            }
+        }
+        merged.sort(order);
+        return new ArrayList<>(merged.subList(0, Math.min(limit, merged.size())));
+    }
+
+    private static List<NursingControlDto> decode(ControlBlockDto block) {
+        return ControlBlockCodec.decode(block.getBlockDate(), block.getPayload());
+    }
+
+    private static List<NursingControlDto> inRange(List<NursingControlDto> controls, LocalDateTime startDate,
+            LocalDateTime endDate) {
+        if (startDate == null || endDate == null) {
+            return controls;
+        }
+        return controls.stream().filter(control -> !control.getControlDate().isBefore(startDate)
+                && !control.getControlDate().isAfter(endDate)).toList();
+    }
+
+    private static Object[] concat(Object[] first, Object[] second) {
+        Object[] args = new Object[first.length + second.length];
+        System.arraycopy(first, 0, args, 0, first.length);
+        System.arraycopy(second, 0, args, first.length, second.length);
+        return args;
+    }
+
+    /**
+     * Convierte un control decodificado en una entidad transitoria, que se
+     * serializa igual que los controles leídos como filas. La Historia Clínica
+     * es una referencia transitoria con solo su identificador.
+     */
+    private static NursingControlEntity toEntity(Long historyId, NursingControlDto control) {
+        PatientHistoryEntity history = new PatientHistoryEntity();
+        history.setId(historyId);
+
+        NursingControlEntity entity = control.toEntity();
+        entity.setPatientHistoryEntity(history);
+        return entity;
+    }
+}
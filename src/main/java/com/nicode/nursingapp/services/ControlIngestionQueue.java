@@ -0,0 +1,320 @@
+package com.nicode.nursingapp.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Cola de ingesta asíncrona para los controles que envían los monitores de
+ * cabecera cada pocos segundos.
+ *
+ * Las lecturas se aceptan en una cola acotada en memoria y un único hilo las
+ * guarda agrupadas (commit grupal): cada transacción se confirma al reunir
+ * `max-batch-size` lecturas o al vencer `max-wait-ms` desde la primera, de modo
+ * que muchas lecturas comparten un mismo commit y una misma escritura a disco.
+ *
+ * Las lecturas se validan antes de aceptarlas. Cuando la cola está llena se
+ * rechazan para que el emisor reintente (contrapresión). Si la base de datos no
+ * está disponible, el grupo se reintenta hasta que vuelva, sin descartarlo,
+ * mientras la cola se llena hasta rechazar nuevas lecturas; cualquier otro
+ * error divide el grupo hasta aislar las lecturas que fallan, que se descartan
+ * y se registran para que no bloqueen a las demás. Al detener
+ * la aplicación, después de que el servidor web deja de aceptar solicitudes, se
+ * guardan todas las lecturas pendientes. Las lecturas aceptadas solo viven en
+ * memoria hasta su commit: una caída abrupta del proceso las pierde.
+ */
+@Component
+public class ControlIngestionQueue implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ControlIngestionQueue.class);
+
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+
+    /**
+     * Espera máxima entre intentos mientras la base de datos no esté disponible;
+     * la espera se duplica en cada intento hasta alcanzar este valor.
+     */
+    private static final long MAX_BACKOFF_MILLIS = 30000;
+
+    /**
+     * Valor absoluto máximo de la temperatura, que se guarda como DECIMAL(4,2).
+     */
+    private static final double MAX_TEMPERATURE = 100;
+
+    /**
+     * Longitud máxima de las observaciones, igual que la de su columna.
+     */
+    private static final int MAX_OBSERVATIONS_LENGTH = 250;
+
+    private final NursingControlService nursingControlService;
+    private final BlockingQueue<ControlBatchItemDto> queue;
+    private final int maxBatchSize;
+    private final long maxWaitMillis;
+    private final long shutdownTimeoutMillis;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter discarded;
+    private final DistributionSummary batchSize;
+    private final Timer commitLatency;
+
+    private volatile boolean running;
+    private volatile boolean accepting;
+    private Thread drainer;
+
+    /**
+     * Constructor que inicializa la cola y sus métricas.
+     *
+     * @param nursingControlService Servicio que guarda los grupos de controles.
+     * @param meterRegistry         Registro de métricas.
+     * @param capacity              Cantidad máxima de lecturas pendientes.
+     * @param maxBatchSize          Cantidad máxima de lecturas por commit.
+     * @param maxWaitMillis         Espera máxima, desde la primera lectura del
+     *                              grupo, antes de confirmarlo.
+     * @param shutdownTimeoutSecs   Tiempo máximo para guardar las lecturas
+     *                              pendientes al detener la aplicación.
+     */
+    public ControlIngestionQueue(NursingControlService nursingControlService, MeterRegistry meterRegistry,
+            @Value("${controls.ingestion.queue-capacity:10000}") int capacity,
+            @Value("${controls.ingestion.max-batch-size:200}") int maxBatchSize,
+            @Value("${controls.ingestion.max-wait-ms:200}") long maxWaitMillis,
+            @Value("${controls.ingestion.shutdown-timeout-seconds:30}") long shutdownTimeoutSecs) {
+        this.nursingControlService = nursingControlService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = Math.min(maxBatchSize, NursingControlService.MAX_BATCH_SIZE);
+        this.maxWaitMillis = maxWaitMillis;
+        this.shutdownTimeoutMillis = TimeUnit.SECONDS.toMillis(shutdownTimeoutSecs);
+
+        Gauge.builder("controls.ingestion.queue.depth", this.queue, BlockingQueue::size)
+                .description("Lecturas aceptadas pendientes de guardar").register(meterRegistry);
+        this.accepted = Counter.builder("controls.ingestion.accepted")
+                .description("Lecturas aceptadas en la cola").register(meterRegistry);
+        this.rejected = Counter.builder("controls.ingestion.rejected")
+                .description("Lecturas rechazadas por cola llena").register(meterRegistry);
+        this.discarded = Counter.builder("controls.ingestion.discarded")
+                .description("Lecturas descartadas por historia clínica inexistente o error al guardarlas")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("controls.ingestion.batch.size")
+                .description("Lecturas guardadas por commit").register(meterRegistry);
+        this.commitLatency = Timer.builder("controls.ingestion.commit.latency")
+                .description("Duración de cada commit grupal").register(meterRegistry);
+    }
+
+    /**
+     * Encola una lectura para guardarla en el próximo commit grupal. Si la
+     * lectura no indica fecha, se toma la del momento en que se acepta.
+     *
+     * @param control   Control de enfermería a guardar.
+     * @param historyId Identificador de la Historia Clínica.
+     * @return true si la lectura fue aceptada, false si la cola está llena.
+     * @throws IllegalArgumentException Si la lectura no puede guardarse.
+     * @throws IllegalStateException    Si la aplicación se está deteniendo.
+     */
+    public boolean offer(NursingControlEntity control, Long historyId) {
+        if (!this.accepting) {
+            throw new IllegalStateException("La ingesta de controles no está disponible.");
+        }
+        validate(control, historyId);
+        if (control.getControlDate() == null) {
+            control.setControlDate(LocalDateTime.now());
+        }
+        if (this.queue.offer(new ControlBatchItemDto(historyId, control))) {
+            this.accepted.increment();
+            return true;
+        }
+        this.rejected.increment();
+        return false;
+    }
+
+    /**
+     * Verifica que la lectura respete las restricciones de sus columnas, para
+     * que no haga fallar el commit del grupo en el que se guarde.
+     *
+     * @throws IllegalArgumentException Si algún valor no es válido.
+     */
+    private static void validate(NursingControlEntity control, Long historyId) {
+        if (control == null || historyId == null) {
+            throw new IllegalArgumentException("La lectura debe indicar la historia clínica y los datos del control.");
+        }
+        if (control.getTemperature() != null && !(Math.abs(control.getTemperature()) < MAX_TEMPERATURE)) {
+            throw new IllegalArgumentException("La temperatura debe tener como máximo dos dígitos enteros.");
+        }
+        if (control.getObservations() != null && control.getObservations().length() > MAX_OBSERVATIONS_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Las observaciones superan los " + MAX_OBSERVATIONS_LENGTH + " caracteres.");
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de lecturas pendientes de guardar.
+     *
+     * @return Lecturas en la cola.
+     */
+    public int depth() {
+        return this.queue.size();
+    }
+
+    @Override
+    public void start() {
+        this.running = true;
+        this.accepting = true;
+        this.drainer = new Thread(this::drain, "controls-ingestion");
+        this.drainer.start();
+    }
+
+    /**
+     * Deja de aceptar lecturas y espera a que se guarden las pendientes.
+     */
+    @Override
+    public void stop() {
+        this.accepting = false;
+        this.running = false;
+        try {
+            this.drainer.join(this.shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.drainer.isAlive()) {
+            this.drainer.interrupt();
+            log.error("No se pudieron guardar {} controles pendientes al detener la ingesta", this.queue.size());
+        } else {
+            log.info("Ingesta de controles detenida sin lecturas pendientes");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Se detiene después del servidor web (para no perder lecturas que lleguen
+     * durante el apagado) y antes de cerrar el acceso a la base de datos.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Bucle del hilo de guardado: arma grupos por tamaño o tiempo y los
+     * confirma, hasta que se detiene la aplicación y la cola queda vacía.
+     */
+    private void drain() {
+        List<ControlBatchItemDto> batch = new ArrayList<>(this.maxBatchSize);
+
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                ControlBatchItemDto first = this.queue.poll(this.maxWaitMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.maxWaitMillis);
+                while (batch.size() < this.maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !this.running) {
+                        this.queue.drainTo(batch, this.maxBatchSize - batch.size());
+                        break;
+                    }
+                    ControlBatchItemDto next = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    this.queue.drainTo(batch, this.maxBatchSize - batch.size());
+                }
+
+                commit(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Guarda un grupo en una transacción. Los errores de conexión se reintentan
+     * hasta que la base de datos vuelva a estar disponible, esperando como
+     * máximo {@link #MAX_BACKOFF_MILLIS} entre intentos; ante cualquier otro
+     * error el grupo se divide en mitades hasta aislar las lecturas que no
+     * pueden guardarse.
+     */
+    private void commit(List<ControlBatchItemDto> batch) throws InterruptedException {
+        long backoff = RETRY_BACKOFF_MILLIS;
+        for (int attempt = 1;; attempt++) {
+            try {
+                int saved = this.commitLatency.recordCallable(() -> this.nursingControlService.saveAvailable(batch));
+                this.batchSize.record(saved);
+                if (saved < batch.size()) {
+                    this.discarded.increment(batch.size() - saved);
+                    log.warn("Se descartaron {} controles de historias clínicas inexistentes", batch.size() - saved);
+                }
+                return;
+            } catch (Exception e) {
+                if (!isTransient(e)) {
+                    split(batch, e);
+                    return;
+                }
+                log.warn("Error de conexión al guardar {} controles (intento {}), se reintentará en {} ms",
+                        batch.size(), attempt, backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Guarda por separado las dos mitades de un grupo que falló; si el grupo
+     * tiene una sola lectura, la descarta.
+     */
+    private void split(List<ControlBatchItemDto> batch, Exception cause) throws InterruptedException {
+        if (batch.size() == 1) {
+            ControlBatchItemDto item = batch.get(0);
+            this.discarded.increment();
+            log.error("Se descartó un control de la historia clínica {} del {} que no pudo guardarse",
+                    item.getHistoryId(), item.getControl().getControlDate(), cause);
+            return;
+        }
+        int half = batch.size() / 2;
+        commit(new ArrayList<>(batch.subList(0, half)));
+        commit(new ArrayList<>(batch.subList(half, batch.size())));
+    }
+
+    /**
+     * Indica si el error se debe a que la base de datos no está disponible
+     * momentáneamente, por lo que reintentar el mismo grupo puede funcionar.
+     */
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof CannotGetJdbcConnectionException
+                    || cause instanceof CannotCreateTransactionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package com.nicode.nursingapp.services;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector incremental de CSV según RFC 4180: los campos pueden ir entre
+ * comillas, contener comas y saltos de línea, y las comillas internas se
+ * duplican. Lee un registro por vez, por lo que la memoria utilizada no depende
+ * del tamaño del archivo.
+ */
+final class CsvReader {
+
+    private final Reader reader;
+    private int line = 1;
+    private int recordLine;
+    private int pending = -2;
+
+    /**
+     * @param reader Origen del CSV; conviene que tenga buffer.
+     */
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Lee el próximo registro.
+     *
+     * @return Campos del registro, o null al llegar al final.
+     * @throws IOException              Si no se puede leer el origen.
+     * @throws IllegalArgumentException Si un campo entre comillas no se cierra.
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        this.recordLine = this.line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Campo entre comillas sin cerrar desde la línea "
+                            + this.recordLine + ".");
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * @return Línea del archivo en la que empieza el último registro leído.
+     */
+    int recordLine() {
+        return this.recordLine;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (this.pending != -2) {
+            c = this.pending;
+            this.pending = -2;
+        } else {
+            c = this.reader.read();
+            if (c == '\n') {
+                this.line++;
+            }
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        this.pending = c;
+    }
+}
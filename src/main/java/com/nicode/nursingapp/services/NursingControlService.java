@@ -1,11 +1,30 @@
 package com.nicode.nursingapp.services;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -13,10 +32,22 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.nicode.nursingapp.entities.NursingControlEntity;
 import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.RollupGranularity;
+import com.nicode.nursingapp.entities.VitalSign;
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
+import com.nicode.nursingapp.entities.dto.ControlSnapshotDto;
+import com.nicode.nursingapp.entities.dto.KeysetPageDto;
+import com.nicode.nursingapp.entities.dto.NursingControlDto;
+import com.nicode.nursingapp.entities.dto.ObservationHitDto;
+import com.nicode.nursingapp.entities.dto.ObservationSource;
+import com.nicode.nursingapp.entities.dto.VitalSampleDto;
+import com.nicode.nursingapp.entities.dto.VitalSignChartDto;
+import com.nicode.nursingapp.entities.dto.VitalSignsSummaryDto;
 import com.nicode.nursingapp.exceptions.NotFoundException;
 import com.nicode.nursingapp.repositories.NursingControlPagingAndSortingRepository;
 import com.nicode.nursingapp.repositories.NursingControlRepository;
 import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+import com.nicode.nursingapp.search.ObservationSearchIndex;
 
 /**
  * Servicio que gestiona las operaciones relacionadas con los controles de
@@ -25,10 +56,22 @@ import com.nicode.nursingapp.repositories.PatientHistoryRepository;
 @Service
 public class NursingControlService {
 
+    /**
+     * Cantidad máxima de controles aceptados en una carga masiva.
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    /**
+     * Cantidad máxima de puntos por signo vital en un gráfico.
+     */
+    public static final int MAX_CHART_POINTS = 2000;
+
     private final NursingControlRepository repository;
     private final NursingControlPagingAndSortingRepository pagingAndSorting;
     private final PatientHistoryRepository historyRepository;
-    private final PatientService patientService;
+    private final ObservationSearchIndex observationIndex;
+    private final VitalSignRollupService rollupService;
+    private final ControlCompactionService compaction;
 
     /**
      * Constructor que inicializa las dependencias del servicio.
@@ -39,21 +82,29 @@ public class NursingControlService {
      *                          ordenamiento en entidades NursingControlEntity.
      * @param historyRepository Repositorio para operaciones CRUD en entidades
      *                          PatientHistoryEntity.
-     * @param patientService    Servicio para operaciones relacionadas con
-     *                          pacientes.
+     * @param observationIndex  Índice de búsqueda de texto completo sobre las
+     *                          observaciones.
+     * @param rollupService     Servicio de resúmenes horarios y diarios de
+     *                          signos vitales.
+     * @param compaction        Servicio de compactación de los controles
+     *                          antiguos, que lee los controles compactados.
      */
     @Autowired
     public NursingControlService(NursingControlRepository repository,
             NursingControlPagingAndSortingRepository pagingAndSorting, PatientHistoryRepository historyRepository,
-            PatientService patientService) {
+            ObservationSearchIndex observationIndex, VitalSignRollupService rollupService,
+            ControlCompactionService compaction) {
         this.repository = repository;
         this.pagingAndSorting = pagingAndSorting;
         this.historyRepository = historyRepository;
-        this.patientService = patientService;
+        this.observationIndex = observationIndex;
+        this.rollupService = rollupService;
+        this.compaction = compaction;
     }
 
     /**
-     * Obtiene todos los controles de enfermería asociados a un paciente.
+     * Obtiene todos los controles de enfermería asociados a un paciente, con una
+     * consulta para las filas y otra para los bloques compactados.
      *
      * @param patientId Identificador del paciente.
      * @return Lista de controles de enfermería asociados al historial médico del
@@ -61,12 +112,17 @@ public class NursingControlService {
      * @throws NotFoundException Si no se encuentra ningún control de enfermería.
      */
     @Transactional(readOnly = true)
-    public List<NursingControlEntity> getAll(Long patientId) {
-        Long historyId = this.patientService.findById(patientId).getPatientHistory().getId();
-        List<NursingControlEntity> nursingControls = this.repository.findByPatientHistoryEntityId(historyId);
+    public List<NursingControlDto> getAll(Long patientId) {
+        List<NursingControlDto> nursingControls = new ArrayList<>(this.repository.findByPatientId(patientId));
+        List<NursingControlDto> compacted = this.compaction.findByPatientId(patientId);
+        if (!compacted.isEmpty()) {
+            nursingControls.addAll(compacted);
+            nursingControls.sort(ControlBlockCodec.ORDER);
+        }
 
         if (nursingControls.isEmpty()) {
-            throw new NotFoundException("No se encontró ningún control de enfermería con el ID: " + historyId);
+            throw new NotFoundException(
+                    "No se encontró ningún control de enfermería para el paciente con el ID: " + patientId);
         }
 
         return nursingControls;
@@ -74,7 +130,7 @@ public class NursingControlService {
 
     /**
      * Obtiene una página de controles de enfermería asociados a un historial
-     * médico.
+     * médico, incluidos los compactados.
      *
      * @param pageNumber       Número de página.
      * @param elementsQuantity Cantidad de elementos por página.
@@ -86,12 +142,136 @@ public class NursingControlService {
     public Page<NursingControlEntity> getAllPaged(int pageNumber, int elementsQuantity, Long historiId) {
         Pageable pageRequest = PageRequest.of(pageNumber, elementsQuantity);
 
-        return this.pagingAndSorting.findByPatientHistoryEntityIdOrderByControlDateAsc(historiId, pageRequest);
+        return this.compaction.findPage(historiId, null, null, pageRequest)
+                .orElseGet(() -> this.pagingAndSorting.findByPatientHistoryEntityIdOrderByControlDateAsc(historiId,
+                        pageRequest));
+    }
+
+    /**
+     * Obtiene una página de controles de enfermería de un historial médico
+     * utilizando paginación por clave (fecha de control + identificador), con
+     * los controles sin fecha al principio.
+     * Cada página cuesta lo mismo sin importar su profundidad, ya que no se usa
+     * OFFSET ni se ejecuta una consulta de conteo; los controles compactados se
+     * combinan leyendo solo los bloques contiguos a la posición.
+     *
+     * @param historyId Identificador del historial médico.
+     * @param cursor    Cursor opaco devuelto por una página anterior, o null
+     *                  para obtener la primera página.
+     * @param forward   true para avanzar desde el cursor, false para retroceder.
+     * @param elements  Cantidad de elementos por página.
+     * @return Página de controles ordenados por fecha de control ascendente, con
+     *         los cursores de la página siguiente y anterior.
+     * @throws IllegalArgumentException Si el cursor no es válido o la cantidad de
+     *                                  elementos no es positiva.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDto<NursingControlEntity> getKeysetPage(Long historyId, String cursor, boolean forward,
+            int elements) {
+
+        if (elements <= 0) {
+            throw new IllegalArgumentException("La cantidad de elementos por página debe ser mayor a cero.");
+        }
+
+        // Se pide un elemento extra para saber si existe otra página en la misma
+        // dirección sin necesidad de contar.
+        Pageable limit = PageRequest.of(0, elements + 1);
+        List<NursingControlEntity> controls;
+
+        if (cursor == null || cursor.isBlank()) {
+            controls = this.compaction.withCompacted(historyId, this.pagingAndSorting
+                    .findByPatientHistoryEntityIdOrderByControlDateAscIdAsc(historyId, limit), null, true,
+                    elements + 1);
+            boolean hasNext = trimToSize(controls, elements);
+
+            return new KeysetPageDto<>(controls, elements, hasNext ? encodeCursor(last(controls)) : null, null);
+        }
+
+        NursingControlEntity position = decodeCursor(cursor);
+
+        LocalDateTime controlDate = position.getControlDate();
+        if (forward) {
+            controls = this.compaction.withCompacted(historyId, controlDate == null
+                    ? this.pagingAndSorting.findAfterUndatedPosition(historyId, position.getId(), limit)
+                    : this.pagingAndSorting.findAfterPosition(historyId, controlDate, position.getId(), limit),
+                    position, true, elements + 1);
+            boolean hasNext = trimToSize(controls, elements);
+
+            return new KeysetPageDto<>(controls, elements,
+                    hasNext ? encodeCursor(last(controls)) : null,
+                    controls.isEmpty() ? cursor : encodeCursor(controls.get(0)));
+        }
+
+        controls = this.compaction.withCompacted(historyId, controlDate == null
+                ? this.pagingAndSorting.findBeforeUndatedPosition(historyId, position.getId(), limit)
+                : this.pagingAndSorting.findBeforePosition(historyId, controlDate, position.getId(), limit),
+                position, false, elements + 1);
+        boolean hasPrevious = trimToSize(controls, elements);
+        Collections.reverse(controls);
+
+        return new KeysetPageDto<>(controls, elements,
+                controls.isEmpty() ? cursor : encodeCursor(last(controls)),
+                hasPrevious ? encodeCursor(controls.get(0)) : null);
+    }
+
+    /**
+     * Recorta la lista a la cantidad de elementos solicitada.
+     *
+     * @param controls Lista obtenida con un elemento extra.
+     * @param elements Cantidad de elementos por página.
+     * @return true si la lista tenía más elementos que los solicitados.
+     */
+    private static boolean trimToSize(List<NursingControlEntity> controls, int elements) {
+        if (controls.size() > elements) {
+            controls.subList(elements, controls.size()).clear();
+            return true;
+        }
+        return false;
+    }
+
+    private static NursingControlEntity last(List<NursingControlEntity> controls) {
+        return controls.get(controls.size() - 1);
+    }
+
+    /**
+     * Codifica la posición de un control (fecha de control e identificador) en un
+     * cursor opaco en Base64 apto para URL. Los controles sin fecha, que se
+     * ordenan antes que todos los fechados, se codifican con la fecha vacía.
+     *
+     * @param control Control cuya posición se codifica.
+     * @return Cursor opaco.
+     */
+    private static String encodeCursor(NursingControlEntity control) {
+        LocalDateTime controlDate = control.getControlDate();
+        String position = (controlDate == null ? "" : controlDate.toString()) + "|" + control.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor opaco generado por {@link #encodeCursor}.
+     *
+     * @param cursor Cursor opaco.
+     * @return Control transitorio con la fecha de control y el identificador.
+     * @throws IllegalArgumentException Si el cursor no es válido.
+     */
+    private static NursingControlEntity decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf('|');
+
+            NursingControlEntity control = new NursingControlEntity();
+            String controlDate = position.substring(0, separator);
+            control.setControlDate(controlDate.isEmpty() ? null : LocalDateTime.parse(controlDate));
+            control.setId(Long.valueOf(position.substring(separator + 1)));
+            return control;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("El cursor de paginación no es válido.");
+        }
     }
 
     /**
      * Obtiene una página de controles de enfermería asociados a un historial médico
-     * y dentro de un rango de fechas.
+     * y dentro de un rango de fechas, incluidos los compactados.
      *
      * @param patientHistoryId Identificador del historial médico.
      * @param startDate        Fecha de inicio del rango.
@@ -115,13 +295,230 @@ public class NursingControlService {
             throw new IllegalArgumentException("Las fechas de búsqueda deben estar antes de la fecha y hora actual.");
         }
 
-        return this.pagingAndSorting
-                .findByPatientHistoryEntityIdAndControlDateBetweenOrderByControlDateAsc(
-                        patientHistoryId, startDate, endDate, pageRequest);
+        return this.compaction.findPage(patientHistoryId, startDate, endDate, pageRequest)
+                .orElseGet(() -> this.pagingAndSorting
+                        .findByPatientHistoryEntityIdAndControlDateBetweenOrderByControlDateAsc(
+                                patientHistoryId, startDate, endDate, pageRequest));
+    }
+
+    /**
+     * Obtiene los controles de todos los pacientes de las últimas horas con
+     * algún signo vital fuera de los umbrales indicados.
+     *
+     * @param hours                Cantidad de horas hacia atrás.
+     * @param systolicAbove        Umbral de presión sistólica (opcional).
+     * @param heartRateAbove       Umbral de ritmo cardíaco (opcional).
+     * @param respiratoryRateAbove Umbral de ritmo respiratorio (opcional).
+     * @param spo2Below            Umbral de saturación de oxígeno (opcional).
+     * @param page                 Número de página.
+     * @param elements             Cantidad de elementos por página.
+     * @return Página de controles del más reciente al más antiguo.
+     * @throws IllegalArgumentException Si no se indica ningún umbral, la
+     *                                  cantidad de horas no es positiva o el
+     *                                  período incluye controles compactados,
+     *                                  que no se filtran por signo vital.
+     */
+    @Transactional(readOnly = true)
+    public Page<NursingControlEntity> findAbnormalVitals(int hours, Integer systolicAbove, Integer heartRateAbove,
+            Integer respiratoryRateAbove, Integer spo2Below, int page, int elements) {
+
+        if (hours <= 0) {
+            throw new IllegalArgumentException("La cantidad de horas debe ser mayor a cero.");
+        }
+        if (systolicAbove == null && heartRateAbove == null && respiratoryRateAbove == null && spo2Below == null) {
+            throw new IllegalArgumentException("Debe indicar al menos un umbral de signos vitales.");
+        }
+
+        LocalDateTime since = LocalDateTime.now().minusHours(hours);
+        if (this.compaction.hasBlocksSince(since)) {
+            throw new IllegalArgumentException(
+                    "El período solicitado incluye controles compactados; indique una cantidad de horas menor.");
+        }
+
+        return this.pagingAndSorting.findAbnormalVitals(since, systolicAbove, heartRateAbove, respiratoryRateAbove,
+                spo2Below, PageRequest.of(page, elements));
+    }
+
+    /**
+     * Obtiene el resumen de los signos vitales de un historial médico en un rango
+     * de fechas, calculado en la base de datos. Si el rango tiene controles
+     * compactados, se calcula recorriendo las filas y los bloques, estos de a
+     * un día por vez, sin cargarlos en memoria.
+     *
+     * @param historyId Identificador del historial médico.
+     * @param startDate Fecha de inicio del rango.
+     * @param endDate   Fecha de fin del rango.
+     * @return Cantidad de controles y promedio, mínimo y máximo de cada signo
+     *         vital.
+     * @throws IllegalArgumentException Si el rango de fechas no es válido.
+     */
+    @Transactional(readOnly = true)
+    public VitalSignsSummaryDto getVitalSignsSummary(Long historyId, LocalDateTime startDate,
+            LocalDateTime endDate) {
+
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la fecha de fin.");
+        }
+
+        try (Stream<NursingControlDto> compacted = this.compaction.streamInRange(historyId, startDate, endDate)) {
+            Iterator<NursingControlDto> controls = compacted.iterator();
+            if (!controls.hasNext()) {
+                return this.pagingAndSorting.summarizeVitals(historyId, startDate, endDate);
+            }
+
+            VitalSignsAccumulator accumulator = new VitalSignsAccumulator();
+            controls.forEachRemaining(control -> accumulator.accept(toSample(control)));
+            try (Stream<VitalSampleDto> samples = this.repository.streamVitalSamples(historyId, startDate,
+                    endDate)) {
+                samples.forEach(accumulator::accept);
+            }
+            return accumulator.summary();
+        }
+    }
+
+    private static VitalSampleDto toSample(NursingControlDto control) {
+        return new VitalSampleDto(control.getControlDate(), control.getTemperature(), control.getSystolic(),
+                control.getDiastolic(), control.getHeartRate(), control.getRespiratoryRate(), control.getSpo2());
+    }
+
+    /**
+     * Obtiene las series de signos vitales de un historial médico en un rango de
+     * fechas, reducidas a una cantidad acotada de puntos por serie sin importar
+     * cuántos controles tenga el rango. Los controles se leen de la base de datos
+     * en orden de fecha y se reducen a medida que llegan, sin cargarlos todos en
+     * memoria; los compactados del rango se intercalan en orden de fecha,
+     * decodificando un bloque diario por vez.
+     *
+     * @param historyId Identificador del historial médico.
+     * @param startDate Fecha de inicio del rango.
+     * @param endDate   Fecha de fin del rango.
+     * @param points    Cantidad máxima de puntos por signo vital.
+     * @param vital     Signo vital a graficar, o null para todos.
+     * @return Series de puntos (mínimo y máximo de cada intervalo) por signo
+     *         vital.
+     * @throws IllegalArgumentException Si el rango de fechas no es válido o la
+     *                                  cantidad de puntos está fuera de rango.
+     */
+    @Transactional(readOnly = true)
+    public VitalSignChartDto getVitalSignsChart(Long historyId, LocalDateTime startDate, LocalDateTime endDate,
+            int points, VitalSign vital) {
+
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la fecha de fin.");
+        }
+        if (points < 2 || points > MAX_CHART_POINTS) {
+            throw new IllegalArgumentException(
+                    "La cantidad de puntos debe estar entre 2 y " + MAX_CHART_POINTS + ".");
+        }
+
+        VitalSignDownsampler downsampler = new VitalSignDownsampler(startDate, endDate, points / 2,
+                vital == null ? EnumSet.allOf(VitalSign.class) : EnumSet.of(vital));
+        try (Stream<VitalSampleDto> compactedSamples = this.compaction.streamInRange(historyId, startDate, endDate)
+                .map(NursingControlService::toSample);
+                Stream<VitalSampleDto> samples = this.repository.streamVitalSamples(historyId, startDate, endDate)) {
+            Iterator<VitalSampleDto> compacted = compactedSamples.iterator();
+            VitalSampleDto nextCompacted = compacted.hasNext() ? compacted.next() : null;
+            for (Iterator<VitalSampleDto> rows = samples.iterator(); rows.hasNext();) {
+                VitalSampleDto row = rows.next();
+                while (nextCompacted != null && nextCompacted.getControlDate().isBefore(row.getControlDate())) {
+                    downsampler.accept(nextCompacted);
+                    nextCompacted = compacted.hasNext() ? compacted.next() : null;
+                }
+                downsampler.accept(row);
+            }
+            while (nextCompacted != null) {
+                downsampler.accept(nextCompacted);
+                nextCompacted = compacted.hasNext() ? compacted.next() : null;
+            }
+        }
+
+        return new VitalSignChartDto(startDate, endDate, downsampler.bucketMillis(), downsampler.samples(),
+                downsampler.finish());
     }
 
     /**
-     * Obtiene un control de enfermería por su identificador.
+     * Busca texto en las observaciones de los controles de enfermería y de las
+     * Historias Clínicas utilizando el índice en memoria. Solo se consultan a la
+     * base de datos las observaciones de la página solicitada; los controles que
+     * ya no están como filas se leen de sus bloques compactados.
+     *
+     * @param query     Texto buscado; cada palabra se busca como prefijo, sin
+     *                  distinguir mayúsculas ni acentos.
+     * @param service   Servicio del paciente (opcional).
+     * @param startDate Fecha de inicio del rango (opcional).
+     * @param endDate   Fecha de fin del rango (opcional).
+     * @param page      Número de página.
+     * @param elements  Cantidad de elementos por página.
+     * @return Página de observaciones, de la más reciente a la más antigua, con
+     *         las coincidencias resaltadas.
+     * @throws IllegalArgumentException Si el texto buscado está vacío, el rango de
+     *                                  fechas no es válido o la paginación no es
+     *                                  válida.
+     * @throws IllegalStateException    Si el índice todavía no está disponible.
+     */
+    @Transactional(readOnly = true)
+    public Page<ObservationHitDto> searchObservations(String query, String service, LocalDateTime startDate,
+            LocalDateTime endDate, int page, int elements) {
+
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Debe indicar el texto a buscar en las observaciones.");
+        }
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la fecha de fin.");
+        }
+        if (!this.observationIndex.isReady()) {
+            throw new IllegalStateException("El índice de observaciones se está construyendo, intente nuevamente.");
+        }
+
+        Pageable pageRequest = PageRequest.of(page, elements);
+        ObservationSearchIndex.SearchResult result = this.observationIndex.search(query, service, startDate,
+                endDate, pageRequest.getOffset(), elements);
+
+        List<Long> controlIds = result.hits().stream()
+                .filter(hit -> hit.source() == ObservationSource.CONTROL).map(ObservationSearchIndex.Hit::id)
+                .toList();
+        List<Long> historyIds = result.hits().stream()
+                .filter(hit -> hit.source() == ObservationSource.HISTORY).map(ObservationSearchIndex.Hit::id)
+                .toList();
+
+        Map<Long, NursingControlEntity> controls = new HashMap<>();
+        if (!controlIds.isEmpty()) {
+            this.repository.findAllById(controlIds).forEach(control -> controls.put(control.getId(), control));
+        }
+        if (controls.size() < controlIds.size()) {
+            List<Long> missing = controlIds.stream().filter(id -> !controls.containsKey(id)).toList();
+            controls.putAll(this.compaction.findAllById(this.observationIndex.locateControls(missing)));
+        }
+        Map<Long, PatientHistoryEntity> histories = historyIds.isEmpty() ? Map.of()
+                : this.historyRepository.findAllById(historyIds).stream()
+                        .collect(Collectors.toMap(PatientHistoryEntity::getId, Function.identity()));
+
+        List<ObservationHitDto> hits = new ArrayList<>(result.hits().size());
+        for (ObservationSearchIndex.Hit hit : result.hits()) {
+            if (hit.source() == ObservationSource.CONTROL) {
+                NursingControlEntity control = controls.get(hit.id());
+                if (control != null) {
+                    hits.add(new ObservationHitDto(hit.source(), control.getId(),
+                            control.getPatientHistoryEntity().getId(), control.getControlDate(),
+                            control.getObservations(),
+                            ObservationSearchIndex.highlight(control.getObservations(), query)));
+                }
+            } else {
+                PatientHistoryEntity history = histories.get(hit.id());
+                if (history != null) {
+                    hits.add(new ObservationHitDto(hit.source(), history.getId(), history.getId(), null,
+                            history.getObservations(),
+                            ObservationSearchIndex.highlight(history.getObservations(), query)));
+                }
+            }
+        }
+
+        return new PageImpl<>(hits, pageRequest, result.total());
+    }
+
+    /**
+     * Obtiene un control de enfermería por su identificador, como fila o desde
+     * su bloque si está compactado.
      *
      * @param id Identificador del control de enfermería.
      * @return Control de enfermería encontrado.
@@ -129,7 +526,7 @@ public class NursingControlService {
      */
     @Transactional(readOnly = true)
     public NursingControlEntity findById(Long id) {
-        return this.repository.findById(id)
+        return this.repository.findById(id).or(() -> this.compaction.findById(id))
                 .orElseThrow(() -> new NotFoundException("Control de enfermería no encontrado"));
     }
 
@@ -149,7 +546,11 @@ public class NursingControlService {
 
         if (history.isPresent()) {
             nursingControl.setPatientHistoryEntity(history.get());
-            this.repository.save(nursingControl);
+            NursingControlEntity saved = this.repository.save(nursingControl);
+            this.observationIndex.index(saved, historyId);
+            List<ControlBatchItemDto> items = List.of(new ControlBatchItemDto(historyId, saved));
+            this.rollupService.record(items);
+            this.historyRepository.advanceLatestVitals(items);
             return ("Se guardó correctamente el control de enfermería");
         } else {
             throw new NotFoundException(
@@ -158,31 +559,175 @@ public class NursingControlService {
     }
 
     /**
-     * Actualiza los datos de un control de enfermería existente.
+     * Guarda en una sola transacción un conjunto de controles de enfermería de
+     * una o varias Historias Clínicas, por ejemplo los de una ronda completa.
+     *
+     * Las Historias Clínicas se verifican con una única consulta y se asocian
+     * mediante referencias, sin cargarlas; los controles se insertan en lotes
+     * JDBC. Si alguna Historia Clínica no existe no se guarda ningún control.
+     *
+     * @param items Controles a guardar con su Historia Clínica.
+     * @return Mensaje indicando el éxito de la operación.
+     * @throws IllegalArgumentException Si la carga está vacía, supera
+     *                                  {@link #MAX_BATCH_SIZE} controles o algún
+     *                                  elemento está incompleto.
+     * @throws NotFoundException        Si alguna Historia Clínica no existe.
+     */
+    @Transactional
+    public String saveAll(List<ControlBatchItemDto> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Debe enviar al menos un control de enfermería.");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "No se pueden guardar más de " + MAX_BATCH_SIZE + " controles de enfermería por envío.");
+        }
+
+        Set<Long> historyIds = new LinkedHashSet<>();
+        for (ControlBatchItemDto item : items) {
+            if (item == null || item.getHistoryId() == null || item.getControl() == null) {
+                throw new IllegalArgumentException(
+                        "Cada elemento debe indicar la historia clínica y los datos del control.");
+            }
+            historyIds.add(item.getHistoryId());
+        }
+
+        historyIds.removeAll(this.historyRepository.findExistingIds(historyIds));
+        if (!historyIds.isEmpty()) {
+            throw new NotFoundException("No existen las historias clínicas con los ID: " + historyIds);
+        }
+
+        return "Se guardaron correctamente " + insert(items) + " controles de enfermería.";
+    }
+
+    /**
+     * Guarda en una sola transacción un grupo de controles de enfermería,
+     * descartando los que pertenecen a Historias Clínicas inexistentes. Lo
+     * utiliza la cola de ingesta, que ya aceptó los controles y no puede
+     * rechazarlos en bloque.
+     *
+     * @param items Controles a guardar con su Historia Clínica.
+     * @return Cantidad de controles guardados.
+     */
+    @Transactional
+    public int saveAvailable(List<ControlBatchItemDto> items) {
+        Set<Long> historyIds = new HashSet<>();
+        items.forEach(item -> historyIds.add(item.getHistoryId()));
+        Set<Long> existing = new HashSet<>(this.historyRepository.findExistingIds(historyIds));
+
+        return insert(items.stream().filter(item -> existing.contains(item.getHistoryId())).toList());
+    }
+
+    /**
+     * Inserta los controles en lotes JDBC, asociándolos a sus Historias Clínicas
+     * (ya verificadas) mediante referencias.
+     *
+     * @param items Controles a guardar con su Historia Clínica.
+     * @return Cantidad de controles guardados.
+     */
+    private int insert(List<ControlBatchItemDto> items) {
+        List<NursingControlEntity> controls = new ArrayList<>(items.size());
+        for (ControlBatchItemDto item : items) {
+            NursingControlEntity control = item.getControl();
+            control.setId(null);
+            control.setPatientHistoryEntity(this.historyRepository.getReferenceById(item.getHistoryId()));
+            controls.add(control);
+        }
+
+        List<NursingControlEntity> saved = this.repository.saveAll(controls);
+        for (int i = 0; i < saved.size(); i++) {
+            this.observationIndex.index(saved.get(i), items.get(i).getHistoryId());
+        }
+        this.rollupService.record(items);
+        this.historyRepository.advanceLatestVitals(items);
+        return saved.size();
+    }
+
+    /**
+     * Actualiza los datos de un control de enfermería existente reemplazando
+     * todas sus columnas con una única sentencia UPDATE. Antes solo se proyectan
+     * la historia y la fecha previas, de las que dependen los resúmenes; la
+     * existencia de la nueva historia la verifica la clave foránea.
      *
      * @param updates   Datos actualizados del control de enfermería.
      * @param historyId Identificador del historial médico.
      * @return Mensaje indicando el éxito de la operación.
-     * @throws NotFoundException Si el paciente no existe o no cuenta con historial
-     *                           médico donde guardar los controles.
+     * @throws NotFoundException Si el control no existe, o si el paciente no
+     *                           existe o no cuenta con historial médico donde
+     *                           guardar los controles.
      */
     @Transactional
     public String update(NursingControlEntity updates, Long historyId) {
+        ControlSnapshotDto previous = findSnapshot(updates.getId());
 
-        Optional<PatientHistoryEntity> history = this.historyRepository.findById(historyId);
-        Optional<NursingControlEntity> nursingControl = this.repository.findById(updates.getId());
-
-        if (history.isPresent() && nursingControl.isPresent()) {
-            this.repository.save(updates);
-            return ("Se actualizaron correctamente los datos del control de enfermería.");
-        } else {
+        updates.setPatientHistoryEntity(this.historyRepository.getReferenceById(historyId));
+        try {
+            if (this.repository.replaceById(updates.getId(), updates) == 0) {
+                throw new NotFoundException("No se encontró un control de enfermería con el ID: " + updates.getId());
+            }
+        } catch (DataIntegrityViolationException e) {
             throw new NotFoundException(
                     "El paciente no existe o no cuenta con historia clínica donde guardar los controles.");
         }
+        this.observationIndex.index(updates, historyId);
+        recompute(previous, historyId, updates.getControlDate());
+        if (previous.isLatest()) {
+            this.historyRepository.refreshLatestVitals(previous.getHistoryId());
+        }
+        if (!previous.isLatest() || !Objects.equals(previous.getHistoryId(), historyId)) {
+            this.historyRepository.advanceLatestVitals(List.of(new ControlBatchItemDto(historyId, updates)));
+        }
+        return ("Se actualizaron correctamente los datos del control de enfermería.");
     }
 
     /**
-     * Elimina un control de enfermería por su identificador.
+     * Actualiza parcialmente un control de enfermería: solo se escriben los
+     * datos no nulos, con una única sentencia UPDATE. El control no cambia de
+     * Historia Clínica; los resúmenes y el índice de observaciones se actualizan
+     * solo si cambian los datos de los que dependen.
+     *
+     * @param id      Identificador del control de enfermería.
+     * @param changes Datos modificados del control de enfermería.
+     * @return Mensaje indicando el éxito de la operación.
+     * @throws NotFoundException Si el control de enfermería no es encontrado.
+     */
+    @Transactional
+    public String patch(Long id, NursingControlEntity changes) {
+        ControlSnapshotDto previous = findSnapshot(id);
+
+        changes.setPatientHistoryEntity(null);
+        if (this.repository.patchById(id, changes) == 0) {
+            throw new NotFoundException("No se encontró un control de enfermería con el ID: " + id);
+        }
+
+        LocalDateTime controlDate = changes.getControlDate() != null ? changes.getControlDate()
+                : previous.getControlDate();
+        if (changes.getObservations() != null || changes.getControlDate() != null) {
+            NursingControlEntity indexed = new NursingControlEntity();
+            indexed.setId(id);
+            indexed.setControlDate(controlDate);
+            indexed.setObservations(changes.getObservations() != null ? changes.getObservations()
+                    : previous.getObservations());
+            this.observationIndex.index(indexed, previous.getHistoryId());
+        }
+        if (changes.getControlDate() != null
+                || Arrays.stream(VitalSign.values()).anyMatch(vital -> vital.valueOf(changes) != null)) {
+            recompute(previous, previous.getHistoryId(), controlDate);
+        }
+        // Si el control no era el más reciente solo puede pasar a serlo por un
+        // cambio de fecha; si lo era, también cambian sus signos vitales.
+        if (changes.getControlDate() != null || (previous.isLatest() && (changes.getTemperature() != null
+                || changes.getSystolic() != null || changes.getDiastolic() != null
+                || changes.getHeartRate() != null || changes.getSpo2() != null))) {
+            this.historyRepository.refreshLatestVitals(previous.getHistoryId());
+        }
+        return ("Se actualizaron correctamente los datos del control de enfermería.");
+    }
+
+    /**
+     * Elimina un control de enfermería por su identificador con una única
+     * sentencia DELETE, después de proyectar la historia y la fecha de las que
+     * dependen los resúmenes.
      *
      * @param controlId Identificador del control de enfermería a eliminar.
      * @return Mensaje indicando el éxito de la operación.
@@ -190,13 +735,53 @@ public class NursingControlService {
      */
     @Transactional
     public String delete(Long controlId) {
-        Optional<NursingControlEntity> existingControl = this.repository.findById(controlId);
+        ControlSnapshotDto previous = findSnapshot(controlId);
 
-        if (existingControl.isPresent()) {
-            this.repository.deleteById(controlId);
-            return ("Control de enfermería borrado con éxito.");
-        } else {
+        if (this.repository.deleteIfExists(controlId) == 0) {
             throw new NotFoundException("No se encontró un control de enfermería con el ID: " + controlId);
         }
+        this.observationIndex.removeControl(controlId);
+        this.rollupService.recompute(previous.getHistoryId(), previous.getControlDate());
+        if (previous.isLatest()) {
+            this.historyRepository.refreshLatestVitals(previous.getHistoryId());
+        }
+        return ("Control de enfermería borrado con éxito.");
+    }
+
+    /**
+     * Obtiene la historia, la fecha y las observaciones de un control antes de
+     * modificarlo. Si el control está compactado, antes se restaura su bloque
+     * como filas.
+     *
+     * @param controlId Identificador del control de enfermería.
+     * @return Proyección del control.
+     * @throws NotFoundException Si el control de enfermería no es encontrado.
+     */
+    private ControlSnapshotDto findSnapshot(Long controlId) {
+        Optional<ControlSnapshotDto> snapshot = this.repository.findSnapshotById(controlId);
+        if (snapshot.isEmpty() && this.compaction.restore(controlId)) {
+            snapshot = this.repository.findSnapshotById(controlId);
+        }
+        return snapshot.orElseThrow(() -> new NotFoundException("No se encontró un control de enfermería con el ID: "
+                        + controlId));
+    }
+
+    /**
+     * Recalcula los resúmenes del intervalo anterior de un control modificado y,
+     * si es otro, los del intervalo nuevo.
+     *
+     * @param previous    Historia y fecha previas del control.
+     * @param historyId   Identificador de la Historia Clínica actual.
+     * @param controlDate Fecha actual del control.
+     */
+    private void recompute(ControlSnapshotDto previous, Long historyId, LocalDateTime controlDate) {
+        this.rollupService.recompute(previous.getHistoryId(), previous.getControlDate());
+        boolean sameBucket = Objects.equals(previous.getHistoryId(), historyId) && controlDate != null
+                && previous.getControlDate() != null
+                && RollupGranularity.HOUR.bucketOf(controlDate)
+                        .equals(RollupGranularity.HOUR.bucketOf(previous.getControlDate()));
+        if (!sameBucket) {
+            this.rollupService.recompute(historyId, controlDate);
+        }
     }
 }
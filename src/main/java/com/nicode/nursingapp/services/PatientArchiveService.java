@@ -0,0 +1,305 @@
+package com.nicode.nursingapp.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.nicode.nursingapp.config.CacheConfig;
+import com.nicode.nursingapp.entities.ArchivedNursingControlEntity;
+import com.nicode.nursingapp.entities.ArchivedPatientEntity;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.dto.ArchiveReportDto;
+import com.nicode.nursingapp.exceptions.NotFoundException;
+import com.nicode.nursingapp.repositories.ArchivedNursingControlRepository;
+import com.nicode.nursingapp.repositories.ArchivedPatientRepository;
+import com.nicode.nursingapp.search.BedOccupancyIndex;
+import com.nicode.nursingapp.search.ObservationSearchIndex;
+import com.nicode.nursingapp.search.PatientSearchIndex;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Servicio que traslada los pacientes dados de alta, con su Historia Clínica y
+ * sus controles de enfermería, a las tablas de archivo (`patients_archive`,
+ * `patients_histories_archive` y `nursing_controls_archive`), para que las
+ * tablas vigentes contengan solo a los pacientes recientes y las consultas
+ * paginadas y las búsquedas no recorran años de altas.
+ *
+ * Se archivan los pacientes con fecha de alta anterior a `retention-days` días.
+ * El traslado se hace por bloques de `batch-size` pacientes, cada uno en su
+ * propia transacción: se copian las filas con INSERT ... SELECT y se elimina
+ * el paciente, lo que elimina en cascada su Historia Clínica, sus controles y
+ * sus resúmenes de signos vitales (que no se archivan, porque se derivan de los
+ * controles) y sus controles compactados (que se archivan como filas). Como cada bloque se confirma por completo o no se confirma, el
+ * proceso puede interrumpirse y continúa donde quedó en la próxima ejecución.
+ *
+ * Las tablas de archivo solo se consultan cuando se pide explícitamente. Deben
+ * existir (las crea Hibernate con `ddl-auto`, o manualmente con las mismas
+ * columnas que las tablas vigentes más `archived_at TIMESTAMP NOT NULL` en
+ * `patients_archive`). La ejecución periódica cada `interval` se habilita con
+ * `patients.archive.enabled=true`.
+ */
+@Service
+public class PatientArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientArchiveService.class);
+
+    private static final String SELECT_CHUNK = "SELECT id FROM patients WHERE medical_discharge_date < ? "
+            + "ORDER BY id LIMIT ? FOR UPDATE";
+
+    /**
+     * Condición de los pacientes del bloque: identificador en el rango bloqueado
+     * y dados de alta antes de la fecha de corte.
+     */
+    private static final String IN_CHUNK = " WHERE p.id BETWEEN ? AND ? AND p.medical_discharge_date < ?";
+
+    private static final String ARCHIVE_PATIENTS = "INSERT INTO patients_archive (id, first_name, last_name, "
+            + "id_number, phone_number, date_of_birth, email, address, admission_date, room, bed, service, "
+            + "medical_discharge_date, archived_at) SELECT p.id, p.first_name, p.last_name, p.id_number, "
+            + "p.phone_number, p.date_of_birth, p.email, p.address, p.admission_date, p.room, p.bed, p.service, "
+            + "p.medical_discharge_date, ? FROM patients p" + IN_CHUNK;
+
+    private static final String ARCHIVE_HISTORIES = "INSERT INTO patients_histories_archive (patient_history_id, "
+            + "sex, height, weight, blood_type, observations, patient_id) SELECT h.patient_history_id, h.sex, "
+            + "h.height, h.weight, h.blood_type, h.observations, h.patient_id FROM patients_histories h "
+            + "JOIN patients p ON p.id = h.patient_id" + IN_CHUNK;
+
+    private static final String ARCHIVE_CONTROLS = "INSERT INTO nursing_controls_archive (nursing_control_id, "
+            + "temperature, systolic, diastolic, heart_rate_bpm, respiratory_rate_rpm, spo2, observations, "
+            + "control_date, patient_history_id) SELECT c.nursing_control_id, c.temperature, c.systolic, "
+            + "c.diastolic, c.heart_rate_bpm, c.respiratory_rate_rpm, c.spo2, c.observations, c.control_date, "
+            + "c.patient_history_id FROM nursing_controls c "
+            + "JOIN patients_histories h ON h.patient_history_id = c.patient_history_id "
+            + "JOIN patients p ON p.id = h.patient_id" + IN_CHUNK;
+
+    private static final String DELETE_PATIENTS = "DELETE FROM patients WHERE id BETWEEN ? AND ? "
+            + "AND medical_discharge_date < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArchivedPatientRepository patientRepository;
+    private final ArchivedNursingControlRepository controlRepository;
+    private final PatientSearchIndex searchIndex;
+    private final ObservationSearchIndex observationIndex;
+    private final BedOccupancyIndex bedOccupancy;
+    private final ControlCompactionService compaction;
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final int batchSize;
+
+    /**
+     * Constructor que inicializa las dependencias del servicio.
+     *
+     * @param jdbcTemplate         Acceso JDBC para el traslado de filas.
+     * @param transactionManager   Administrador de transacciones para cada
+     *                             bloque.
+     * @param patientRepository    Repositorio de pacientes archivados.
+     * @param controlRepository    Repositorio de controles archivados.
+     * @param searchIndex          Índice en memoria para la búsqueda de
+     *                             pacientes.
+     * @param observationIndex     Índice en memoria de las observaciones.
+     * @param bedOccupancy         Índice en memoria de la ocupación de camas.
+     * @param compaction           Servicio de compactación, para archivar los
+     *                             controles compactados.
+     * @param cacheManager         Administrador de las cachés de pacientes e
+     *                             Historias Clínicas.
+     * @param entityManagerFactory Fábrica de EntityManager, para invalidar la
+     *                             caché de segundo nivel.
+     * @param enabled              Indica si el archivo se ejecuta
+     *                             periódicamente.
+     * @param retentionDays        Días desde el alta durante los que un paciente
+     *                             permanece en las tablas vigentes.
+     * @param batchSize            Cantidad de pacientes por bloque.
+     */
+    public PatientArchiveService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ArchivedPatientRepository patientRepository, ArchivedNursingControlRepository controlRepository,
+            PatientSearchIndex searchIndex, ObservationSearchIndex observationIndex, BedOccupancyIndex bedOccupancy,
+            ControlCompactionService compaction, CacheManager cacheManager, EntityManagerFactory entityManagerFactory,
+            @Value("${patients.archive.enabled:false}") boolean enabled,
+            @Value("${patients.archive.retention-days:30}") int retentionDays,
+            @Value("${patients.archive.batch-size:200}") int batchSize) {
+        if (retentionDays < 0 || batchSize < 1) {
+            throw new IllegalArgumentException(
+                    "Los días de retención no pueden ser negativos y el tamaño de bloque debe ser positivo.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.patientRepository = patientRepository;
+        this.controlRepository = controlRepository;
+        this.searchIndex = searchIndex;
+        this.observationIndex = observationIndex;
+        this.bedOccupancy = bedOccupancy;
+        this.compaction = compaction;
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Archiva periódicamente los pacientes dados de alta, si está habilitado.
+     */
+    @Scheduled(initialDelayString = "${patients.archive.interval:PT1H}",
+            fixedDelayString = "${patients.archive.interval:PT1H}")
+    public void scheduledArchive() {
+        if (this.enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Archiva los pacientes dados de alta hace más de `retention-days` días.
+     *
+     * @return Reporte del archivo.
+     */
+    public ArchiveReportDto archive() {
+        return archive(LocalDate.now().minusDays(this.retentionDays));
+    }
+
+    /**
+     * Archiva los pacientes dados de alta antes de una fecha, por bloques.
+     *
+     * @param dischargedBefore Fecha de corte (excluida).
+     * @return Reporte del archivo.
+     */
+    public synchronized ArchiveReportDto archive(LocalDate dischargedBefore) {
+        long start = System.currentTimeMillis();
+        ArchiveReportDto report = new ArchiveReportDto(dischargedBefore, 0, 0, 0, 0, 0);
+
+        while (true) {
+            long[] moved = this.transactionTemplate.execute(status -> archiveChunk(dischargedBefore));
+            if (moved[0] == 0) {
+                break;
+            }
+            report.setPatients(report.getPatients() + moved[0]);
+            report.setHistories(report.getHistories() + moved[1]);
+            report.setControls(report.getControls() + moved[2]);
+            report.setChunks(report.getChunks() + 1);
+        }
+
+        if (report.getPatients() > 0) {
+            // Las escrituras por JDBC no invalidan la caché de segundo nivel.
+            Cache cache = this.entityManagerFactory.getCache().unwrap(Cache.class);
+            cache.evictEntityData(PatientEntity.class);
+            cache.evictEntityData(PatientHistoryEntity.class);
+            cache.evictQueryRegion("patientQueries");
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("Archivo de pacientes dados de alta antes del {}: {} pacientes, {} Historias Clínicas, "
+                + "{} controles, en {} bloques y {} ms", dischargedBefore, report.getPatients(),
+                report.getHistories(), report.getControls(), report.getChunks(), report.getElapsedMillis());
+        return report;
+    }
+
+    /**
+     * Traslada el próximo bloque de pacientes. Los pacientes del bloque se
+     * bloquean antes de copiarlos, para que no se modifiquen hasta eliminarlos.
+     *
+     * @return Cantidad de pacientes, Historias Clínicas y controles archivados.
+     */
+    private long[] archiveChunk(LocalDate dischargedBefore) {
+        List<Long> ids = this.jdbcTemplate.queryForList(SELECT_CHUNK, Long.class, dischargedBefore,
+                this.batchSize);
+        if (ids.isEmpty()) {
+            return new long[3];
+        }
+        Long from = ids.get(0);
+        Long to = ids.get(ids.size() - 1);
+
+        long patients = this.jdbcTemplate.update(ARCHIVE_PATIENTS, LocalDateTime.now(), from, to,
+                dischargedBefore);
+        long histories = this.jdbcTemplate.update(ARCHIVE_HISTORIES, from, to, dischargedBefore);
+        long controls = this.jdbcTemplate.update(ARCHIVE_CONTROLS, from, to, dischargedBefore)
+                + this.compaction.archiveBlocks(from, to, dischargedBefore);
+        int deleted = this.jdbcTemplate.update(DELETE_PATIENTS, from, to, dischargedBefore);
+        if (deleted != patients) {
+            throw new IllegalStateException("Se copiaron " + patients + " pacientes al archivo pero se eliminaron "
+                    + deleted + "; se revierte el bloque.");
+        }
+
+        for (Long id : ids) {
+            this.searchIndex.remove(id);
+            this.observationIndex.removePatient(id);
+            this.bedOccupancy.remove(id);
+            evict(CacheConfig.PATIENTS, id);
+            evict(CacheConfig.HISTORIES_BY_PATIENT, id);
+        }
+        return new long[] { patients, histories, controls };
+    }
+
+    /**
+     * Invalida una entrada de caché; el administrador de cachés la aplica al
+     * confirmar la transacción.
+     */
+    private void evict(String cacheName, Long id) {
+        org.springframework.cache.Cache cache = this.cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+
+    /**
+     * Obtiene un paciente archivado, con su Historia Clínica.
+     *
+     * @param id Identificador del paciente.
+     * @return Paciente archivado.
+     * @throws NotFoundException Si el paciente no está archivado.
+     */
+    @Transactional(readOnly = true)
+    public ArchivedPatientEntity findById(Long id) {
+        ArchivedPatientEntity patient = this.patientRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Paciente no encontrado en el archivo. ID: " + id));
+        Hibernate.initialize(patient.getPatientHistory());
+        return patient;
+    }
+
+    /**
+     * Busca pacientes archivados por nombre, apellido, servicio o DNI.
+     *
+     * @param pageNumber       Número de página.
+     * @param elementsQuantity Cantidad de elementos por página.
+     * @param keyword          Palabra clave.
+     * @return Página de pacientes archivados.
+     */
+    @Transactional(readOnly = true)
+    public Page<ArchivedPatientEntity> findBy(int pageNumber, int elementsQuantity, String keyword) {
+        return this.patientRepository.findAllByFirstNameContainingOrLastNameContainingOrServiceContainingOrIdNumber(
+                keyword, keyword, keyword, keyword, PageRequest.of(pageNumber, elementsQuantity));
+    }
+
+    /**
+     * Obtiene una página de controles archivados de una Historia Clínica,
+     * ordenados por fecha de control ascendente.
+     *
+     * @param pageNumber       Número de página.
+     * @param elementsQuantity Cantidad de elementos por página.
+     * @param historyId        Identificador de la Historia Clínica archivada.
+     * @return Página de controles archivados.
+     */
+    @Transactional(readOnly = true)
+    public Page<ArchivedNursingControlEntity> getControlsPaged(int pageNumber, int elementsQuantity,
+            Long historyId) {
+        return this.controlRepository.findByHistoryIdOrderByControlDateAscIdAsc(historyId,
+                PageRequest.of(pageNumber, elementsQuantity));
+    }
+}
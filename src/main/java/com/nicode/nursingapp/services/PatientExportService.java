@@ -0,0 +1,160 @@
+package com.nicode.nursingapp.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.repositories.PatientRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Servicio que exporta todos los pacientes escribiéndolos directamente en la
+ * respuesta, uno por línea, a medida que se leen de la base de datos.
+ *
+ * A diferencia de PatientService.getAll, nunca materializa la tabla: recorre un
+ * cursor de solo avance y desvincula cada paciente del contexto de persistencia
+ * después de escribirlo, por lo que la memoria utilizada no depende de la
+ * cantidad de pacientes. La Historia Clínica no se exporta, para no cargarla
+ * paciente por paciente.
+ */
+@Service
+public class PatientExportService {
+
+    /**
+     * Formatos de exportación.
+     * <ul>
+     * <li>NDJSON: un objeto JSON por línea.</li>
+     * <li>CSV: una fila por paciente, con encabezado.</li>
+     * </ul>
+     */
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson"), CSV("text/csv");
+
+        private final String mediaType;
+
+        ExportFormat(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        /**
+         * @return Tipo de contenido de la respuesta.
+         */
+        public String mediaType() {
+            return this.mediaType;
+        }
+    }
+
+    private static final String CSV_HEADER = "id,firstName,lastName,idNumber,phoneNumber,dateOfBirth,email,"
+            + "address,admissionDate,room,bed,service,medicalDischargeDate";
+
+    /**
+     * Excluye la Historia Clínica de la exportación NDJSON.
+     */
+    @JsonIgnoreProperties("patientHistory")
+    private abstract static class ExportMixIn {
+    }
+
+    private final PatientRepository repository;
+    private final ObjectWriter jsonWriter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructor que inicializa las dependencias del servicio.
+     *
+     * @param repository   Repositorio para operaciones CRUD en entidades
+     *                     PatientEntity.
+     * @param objectMapper ObjectMapper de la aplicación, para que las fechas se
+     *                     exporten con el mismo formato que en el resto de la
+     *                     API.
+     */
+    @Autowired
+    public PatientExportService(PatientRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.jsonWriter = objectMapper.copy()
+                .addMixIn(PatientEntity.class, ExportMixIn.class)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writerFor(PatientEntity.class);
+    }
+
+    /**
+     * Escribe todos los pacientes, ordenados por identificador, en el formato
+     * indicado. El flujo de salida no se cierra.
+     *
+     * @param format Formato de exportación.
+     * @param output Flujo de salida, normalmente el cuerpo de la respuesta.
+     * @return Cantidad de pacientes exportados.
+     * @throws UncheckedIOException Si no se puede escribir en el flujo, por
+     *                              ejemplo porque el cliente cerró la conexión.
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream output) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long exported = 0;
+
+        try (Stream<PatientEntity> patients = this.repository.streamAll()) {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            for (PatientEntity patient : (Iterable<PatientEntity>) patients::iterator) {
+                if (format == ExportFormat.CSV) {
+                    writeCsv(writer, patient);
+                } else {
+                    this.jsonWriter.writeValue(writer, patient);
+                }
+                writer.write('\n');
+                this.entityManager.detach(patient);
+                exported++;
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo completar la exportación de pacientes.", e);
+        }
+        return exported;
+    }
+
+    private static void writeCsv(Writer writer, PatientEntity patient) throws IOException {
+        Object[] values = { patient.getId(), patient.getFirstName(), patient.getLastName(), patient.getIdNumber(),
+                patient.getPhoneNumber(), patient.getDateOfBirth(), patient.getEmail(), patient.getAddress(),
+                patient.getAdmissionDate(), patient.getRoom(), patient.getBed(), patient.getService(),
+                patient.getMedicalDischargeDate() };
+
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+    }
+
+    /**
+     * Escapa un valor según RFC 4180: se encierra entre comillas si contiene
+     * comas, comillas o saltos de línea, duplicando las comillas internas.
+     */
+    private static String csvField(Object value) {
+        String text = Objects.toString(value, "");
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
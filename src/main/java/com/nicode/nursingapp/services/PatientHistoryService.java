@@ -1,17 +1,29 @@
 package com.nicode.nursingapp.services;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.nicode.nursingapp.config.CacheConfig;
+import com.nicode.nursingapp.entities.NursingControlEntity;
 import com.nicode.nursingapp.entities.PatientEntity;
 import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.dto.PatientHistoryDto;
 import com.nicode.nursingapp.exceptions.AlreadyExistsException;
 import com.nicode.nursingapp.exceptions.NotFoundException;
+import com.nicode.nursingapp.repositories.NursingControlPagingAndSortingRepository;
 import com.nicode.nursingapp.repositories.PatientHistoryRepository;
 import com.nicode.nursingapp.repositories.PatientRepository;
+import com.nicode.nursingapp.search.ObservationSearchIndex;
 
 /**
  * Servicio que gestiona las operaciones relacionadas con el historial médico de
@@ -20,21 +32,52 @@ import com.nicode.nursingapp.repositories.PatientRepository;
 @Service
 public class PatientHistoryService {
 
+    /**
+     * Cantidad máxima de controles que pueden embeberse en la cabecera de una
+     * Historia Clínica. El listado completo se obtiene de forma paginada.
+     */
+    public static final int MAX_EMBEDDED_CONTROLS = 50;
+
     private final PatientHistoryRepository repository;
     private final PatientRepository patientRepository;
+    private final NursingControlPagingAndSortingRepository controlsPagingAndSorting;
+    private final ObservationSearchIndex observationIndex;
+    private final ControlCompactionService compaction;
+    private final CacheManager cacheManager;
+    private final PatientHistoryService self;
 
     /**
      * Constructor que inicializa las dependencias del servicio.
      *
-     * @param repository        Repositorio para operaciones CRUD en entidades
-     *                          PatientHistoryEntity.
-     * @param patientRepository Repositorio para operaciones CRUD en entidades
-     *                          PatientEntity.
+     * @param repository               Repositorio para operaciones CRUD en
+     *                                 entidades PatientHistoryEntity.
+     * @param patientRepository        Repositorio para operaciones CRUD en
+     *                                 entidades PatientEntity.
+     * @param controlsPagingAndSorting Repositorio para operaciones de paginación
+     *                                 en entidades NursingControlEntity.
+     * @param observationIndex         Índice de búsqueda de texto completo sobre
+     *                                 las observaciones.
+     * @param compaction               Servicio de compactación de los controles
+     *                                 antiguos, que lee los controles
+     *                                 compactados.
+     * @param cacheManager             Administrador de las cachés de pacientes e
+     *                                 Historias Clínicas.
+     * @param self                     Proxy de este servicio, para que las
+     *                                 llamadas internas a métodos con caché
+     *                                 pasen por ella.
      */
     @Autowired
-    public PatientHistoryService(PatientHistoryRepository repository, PatientRepository patientRepository) {
+    public PatientHistoryService(PatientHistoryRepository repository, PatientRepository patientRepository,
+            NursingControlPagingAndSortingRepository controlsPagingAndSorting,
+            ObservationSearchIndex observationIndex, ControlCompactionService compaction, CacheManager cacheManager,
+            @Lazy PatientHistoryService self) {
         this.repository = repository;
         this.patientRepository = patientRepository;
+        this.controlsPagingAndSorting = controlsPagingAndSorting;
+        this.observationIndex = observationIndex;
+        this.compaction = compaction;
+        this.cacheManager = cacheManager;
+        this.self = self;
     }
 
     /**
@@ -50,18 +93,76 @@ public class PatientHistoryService {
     }
 
     /**
-     * Obtiene la Historia Clínica asociada a un paciente por su identificador.
+     * Obtiene la Historia Clínica asociada a un paciente por su identificador. El
+     * resultado se guarda en caché hasta que la historia o el paciente se
+     * modifican.
      *
      * @param patientId Identificador del paciente.
      * @return La Historia Clínica asociada al paciente encontrado.
      * @throws NotFoundException Si el paciente no cuenta con Historia Clínica.
      */
+    @Cacheable(cacheNames = CacheConfig.HISTORIES_BY_PATIENT, key = "#patientId")
     @Transactional(readOnly = true)
     public PatientHistoryEntity findByPatientId(Long patientId) {
         return this.repository.getPatientHistoryEntityByPatientId(patientId)
                 .orElseThrow(() -> new NotFoundException("El paciente no cuenta con Historia Clínica."));
     }
 
+    /**
+     * Obtiene la cabecera de la Historia Clínica de un paciente, desde la caché,
+     * junto con sus controles de enfermería más recientes.
+     *
+     * @param patientId      Identificador del paciente.
+     * @param latestControls Cantidad de controles a embeber (se acota a
+     *                       {@link #MAX_EMBEDDED_CONTROLS}).
+     * @return La Historia Clínica con sus últimos controles.
+     * @throws NotFoundException Si el paciente no cuenta con Historia Clínica.
+     */
+    @Transactional(readOnly = true)
+    public PatientHistoryDto findByPatientId(Long patientId, int latestControls) {
+        return withLatestControls(this.self.findByPatientId(patientId), latestControls);
+    }
+
+    /**
+     * Obtiene la cabecera de una Historia Clínica por su identificador junto con
+     * sus controles de enfermería más recientes.
+     *
+     * @param historyId      Identificador de la Historia Clínica.
+     * @param latestControls Cantidad de controles a embeber (se acota a
+     *                       {@link #MAX_EMBEDDED_CONTROLS}).
+     * @return La Historia Clínica con sus últimos controles.
+     * @throws NotFoundException Si la Historia Clínica no es encontrada.
+     */
+    @Transactional(readOnly = true)
+    public PatientHistoryDto findById(Long historyId, int latestControls) {
+        PatientHistoryEntity history = this.repository.findById(historyId)
+                .orElseThrow(() -> new NotFoundException("No se encontró la historia clínica con el ID: " + historyId));
+
+        return withLatestControls(history, latestControls);
+    }
+
+    /**
+     * Arma la respuesta con la cabecera de la historia y, como máximo,
+     * {@link #MAX_EMBEDDED_CONTROLS} controles recientes, sin consulta de conteo.
+     * Si la historia tiene pocos controles recientes como filas, se completan
+     * con los últimos bloques compactados.
+     *
+     * @param history        Cabecera de la Historia Clínica.
+     * @param latestControls Cantidad de controles solicitados.
+     * @return DTO con la historia y sus últimos controles.
+     */
+    private PatientHistoryDto withLatestControls(PatientHistoryEntity history, int latestControls) {
+        int limit = Math.min(Math.max(latestControls, 0), MAX_EMBEDDED_CONTROLS);
+
+        List<NursingControlEntity> controls = limit == 0 ? List.of()
+                : this.compaction.withCompacted(history.getId(),
+                        this.controlsPagingAndSorting.findLatestByPatientHistoryEntityIdOrderByControlDateDesc(
+                                history.getId(), PageRequest.of(0, limit)),
+                        null, false, limit);
+
+        return new PatientHistoryDto(history, controls);
+    }
+
     /**
      * Guarda una nueva Historia Clínica asociándola a un paciente.
      *
@@ -71,6 +172,9 @@ public class PatientHistoryService {
      * @throws AlreadyExistsException Si el paciente ya cuenta con una Historia
      *                                Clínica registrada.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.HISTORIES_BY_PATIENT, key = "#patientId"),
+            @CacheEvict(cacheNames = CacheConfig.PATIENTS, key = "#patientId") })
     @Transactional
     public String save(PatientHistoryEntity history, Long patientId) {
 
@@ -81,7 +185,8 @@ public class PatientHistoryService {
         if (existingPatient.isPresent() && !existingHistory.isPresent()) {
             history.setPatient(existingPatient.get());
 
-            this.repository.save(history);
+            PatientHistoryEntity saved = this.repository.save(history);
+            this.observationIndex.index(saved, patientId);
             return ("Guardado con éxito!");
         } else {
             throw new AlreadyExistsException("El paciente " + history.getPatient().getFirstName() +
@@ -91,7 +196,9 @@ public class PatientHistoryService {
     }
 
     /**
-     * Actualiza los datos de una Historia Clínica existente.
+     * Actualiza los datos de una Historia Clínica existente reemplazando todas
+     * sus columnas con una única sentencia UPDATE. La historia se resuelve por
+     * el paciente mediante una consulta de su identificador.
      *
      * @param updates   Datos actualizados de la Historia Clínica.
      * @param patientId Identificador del paciente.
@@ -99,26 +206,63 @@ public class PatientHistoryService {
      * @throws NotFoundException Si el paciente no existe o no cuenta con Historia
      *                           Clínica.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.HISTORIES_BY_PATIENT, key = "#patientId"),
+            @CacheEvict(cacheNames = CacheConfig.PATIENTS, key = "#patientId") })
     @Transactional
     public String update(PatientHistoryEntity updates, Long patientId) {
+        updates.setId(findIdByPatientId(patientId));
 
-        Optional<PatientEntity> existingPatient = this.patientRepository.findById(patientId);
-
-        Optional<PatientHistoryEntity> existingHistory = this.repository.getPatientHistoryEntityByPatientId(patientId);
-
-        if (existingPatient.isPresent() && existingHistory.isPresent()) {
-            updates.setPatient(existingPatient.get());
+        if (this.repository.replaceById(updates.getId(), updates) == 0) {
+            throw new NotFoundException("El paciente no existe o no cuenta con Historia Clínica.");
+        }
+        this.observationIndex.index(updates, patientId);
+        return ("Se actualizó la información con éxito.");
+    }
 
-            this.repository.save(updates);
+    /**
+     * Actualiza parcialmente la Historia Clínica de un paciente: solo se
+     * escriben los datos no nulos, con una única sentencia UPDATE.
+     *
+     * @param changes   Datos modificados de la Historia Clínica.
+     * @param patientId Identificador del paciente.
+     * @return Mensaje indicando el éxito de la operación.
+     * @throws NotFoundException Si el paciente no existe o no cuenta con Historia
+     *                           Clínica.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.HISTORIES_BY_PATIENT, key = "#patientId"),
+            @CacheEvict(cacheNames = CacheConfig.PATIENTS, key = "#patientId") })
+    @Transactional
+    public String patch(PatientHistoryEntity changes, Long patientId) {
+        changes.setId(findIdByPatientId(patientId));
 
-            return ("Se actualizó la información con éxito.");
-        } else {
+        if (this.repository.patchById(changes.getId(), changes) == 0) {
             throw new NotFoundException("El paciente no existe o no cuenta con Historia Clínica.");
         }
+        if (changes.getObservations() != null) {
+            this.observationIndex.index(changes, patientId);
+        }
+        return ("Se actualizó la información con éxito.");
+    }
+
+    /**
+     * Obtiene el identificador de la Historia Clínica de un paciente.
+     *
+     * @param patientId Identificador del paciente.
+     * @return Identificador de la Historia Clínica.
+     * @throws NotFoundException Si el paciente no existe o no cuenta con Historia
+     *                           Clínica.
+     */
+    private Long findIdByPatientId(Long patientId) {
+        return this.repository.findIdByPatientId(patientId)
+                .orElseThrow(() -> new NotFoundException("El paciente no existe o no cuenta con Historia Clínica."));
     }
 
     /**
-     * Elimina una Historia Clínica por su identificador.
+     * Elimina una Historia Clínica por su identificador con una única sentencia
+     * DELETE; sus controles se eliminan en cascada en la base de datos. Solo se
+     * consulta antes el identificador del paciente, para invalidar la caché.
      *
      * @param historyId Identificador de la Historia Clínica a eliminar.
      * @return Mensaje indicando el éxito de la operación.
@@ -126,13 +270,26 @@ public class PatientHistoryService {
      */
     @Transactional
     public String delete(Long historyId) {
-        Optional<PatientHistoryEntity> existingPatienHistory = this.repository.findById(historyId);
+        Optional<Long> patientId = this.repository.findPatientIdById(historyId);
 
-        if (existingPatienHistory.isPresent()) {
-            this.repository.deleteById(historyId);
-            return ("Eliminado con éxito!");
-        } else {
+        if (patientId.isEmpty() || this.repository.deleteIfExists(historyId) == 0) {
             throw new NotFoundException("No se encontró la historia clínica con el ID: " + historyId);
         }
+        this.observationIndex.removeHistory(historyId);
+        evict(patientId.get());
+        return ("Eliminado con éxito!");
+    }
+
+    /**
+     * Invalida la Historia Clínica y el paciente en caché. La clave del paciente
+     * no es un parámetro del método que modifica, por eso no se usa
+     * `@CacheEvict`; la caché es transaccional y la invalidación se aplica al
+     * confirmar.
+     *
+     * @param patientId Identificador del paciente.
+     */
+    private void evict(Long patientId) {
+        this.cacheManager.getCache(CacheConfig.HISTORIES_BY_PATIENT).evict(patientId);
+        this.cacheManager.getCache(CacheConfig.PATIENTS).evict(patientId);
     }
-}
\ No newline at end of file
+}
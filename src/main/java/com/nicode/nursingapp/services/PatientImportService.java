@@ -0,0 +1,412 @@
+package com.nicode.nursingapp.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.nicode.nursingapp.entities.dto.BedPlacementDto;
+import com.nicode.nursingapp.entities.dto.ImportRowErrorDto;
+import com.nicode.nursingapp.entities.dto.PatientImportReportDto;
+import com.nicode.nursingapp.repositories.PatientRepository;
+import com.nicode.nursingapp.search.BedOccupancyIndex;
+import com.nicode.nursingapp.search.IdNumberFilter;
+import com.nicode.nursingapp.search.ObservationSearchIndex;
+import com.nicode.nursingapp.search.PatientSearchIndex;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Servicio que importa pacientes desde un archivo CSV, por ejemplo al
+ * incorporar los pacientes de otro hospital.
+ *
+ * El archivo se lee fila por fila y los pacientes se registran en bloques de
+ * `chunk-size` filas, cada uno en su propia transacción y con INSERT en lotes
+ * JDBC de `batch-size` filas, por lo que la memoria utilizada no depende del
+ * tamaño del archivo (salvo el conjunto de DNI ya leídos). Las filas inválidas
+ * o con DNI repetido se informan y se descartan sin interrumpir la importación.
+ *
+ * El archivo debe tener encabezado con los nombres de columna de la exportación
+ * de pacientes, en cualquier orden; la columna `id` se ignora. Las fechas se
+ * escriben como aaaa-mm-dd.
+ */
+@Service
+public class PatientImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientImportService.class);
+
+    /**
+     * Cantidad máxima de filas con error detalladas en el reporte.
+     */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT = "INSERT INTO patients (first_name, last_name, id_number, phone_number, "
+            + "date_of_birth, email, address, admission_date, room, bed, service, medical_discharge_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Columnas del INSERT, con su longitud máxima (0 si no es texto) y si son
+     * obligatorias.
+     */
+    private enum Column {
+        FIRST_NAME("firstName", 75, true), LAST_NAME("lastName", 75, true), ID_NUMBER("idNumber", 20, true),
+        PHONE_NUMBER("phoneNumber", 20, true), DATE_OF_BIRTH("dateOfBirth", 0, true), EMAIL("email", 75, false),
+        ADDRESS("address", 150, false), ADMISSION_DATE("admissionDate", 0, true), ROOM("room", 0, true),
+        BED("bed", 0, true), SERVICE("service", 35, true), MEDICAL_DISCHARGE_DATE("medicalDischargeDate", 0, false);
+
+        private final String header;
+        private final int maxLength;
+        private final boolean required;
+
+        Column(String header, int maxLength, boolean required) {
+            this.header = header;
+            this.maxLength = maxLength;
+            this.required = required;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PatientRepository repository;
+    private final PatientSearchIndex searchIndex;
+    private final ObservationSearchIndex observationIndex;
+    private final IdNumberFilter idNumberFilter;
+    private final BedOccupancyIndex bedOccupancy;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int chunkSize;
+    private final int batchSize;
+
+    /**
+     * Constructor que inicializa las dependencias del servicio.
+     *
+     * @param jdbcTemplate         Acceso JDBC para los INSERT en lotes.
+     * @param transactionManager   Administrador de transacciones para cada
+     *                             bloque.
+     * @param repository           Repositorio para operaciones CRUD en entidades
+     *                             PatientEntity.
+     * @param searchIndex          Índice en memoria para la búsqueda de
+     *                             pacientes.
+     * @param observationIndex     Índice en memoria de las observaciones.
+     * @param idNumberFilter       Filtro en memoria de los números de
+     *                             identificación registrados.
+     * @param bedOccupancy         Índice en memoria de la ocupación de camas.
+     * @param entityManagerFactory Fábrica de EntityManager, para invalidar la
+     *                             caché de consultas de pacientes.
+     * @param chunkSize            Cantidad de filas por transacción.
+     * @param batchSize            Cantidad de filas por lote JDBC.
+     */
+    public PatientImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            PatientRepository repository, PatientSearchIndex searchIndex, ObservationSearchIndex observationIndex,
+            IdNumberFilter idNumberFilter, BedOccupancyIndex bedOccupancy,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${patients.import.chunk-size:1000}") int chunkSize,
+            @Value("${patients.import.batch-size:500}") int batchSize) {
+        if (chunkSize < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Los tamaños de bloque y de lote deben ser positivos.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.observationIndex = observationIndex;
+        this.idNumberFilter = idNumberFilter;
+        this.bedOccupancy = bedOccupancy;
+        this.entityManagerFactory = entityManagerFactory;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Importa los pacientes de un archivo CSV codificado en UTF-8. Cada bloque
+     * confirmado queda registrado aunque la importación se interrumpa después.
+     *
+     * @param input Contenido del archivo; no se cierra.
+     * @return Reporte de la importación, con el motivo de cada fila descartada.
+     * @throws IllegalArgumentException Si el encabezado no contiene las columnas
+     *                                  obligatorias.
+     * @throws UncheckedIOException     Si no se puede leer el archivo.
+     */
+    public PatientImportReportDto importCsv(InputStream input) {
+        long start = System.currentTimeMillis();
+        Import job = new Import();
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        List<ImportRow> chunk = new ArrayList<>(this.chunkSize);
+        int[] positions;
+
+        try {
+            positions = readHeader(reader.next());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de pacientes.", e);
+        }
+
+        try {
+            Set<String> seen = new HashSet<>();
+            for (List<String> fields = reader.next(); fields != null; fields = reader.next()) {
+                job.rows++;
+                ImportRow row;
+                try {
+                    row = parse(reader.recordLine(), fields, positions);
+                } catch (IllegalArgumentException e) {
+                    job.reject(reader.recordLine(), value(fields, positions, Column.ID_NUMBER), e.getMessage());
+                    continue;
+                }
+                if (!seen.add(normalize(row.idNumber()))) {
+                    job.duplicate(row, "El DNI se repite en el archivo.");
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == this.chunkSize) {
+                    flush(chunk, job);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de pacientes.", e);
+        } catch (IllegalArgumentException e) {
+            // El resto del archivo no puede leerse (comillas sin cerrar); se registran
+            // las filas ya leídas.
+            job.reject(reader.recordLine(), null, "Importación interrumpida: " + e.getMessage());
+        }
+        flush(chunk, job);
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        double rowsPerSecond = job.rows * 1000.0 / elapsed;
+        log.info("Importación de pacientes terminada: {} filas, {} registrados, {} duplicados, {} rechazados, "
+                + "en {} ms ({} filas/s)", job.rows, job.imported, job.duplicates, job.rejected, elapsed,
+                Math.round(rowsPerSecond));
+        return new PatientImportReportDto(job.rows, job.imported, job.duplicates, job.rejected, job.errors,
+                job.errorsTruncated, elapsed, rowsPerSecond);
+    }
+
+    /**
+     * Obtiene la posición de cada columna del INSERT en el archivo.
+     */
+    private static int[] readHeader(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("El archivo está vacío.");
+        }
+        Map<String, Integer> names = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Las planillas de cálculo suelen agregar una marca BOM al inicio.
+            names.put(header.get(i).replace("\uFEFF", "").strip().toLowerCase(Locale.ROOT), i);
+        }
+
+        int[] positions = new int[Column.values().length];
+        List<String> missing = new ArrayList<>();
+        for (Column column : Column.values()) {
+            Integer position = names.get(column.header.toLowerCase(Locale.ROOT));
+            positions[column.ordinal()] = position == null ? -1 : position;
+            if (position == null && column.required) {
+                missing.add(column.header);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas obligatorias en el encabezado: " + missing);
+        }
+        return positions;
+    }
+
+    /**
+     * Valida una fila y convierte sus valores a los tipos de las columnas.
+     *
+     * @throws IllegalArgumentException Si algún valor no es válido.
+     */
+    private static ImportRow parse(int line, List<String> fields, int[] positions) {
+        Object[] values = new Object[Column.values().length];
+
+        for (Column column : Column.values()) {
+            String text = value(fields, positions, column);
+            if (text == null || text.isEmpty()) {
+                if (column.required) {
+                    throw new IllegalArgumentException("Falta el valor de " + column.header + ".");
+                }
+                continue;
+            }
+            if (column.maxLength > 0 && text.length() > column.maxLength) {
+                throw new IllegalArgumentException(column.header + " supera los " + column.maxLength
+                        + " caracteres.");
+            }
+            values[column.ordinal()] = switch (column) {
+                case DATE_OF_BIRTH, ADMISSION_DATE, MEDICAL_DISCHARGE_DATE -> parseDate(column, text);
+                case ROOM, BED -> parseNumber(column, text);
+                default -> text;
+            };
+        }
+        return new ImportRow(line, values);
+    }
+
+    private static LocalDate parseDate(Column column, String text) {
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha no válida en " + column.header + ": " + text
+                    + " (formato aaaa-mm-dd).");
+        }
+    }
+
+    private static Integer parseNumber(Column column, String text) {
+        try {
+            return Integer.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número no válido en " + column.header + ": " + text + ".");
+        }
+    }
+
+    private static String value(List<String> fields, int[] positions, Column column) {
+        int position = positions[column.ordinal()];
+        return position < 0 || position >= fields.size() ? null : fields.get(position).strip();
+    }
+
+    /**
+     * Registra un bloque de filas: descarta los DNI ya registrados (solo se
+     * consultan los que el filtro en memoria no puede descartar) e inserta el
+     * resto en una transacción. Si la transacción falla, por ejemplo porque otra
+     * admisión registró uno de los DNI mientras tanto, las filas se reintentan
+     * de a una para informar cuál falló.
+     */
+    private void flush(List<ImportRow> chunk, Import job) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<String> candidates = chunk.stream().map(ImportRow::idNumber)
+                .filter(this.idNumberFilter::mightContain).toList();
+        Set<String> registered = new HashSet<>();
+        if (!candidates.isEmpty()) {
+            this.repository.findExistingIdNumbers(candidates).forEach(idNumber -> registered.add(normalize(idNumber)));
+        }
+        if (this.idNumberFilter.isReady()) {
+            this.idNumberFilter.recordFalsePositives(candidates.size() - registered.size());
+        }
+
+        List<ImportRow> pending = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (registered.contains(normalize(row.idNumber()))) {
+                job.duplicate(row, "El DNI ya está registrado.");
+            } else {
+                pending.add(row);
+            }
+        }
+
+        try {
+            insert(pending);
+            job.imported += pending.size();
+        } catch (DataIntegrityViolationException e) {
+            for (ImportRow row : pending) {
+                try {
+                    insert(List.of(row));
+                    job.imported++;
+                } catch (DuplicateKeyException duplicate) {
+                    job.duplicate(row, "El DNI ya está registrado.");
+                } catch (DataIntegrityViolationException invalid) {
+                    job.reject(row.line(), row.idNumber(), invalid.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserta las filas en una transacción y las agrega a los índices en memoria
+     * una vez confirmada.
+     */
+    private void insert(List<ImportRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.jdbcTemplate.batchUpdate(INSERT, rows, this.batchSize, (ps, row) -> {
+                for (int i = 0; i < row.values().length; i++) {
+                    ps.setObject(i + 1, row.values()[i]);
+                }
+            });
+
+            Map<String, ImportRow> byIdNumber = new HashMap<>();
+            rows.forEach(row -> byIdNumber.put(row.idNumber(), row));
+            this.repository.findIndexDocumentsByIdNumbers(byIdNumber.keySet())
+                    .forEach(document -> {
+                        this.searchIndex.index(document);
+                        this.observationIndex.indexPatient(document.getId(), document.getService());
+                        this.idNumberFilter.add(document.getIdNumber());
+                        ImportRow row = byIdNumber.get(document.getIdNumber());
+                        if (row != null) {
+                            this.bedOccupancy.place(row.placement(document.getId()));
+                        }
+                    });
+        });
+
+        // Los INSERT por JDBC no invalidan la caché de consultas de Hibernate
+        // (por ejemplo, existsByidNumber).
+        this.entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegion("patientQueries");
+    }
+
+    private static String normalize(String idNumber) {
+        return idNumber.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Fila validada, con los valores en el orden de las columnas del INSERT.
+     */
+    private record ImportRow(int line, Object[] values) {
+
+        String idNumber() {
+            return (String) this.values[Column.ID_NUMBER.ordinal()];
+        }
+
+        BedPlacementDto placement(Long id) {
+            return new BedPlacementDto(id, (String) this.values[Column.SERVICE.ordinal()],
+                    (Integer) this.values[Column.ROOM.ordinal()], (Integer) this.values[Column.BED.ordinal()],
+                    (LocalDate) this.values[Column.MEDICAL_DISCHARGE_DATE.ordinal()]);
+        }
+    }
+
+    /**
+     * Contadores y errores de una importación en curso.
+     */
+    private static final class Import {
+        private long rows;
+        private long imported;
+        private long duplicates;
+        private long rejected;
+        private final List<ImportRowErrorDto> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+
+        void duplicate(ImportRow row, String message) {
+            this.duplicates++;
+            report(row.line(), row.idNumber(), message);
+        }
+
+        void reject(int line, String idNumber, String message) {
+            this.rejected++;
+            report(line, idNumber, message);
+        }
+
+        private void report(int line, String idNumber, String message) {
+            if (this.errors.size() < MAX_REPORTED_ERRORS) {
+                this.errors.add(new ImportRowErrorDto(line, idNumber, message));
+            } else {
+                this.errorsTruncated = true;
+            }
+        }
+    }
+}
@@ -1,22 +1,44 @@
 package com.nicode.nursingapp.services;
 
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 
+import org.hibernate.Hibernate;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.nicode.nursingapp.config.CacheConfig;
 import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.dto.BedCensusDto;
+import com.nicode.nursingapp.entities.dto.FreeBedDto;
+import com.nicode.nursingapp.entities.dto.IdNumberFilterReportDto;
+import com.nicode.nursingapp.entities.dto.SearchIndexReportDto;
+import com.nicode.nursingapp.entities.dto.WardPatientDto;
 import com.nicode.nursingapp.exceptions.AlreadyExistsException;
 import com.nicode.nursingapp.exceptions.NotFoundException;
 import com.nicode.nursingapp.repositories.PatientPagingAndSortingRepository;
 import com.nicode.nursingapp.repositories.PatientRepository;
+import com.nicode.nursingapp.search.BedOccupancyIndex;
+import com.nicode.nursingapp.search.IdNumberFilter;
+import com.nicode.nursingapp.search.ObservationSearchIndex;
+import com.nicode.nursingapp.search.PatientSearchIndex;
+import com.nicode.nursingapp.search.PatientSearchIndex.SearchResult;
 
 /**
  * Servicio que gestiona las operaciones relacionadas con los pacientes.
@@ -24,8 +46,31 @@ import com.nicode.nursingapp.repositories.PatientRepository;
 @Service
 public class PatientService {
 
+    /**
+     * Modo de cálculo del total de elementos en las consultas paginadas.
+     * <ul>
+     * <li>EXACT: ejecuta un COUNT(*) en cada solicitud.</li>
+     * <li>NONE: no calcula el total; solo indica si hay una porción siguiente.</li>
+     * <li>APPROXIMATE: usa un total almacenado en caché por un tiempo
+     * acotado.</li>
+     * </ul>
+     */
+    public enum CountMode {
+        EXACT, NONE, APPROXIMATE
+    }
+
+    /**
+     * Cantidad máxima de pacientes aceptados en un registro masivo.
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
     private final PatientRepository repository;
     private final PatientPagingAndSortingRepository pagingAndSorting;
+    private final ApproximateCountCache countCache;
+    private final PatientSearchIndex searchIndex;
+    private final ObservationSearchIndex observationIndex;
+    private final IdNumberFilter idNumberFilter;
+    private final BedOccupancyIndex bedOccupancy;
 
     /**
      * Constructor que inicializa las dependencias del servicio.
@@ -34,22 +79,27 @@ public class PatientService {
      *                         PatientEntity.
      * @param pagingAndSorting Repositorio para operaciones de paginación y
      *                         ordenamiento en entidades PatientEntity.
+     * @param countCache       Caché de totales para el modo de conteo
+     *                         aproximado.
+     * @param searchIndex      Índice en memoria para la búsqueda de pacientes.
+     * @param observationIndex Índice en memoria de las observaciones, que
+     *                         filtra por el servicio de cada paciente.
+     * @param idNumberFilter   Filtro en memoria de los números de
+     *                         identificación registrados.
+     * @param bedOccupancy     Índice en memoria de la ocupación de camas.
      */
     @Autowired
-    public PatientService(PatientRepository repository, PatientPagingAndSortingRepository pagingAndSorting) {
+    public PatientService(PatientRepository repository, PatientPagingAndSortingRepository pagingAndSorting,
+            ApproximateCountCache countCache, PatientSearchIndex searchIndex,
+            ObservationSearchIndex observationIndex, IdNumberFilter idNumberFilter,
+            BedOccupancyIndex bedOccupancy) {
         this.repository = repository;
         this.pagingAndSorting = pagingAndSorting;
-    }
-
-    /**
-     * Verifica si un paciente ya está registrado en base al número de
-     * identificación.
-     *
-     * @param idNumber Número de identificación del paciente.
-     * @return true si el paciente ya está registrado, false de lo contrario.
-     */
-    private boolean checkRegisteredStatus(String idNumber) {
-        return this.repository.existsByidNumber(idNumber);
+        this.countCache = countCache;
+        this.searchIndex = searchIndex;
+        this.observationIndex = observationIndex;
+        this.idNumberFilter = idNumberFilter;
+        this.bedOccupancy = bedOccupancy;
     }
 
     /**
@@ -75,8 +125,78 @@ public class PatientService {
         return this.pagingAndSorting.findAll(pageRequest);
     }
 
+    /**
+     * Obtiene una página de pacientes según el modo de conteo indicado.
+     *
+     * @param pageNumber       Número de página.
+     * @param elementsQuantity Cantidad de elementos por página.
+     * @param countMode        Modo de cálculo del total de elementos.
+     * @return Página (o porción, en modo NONE) de pacientes.
+     */
+    @Transactional(readOnly = true)
+    public Slice<PatientEntity> getAllPaged(int pageNumber, int elementsQuantity, CountMode countMode) {
+        Pageable pageRequest = PageRequest.of(pageNumber, elementsQuantity);
+
+        return switch (countMode) {
+            case EXACT -> this.pagingAndSorting.findAll(pageRequest);
+            case NONE -> this.pagingAndSorting.findAllBy(pageRequest);
+            case APPROXIMATE -> withApproximateTotal(this.pagingAndSorting.findAllBy(pageRequest),
+                    this.countCache.get("", this.repository::count));
+        };
+    }
+
+    /**
+     * Busca pacientes por nombre, apellido o servicio según el modo de conteo
+     * indicado.
+     *
+     * @param pageNumber       Número de página.
+     * @param elementsQuantity Cantidad de elementos por página.
+     * @param keyword          Palabra clave para la búsqueda en los campos de
+     *                         nombre, apellido o servicio.
+     * @param countMode        Modo de cálculo del total de elementos.
+     * @return Página (o porción, en modo NONE) de pacientes que coinciden con la
+     *         palabra clave.
+     */
+    @Transactional(readOnly = true)
+    public Slice<PatientEntity> findBy(int pageNumber, int elementsQuantity, String keyword, CountMode countMode) {
+        if (countMode == CountMode.EXACT || this.searchIndex.isReady()) {
+            return findBy(pageNumber, elementsQuantity, keyword);
+        }
+
+        Pageable pageRequest = PageRequest.of(pageNumber, elementsQuantity);
+        Slice<PatientEntity> slice = this.pagingAndSorting
+                .findSliceByFirstNameContainingOrLastNameContainingOrServiceContaining(
+                        keyword, keyword, keyword, pageRequest);
+
+        if (countMode == CountMode.NONE) {
+            return slice;
+        }
+
+        return withApproximateTotal(slice, this.countCache.get("search:" + keyword,
+                () -> this.pagingAndSorting.countByFirstNameContainingOrLastNameContainingOrServiceContaining(
+                        keyword, keyword, keyword)));
+    }
+
+    /**
+     * Convierte una porción en una página con un total aproximado. El total se
+     * ajusta para que nunca contradiga la porción obtenida.
+     *
+     * @param slice Porción obtenida sin conteo.
+     * @param total Total aproximado de elementos.
+     * @return Página con el total aproximado.
+     */
+    private static Page<PatientEntity> withApproximateTotal(Slice<PatientEntity> slice, long total) {
+        long minimumTotal = slice.getPageable().getOffset() + slice.getNumberOfElements()
+                + (slice.hasNext() ? 1 : 0);
+
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(total, minimumTotal));
+    }
+
     /**
      * Busca pacientes por nombre, apellido o servicio.
+     * Si el índice en memoria está disponible, la búsqueda se resuelve desde él
+     * (incluyendo también el número de identificación) y la base de datos solo
+     * se consulta para obtener los pacientes de la página.
      *
      * @param pageNumber       Número de página.
      * @param elementsQuantity Cantidad de elementos por página.
@@ -87,78 +207,385 @@ public class PatientService {
     @Transactional(readOnly = true)
     public Page<PatientEntity> findBy(int pageNumber, int elementsQuantity, String keyword) {
         Pageable pageRequest = PageRequest.of(pageNumber, elementsQuantity);
+
+        if (this.searchIndex.isReady()) {
+            SearchResult result = this.searchIndex.search(keyword, pageRequest.getOffset(), elementsQuantity);
+            return new PageImpl<>(hydrate(result.ids()), pageRequest, result.total());
+        }
+
         return this.pagingAndSorting.findAllByFirstNameContainingOrLastNameContainingOrServiceContaining(
                 keyword, keyword, keyword, pageRequest);
     }
 
     /**
-     * Obtiene un paciente por su identificador.
+     * Busca pacientes por nombre y apellido de forma aproximada, sin distinguir
+     * acentos y tolerando errores de tipeo y variantes fonéticas. Los resultados
+     * se ordenan por relevancia. Si el índice en memoria todavía no está
+     * disponible, se utiliza la búsqueda por coincidencia exacta.
+     *
+     * @param pageNumber       Número de página.
+     * @param elementsQuantity Cantidad de elementos por página.
+     * @param keyword          Texto buscado.
+     * @return Página de pacientes ordenados por relevancia.
+     */
+    @Transactional(readOnly = true)
+    public Page<PatientEntity> fuzzyFindBy(int pageNumber, int elementsQuantity, String keyword) {
+        if (!this.searchIndex.isReady()) {
+            return findBy(pageNumber, elementsQuantity, keyword);
+        }
+
+        Pageable pageRequest = PageRequest.of(pageNumber, elementsQuantity);
+        SearchResult result = this.searchIndex.fuzzySearch(keyword, pageRequest.getOffset(), elementsQuantity);
+
+        return new PageImpl<>(hydrate(result.ids()), pageRequest,
+                Math.min(result.total(), PatientSearchIndex.MAX_FUZZY_RESULTS));
+    }
+
+    /**
+     * Obtiene los pacientes de una lista de identificadores respetando su orden.
+     *
+     * @param ids Identificadores de los pacientes.
+     * @return Pacientes encontrados, en el orden de los identificadores.
+     */
+    private List<PatientEntity> hydrate(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+
+        List<PatientEntity> patients = this.repository.findAllById(ids);
+        patients.sort(Comparator.comparing(patient -> positions.get(patient.getId())));
+        return patients;
+    }
+
+    /**
+     * Verifica el índice de búsqueda en memoria contra la tabla de pacientes.
+     *
+     * @param repair Indica si se debe reconstruir el índice cuando no es
+     *               consistente.
+     * @return Reporte de consistencia del índice.
+     */
+    public SearchIndexReportDto checkSearchIndex(boolean repair) {
+        return this.searchIndex.check(repair);
+    }
+
+    /**
+     * Reconstruye el índice de búsqueda en memoria a partir de la tabla de
+     * pacientes.
+     *
+     * @return Cantidad de pacientes indexados.
+     */
+    public int rebuildSearchIndex() {
+        return this.searchIndex.rebuild();
+    }
+
+    /**
+     * Obtiene los pacientes internados con los signos vitales de su control de
+     * enfermería más reciente, en una única consulta.
+     *
+     * @param service Servicio de los pacientes, o null para todos.
+     * @return Pacientes ordenados por habitación y cama.
+     */
+    @Transactional(readOnly = true)
+    public List<WardPatientDto> getWard(String service) {
+        return this.repository.findWard(service == null || service.isBlank() ? null : service);
+    }
+
+    /**
+     * Obtiene el censo de camas de todos los servicios desde el índice en
+     * memoria, sin consultar la base de datos.
+     *
+     * @return Censos ordenados por servicio.
+     */
+    public List<BedCensusDto> getCensus() {
+        return this.bedOccupancy.census();
+    }
+
+    /**
+     * Obtiene el censo de camas de un servicio desde el índice en memoria.
+     *
+     * @param service Servicio.
+     * @return Censo del servicio.
+     * @throws NotFoundException Si el servicio no tiene habitaciones conocidas.
+     */
+    public BedCensusDto getCensus(String service) {
+        return this.bedOccupancy.census(service)
+                .orElseThrow(() -> new NotFoundException("No se encontró el servicio: " + service));
+    }
+
+    /**
+     * Obtiene las camas libres de un servicio desde el índice en memoria.
+     *
+     * @param service Servicio.
+     * @return Camas libres ordenadas por habitación y cama.
+     * @throws NotFoundException Si el servicio no tiene habitaciones conocidas.
+     */
+    public List<FreeBedDto> getFreeBeds(String service) {
+        return this.bedOccupancy.freeBeds(service)
+                .orElseThrow(() -> new NotFoundException("No se encontró el servicio: " + service));
+    }
+
+    /**
+     * Verifica el índice de ocupación de camas contra la tabla de pacientes.
+     *
+     * @param repair Indica si se debe reconstruir el índice cuando no es
+     *               consistente.
+     * @return Reporte de consistencia del índice.
+     */
+    public SearchIndexReportDto checkBedOccupancy(boolean repair) {
+        return this.bedOccupancy.check(repair);
+    }
+
+    /**
+     * Verifica si un número de identificación está registrado. El filtro en
+     * memoria descarta sin consultar la base de datos los DNI que seguro no
+     * están registrados; solo los que pueden estarlo se confirman con una
+     * consulta.
+     *
+     * @param idNumber Número de identificación.
+     * @return true si hay un paciente registrado con ese DNI.
+     */
+    @Transactional(readOnly = true)
+    public boolean isRegistered(String idNumber) {
+        if (!this.idNumberFilter.mightContain(idNumber)) {
+            return false;
+        }
+        boolean registered = this.repository.existsByidNumber(idNumber);
+        if (!registered && this.idNumberFilter.isReady()) {
+            this.idNumberFilter.recordFalsePositives(1);
+        }
+        return registered;
+    }
+
+    /**
+     * Obtiene el estado del filtro en memoria de números de identificación.
+     *
+     * @return Reporte del filtro.
+     */
+    public IdNumberFilterReportDto idNumberFilterReport() {
+        return this.idNumberFilter.report();
+    }
+
+    /**
+     * Reconstruye el filtro en memoria de números de identificación, descartando
+     * los DNI de pacientes eliminados.
+     *
+     * @return Cantidad de DNI agregados al filtro.
+     */
+    public long rebuildIdNumberFilter() {
+        return this.idNumberFilter.rebuild();
+    }
+
+    /**
+     * Obtiene un paciente por su identificador. El resultado se guarda en la
+     * caché de pacientes hasta que el paciente o su Historia Clínica se
+     * modifican.
      *
      * @param id Identificador del paciente.
      * @return Paciente encontrado.
      * @throws NotFoundException Si el paciente no es encontrado.
      */
+    @Cacheable(cacheNames = CacheConfig.PATIENTS, key = "#id")
     @Transactional(readOnly = true)
     public PatientEntity findById(Long id) {
-        return this.repository.findById(id)
+        PatientEntity patient = this.repository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Paciente no encontrado. ID: " + id));
+
+        // La Historia Clínica se carga de forma perezosa; se inicializa para que la
+        // copia en caché pueda serializarse fuera de la sesión.
+        Hibernate.initialize(patient.getPatientHistory());
+        return patient;
     }
 
     /**
-     * Guarda un nuevo paciente verificando si ya está registrado.
+     * Registra un nuevo paciente con un único INSERT. La unicidad del número de
+     * identificación la garantiza el índice único de la tabla, por lo que dos
+     * admisiones simultáneas del mismo DNI no pueden registrarlo dos veces: la
+     * segunda recibe AlreadyExistsException.
      *
      * @param patient Paciente a guardar.
      * @return Mapa que contiene un mensaje y el paciente registrado.
      * @throws AlreadyExistsException Si el paciente ya está registrado.
      */
+    @CacheEvict(cacheNames = CacheConfig.PATIENTS, key = "#patient.id", condition = "#patient.id != null")
     @Transactional
     public Map<String, Object> save(PatientEntity patient) {
-        boolean isRegistered = checkRegisteredStatus(patient.getIdNumber());
-        Map<String, Object> response = new HashMap<>();
-        if (!isRegistered) {
-            response.put("message", "El paciente se ha registrado correctamente.");
-            response.put("patient", this.repository.save(patient));
-            return response;
-        } else {
-            throw new AlreadyExistsException("El paciente con el DNI: " + patient.getIdNumber() +
+        PatientEntity saved;
+        try {
+            saved = this.repository.save(patient);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateOrRethrow(e, "El paciente con el DNI: " + patient.getIdNumber() +
                     " ya está registrado. Por favor, verifique los datos ingresados.");
         }
+        this.searchIndex.index(saved);
+        this.observationIndex.indexPatient(saved.getId(), saved.getService());
+        this.idNumberFilter.add(saved.getIdNumber());
+        this.bedOccupancy.place(saved);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "El paciente se ha registrado correctamente.");
+        response.put("patient", saved);
+        return response;
+    }
+
+    /**
+     * Registra en una sola transacción un conjunto de pacientes, por ejemplo las
+     * admisiones importadas de otro sistema. Si algún DNI ya está registrado o
+     * se repite en la carga no se registra ningún paciente.
+     *
+     * Los DNI registrados se verifican con una única consulta para informarlos
+     * en el mensaje, que solo incluye los DNI que el filtro en memoria no pudo
+     * descartar; el índice único sigue resolviendo las admisiones concurrentes.
+     *
+     * @param patients Pacientes a registrar.
+     * @return Mapa que contiene un mensaje y los pacientes registrados.
+     * @throws IllegalArgumentException Si la carga está vacía o supera
+     *                                  {@link #MAX_BATCH_SIZE} pacientes.
+     * @throws AlreadyExistsException   Si algún DNI ya está registrado o se
+     *                                  repite en la carga.
+     */
+    @Transactional
+    public Map<String, Object> saveAll(List<PatientEntity> patients) {
+        if (patients == null || patients.isEmpty()) {
+            throw new IllegalArgumentException("Debe enviar al menos un paciente.");
+        }
+        if (patients.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "No se pueden registrar más de " + MAX_BATCH_SIZE + " pacientes por envío.");
+        }
+
+        Set<String> idNumbers = new LinkedHashSet<>();
+        Set<String> repeated = new LinkedHashSet<>();
+        for (PatientEntity patient : patients) {
+            if (!idNumbers.add(patient.getIdNumber())) {
+                repeated.add(patient.getIdNumber());
+            }
+        }
+        if (!repeated.isEmpty()) {
+            throw new AlreadyExistsException("Los DNI " + repeated + " se repiten en la carga.");
+        }
+        List<String> candidates = idNumbers.stream().filter(this.idNumberFilter::mightContain).toList();
+        List<String> registered = candidates.isEmpty() ? List.of()
+                : this.repository.findExistingIdNumbers(candidates);
+        if (this.idNumberFilter.isReady()) {
+            this.idNumberFilter.recordFalsePositives(candidates.size() - registered.size());
+        }
+        if (!registered.isEmpty()) {
+            throw new AlreadyExistsException("Los pacientes con los DNI " + registered + " ya están registrados.");
+        }
+
+        List<PatientEntity> saved;
+        patients.forEach(patient -> patient.setId(null));
+        try {
+            saved = this.repository.saveAll(patients);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateOrRethrow(e, "Alguno de los pacientes fue registrado por otra admisión simultánea.");
+        }
+        for (PatientEntity patient : saved) {
+            this.searchIndex.index(patient);
+            this.observationIndex.indexPatient(patient.getId(), patient.getService());
+            this.idNumberFilter.add(patient.getIdNumber());
+            this.bedOccupancy.place(patient);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Se registraron correctamente " + saved.size() + " pacientes.");
+        response.put("patients", saved);
+        return response;
+    }
+
+    /**
+     * Traduce la violación del índice único del número de identificación en
+     * AlreadyExistsException; cualquier otra violación de integridad se relanza.
+     *
+     * @param e       Excepción de integridad producida al insertar.
+     * @param message Mensaje para el caso de DNI duplicado.
+     * @return Excepción a lanzar.
+     */
+    private static RuntimeException duplicateOrRethrow(DataIntegrityViolationException e, String message) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT)
+                            .contains(PatientEntity.ID_NUMBER_CONSTRAINT)) {
+                return new AlreadyExistsException(message);
+            }
+        }
+        return e;
     }
 
     /**
-     * Actualiza los datos de un paciente existente.
+     * Actualiza los datos de un paciente existente reemplazando todas sus
+     * columnas con una única sentencia UPDATE, sin cargarlo antes.
      *
      * @param updates Datos actualizados del paciente.
      * @return Mensaje indicando el éxito de la operación.
      * @throws NotFoundException Si el paciente no es encontrado.
      */
+    @CacheEvict(cacheNames = CacheConfig.PATIENTS, key = "#updates.id")
     @Transactional
     public String update(PatientEntity updates) {
-        Optional<PatientEntity> patientToUpdate = this.repository.findById(updates.getId());
-        if (patientToUpdate.isPresent()) {
-            this.repository.save(updates);
-            return "Se han actualizado los datos del paciente de manera exitosa.";
-        } else {
+        if (this.repository.replaceById(updates.getId(), updates) == 0) {
             throw new NotFoundException("No se pudo actualizar la información. No se encontró el " +
                     "paciente: " + updates.toString());
         }
+        this.searchIndex.index(updates);
+        this.observationIndex.indexPatient(updates.getId(), updates.getService());
+        this.idNumberFilter.add(updates.getIdNumber());
+        this.bedOccupancy.place(updates);
+        return "Se han actualizado los datos del paciente de manera exitosa.";
+    }
+
+    /**
+     * Actualiza parcialmente un paciente: solo se escriben los datos no nulos,
+     * con una única sentencia UPDATE. Si cambian datos indexados para la
+     * búsqueda, el paciente se reindexa a partir de una proyección.
+     *
+     * @param id      Identificador del paciente.
+     * @param changes Datos modificados del paciente.
+     * @return Mensaje indicando el éxito de la operación.
+     * @throws NotFoundException Si el paciente no es encontrado.
+     */
+    @CacheEvict(cacheNames = CacheConfig.PATIENTS, key = "#id")
+    @Transactional
+    public String patch(Long id, PatientEntity changes) {
+        if (this.repository.patchById(id, changes) == 0) {
+            throw new NotFoundException("No se encontró el paciente con el ID n°: " + id);
+        }
+        if (changes.getFirstName() != null || changes.getLastName() != null || changes.getService() != null
+                || changes.getIdNumber() != null) {
+            this.repository.findIndexDocument(id).ifPresent(document -> {
+                this.searchIndex.index(document);
+                this.observationIndex.indexPatient(id, document.getService());
+            });
+        }
+        this.bedOccupancy.patch(id, changes);
+        this.idNumberFilter.add(changes.getIdNumber());
+        return "Se han actualizado los datos del paciente de manera exitosa.";
     }
 
     /**
-     * Elimina un paciente por su identificador.
+     * Elimina un paciente por su identificador con una única sentencia DELETE;
+     * su Historia Clínica y sus controles se eliminan en cascada en la base de
+     * datos.
      *
      * @param id Identificador del paciente a eliminar.
      * @return Mensaje indicando el éxito de la operación.
      * @throws NotFoundException Si el paciente no es encontrado.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PATIENTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.HISTORIES_BY_PATIENT, key = "#id") })
     @Transactional
     public String delete(Long id) {
-        Optional<PatientEntity> patientToDelete = this.repository.findById(id);
-        if (patientToDelete.isPresent()) {
-            this.repository.deleteById(id);
-            return "Se eliminó con éxito el paciente con el ID n°: " + id;
-        } else {
+        if (this.repository.deleteIfExists(id) == 0) {
             throw new NotFoundException("No se encontró el paciente con el ID n°: " + id);
         }
+        this.searchIndex.remove(id);
+        this.observationIndex.removePatient(id);
+        this.bedOccupancy.remove(id);
+        return "Se eliminó con éxito el paciente con el ID n°: " + id;
     }
-}
\ No newline at end of file
+}
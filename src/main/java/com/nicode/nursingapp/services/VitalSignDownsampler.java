@@ -0,0 +1,130 @@
+package com.nicode.nursingapp.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.nicode.nursingapp.entities.VitalSign;
+import com.nicode.nursingapp.entities.dto.ChartPointDto;
+import com.nicode.nursingapp.entities.dto.VitalSampleDto;
+
+/**
+ * Reduce las series de signos vitales por intervalos de tiempo (min/max): el
+ * rango se divide en intervalos de igual duración y de cada uno se conservan la
+ * medición mínima y la máxima, en orden de fecha. Así se preservan los picos
+ * que un promedio ocultaría y cada serie tiene a lo sumo dos puntos por
+ * intervalo.
+ *
+ * Las mediciones deben recibirse ordenadas por fecha; solo se mantiene en
+ * memoria el intervalo en curso de cada signo vital, por lo que la memoria usada
+ * no depende de la cantidad de controles.
+ */
+final class VitalSignDownsampler {
+
+    private final LocalDateTime start;
+    private final long bucketMillis;
+    private final long lastBucket;
+    private final Map<VitalSign, Series> series = new EnumMap<>(VitalSign.class);
+
+    private long samples;
+
+    /**
+     * @param start   Fecha de inicio del rango.
+     * @param end     Fecha de fin del rango.
+     * @param buckets Cantidad de intervalos.
+     * @param vitals  Signos vitales a reducir.
+     */
+    VitalSignDownsampler(LocalDateTime start, LocalDateTime end, int buckets, Set<VitalSign> vitals) {
+        long rangeMillis = Math.max(1, Duration.between(start, end).toMillis());
+        this.start = start;
+        this.bucketMillis = Math.max(1, (rangeMillis + buckets - 1) / buckets);
+        this.lastBucket = buckets - 1L;
+        vitals.forEach(vital -> this.series.put(vital, new Series()));
+    }
+
+    /**
+     * Agrega la siguiente medición en orden de fecha.
+     *
+     * @param sample Signos vitales de un control.
+     */
+    void accept(VitalSampleDto sample) {
+        this.samples++;
+        long bucket = Math.min(this.lastBucket,
+                Math.max(0, Duration.between(this.start, sample.getControlDate()).toMillis() / this.bucketMillis));
+        this.series.forEach((vital, series) -> {
+            Double value = sample.valueOf(vital);
+            if (value != null) {
+                series.accept(bucket, sample.getControlDate(), value);
+            }
+        });
+    }
+
+    /**
+     * Cierra el último intervalo y obtiene las series reducidas.
+     *
+     * @return Puntos de cada signo vital, ordenados por fecha.
+     */
+    Map<VitalSign, List<ChartPointDto>> finish() {
+        Map<VitalSign, List<ChartPointDto>> result = new EnumMap<>(VitalSign.class);
+        this.series.forEach((vital, series) -> {
+            series.flush();
+            result.put(vital, series.points);
+        });
+        return result;
+    }
+
+    long bucketMillis() {
+        return this.bucketMillis;
+    }
+
+    long samples() {
+        return this.samples;
+    }
+
+    /**
+     * Serie de un signo vital: puntos ya emitidos y extremos del intervalo en
+     * curso.
+     */
+    private static final class Series {
+        private final List<ChartPointDto> points = new ArrayList<>();
+        private long bucket = -1;
+        private ChartPointDto min;
+        private ChartPointDto max;
+
+        void accept(long bucket, LocalDateTime date, double value) {
+            if (bucket != this.bucket) {
+                flush();
+                this.bucket = bucket;
+            }
+            if (this.min == null) {
+                this.min = new ChartPointDto(date, value);
+                this.max = this.min;
+            } else if (value < this.min.getValue()) {
+                this.min = new ChartPointDto(date, value);
+            } else if (value > this.max.getValue()) {
+                this.max = new ChartPointDto(date, value);
+            }
+        }
+
+        void flush() {
+            if (this.min == null) {
+                return;
+            }
+            if (this.min == this.max) {
+                this.points.add(this.min);
+            } else if (this.min.getDate().isAfter(this.max.getDate())) {
+                this.points.add(this.max);
+                this.points.add(this.min);
+            } else {
+                this.points.add(this.min);
+                this.points.add(this.max);
+            }
+            this.min = null;
+            this.max = null;
+        }
+    }
+}
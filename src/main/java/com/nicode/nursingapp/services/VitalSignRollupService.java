@@ -0,0 +1,154 @@
+package com.nicode.nursingapp.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.RollupGranularity;
+import com.nicode.nursingapp.entities.VitalSign;
+import com.nicode.nursingapp.entities.VitalSignRollupEntity;
+import com.nicode.nursingapp.entities.VitalSignRollupId;
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
+import com.nicode.nursingapp.repositories.NursingControlRepository;
+import com.nicode.nursingapp.repositories.VitalSignRollupRepository;
+
+/**
+ * Servicio que mantiene los resúmenes horarios y diarios de signos vitales
+ * (cantidad, promedio, mínimo y máximo por Historia Clínica) a medida que se
+ * guardan, modifican o eliminan controles de enfermería.
+ *
+ * Los controles nuevos se acumulan en sus resúmenes con un único lote JDBC por
+ * transacción. Al modificar o eliminar un control se recalculan sus intervalos
+ * a partir de los controles, ya que el mínimo y el máximo no pueden
+ * descontarse.
+ */
+@Service
+public class VitalSignRollupService {
+
+    private final VitalSignRollupRepository repository;
+    private final NursingControlRepository controlRepository;
+    private final ControlCompactionService compaction;
+
+    /**
+     * Constructor que inicializa las dependencias del servicio.
+     *
+     * @param repository        Repositorio de los resúmenes de signos vitales.
+     * @param controlRepository Repositorio para operaciones CRUD en entidades
+     *                          NursingControlEntity.
+     * @param compaction        Servicio de compactación, que lee los controles
+     *                          compactados.
+     */
+    @Autowired
+    public VitalSignRollupService(VitalSignRollupRepository repository,
+            NursingControlRepository controlRepository, ControlCompactionService compaction) {
+        this.repository = repository;
+        this.controlRepository = controlRepository;
+        this.compaction = compaction;
+    }
+
+    /**
+     * Obtiene los resúmenes de una Historia Clínica en un rango de fechas.
+     *
+     * @param historyId   Identificador de la Historia Clínica.
+     * @param granularity Granularidad: HOUR o DAY.
+     * @param vital       Signo vital (opcional).
+     * @param startDate   Fecha de inicio del rango.
+     * @param endDate     Fecha de fin del rango.
+     * @return Resúmenes ordenados por intervalo y signo vital.
+     * @throws IllegalArgumentException Si el rango de fechas no es válido.
+     */
+    @Transactional(readOnly = true)
+    public List<VitalSignRollupEntity> find(Long historyId, RollupGranularity granularity, VitalSign vital,
+            LocalDateTime startDate, LocalDateTime endDate) {
+
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la fecha de fin.");
+        }
+
+        return this.repository.findInRange(historyId, granularity, vital, granularity.bucketOf(startDate),
+                endDate);
+    }
+
+    /**
+     * Acumula controles nuevos en sus resúmenes. Debe invocarse dentro de la
+     * transacción que los guarda.
+     *
+     * @param items Controles guardados con su Historia Clínica.
+     */
+    public void record(List<ControlBatchItemDto> items) {
+        Map<VitalSignRollupId, VitalSignRollupEntity> deltas = new LinkedHashMap<>();
+        for (ControlBatchItemDto item : items) {
+            accumulate(deltas, item.getHistoryId(), item.getControl());
+        }
+        this.repository.accumulate(deltas.values());
+    }
+
+    /**
+     * Recalcula los intervalos horario y diario que contienen una fecha, después
+     * de modificar o eliminar un control. Debe invocarse dentro de la transacción
+     * que lo modifica.
+     *
+     * @param historyId   Identificador de la Historia Clínica del control.
+     * @param controlDate Fecha del control antes o después del cambio.
+     */
+    public void recompute(Long historyId, LocalDateTime controlDate) {
+        if (historyId == null || controlDate == null) {
+            return;
+        }
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            this.repository.recompute(historyId, granularity, granularity.bucketOf(controlDate));
+        }
+    }
+
+    /**
+     * Reconstruye todos los resúmenes de una Historia Clínica a partir de sus
+     * controles, incluidos los compactados, por ejemplo para los controles
+     * cargados antes de existir los resúmenes.
+     *
+     * @param historyId Identificador de la Historia Clínica.
+     * @return Cantidad de controles resumidos.
+     */
+    @Transactional
+    public int rebuild(Long historyId) {
+        this.repository.deleteByHistoryId(historyId);
+
+        Map<VitalSignRollupId, VitalSignRollupEntity> deltas = new LinkedHashMap<>();
+        List<NursingControlEntity> controls = new ArrayList<>(
+                this.controlRepository.findByPatientHistoryEntityId(historyId));
+        controls.addAll(this.compaction.findCompacted(historyId));
+        for (NursingControlEntity control : controls) {
+            accumulate(deltas, historyId, control);
+        }
+        this.repository.accumulate(deltas.values());
+        return controls.size();
+    }
+
+    /**
+     * Suma los signos vitales de un control a los resúmenes horario y diario de
+     * su fecha. Los controles sin fecha no se resumen.
+     */
+    private static void accumulate(Map<VitalSignRollupId, VitalSignRollupEntity> deltas, Long historyId,
+            NursingControlEntity control) {
+        if (control.getControlDate() == null) {
+            return;
+        }
+        for (VitalSign vital : VitalSign.values()) {
+            Double value = vital.valueOf(control);
+            if (value == null) {
+                continue;
+            }
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                VitalSignRollupId id = new VitalSignRollupId(historyId, granularity,
+                        granularity.bucketOf(control.getControlDate()), vital);
+                deltas.computeIfAbsent(id, VitalSignRollupEntity::new).add(value);
+            }
+        }
+    }
+}
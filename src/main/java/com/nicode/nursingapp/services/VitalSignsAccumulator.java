@@ -0,0 +1,57 @@
+package com.nicode.nursingapp.services;
+
+import com.nicode.nursingapp.entities.VitalSign;
+import com.nicode.nursingapp.entities.dto.VitalSampleDto;
+import com.nicode.nursingapp.entities.dto.VitalSignsSummaryDto;
+
+/**
+ * Calcula en memoria el resumen de signos vitales de un conjunto de controles,
+ * con los mismos resultados que las funciones de agregación de la base de
+ * datos: cantidad de controles y promedio, mínimo y máximo de cada signo vital
+ * registrado. Las mediciones pueden recibirse en cualquier orden.
+ */
+final class VitalSignsAccumulator {
+
+    private static final VitalSign[] VITALS = { VitalSign.SYSTOLIC, VitalSign.DIASTOLIC, VitalSign.HEART_RATE,
+            VitalSign.RESPIRATORY_RATE, VitalSign.SPO2 };
+
+    private final long[] counts = new long[VITALS.length];
+    private final long[] sums = new long[VITALS.length];
+    private final Integer[] mins = new Integer[VITALS.length];
+    private final Integer[] maxs = new Integer[VITALS.length];
+
+    private long controls;
+
+    /**
+     * Agrega una medición.
+     *
+     * @param sample Signos vitales de un control.
+     */
+    void accept(VitalSampleDto sample) {
+        this.controls++;
+        for (int i = 0; i < VITALS.length; i++) {
+            Double value = sample.valueOf(VITALS[i]);
+            if (value != null) {
+                int measured = value.intValue();
+                this.counts[i]++;
+                this.sums[i] += measured;
+                this.mins[i] = this.mins[i] == null ? measured : Math.min(this.mins[i], measured);
+                this.maxs[i] = this.maxs[i] == null ? measured : Math.max(this.maxs[i], measured);
+            }
+        }
+    }
+
+    /**
+     * @return Resumen de las mediciones recibidas.
+     */
+    VitalSignsSummaryDto summary() {
+        Double[] averages = new Double[VITALS.length];
+        for (int i = 0; i < VITALS.length; i++) {
+            averages[i] = this.counts[i] == 0 ? null : (double) this.sums[i] / this.counts[i];
+        }
+        return new VitalSignsSummaryDto(this.controls,
+                averages[0], this.mins[0], this.maxs[0], averages[1], this.mins[1], this.maxs[1],
+                averages[2], this.mins[2], this.maxs[2], averages[3], this.mins[3], this.maxs[3],
+                averages[4], this.mins[4], this.maxs[4]);
+    }
+}
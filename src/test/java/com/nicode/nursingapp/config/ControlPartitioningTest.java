@@ -0,0 +1,122 @@
+package com.nicode.nursingapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+import com.nicode.nursingapp.search.ObservationSearchIndex;
+
+/**
+ * La planificación de particiones se verifica sin base de datos; la poda de
+ * particiones solo puede verificarse con MySQL, que se indica con
+ * `-Dmysql.url=jdbc:mysql://.../base -Dmysql.user=... -Dmysql.password=...`
+ * (la base debe estar vacía o ser descartable: se recrean las tablas).
+ */
+class ControlPartitioningTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 4, 15);
+
+    @Test
+    void plansMonthlyPartitionsAheadAndExpiredOnes() {
+        assertThat(ControlPartitioning.partitionName(YearMonth.of(2026, 3))).isEqualTo("p202603");
+        assertThat(ControlPartitioning.partitionDefinition(YearMonth.of(2026, 12), false))
+                .isEqualTo("PARTITION p202612 VALUES LESS THAN ('2027-01-01 00:00:00')");
+        assertThat(ControlPartitioning.partitionDefinition(YearMonth.of(2026, 12), true))
+                .isEqualTo("PARTITION p202612 VALUES LESS THAN (UNIX_TIMESTAMP('2027-01-01 00:00:00'))");
+        assertThat(ControlPartitioning.reorganizeStatement(List.of(YearMonth.of(2026, 8)), false))
+                .isEqualTo("ALTER TABLE nursing_controls REORGANIZE PARTITION pmax INTO ("
+                        + "PARTITION p202608 VALUES LESS THAN ('2026-09-01 00:00:00'), "
+                        + "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+
+        assertThat(ControlPartitioning.monthsToCreate(YearMonth.of(2026, 5), TODAY, 3))
+                .containsExactly(YearMonth.of(2026, 6), YearMonth.of(2026, 7));
+        assertThat(ControlPartitioning.monthsToCreate(YearMonth.of(2026, 7), TODAY, 3)).isEmpty();
+
+        List<YearMonth> existing = List.of(YearMonth.of(2026, 1), YearMonth.of(2026, 2), YearMonth.of(2026, 3),
+                YearMonth.of(2026, 4));
+        assertThat(ControlPartitioning.monthsToDrop(existing, TODAY, 0)).isEmpty();
+        assertThat(ControlPartitioning.monthsToDrop(existing, TODAY, 2)).containsExactly(YearMonth.of(2026, 1));
+        assertThat(ControlPartitioning.monthsToDrop(existing, LocalDate.of(2027, 1, 1), 1))
+                .containsExactly(YearMonth.of(2026, 1), YearMonth.of(2026, 2), YearMonth.of(2026, 3));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "mysql.url", matches = ".+")
+    void rangeQueriesOnlyReadTheirMonthsPartitions() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(System.getProperty("mysql.url"),
+                System.getProperty("mysql.user", "root"), System.getProperty("mysql.password", "")));
+        createSchema(jdbcTemplate);
+        insertControl(jdbcTemplate, 1, "2026-02-10 08:00:00");
+        insertControl(jdbcTemplate, 2, "2026-03-10 08:00:00");
+        insertControl(jdbcTemplate, 3, "2026-03-31 23:59:59");
+        insertControl(jdbcTemplate, 4, "2026-04-01 00:00:00");
+
+        PatientHistoryRepository historyRepository = mock(PatientHistoryRepository.class);
+        ObservationSearchIndex observationIndex = mock(ObservationSearchIndex.class);
+        ControlPartitioning partitioning = new ControlPartitioning(jdbcTemplate, historyRepository,
+                observationIndex, true, 2, 1, true);
+        partitioning.migrate(TODAY);
+        assertThat(partitioning.partitions()).containsExactly(YearMonth.of(2026, 2), YearMonth.of(2026, 3),
+                YearMonth.of(2026, 4), YearMonth.of(2026, 5), YearMonth.of(2026, 6));
+
+        assertThat(explainedPartitions(jdbcTemplate, "2026-03-01 00:00:00", "2026-03-31 23:59:59"))
+                .isEqualTo("p202603");
+        assertThat(explainedPartitions(jdbcTemplate, "2026-03-20 00:00:00", "2026-04-05 00:00:00"))
+                .isEqualTo("p202603,p202604");
+
+        partitioning.maintain(LocalDate.of(2026, 5, 2));
+        assertThat(partitioning.partitions()).containsExactly(YearMonth.of(2026, 4), YearMonth.of(2026, 5),
+                YearMonth.of(2026, 6), YearMonth.of(2026, 7));
+        assertThat(jdbcTemplate.queryForList("SELECT nursing_control_id FROM nursing_controls_archive "
+                + "ORDER BY nursing_control_id", Long.class)).containsExactly(1L, 2L, 3L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Long>> removed = ArgumentCaptor.forClass(List.class);
+        verify(observationIndex, times(2)).removeControls(removed.capture());
+        assertThat(removed.getAllValues()).flatExtracting(ids -> ids).containsExactlyInAnyOrder(1L, 2L, 3L);
+        verify(historyRepository).refreshLatestVitalsBefore(LocalDateTime.of(2026, 4, 1, 0, 0));
+
+        jdbcTemplate.update("DELETE FROM patients WHERE id = 1");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM nursing_controls", Long.class)).isZero();
+    }
+
+    private static String explainedPartitions(JdbcTemplate jdbcTemplate, String from, String to) {
+        return (String) jdbcTemplate.queryForList("EXPLAIN SELECT * FROM nursing_controls "
+                + "WHERE patient_history_id = 1 AND control_date BETWEEN ? AND ? ORDER BY control_date", from, to)
+                .get(0).get("partitions");
+    }
+
+    private static void insertControl(JdbcTemplate jdbcTemplate, long id, String date) {
+        jdbcTemplate.update("INSERT INTO nursing_controls (nursing_control_id, temperature, observations, "
+                + "control_date, patient_history_id) VALUES (?, 36.5, 'Sin novedad', ?, 1)", id, date);
+    }
+
+    private static void createSchema(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS nursing_controls_archive, nursing_controls, "
+                + "patients_histories, patients");
+        jdbcTemplate.execute("CREATE TABLE patients (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE patients_histories (patient_history_id BIGINT PRIMARY KEY, "
+                + "patient_id BIGINT, FOREIGN KEY (patient_id) REFERENCES patients (id) ON DELETE CASCADE)");
+        String columns = "(nursing_control_id BIGINT NOT NULL, temperature DOUBLE, systolic INT, diastolic INT, "
+                + "heart_rate_bpm INT, respiratory_rate_rpm INT, spo2 INT, observations VARCHAR(255), "
+                + "control_date DATETIME(6), patient_history_id BIGINT, PRIMARY KEY (nursing_control_id)";
+        jdbcTemplate.execute("CREATE TABLE nursing_controls " + columns + ", FOREIGN KEY (patient_history_id) "
+                + "REFERENCES patients_histories (patient_history_id) ON DELETE CASCADE)");
+        jdbcTemplate.execute("CREATE TABLE nursing_controls_archive " + columns + ")");
+        jdbcTemplate.update("INSERT INTO patients (id) VALUES (1)");
+        jdbcTemplate.update("INSERT INTO patients_histories (patient_history_id, patient_id) VALUES (1, 1)");
+    }
+}
@@ -0,0 +1,50 @@
+package com.nicode.nursingapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SqlStatementBudgetFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlStatementBudgetFilter filter = new SqlStatementBudgetFilter(meterRegistry, 3, 2);
+
+    @Test
+    void flagsRequestsOverBudgetAndRepeatedStatements() throws Exception {
+        try (SqlStatementCounter.Scope outer = SqlStatementCounter.open()) {
+            filter.doFilter(new MockHttpServletRequest("GET", "/patients/all"), new MockHttpServletResponse(),
+                    (request, response) -> {
+                        SqlStatementCounter.record("select p from patients p");
+                        for (int i = 0; i < 3; i++) {
+                            SqlStatementCounter.record("select h from patient_histories h where h.patient_id=?");
+                        }
+                    });
+
+            assertThat(outer.count()).isEqualTo(4);
+            assertThat(outer.repeated(2))
+                    .containsExactly(Map.entry("select h from patient_histories h where h.patient_id=?", 3));
+        }
+
+        assertThat(meterRegistry.get("sql.statements.per.request").summary().totalAmount()).isEqualTo(4);
+        assertThat(meterRegistry.get("sql.statements.budget.exceeded").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("sql.statements.repeated").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresStatementsOutsideAScope() throws Exception {
+        SqlStatementCounter.record("select 1");
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/patients/1"), new MockHttpServletResponse(),
+                (request, response) -> SqlStatementCounter.record("select p from patients p where p.id=?"));
+
+        assertThat(meterRegistry.get("sql.statements.per.request").summary().totalAmount()).isEqualTo(1);
+        assertThat(meterRegistry.get("sql.statements.budget.exceeded").counter().count()).isZero();
+        assertThat(meterRegistry.get("sql.statements.repeated").counter().count()).isZero();
+    }
+}
@@ -0,0 +1,124 @@
+package com.nicode.nursingapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.dto.VitalSignsSummaryDto;
+import com.nicode.nursingapp.repositories.NursingControlRepository;
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+import com.nicode.nursingapp.services.NursingControlService;
+import com.nicode.nursingapp.services.PatientHistoryService;
+import com.nicode.nursingapp.services.PatientService;
+
+@SpringBootTest(properties = "controls.vitals-migration.batch-size=2")
+class VitalSignsMigrationTest {
+
+    @Autowired
+    private VitalSignsMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientHistoryService historyService;
+
+    @Autowired
+    private PatientHistoryRepository historyRepository;
+
+    @Autowired
+    private NursingControlRepository controlRepository;
+
+    @Autowired
+    private NursingControlService controlService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void migratesLegacyTextVitalsAndAggregatesThemInSql() {
+        Long historyId = newHistory("40222333");
+        LocalDateTime now = LocalDateTime.now();
+
+        jdbcTemplate.execute("ALTER TABLE nursing_controls ADD COLUMN IF NOT EXISTS blood_pressure VARCHAR(10)");
+        jdbcTemplate.execute("ALTER TABLE nursing_controls ADD COLUMN IF NOT EXISTS heart_rate VARCHAR(5)");
+        jdbcTemplate.execute("ALTER TABLE nursing_controls ADD COLUMN IF NOT EXISTS respiratory_rate VARCHAR(5)");
+        insertLegacy(500001, historyId, now.minusHours(1), "170/95", "110", "22");
+        insertLegacy(500002, historyId, now.minusHours(2), "120 / 80", "72 x", null);
+        insertLegacy(500003, historyId, now.minusHours(3), "sin dato", "80", "18");
+        insertLegacy(500004, historyId, now.minusHours(30), "165-90", "90", "20");
+
+        assertThat(migration.migrate()).isEqualTo(3);
+        assertThat(migration.migrate()).isZero();
+
+        NursingControlEntity migrated = controlRepository.findById(500001L).orElseThrow();
+        assertThat(migrated.getSystolic()).isEqualTo(170);
+        assertThat(migrated.getDiastolic()).isEqualTo(95);
+        assertThat(migrated.getBloodPressure()).isEqualTo("170/95");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT blood_pressure FROM nursing_controls WHERE nursing_control_id = 500003", String.class))
+                .isEqualTo("sin dato");
+
+        assertThat(controlService.findAbnormalVitals(24, 160, null, null, null, 0, 10).getContent())
+                .extracting(NursingControlEntity::getId).containsExactly(500001L);
+
+        VitalSignsSummaryDto summary = controlService.getVitalSignsSummary(historyId, now.minusDays(2), now);
+        assertThat(summary.getControls()).isEqualTo(4);
+        assertThat(summary.getSystolicMax()).isEqualTo(170);
+        assertThat(summary.getHeartRateAvg()).isEqualTo((110 + 72 + 90) / 3.0);
+    }
+
+    @Test
+    void keepsTheLegacyJsonShape() throws Exception {
+        NursingControlEntity control = objectMapper.readValue(
+                "{\"bloodPressure\":\"130/85\",\"heartRate\":\"76\",\"respiratoryRate\":18,\"spo2\":97}",
+                NursingControlEntity.class);
+
+        assertThat(control.getSystolic()).isEqualTo(130);
+        assertThat(control.getDiastolic()).isEqualTo(85);
+        assertThat(control.getRespiratoryRate()).isEqualTo(18);
+
+        JsonNode json = objectMapper.valueToTree(control);
+        assertThat(json.get("bloodPressure").asText()).isEqualTo("130/85");
+        assertThat(json.get("heartRate").isTextual()).isTrue();
+        assertThat(json.get("heartRate").asText()).isEqualTo("76");
+    }
+
+    private void insertLegacy(long id, Long historyId, LocalDateTime date, String bloodPressure, String heartRate,
+            String respiratoryRate) {
+        jdbcTemplate.update("INSERT INTO nursing_controls (nursing_control_id, patient_history_id, control_date, "
+                + "blood_pressure, heart_rate, respiratory_rate) VALUES (?, ?, ?, ?, ?, ?)",
+                id, historyId, date, bloodPressure, heartRate, respiratoryRate);
+    }
+
+    private Long newHistory(String idNumber) {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("José");
+        patient.setLastName("Pérez");
+        patient.setIdNumber(idNumber);
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1970, 5, 1));
+        patient.setAdmissionDate(LocalDate.now());
+        patient.setRoom(2);
+        patient.setBed(1);
+        patient.setService("Cardiología");
+        PatientEntity saved = (PatientEntity) patientService.save(patient).get("patient");
+
+        historyService.save(new PatientHistoryEntity(), saved.getId());
+        return historyRepository.getPatientHistoryEntityByPatientId(saved.getId()).orElseThrow().getId();
+    }
+}
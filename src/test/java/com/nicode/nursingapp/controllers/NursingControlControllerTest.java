@@ -0,0 +1,94 @@
+package com.nicode.nursingapp.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.nicode.nursingapp.config.SqlStatementCounter;
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+import com.nicode.nursingapp.services.NursingControlService;
+import com.nicode.nursingapp.services.PatientHistoryService;
+import com.nicode.nursingapp.services.PatientService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class NursingControlControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientHistoryService historyService;
+
+    @Autowired
+    private PatientHistoryRepository historyRepository;
+
+    @Autowired
+    private NursingControlService controlService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void getAllLoadsThePatientControlsWithOneStatementForRowsAndOneForBlocks() throws Exception {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Carlos");
+        patient.setLastName("Ruiz");
+        patient.setIdNumber("40666777");
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1962, 4, 20));
+        patient.setAdmissionDate(LocalDate.now());
+        patient.setRoom(4);
+        patient.setBed(1);
+        patient.setService("Neumonología");
+        Long patientId = ((PatientEntity) patientService.save(patient).get("patient")).getId();
+        historyService.save(new PatientHistoryEntity(), patientId);
+        Long historyId = historyRepository.getPatientHistoryEntityByPatientId(patientId).orElseThrow().getId();
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < 5; i++) {
+            NursingControlEntity control = new NursingControlEntity();
+            control.setControlDate(now.minusHours(5 - i));
+            control.setSystolic(120 + i);
+            control.setDiastolic(80);
+            control.setHeartRate(70 + i);
+            controlService.save(control, historyId);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            mockMvc.perform(get("/controls/all/{patientId}", patientId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(5))
+                    .andExpect(jsonPath("$[0].bloodPressure").value("120/80"))
+                    .andExpect(jsonPath("$[4].heartRate").value("74"));
+
+            assertThat(sql.count()).isEqualTo(2);
+        }
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        mockMvc.perform(get("/controls/all/{patientId}", -1L)).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,71 @@
+package com.nicode.nursingapp.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true" })
+class SecondLevelCacheTest {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientHistoryRepository historyRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void secondReadOfAPatientIssuesNoSql() {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Rosa");
+        patient.setLastName("Díaz");
+        patient.setIdNumber("40555666");
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1949, 11, 3));
+        patient.setAdmissionDate(LocalDate.now());
+        patient.setRoom(3);
+        patient.setBed(2);
+        patient.setService("Geriatría");
+        Long id = patientRepository.save(patient).getId();
+        PatientHistoryEntity history = new PatientHistoryEntity();
+        history.setPatient(patientRepository.findById(id).orElseThrow());
+        historyRepository.save(history);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Runnable read = () -> transaction.executeWithoutResult(status -> {
+            assertThat(patientRepository.findById(id).orElseThrow().getIdNumber()).isEqualTo("40555666");
+            assertThat(patientRepository.existsByidNumber("40555666")).isTrue();
+            assertThat(historyRepository.getPatientHistoryEntityByPatientId(id).orElseThrow().getPatient().getId())
+                    .isEqualTo(id);
+        });
+
+        read.run();
+        statistics.clear();
+        read.run();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,71 @@
+package com.nicode.nursingapp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.nicode.nursingapp.entities.dto.IdNumberFilterReportDto;
+import com.nicode.nursingapp.repositories.PatientRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdNumberFilterTest {
+
+    private static IdNumberFilter filterOf(int registered, boolean enabled) {
+        PatientRepository repository = mock(PatientRepository.class);
+        when(repository.count()).thenReturn((long) registered);
+        when(repository.streamIdNumbers())
+                .thenReturn(IntStream.range(0, registered).mapToObj(i -> String.valueOf(20_000_000 + i)));
+
+        IdNumberFilter filter = new IdNumberFilter(repository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), enabled, 10_000, 0.01);
+        if (enabled) {
+            filter.rebuild();
+        }
+        return filter;
+    }
+
+    @Test
+    void neverRejectsARegisteredIdNumberAndKeepsTheFalsePositiveRate() {
+        IdNumberFilter filter = filterOf(10_000, true);
+
+        assertThat(IntStream.range(0, 10_000).mapToObj(i -> String.valueOf(20_000_000 + i)))
+                .allMatch(filter::mightContain);
+        long falsePositives = IntStream.range(0, 100_000)
+                .mapToObj(i -> String.valueOf(30_000_000 + i)).filter(filter::mightContain).count();
+        assertThat(falsePositives).isLessThan(2_000);
+
+        IdNumberFilterReportDto report = filter.report();
+        assertThat(report.getInsertions()).isBetween(9_800L, 10_000L);
+        assertThat(report.getHashFunctions()).isEqualTo(7);
+        assertThat(report.getMemoryBytes()).isLessThan(13_000);
+        assertThat(report.getExpectedFalsePositiveRate()).isBetween(0.005, 0.015);
+        assertThat(report.getDefiniteMisses() + report.getProbableHits()).isEqualTo(110_000);
+    }
+
+    @Test
+    void addsIdNumbersAndGrowsOnRebuild() {
+        IdNumberFilter filter = filterOf(100, true);
+
+        assertThat(filter.mightContain(" 40999001 ")).isFalse();
+        filter.add("40999001");
+        assertThat(filter.mightContain(" 40999001 ")).isTrue();
+
+        IdNumberFilter crowded = filterOf(30_000, true);
+        assertThat(crowded.report().getCapacity()).isEqualTo(60_000);
+        assertThat(crowded.report().getExpectedFalsePositiveRate()).isLessThan(0.01);
+    }
+
+    @Test
+    void sendsEveryCheckToTheDatabaseWhenDisabled() {
+        IdNumberFilter filter = filterOf(0, false);
+
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain("40999002")).isTrue();
+    }
+}
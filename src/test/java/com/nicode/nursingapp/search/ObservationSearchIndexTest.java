@@ -0,0 +1,114 @@
+package com.nicode.nursingapp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.dto.ObservationIndexDto;
+import com.nicode.nursingapp.entities.dto.ObservationSource;
+import com.nicode.nursingapp.entities.dto.PatientIndexDto;
+import com.nicode.nursingapp.repositories.NursingControlBlockRepository;
+import com.nicode.nursingapp.repositories.NursingControlRepository;
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+import com.nicode.nursingapp.repositories.PatientRepository;
+
+class ObservationSearchIndexTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 3, 4, 8, 0);
+
+    private static ObservationSearchIndex indexOf(Stream<ObservationIndexDto> controls) {
+        PatientRepository patients = mock(PatientRepository.class);
+        PatientHistoryRepository histories = mock(PatientHistoryRepository.class);
+        NursingControlRepository controlRepository = mock(NursingControlRepository.class);
+
+        when(patients.streamIndexDocuments()).thenReturn(Stream.of(
+                new PatientIndexDto(1L, "Ana", "González", "Clínica Médica", "30111222"),
+                new PatientIndexDto(2L, "José", "Pérez", "Cirugía", "28999000")));
+        when(histories.streamObservationDocuments()).thenReturn(Stream.of(
+                new ObservationIndexDto(10L, 1L, "Antecedentes de caída en domicilio"),
+                new ObservationIndexDto(20L, 2L, null)));
+        when(controlRepository.streamObservationDocuments()).thenReturn(controls);
+
+        ObservationSearchIndex index = new ObservationSearchIndex(patients, histories, controlRepository,
+                mock(NursingControlBlockRepository.class), mock(PlatformTransactionManager.class), true);
+        index.rebuild();
+        return index;
+    }
+
+    private static ObservationSearchIndex defaultIndex() {
+        return indexOf(Stream.of(
+                new ObservationIndexDto(100L, 10L, MONDAY, "Refiere dolor torácico leve"),
+                new ObservationIndexDto(101L, 10L, MONDAY.plusHours(6), "Caída de la cama, sin lesiones"),
+                new ObservationIndexDto(200L, 20L, MONDAY.plusDays(1), "Dolor torácico, se avisa a guardia")));
+    }
+
+    @Test
+    void searchMatchesAllWordsAsPrefixesIgnoringAccentsAndOrdersByDate() {
+        ObservationSearchIndex index = defaultIndex();
+
+        ObservationSearchIndex.SearchResult result = index.search("DOLOR torac", null, null, null, 0, 10);
+
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.hits()).containsExactly(
+                new ObservationSearchIndex.Hit(ObservationSource.CONTROL, 200L),
+                new ObservationSearchIndex.Hit(ObservationSource.CONTROL, 100L));
+        assertThat(index.search("dolor abdominal", null, null, null, 0, 10).total()).isZero();
+    }
+
+    @Test
+    void searchIncludesHistoryObservationsAfterControls() {
+        ObservationSearchIndex index = defaultIndex();
+
+        ObservationSearchIndex.SearchResult result = index.search("caida", null, null, null, 0, 10);
+
+        assertThat(result.hits()).containsExactly(
+                new ObservationSearchIndex.Hit(ObservationSource.CONTROL, 101L),
+                new ObservationSearchIndex.Hit(ObservationSource.HISTORY, 10L));
+    }
+
+    @Test
+    void searchFiltersByServiceAndDateRange() {
+        ObservationSearchIndex index = defaultIndex();
+
+        assertThat(index.search("dolor", "clinica medica", null, null, 0, 10).hits())
+                .containsExactly(new ObservationSearchIndex.Hit(ObservationSource.CONTROL, 100L));
+        assertThat(index.search("caida", null, MONDAY, MONDAY.plusDays(1), 0, 10).hits())
+                .containsExactly(new ObservationSearchIndex.Hit(ObservationSource.CONTROL, 101L));
+        assertThat(index.search("dolor", null, MONDAY.plusHours(1), null, 0, 10).hits())
+                .containsExactly(new ObservationSearchIndex.Hit(ObservationSource.CONTROL, 200L));
+    }
+
+    @Test
+    void incrementalUpdatesReplaceAndRemoveObservations() {
+        ObservationSearchIndex index = defaultIndex();
+
+        NursingControlEntity control = new NursingControlEntity();
+        control.setId(100L);
+        control.setControlDate(MONDAY);
+        control.setObservations("Sin dolor, descansa tranquilo");
+        index.index(control, 10L);
+
+        assertThat(index.search("torácico", null, null, null, 0, 10).hits())
+                .containsExactly(new ObservationSearchIndex.Hit(ObservationSource.CONTROL, 200L));
+        assertThat(index.search("tranquilo", null, null, null, 0, 10).total()).isEqualTo(1);
+
+        index.removePatient(1L);
+
+        assertThat(index.search("caida", null, null, null, 0, 10).total()).isZero();
+        assertThat(index.search("dolor", null, null, null, 0, 10).hits())
+                .containsExactly(new ObservationSearchIndex.Hit(ObservationSource.CONTROL, 200L));
+    }
+
+    @Test
+    void highlightEscapesHtmlAndMarksMatchingWords() {
+        assertThat(ObservationSearchIndex.highlight("Dolor torácico <leve> & caída", "dolor torac"))
+                .isEqualTo("<mark>Dolor</mark> <mark>torácico</mark> &lt;leve&gt; &amp; caída");
+    }
+}
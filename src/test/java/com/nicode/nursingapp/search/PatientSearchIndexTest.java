@@ -0,0 +1,129 @@
+package com.nicode.nursingapp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.nicode.nursingapp.entities.dto.PatientIndexDto;
+import com.nicode.nursingapp.repositories.PatientRepository;
+
+class PatientSearchIndexTest {
+
+    private static PatientSearchIndex indexOf(Stream<PatientIndexDto> patients) {
+        PatientRepository repository = mock(PatientRepository.class);
+        when(repository.streamIndexDocuments()).thenReturn(patients);
+
+        PatientSearchIndex index = new PatientSearchIndex(repository, mock(PlatformTransactionManager.class), true);
+        index.rebuild();
+        return index;
+    }
+
+    @Test
+    void substringSearchIgnoresCaseAndAccents() {
+        PatientSearchIndex index = indexOf(Stream.of(
+                new PatientIndexDto(1L, "Ana", "González", "Clínica Médica", "30111222"),
+                new PatientIndexDto(2L, "José", "Pérez", "Cirugía", "28999000")));
+
+        assertThat(index.search("GONZ", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("clinica", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("8999", 0, 10).ids()).containsExactly(2L);
+        assertThat(index.search("gonzales", 0, 10).ids()).isEmpty();
+    }
+
+    @Test
+    void fuzzySearchToleratesTyposAndSpanishSpellingVariants() {
+        PatientSearchIndex index = indexOf(Stream.of(
+                new PatientIndexDto(1L, "Ana", "González", "Clínica Médica", "30111222"),
+                new PatientIndexDto(2L, "José", "Vázquez", "Cirugía", "28999000"),
+                new PatientIndexDto(3L, "Yamila", "Giménez", "Pediatría", "40111000"),
+                new PatientIndexDto(4L, "Juan", "Gómez", "Cirugía", "29111000")));
+
+        assertThat(index.fuzzySearch("Gonzales", 0, 10).ids()).first().isEqualTo(1L);
+        assertThat(index.fuzzySearch("basques", 0, 10).ids()).first().isEqualTo(2L);
+        assertThat(index.fuzzySearch("llamila jimenes", 0, 10).ids()).first().isEqualTo(3L);
+        assertThat(index.fuzzySearch("gomes", 0, 10).ids()).first().isEqualTo(4L);
+        assertThat(index.fuzzySearch("rodriguez", 0, 10).ids()).isEmpty();
+    }
+
+    @Test
+    void fuzzySearchRanksExactMatchesFirstAndPagesTheRanking() {
+        PatientSearchIndex index = indexOf(Stream.of(
+                new PatientIndexDto(1L, "Ana", "Gonzalo", "Cirugía", "1"),
+                new PatientIndexDto(2L, "Ana", "González", "Cirugía", "2"),
+                new PatientIndexDto(3L, "Ana", "Gonzales", "Cirugía", "3")));
+
+        PatientSearchIndex.SearchResult first = index.fuzzySearch("gonzalez", 0, 1);
+        PatientSearchIndex.SearchResult second = index.fuzzySearch("gonzalez", 1, 1);
+
+        assertThat(first.ids()).containsExactly(2L);
+        assertThat(second.ids()).containsExactly(3L);
+        assertThat(first.total()).isEqualTo(3);
+    }
+
+    /**
+     * Compara la búsqueda aproximada contra un recorrido completo con
+     * `contains`, equivalente en memoria al `LIKE '%kw%'` (sin E/S de disco ni
+     * red, por lo que es una cota optimista del costo de la consulta a MySQL).
+     *
+     * Ejecutar con: mvn test -Dtest=PatientSearchIndexTest -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkFuzzySearchAgainstLikeScanWithOneMillionPatients() {
+        int patients = 1_000_000;
+        String[] firstNames = { "Ana", "José", "María", "Juan", "Lucía", "Carlos", "Sofía", "Jorge", "Valentina",
+                "Martín", "Camila", "Diego", "Yamila", "Ramón", "Agustina" };
+        String[] lastNames = { "González", "Rodríguez", "Gómez", "Fernández", "López", "Díaz", "Martínez", "Pérez",
+                "García", "Sánchez", "Romero", "Sosa", "Álvarez", "Torres", "Ruiz", "Ramírez", "Flores", "Benítez",
+                "Acosta", "Medina", "Herrera", "Suárez", "Aguirre", "Giménez", "Gutiérrez", "Pereyra", "Rojas",
+                "Molina", "Castro", "Vázquez" };
+        String[] services = { "Clínica Médica", "Cirugía", "Pediatría", "Traumatología", "Cardiología" };
+        Random random = new Random(42);
+
+        List<PatientIndexDto> rows = IntStream.range(0, patients)
+                .mapToObj(i -> new PatientIndexDto((long) i + 1,
+                        firstNames[random.nextInt(firstNames.length)],
+                        lastNames[random.nextInt(lastNames.length)] + " " + lastNames[random.nextInt(lastNames.length)],
+                        services[random.nextInt(services.length)], String.valueOf(20_000_000 + i)))
+                .toList();
+
+        long buildStart = System.nanoTime();
+        PatientSearchIndex index = indexOf(rows.stream());
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        String[] queries = { "Gonzales", "Rodriges", "basques", "jimenes", "Benites", "ana gonzales" };
+        for (String query : queries) {
+            index.fuzzySearch(query, 0, 20); // calentamiento del JIT
+        }
+        for (String query : queries) {
+            String keyword = query.toLowerCase(Locale.ROOT);
+
+            long likeStart = System.nanoTime();
+            long likeMatches = rows.stream()
+                    .filter(row -> row.getFirstName().toLowerCase(Locale.ROOT).contains(keyword)
+                            || row.getLastName().toLowerCase(Locale.ROOT).contains(keyword)
+                            || row.getService().toLowerCase(Locale.ROOT).contains(keyword))
+                    .count();
+            long likeMicros = (System.nanoTime() - likeStart) / 1_000;
+
+            long fuzzyStart = System.nanoTime();
+            PatientSearchIndex.SearchResult fuzzy = index.fuzzySearch(query, 0, 20);
+            long fuzzyMicros = (System.nanoTime() - fuzzyStart) / 1_000;
+
+            System.out.printf("%-10s LIKE-scan: %7d us, %6d resultados | fuzzy top-20: %7d us, %6d relevantes%n",
+                    query, likeMicros, likeMatches, fuzzyMicros, fuzzy.total());
+            assertThat(fuzzy.ids()).isNotEmpty();
+        }
+        System.out.printf("Construcción del índice: %d ms para %d pacientes%n", buildMillis, patients);
+    }
+}
@@ -0,0 +1,98 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.nicode.nursingapp.config.SqlStatementCounter;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.dto.BedCensusDto;
+import com.nicode.nursingapp.entities.dto.FreeBedDto;
+import com.nicode.nursingapp.entities.dto.SearchIndexReportDto;
+import com.nicode.nursingapp.exceptions.NotFoundException;
+
+@SpringBootTest
+class BedCensusTest {
+
+    private static final String SERVICE = "Traumatología";
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void answersCensusAndFreeBedsFromMemory() {
+        PatientEntity first = newPatient("41300001", 301, 1);
+        PatientEntity second = newPatient("41300002", 301, 2);
+        newPatient("41300003", 302, 3);
+
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            assertThat(patientService.getCensus(SERVICE)).isEqualTo(new BedCensusDto(SERVICE, 2, 5, 3, 2));
+            assertThat(patientService.getFreeBeds(SERVICE))
+                    .containsExactly(new FreeBedDto(302, 1), new FreeBedDto(302, 2));
+            assertThat(patientService.getCensus()).contains(new BedCensusDto(SERVICE, 2, 5, 3, 2));
+            assertThat(sql.count()).isZero();
+        }
+
+        PatientEntity discharge = new PatientEntity();
+        discharge.setMedicalDischargeDate(LocalDate.now());
+        patientService.patch(first.getId(), discharge);
+        assertThat(patientService.getFreeBeds(SERVICE))
+                .containsExactly(new FreeBedDto(301, 1), new FreeBedDto(302, 1), new FreeBedDto(302, 2));
+
+        PatientEntity move = new PatientEntity();
+        move.setRoom(302);
+        move.setBed(1);
+        patientService.patch(second.getId(), move);
+        assertThat(patientService.getFreeBeds(SERVICE))
+                .containsExactly(new FreeBedDto(301, 1), new FreeBedDto(301, 2), new FreeBedDto(302, 2));
+
+        patientService.delete(second.getId());
+        assertThat(patientService.getCensus(SERVICE)).isEqualTo(new BedCensusDto(SERVICE, 2, 5, 1, 4));
+
+        assertThatThrownBy(() -> patientService.getFreeBeds("Servicio inexistente"))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void reconcilesChangesMadeOutsideTheApplication() {
+        PatientEntity patient = newPatient("41300101", "Ortopedia", 310, 1);
+        patientService.checkBedOccupancy(true);
+
+        jdbcTemplate.update("UPDATE patients SET bed = 2 WHERE id = ?", patient.getId());
+
+        SearchIndexReportDto report = patientService.checkBedOccupancy(false);
+        assertThat(report.getStale()).isEqualTo(1);
+        assertThat(report.isRebuilt()).isFalse();
+
+        assertThat(patientService.checkBedOccupancy(true).isRebuilt()).isTrue();
+        assertThat(patientService.checkBedOccupancy(false).isConsistent()).isTrue();
+        assertThat(patientService.getFreeBeds("Ortopedia")).containsExactly(new FreeBedDto(310, 1));
+    }
+
+    private PatientEntity newPatient(String idNumber, int room, int bed) {
+        return newPatient(idNumber, SERVICE, room, bed);
+    }
+
+    private PatientEntity newPatient(String idNumber, String service, int room, int bed) {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Marta");
+        patient.setLastName("Ibáñez");
+        patient.setIdNumber(idNumber);
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1950, 5, 20));
+        patient.setAdmissionDate(LocalDate.now());
+        patient.setRoom(room);
+        patient.setBed(bed);
+        patient.setService(service);
+        return (PatientEntity) patientService.save(patient).get("patient");
+    }
+}
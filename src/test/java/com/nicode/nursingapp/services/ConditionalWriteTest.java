@@ -0,0 +1,236 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.nicode.nursingapp.config.SqlStatementCounter;
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
+import com.nicode.nursingapp.exceptions.NotFoundException;
+import com.nicode.nursingapp.repositories.NursingControlRepository;
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+import com.nicode.nursingapp.repositories.PatientRepository;
+
+@SpringBootTest
+class ConditionalWriteTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientHistoryService historyService;
+
+    @Autowired
+    private NursingControlService controlService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientHistoryRepository historyRepository;
+
+    @Autowired
+    private NursingControlRepository controlRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void updatesAndDeletesWithOneStatementPerWrite() {
+        PatientEntity patient = newPatient("40777888");
+        Long patientId = patient.getId();
+        Long historyId = newHistory(patientId);
+        LocalDateTime date = LocalDateTime.of(2024, 5, 2, 10, 15);
+        controlService.save(control(date, 120, "Sin novedad"), historyId);
+        Long controlId = controlRepository.findByPatientHistoryEntityId(historyId).get(0).getId();
+
+        patient.setRoom(9);
+        assertThat(statements(() -> patientService.update(patient))).isEqualTo(1);
+        assertThat(patientRepository.findById(patientId).orElseThrow().getRoom()).isEqualTo(9);
+
+        PatientEntity changes = new PatientEntity();
+        changes.setBed(3);
+        assertThat(statements(() -> patientService.patch(patientId, changes))).isEqualTo(1);
+        changes.setLastName("Benítez");
+        assertThat(statements(() -> patientService.patch(patientId, changes))).isEqualTo(2);
+        PatientEntity patched = patientRepository.findById(patientId).orElseThrow();
+        assertThat(patched.getBed()).isEqualTo(3);
+        assertThat(patched.getLastName()).isEqualTo("Benítez");
+        assertThat(patched.getRoom()).isEqualTo(9);
+        assertThat(patientService.findBy(0, 10, "Benítez").getContent())
+                .extracting(PatientEntity::getId).containsExactly(patientId);
+
+        PatientHistoryEntity history = new PatientHistoryEntity();
+        history.setBloodType("0+");
+        assertThat(statements(() -> historyService.update(history, patientId))).isEqualTo(2);
+        PatientHistoryEntity historyChanges = new PatientHistoryEntity();
+        historyChanges.setWeight(71.5);
+        historyService.patch(historyChanges, patientId);
+        PatientHistoryEntity stored = historyRepository.findById(historyId).orElseThrow();
+        assertThat(stored.getBloodType()).isEqualTo("0+");
+        assertThat(stored.getWeight()).isEqualTo(71.5);
+
+        NursingControlEntity controlChanges = new NursingControlEntity();
+        controlChanges.setObservations("Refiere dolor");
+        assertThat(statements(() -> controlService.patch(controlId, controlChanges))).isEqualTo(2);
+        NursingControlEntity control = controlRepository.findById(controlId).orElseThrow();
+        assertThat(control.getObservations()).isEqualTo("Refiere dolor");
+        assertThat(control.getSystolic()).isEqualTo(120);
+        assertThat(control.getControlDate()).isEqualTo(date);
+
+        NursingControlEntity replacement = control(date.plusHours(2), 135, null);
+        replacement.setId(controlId);
+        assertThat(statements(() -> controlService.update(replacement, historyId))).isEqualTo(2);
+        control = controlRepository.findById(controlId).orElseThrow();
+        assertThat(control.getSystolic()).isEqualTo(135);
+        assertThat(control.getObservations()).isNull();
+
+        assertThatThrownBy(() -> controlService.update(replacement, -1L)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> controlService.patch(-1L, controlChanges)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> patientService.patch(-1L, changes)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> historyService.update(history, -1L)).isInstanceOf(NotFoundException.class);
+
+        assertThat(statements(() -> controlService.delete(controlId))).isEqualTo(2);
+        assertThat(controlRepository.existsById(controlId)).isFalse();
+        assertThatThrownBy(() -> controlService.delete(controlId)).isInstanceOf(NotFoundException.class);
+
+        controlService.save(control(date, 110, null), historyId);
+        assertThat(statements(() -> patientService.delete(patientId))).isEqualTo(1);
+        assertThat(patientRepository.existsById(patientId)).isFalse();
+        assertThat(historyRepository.existsById(historyId)).isFalse();
+        assertThat(controlRepository.findByPatientHistoryEntityId(historyId)).isEmpty();
+        assertThatThrownBy(() -> patientService.delete(patientId)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void deletesAHistoryWithItsControls() {
+        Long patientId = newPatient("40777999").getId();
+        Long historyId = newHistory(patientId);
+        controlService.save(control(LocalDateTime.of(2024, 5, 3, 9, 0), 125, null), historyId);
+
+        assertThat(statements(() -> historyService.delete(historyId))).isEqualTo(2);
+        assertThat(historyRepository.existsById(historyId)).isFalse();
+        assertThat(controlRepository.findByPatientHistoryEntityId(historyId)).isEmpty();
+        assertThat(patientRepository.existsById(patientId)).isTrue();
+        assertThatThrownBy(() -> historyService.delete(historyId)).isInstanceOf(NotFoundException.class);
+    }
+
+    /**
+     * Compara las escrituras condicionales con el patrón anterior (findById
+     * seguido de save o deleteById) en cantidad de sentencias y tiempo por
+     * operación. Se miden los repositorios, sin el mantenimiento de resúmenes e
+     * índices, que es igual en ambos casos.
+     *
+     * Ejecutar con: mvn test -Dtest=ConditionalWriteTest -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkConditionalWritesAgainstLoadThenSave() {
+        int operations = 2000;
+        Long historyId = newHistory(newPatient("40777000").getId());
+        LocalDateTime date = LocalDateTime.of(2024, 6, 1, 0, 0);
+        List<ControlBatchItemDto> items = new ArrayList<>();
+        for (int i = 0; i < 2 * operations; i++) {
+            items.add(new ControlBatchItemDto(historyId, control(date.plusMinutes(i), 120, "Sin novedad")));
+            if (items.size() == NursingControlService.MAX_BATCH_SIZE) {
+                controlService.saveAll(items);
+                items.clear();
+            }
+        }
+        Long[] ids = controlRepository.findByPatientHistoryEntityId(historyId).stream()
+                .map(NursingControlEntity::getId).toArray(Long[]::new);
+        TransactionTemplate transaction = new TransactionTemplate(this.transactionManager);
+
+        run("UPDATE findById + save", operations, i -> transaction.executeWithoutResult(status -> {
+            historyRepository.findById(historyId).orElseThrow();
+            controlRepository.findById(ids[i]).orElseThrow();
+            NursingControlEntity updates = control(date.plusMinutes(i), 130, "Control");
+            updates.setId(ids[i]);
+            updates.setPatientHistoryEntity(historyRepository.getReferenceById(historyId));
+            controlRepository.save(updates);
+        }));
+        run("UPDATE condicional", operations, i -> transaction.executeWithoutResult(status -> {
+            NursingControlEntity updates = control(date.plusMinutes(i), 140, "Control");
+            updates.setPatientHistoryEntity(historyRepository.getReferenceById(historyId));
+            controlRepository.replaceById(ids[i], updates);
+        }));
+        run("PATCH findById + cambio", operations, i -> transaction.executeWithoutResult(status -> {
+            controlRepository.findById(ids[i]).orElseThrow().setObservations("Parcial " + i);
+        }));
+        run("PATCH condicional", operations, i -> transaction.executeWithoutResult(status -> {
+            NursingControlEntity changes = new NursingControlEntity();
+            changes.setObservations("Parcial");
+            controlRepository.patchById(ids[i], changes);
+        }));
+        run("DELETE findById + deleteById", operations, i -> transaction.executeWithoutResult(status -> {
+            controlRepository.findById(ids[i]).orElseThrow();
+            controlRepository.deleteById(ids[i]);
+        }));
+        run("DELETE condicional", operations,
+                i -> transaction.executeWithoutResult(status -> controlRepository.deleteIfExists(ids[operations + i])));
+    }
+
+    private void run(String name, int operations, IntConsumer operation) {
+        long start = System.nanoTime();
+        int statements;
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            for (int i = 0; i < operations; i++) {
+                operation.accept(i);
+            }
+            statements = sql.count();
+        }
+        long micros = (System.nanoTime() - start) / 1_000;
+        System.out.printf("%-30s %6d us/op, %5.2f sentencias Hibernate/op%n", name, micros / operations,
+                (double) statements / operations);
+    }
+
+    private static int statements(Runnable write) {
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            write.run();
+            return sql.count();
+        }
+    }
+
+    private PatientEntity newPatient(String idNumber) {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Rosa");
+        patient.setLastName("Acosta");
+        patient.setIdNumber(idNumber);
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1958, 9, 12));
+        patient.setAdmissionDate(LocalDate.now());
+        patient.setRoom(5);
+        patient.setBed(2);
+        patient.setService("Clínica Médica");
+        return (PatientEntity) patientService.save(patient).get("patient");
+    }
+
+    private Long newHistory(Long patientId) {
+        historyService.save(new PatientHistoryEntity(), patientId);
+        return historyRepository.findIdByPatientId(patientId).orElseThrow();
+    }
+
+    private static NursingControlEntity control(LocalDateTime date, Integer systolic, String observations) {
+        NursingControlEntity control = new NursingControlEntity();
+        control.setControlDate(date);
+        control.setSystolic(systolic);
+        control.setDiastolic(80);
+        control.setObservations(observations);
+        return control;
+    }
+}
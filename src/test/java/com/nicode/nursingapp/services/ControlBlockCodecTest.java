@@ -0,0 +1,71 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.nicode.nursingapp.entities.dto.NursingControlDto;
+
+class ControlBlockCodecTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    @Test
+    void roundTripsEveryValueIncludingNullsAndRepeatedObservations() {
+        LocalDateTime morning = DAY.atTime(8, 0);
+        List<NursingControlDto> controls = List.of(
+                new NursingControlDto(9000L, 36.8, 120, 80, 72, 16, 97, "Sin novedad", morning.plusHours(4)),
+                new NursingControlDto(8990L, 38.25, 145, 95, 110, 24, 91, "Febril, se avisa a guardia", morning),
+                new NursingControlDto(9010L, null, null, null, 68, null, null, null,
+                        morning.plusHours(8).plusNanos(123_000)),
+                new NursingControlDto(9011L, 36.5, 118, 76, 70, 16, 98, "Sin novedad", morning.plusHours(8)
+                        .plusNanos(123_000)),
+                new NursingControlDto(9020L, 35.9, 100, 60, 55, 12, 99, "", DAY.atStartOfDay()));
+
+        byte[] block = ControlBlockCodec.encode(DAY, controls);
+
+        List<NursingControlDto> expected = new ArrayList<>(controls);
+        expected.sort(ControlBlockCodec.ORDER);
+        assertThat(ControlBlockCodec.decode(DAY, block)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void storesAFullDayOfControlsInAFewBytesEach() {
+        List<NursingControlDto> controls = new ArrayList<>();
+        for (int i = 0; i < 96; i++) {
+            controls.add(new NursingControlDto(1000L + i, 36.5 + (i % 3) / 10.0, 120 + i % 5, 80 - i % 4,
+                    70 + i % 6, 16, 97 + i % 2, i % 2 == 0 ? "Sin novedad" : "Descansa, sin dolor",
+                    DAY.atStartOfDay().plusMinutes(15L * i)));
+        }
+
+        byte[] block = ControlBlockCodec.encode(DAY, controls);
+
+        assertThat(ControlBlockCodec.decode(DAY, block)).containsExactlyElementsOf(controls);
+        assertThat(block.length).isLessThan(96 * 16);
+    }
+
+    @Test
+    void rejectsValuesItCannotKeepAndDamagedBlocks() {
+        NursingControlDto otherDay = new NursingControlDto(1L, 36.5, null, null, null, null, null, null,
+                DAY.plusDays(1).atStartOfDay());
+        assertThatThrownBy(() -> ControlBlockCodec.encode(DAY, List.of(otherDay)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        NursingControlDto precise = new NursingControlDto(1L, 36.555, null, null, null, null, null, null,
+                DAY.atTime(9, 0));
+        assertThatThrownBy(() -> ControlBlockCodec.encode(DAY, List.of(precise)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        byte[] block = ControlBlockCodec.encode(DAY, List.of(new NursingControlDto(1L, 36.5, 120, 80, 70, 16,
+                98, "Sin novedad", DAY.atTime(9, 0))));
+        assertThatThrownBy(() -> ControlBlockCodec.decode(DAY, Arrays.copyOf(block, block.length - 2)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
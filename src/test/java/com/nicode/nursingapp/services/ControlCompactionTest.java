@@ -0,0 +1,382 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.RollupGranularity;
+import com.nicode.nursingapp.entities.VitalSign;
+import com.nicode.nursingapp.entities.dto.ArchiveReportDto;
+import com.nicode.nursingapp.entities.dto.CompactionReportDto;
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
+import com.nicode.nursingapp.entities.dto.KeysetPageDto;
+import com.nicode.nursingapp.entities.dto.NursingControlDto;
+import com.nicode.nursingapp.exceptions.NotFoundException;
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+
+@SpringBootTest(properties = "controls.compaction.batch-size=1")
+class ControlCompactionTest {
+
+    private static final LocalDate CUTOFF = LocalDate.of(1995, 7, 1);
+
+    @Autowired
+    private ControlCompactionService compactionService;
+
+    @Autowired
+    private NursingControlService controlService;
+
+    @Autowired
+    private VitalSignRollupService rollupService;
+
+    @Autowired
+    private PatientArchiveService archiveService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientHistoryService historyService;
+
+    @Autowired
+    private PatientHistoryRepository historyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void servesPagesAndDateRangesFromBlocksExactlyAsFromRows() throws Exception {
+        Long historyId = newHistory(newPatient("41500001", null));
+        LocalDateTime first = LocalDateTime.of(1995, 6, 28, 5, 0);
+        for (int i = 0; i < 12; i++) {
+            controlService.save(control(first.plusHours(6L * i), i), historyId);
+        }
+        controlService.save(control(LocalDateTime.now().minusHours(2), 20), historyId);
+        controlService.save(control(LocalDateTime.now().minusHours(1), 21), historyId);
+
+        LocalDateTime rangeStart = LocalDateTime.of(1995, 6, 28, 12, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(1995, 6, 30, 6, 0);
+        List<String> pages = pages(historyId);
+        String range = json(controlService.getInDateRangeDesc(historyId, rangeStart, rangeEnd, 0, 20));
+        String tail = json(controlService.getInDateRangeDesc(historyId, rangeStart, LocalDateTime.now(), 1, 5));
+        String sameDay = json(controlService.getInDateRangeDesc(historyId, rangeStart, rangeStart.plusHours(6), 0, 5));
+
+        CompactionReportDto report = compactionService.compact(CUTOFF);
+        assertThat(report.getControls()).isEqualTo(12);
+        assertThat(report.getBlocks()).isEqualTo(3);
+        assertThat(report.getSavedBytes()).isPositive();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM nursing_controls WHERE patient_history_id = ?",
+                Long.class, historyId)).isEqualTo(2);
+
+        assertThat(pages(historyId)).isEqualTo(pages);
+        assertThat(json(controlService.getInDateRangeDesc(historyId, rangeStart, rangeEnd, 0, 20))).isEqualTo(range);
+        assertThat(json(controlService.getInDateRangeDesc(historyId, rangeStart, LocalDateTime.now(), 1, 5)))
+                .isEqualTo(tail);
+        assertThat(json(controlService.getInDateRangeDesc(historyId, rangeStart, rangeStart.plusHours(6), 0, 5)))
+                .isEqualTo(sameDay);
+        assertThat(rollupService.rebuild(historyId)).isEqualTo(14);
+
+        // Un control atrasado en un día compactado se lee junto con el bloque y
+        // se incorpora a él en la próxima compactación.
+        controlService.save(control(first.plusHours(1), 30), historyId);
+        List<String> withLateControl = pages(historyId);
+        assertThat(withLateControl).hasSize(4);
+        assertThat(compactionService.compact(CUTOFF).getBlocks()).isEqualTo(1);
+        assertThat(pages(historyId)).isEqualTo(withLateControl);
+    }
+
+    @Test
+    void servesEveryReadFromBlocksExactlyAsFromRows() throws Exception {
+        PatientEntity patient = newPatient("41500003", null);
+        Long historyId = newHistory(patient);
+        LocalDateTime first = LocalDateTime.of(1993, 3, 10, 5, 0);
+        for (int i = 0; i < 12; i++) {
+            controlService.save(control(first.plusHours(6L * i), i), historyId);
+        }
+        controlService.save(control(LocalDateTime.now().minusHours(2), 20), historyId);
+        controlService.save(control(LocalDateTime.now().minusHours(1), 21), historyId);
+
+        LocalDateTime rangeStart = first.minusDays(1);
+        LocalDateTime rangeEnd = first.plusDays(4);
+        LocalDateTime now = LocalDateTime.now();
+        String all = objectMapper.writeValueAsString(controlService.getAll(patient.getId()));
+        List<String> keyset = keysetPages(historyId);
+        String latest = objectMapper.writeValueAsString(historyService.findById(historyId, 5).getLatestControls());
+        String summary = objectMapper.writeValueAsString(
+                controlService.getVitalSignsSummary(historyId, rangeStart, rangeEnd));
+        String chart = objectMapper.writeValueAsString(
+                controlService.getVitalSignsChart(historyId, rangeStart, now, 8, null));
+        String search = objectMapper.writeValueAsString(
+                controlService.searchObservations("observacion", null, rangeStart, rangeEnd, 0, 20).getContent());
+
+        assertThat(compactionService.compact(CUTOFF).getControls()).isEqualTo(12);
+
+        assertThat(objectMapper.writeValueAsString(controlService.getAll(patient.getId()))).isEqualTo(all);
+        assertThat(keysetPages(historyId)).isEqualTo(keyset);
+        assertThat(objectMapper.writeValueAsString(historyService.findById(historyId, 5).getLatestControls()))
+                .isEqualTo(latest);
+        assertThat(objectMapper.writeValueAsString(
+                controlService.getVitalSignsSummary(historyId, rangeStart, rangeEnd))).isEqualTo(summary);
+        assertThat(objectMapper.writeValueAsString(
+                controlService.getVitalSignsChart(historyId, rangeStart, now, 8, null)))
+                .isEqualTo(chart);
+        assertThat(search).contains("Observación");
+        assertThat(objectMapper.writeValueAsString(
+                controlService.searchObservations("observacion", null, rangeStart, rangeEnd, 0, 20).getContent()))
+                .isEqualTo(search);
+
+        // El filtro de signos vitales anormales no lee bloques: rechaza los
+        // períodos que incluyen controles compactados.
+        assertThatThrownBy(() -> controlService.findAbnormalVitals(24 * 365 * 40, 100, null, null, null, 0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(controlService.findAbnormalVitals(24, 100, null, null, null, 0, 10)).isNotNull();
+    }
+
+    @Test
+    void pagesByKeyThroughUndatedControlsBeforeTheDatedOnes() throws Exception {
+        Long historyId = newHistory(newPatient("41500006", null));
+        LocalDateTime first = LocalDateTime.of(1990, 5, 3, 5, 0);
+        for (int i = 0; i < 4; i++) {
+            controlService.save(control(null, i), historyId);
+        }
+        for (int i = 0; i < 3; i++) {
+            controlService.save(control(first.plusHours(6L * i), i), historyId);
+        }
+        controlService.save(control(LocalDateTime.now().minusHours(1), 20), historyId);
+
+        List<String> keyset = keysetPages(historyId);
+        assertThat(keyset).hasSize(5);
+        List<Long> ids = jdbcTemplate.queryForList("SELECT nursing_control_id FROM nursing_controls "
+                + "WHERE patient_history_id = ? ORDER BY control_date, nursing_control_id", Long.class, historyId);
+        List<Long> paged = new ArrayList<>();
+        KeysetPageDto<NursingControlEntity> page = controlService.getKeysetPage(historyId, null, true, 3);
+        page.getContent().forEach(control -> paged.add(control.getId()));
+        while (page.getNextCursor() != null) {
+            page = controlService.getKeysetPage(historyId, page.getNextCursor(), true, 3);
+            page.getContent().forEach(control -> paged.add(control.getId()));
+        }
+        assertThat(paged).isEqualTo(ids);
+
+        assertThat(compactionService.compact(CUTOFF).getControls()).isEqualTo(3);
+        assertThat(keysetPages(historyId)).isEqualTo(keyset);
+    }
+
+    @Test
+    void restoresCompactedControlsToModifyThemAndKeepsTheLatestOne() {
+        PatientEntity patient = newPatient("41500004", null);
+        Long historyId = newHistory(patient);
+        LocalDateTime day = LocalDateTime.of(1992, 5, 10, 8, 0);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            NursingControlEntity control = control(day.plusHours(i < 3 ? 4L * i : 24), i);
+            controlService.save(control, historyId);
+            ids.add(control.getId());
+        }
+        compactionService.compact(CUTOFF);
+        assertThat(blocks(historyId)).isEqualTo(2);
+        assertThat(latestControlId(historyId)).isEqualTo(ids.get(3));
+
+        assertThat(controlService.findById(ids.get(1)).getControlDate()).isEqualTo(day.plusHours(4));
+        assertThatThrownBy(() -> controlService.findById(-1L)).isInstanceOf(NotFoundException.class);
+
+        NursingControlEntity changes = new NursingControlEntity();
+        changes.setSystolic(150);
+        controlService.patch(ids.get(1), changes);
+        assertThat(controlService.findById(ids.get(1)).getSystolic()).isEqualTo(150);
+        assertThat(blocks(historyId)).isEqualTo(1);
+        controlService.delete(ids.get(0));
+        assertThat(compactionService.compact(CUTOFF).getControls()).isEqualTo(2);
+
+        // El control más reciente estaba compactado: al eliminarlo, la copia
+        // pasa al más reciente de los que quedan, también compactado.
+        controlService.delete(ids.get(3));
+        assertThat(latestControlId(historyId)).isEqualTo(ids.get(2));
+        assertThat(controlService.getAll(patient.getId())).extracting(NursingControlDto::getId)
+                .containsExactly(ids.get(1), ids.get(2));
+        assertThat(controlService.getAll(patient.getId()).get(0).getSystolic()).isEqualTo(150);
+    }
+
+    @Test
+    void recomputesRollupsWithTheCompactedControlsOfTheDay() throws Exception {
+        Long historyId = newHistory(newPatient("41500005", null));
+        LocalDateTime hour = LocalDateTime.of(1991, 2, 3, 8, 0);
+        controlService.save(control(hour, 1), historyId);
+        controlService.save(control(hour.plusMinutes(30), 2), historyId);
+        controlService.save(control(hour.plusHours(5), 3), historyId);
+        compactionService.compact(CUTOFF);
+
+        // Un control movido a un día compactado recalcula sus intervalos.
+        NursingControlEntity moved = control(LocalDateTime.now().minusHours(1), 4);
+        controlService.save(moved, historyId);
+        moved.setControlDate(hour.plusMinutes(15));
+        controlService.update(moved, historyId);
+
+        String hourly = rollups(historyId, RollupGranularity.HOUR, hour);
+        String daily = rollups(historyId, RollupGranularity.DAY, hour);
+        assertThat(hourly).contains("\"sampleCount\":3");
+        rollupService.rebuild(historyId);
+        assertThat(rollups(historyId, RollupGranularity.HOUR, hour)).isEqualTo(hourly);
+        assertThat(rollups(historyId, RollupGranularity.DAY, hour)).isEqualTo(daily);
+    }
+
+    @Test
+    void archivesCompactedControlsWithTheirPatient() {
+        PatientEntity patient = newPatient("41500002", LocalDate.of(1995, 8, 1));
+        Long historyId = newHistory(patient);
+        controlService.save(control(LocalDateTime.of(1995, 6, 1, 8, 0), 1), historyId);
+        controlService.save(control(LocalDateTime.of(1995, 7, 20, 8, 0), 2), historyId);
+        compactionService.compact(CUTOFF);
+
+        ArchiveReportDto report = archiveService.archive(LocalDate.of(1995, 9, 1));
+        assertThat(report.getControls()).isEqualTo(2);
+        assertThat(archiveService.getControlsPaged(0, 10, historyId).getContent()).hasSize(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM nursing_control_blocks WHERE history_id = ?",
+                Long.class, historyId)).isZero();
+    }
+
+    /**
+     * Compara el tamaño y el tiempo de lectura de una página de controles como
+     * filas y como bloques, para una Historia Clínica con un año de controles
+     * cada cuatro horas.
+     *
+     * Ejecutar con: mvn test -Dtest=ControlCompactionTest -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkBlocksAgainstRows() {
+        Long historyId = newHistory(newPatient("41500100", null));
+        LocalDateTime start = LocalDateTime.of(1994, 1, 1, 0, 0);
+        List<ControlBatchItemDto> items = new ArrayList<>();
+        for (int i = 0; i < 6 * 365; i++) {
+            items.add(new ControlBatchItemDto(historyId, control(start.plusHours(4L * i), i)));
+            if (items.size() == NursingControlService.MAX_BATCH_SIZE) {
+                controlService.saveAll(items);
+                items.clear();
+            }
+        }
+        controlService.saveAll(items);
+
+        measure("Filas", historyId);
+        CompactionReportDto report = compactionService.compact(CUTOFF);
+        System.out.printf("%d controles: %d bytes como filas, %d como bloques (%.1f bytes/control)%n",
+                report.getControls(), report.getRowBytes(), report.getBlockBytes(),
+                (double) report.getBlockBytes() / report.getControls());
+        measure("Bloques", historyId);
+    }
+
+    private void measure(String name, Long historyId) {
+        int pages = 200;
+        // La primera vuelta solo calienta la JVM y las cachés de la base.
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < pages; i++) {
+                controlService.getAllPaged((i * 7) % 200, 10, historyId);
+            }
+            long page = (System.nanoTime() - start) / 1_000 / pages;
+            start = System.nanoTime();
+            for (int i = 0; i < pages; i++) {
+                LocalDateTime from = LocalDateTime.of(1994, 1, 1, 0, 0).plusDays(i);
+                controlService.getInDateRangeDesc(historyId, from, from.plusDays(7), 0, 50);
+            }
+            long week = (System.nanoTime() - start) / 1_000 / pages;
+            if (round == 1) {
+                System.out.printf("%-8s página: %6d us, semana: %6d us%n", name, page, week);
+            }
+        }
+    }
+
+    private String rollups(Long historyId, RollupGranularity granularity, LocalDateTime date) throws Exception {
+        return objectMapper.writeValueAsString(rollupService.find(historyId, granularity, VitalSign.SYSTOLIC,
+                date, date.plusHours(1)));
+    }
+
+    private Long blocks(Long historyId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM nursing_control_blocks WHERE history_id = ?",
+                Long.class, historyId);
+    }
+
+    private Long latestControlId(Long historyId) {
+        return jdbcTemplate.queryForObject("SELECT latest_control_id FROM patients_histories "
+                + "WHERE patient_history_id = ?", Long.class, historyId);
+    }
+
+    /**
+     * Recorre las páginas por clave hacia adelante y luego hacia atrás desde la
+     * última.
+     */
+    private List<String> keysetPages(Long historyId) throws Exception {
+        List<String> pages = new ArrayList<>();
+        KeysetPageDto<NursingControlEntity> page = controlService.getKeysetPage(historyId, null, true, 3);
+        pages.add(objectMapper.writeValueAsString(page));
+        while (page.getNextCursor() != null) {
+            page = controlService.getKeysetPage(historyId, page.getNextCursor(), true, 3);
+            pages.add(objectMapper.writeValueAsString(page));
+        }
+        while (page.getPreviousCursor() != null) {
+            page = controlService.getKeysetPage(historyId, page.getPreviousCursor(), false, 3);
+            pages.add(objectMapper.writeValueAsString(page));
+        }
+        return pages;
+    }
+
+    private List<String> pages(Long historyId) throws Exception {
+        List<String> pages = new ArrayList<>();
+        for (int page = 0; page * 4 < controlService.getAllPaged(0, 4, historyId).getTotalElements(); page++) {
+            pages.add(json(controlService.getAllPaged(page, 4, historyId)));
+        }
+        return pages;
+    }
+
+    private String json(Page<NursingControlEntity> page) throws Exception {
+        return page.getTotalElements() + " " + objectMapper.writeValueAsString(page.getContent());
+    }
+
+    private PatientEntity newPatient(String idNumber, LocalDate dischargeDate) {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Elena");
+        patient.setLastName("Compacta");
+        patient.setIdNumber(idNumber);
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1940, 9, 14));
+        patient.setAdmissionDate(LocalDate.of(1994, 1, 1));
+        patient.setMedicalDischargeDate(dischargeDate);
+        patient.setRoom(20);
+        patient.setBed(1);
+        patient.setService("Clínica Médica");
+        return (PatientEntity) patientService.save(patient).get("patient");
+    }
+
+    private Long newHistory(PatientEntity patient) {
+        historyService.save(new PatientHistoryEntity(), patient.getId());
+        return historyRepository.findIdByPatientId(patient.getId()).orElseThrow();
+    }
+
+    private static NursingControlEntity control(LocalDateTime date, int i) {
+        NursingControlEntity control = new NursingControlEntity();
+        control.setControlDate(date);
+        control.setTemperature(36.5 + (i % 5) / 10.0);
+        control.setSystolic(110 + i % 20);
+        control.setDiastolic(70 + i % 10);
+        control.setHeartRate(i % 3 == 0 ? null : 70 + i % 15);
+        control.setSpo2(96 + i % 4);
+        control.setObservations(i % 4 == 0 ? null : "Observación " + i % 3);
+        return control;
+    }
+}
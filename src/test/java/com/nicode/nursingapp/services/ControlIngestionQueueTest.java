@@ -0,0 +1,165 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ControlIngestionQueueTest {
+
+    @Test
+    void groupsReadingsIntoCommitsAndDrainsEverythingOnStop() {
+        NursingControlService service = mock(NursingControlService.class);
+        List<Integer> commits = new CopyOnWriteArrayList<>();
+        when(service.saveAvailable(anyList())).thenAnswer(invocation -> {
+            List<ControlBatchItemDto> batch = invocation.getArgument(0);
+            commits.add(batch.size());
+            return batch.size();
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ControlIngestionQueue queue = new ControlIngestionQueue(service, registry, 1000, 50, 200, 10);
+
+        queue.start();
+        for (int i = 0; i < 230; i++) {
+            assertThat(queue.offer(new NursingControlEntity(), 1L)).isTrue();
+        }
+        queue.stop();
+
+        assertThat(commits.stream().mapToInt(Integer::intValue).sum()).isEqualTo(230);
+        assertThat(commits).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(50));
+        assertThat(commits.size()).isLessThan(230);
+        assertThat(registry.get("controls.ingestion.batch.size").summary().totalAmount()).isEqualTo(230);
+        assertThatThrownBy(() -> queue.offer(new NursingControlEntity(), 1L))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsReadingsWhenTheQueueIsFull() throws InterruptedException {
+        NursingControlService service = mock(NursingControlService.class);
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(service.saveAvailable(anyList())).thenAnswer(invocation -> {
+            committing.countDown();
+            release.await();
+            return ((List<?>) invocation.getArgument(0)).size();
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ControlIngestionQueue queue = new ControlIngestionQueue(service, registry, 2, 1, 0, 10);
+
+        queue.start();
+        queue.offer(new NursingControlEntity(), 1L);
+        assertThat(committing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(queue.offer(new NursingControlEntity(), 1L)).isTrue();
+        assertThat(queue.offer(new NursingControlEntity(), 1L)).isTrue();
+        assertThat(queue.offer(new NursingControlEntity(), 1L)).isFalse();
+        assertThat(registry.get("controls.ingestion.rejected").counter().count()).isEqualTo(1);
+        assertThat(registry.get("controls.ingestion.queue.depth").gauge().value()).isEqualTo(2);
+
+        release.countDown();
+        queue.stop();
+        assertThat(queue.depth()).isZero();
+    }
+
+    @Test
+    void retriesTransientErrorsAndDiscardsOnlyTheReadingsThatFail() {
+        NursingControlService service = mock(NursingControlService.class);
+        List<String> saved = new CopyOnWriteArrayList<>();
+        CountDownLatch timeouts = new CountDownLatch(1);
+        when(service.saveAvailable(anyList())).thenAnswer(invocation -> {
+            List<ControlBatchItemDto> batch = invocation.getArgument(0);
+            if (timeouts.getCount() > 0) {
+                timeouts.countDown();
+                throw new QueryTimeoutException("timeout");
+            }
+            if (batch.stream().anyMatch(item -> "falla".equals(item.getControl().getObservations()))) {
+                throw new DataIntegrityViolationException("falla");
+            }
+            batch.forEach(item -> saved.add(item.getControl().getObservations()));
+            return batch.size();
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ControlIngestionQueue queue = new ControlIngestionQueue(service, registry, 100, 50, 200, 10);
+
+        queue.start();
+        for (String observations : List.of("a", "b", "falla", "c", "d", "e", "f")) {
+            NursingControlEntity control = new NursingControlEntity();
+            control.setObservations(observations);
+            assertThat(queue.offer(control, 1L)).isTrue();
+        }
+        queue.stop();
+
+        assertThat(saved).containsExactlyInAnyOrder("a", "b", "c", "d", "e", "f");
+        assertThat(registry.get("controls.ingestion.discarded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsRetryingWhileTheDatabaseIsDownAndRejectsOnceTheQueueIsFull() throws InterruptedException {
+        NursingControlService service = mock(NursingControlService.class);
+        CountDownLatch outage = new CountDownLatch(1);
+        CountDownLatch attempted = new CountDownLatch(1);
+        List<String> saved = new CopyOnWriteArrayList<>();
+        when(service.saveAvailable(anyList())).thenAnswer(invocation -> {
+            List<ControlBatchItemDto> batch = invocation.getArgument(0);
+            if (outage.getCount() > 0) {
+                attempted.countDown();
+                throw new CannotGetJdbcConnectionException("sin conexión");
+            }
+            batch.forEach(item -> saved.add(item.getControl().getObservations()));
+            return batch.size();
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ControlIngestionQueue queue = new ControlIngestionQueue(service, registry, 2, 1, 0, 10);
+
+        queue.start();
+        for (String observations : List.of("a", "b", "c")) {
+            NursingControlEntity control = new NursingControlEntity();
+            control.setObservations(observations);
+            assertThat(queue.offer(control, 1L)).isTrue();
+            assertThat(attempted.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(queue.offer(new NursingControlEntity(), 1L)).isFalse();
+        assertThat(registry.get("controls.ingestion.rejected").counter().count()).isEqualTo(1);
+
+        outage.countDown();
+        queue.stop();
+
+        assertThat(saved).containsExactly("a", "b", "c");
+        assertThat(registry.get("controls.ingestion.discarded").counter().count()).isZero();
+    }
+
+    @Test
+    void rejectsReadingsThatCannotBeSaved() {
+        ControlIngestionQueue queue = new ControlIngestionQueue(mock(NursingControlService.class),
+                new SimpleMeterRegistry(), 10, 1, 0, 10);
+        queue.start();
+
+        NursingControlEntity longObservations = new NursingControlEntity();
+        longObservations.setObservations("x".repeat(251));
+        NursingControlEntity hotTemperature = new NursingControlEntity();
+        hotTemperature.setTemperature(100.0);
+
+        assertThatThrownBy(() -> queue.offer(longObservations, 1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> queue.offer(hotTemperature, 1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> queue.offer(new NursingControlEntity(), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(queue.depth()).isZero();
+        queue.stop();
+    }
+}
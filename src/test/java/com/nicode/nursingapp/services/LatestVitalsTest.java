@@ -0,0 +1,174 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.nicode.nursingapp.config.LatestVitalsBackfill;
+import com.nicode.nursingapp.config.SqlStatementCounter;
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
+import com.nicode.nursingapp.entities.dto.WardPatientDto;
+import com.nicode.nursingapp.repositories.NursingControlRepository;
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+
+@SpringBootTest
+class LatestVitalsTest {
+
+    private static final String SERVICE = "Unidad Coronaria";
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientHistoryService historyService;
+
+    @Autowired
+    private NursingControlService controlService;
+
+    @Autowired
+    private PatientHistoryRepository historyRepository;
+
+    @Autowired
+    private NursingControlRepository controlRepository;
+
+    @Autowired
+    private LatestVitalsBackfill backfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void keepsTheLatestControlOfEachHistory() {
+        PatientEntity patient = newPatient("41200001", 1);
+        Long historyId = newHistory(patient.getId());
+        LocalDateTime noon = LocalDateTime.of(2024, 7, 1, 12, 0);
+
+        controlService.save(control(noon, 37.5, 130), historyId);
+        controlService.save(control(noon.minusHours(4), 36.5, 110), historyId);
+        assertThat(ward(patient).getSystolic()).isEqualTo(130);
+        assertThat(ward(patient).getLatestControlDate()).isEqualTo(noon);
+
+        controlService.saveAll(List.of(new ControlBatchItemDto(historyId, control(noon.plusHours(2), 38.1, 145)),
+                new ControlBatchItemDto(historyId, control(noon.plusHours(1), 37.0, 125))));
+        WardPatientDto latest = ward(patient);
+        assertThat(latest.getTemperature()).isEqualTo(38.1);
+        assertThat(latest.getBloodPressure()).isEqualTo("145/80");
+        Long latestId = latest.getLatestControlId();
+
+        NursingControlEntity changes = new NursingControlEntity();
+        changes.setSystolic(150);
+        controlService.patch(latestId, changes);
+        assertThat(ward(patient).getSystolic()).isEqualTo(150);
+
+        changes = new NursingControlEntity();
+        changes.setControlDate(noon.minusDays(1));
+        controlService.patch(latestId, changes);
+        assertThat(ward(patient).getSystolic()).isEqualTo(125);
+
+        Long oldestId = controlRepository.findByPatientHistoryEntityId(historyId).stream()
+                .filter(control -> control.getControlDate().equals(noon.minusHours(4))).findFirst()
+                .orElseThrow().getId();
+        NursingControlEntity moved = control(noon.plusHours(5), 36.9, 118);
+        moved.setId(oldestId);
+        controlService.update(moved, historyId);
+        assertThat(ward(patient).getLatestControlId()).isEqualTo(oldestId);
+
+        controlService.delete(oldestId);
+        assertThat(ward(patient).getSystolic()).isEqualTo(125);
+    }
+
+    @Test
+    void listsTheWardWithASingleStatement() {
+        PatientEntity first = newPatient("41200002", 2);
+        PatientEntity second = newPatient("41200003", 3);
+        controlService.save(control(LocalDateTime.of(2024, 7, 2, 8, 0), 36.8, 120), newHistory(first.getId()));
+
+        List<WardPatientDto> ward;
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            ward = patientService.getWard(SERVICE);
+            assertThat(sql.count()).isEqualTo(1);
+        }
+        assertThat(ward).extracting(WardPatientDto::getPatientId).containsSubsequence(first.getId(), second.getId());
+        WardPatientDto withoutControls = ward.stream()
+                .filter(patient -> patient.getPatientId().equals(second.getId())).findFirst().orElseThrow();
+        assertThat(withoutControls.getHistoryId()).isNull();
+        assertThat(withoutControls.getLatestControlId()).isNull();
+    }
+
+    @Test
+    void backfillsHistoriesWithoutSnapshot() {
+        PatientEntity patient = newPatient("41200004", 4);
+        Long historyId = newHistory(patient.getId());
+        controlService.save(control(LocalDateTime.of(2024, 7, 3, 9, 0), 37.2, 135), historyId);
+        jdbcTemplate.update("UPDATE patients_histories SET latest_control_id = NULL, latest_control_date = NULL, "
+                + "latest_systolic = NULL WHERE patient_history_id = ?", historyId);
+        assertThat(ward(patient).getSystolic()).isNull();
+
+        assertThat(backfill.backfill()).isGreaterThanOrEqualTo(1);
+        assertThat(ward(patient).getSystolic()).isEqualTo(135);
+        assertThat(ward(patient).getTemperature()).isEqualTo(37.2);
+    }
+
+    @Test
+    void refreshesHistoriesWhoseLatestControlWasDropped() {
+        PatientEntity dropped = newPatient("41200005", 5);
+        PatientEntity kept = newPatient("41200006", 6);
+        Long droppedHistoryId = newHistory(dropped.getId());
+        Long keptHistoryId = newHistory(kept.getId());
+        controlService.save(control(LocalDateTime.of(1990, 1, 10, 8, 0), 36.6, 115), droppedHistoryId);
+        controlService.save(control(LocalDateTime.of(1990, 1, 20, 8, 0), 36.7, 117), keptHistoryId);
+        controlService.save(control(LocalDateTime.of(1990, 2, 5, 8, 0), 36.9, 121), keptHistoryId);
+
+        LocalDateTime bound = LocalDateTime.of(1990, 2, 1, 0, 0);
+        jdbcTemplate.update("DELETE FROM nursing_controls WHERE control_date < ?", bound);
+        assertThat(historyRepository.refreshLatestVitalsBefore(bound)).isEqualTo(1);
+
+        assertThat(ward(dropped).getLatestControlId()).isNull();
+        assertThat(ward(dropped).getSystolic()).isNull();
+        assertThat(ward(kept).getSystolic()).isEqualTo(121);
+    }
+
+    private WardPatientDto ward(PatientEntity patient) {
+        return patientService.getWard(SERVICE).stream()
+                .filter(row -> row.getPatientId().equals(patient.getId())).findFirst().orElseThrow();
+    }
+
+    private PatientEntity newPatient(String idNumber, int bed) {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Olga");
+        patient.setLastName("Medina");
+        patient.setIdNumber(idNumber);
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1945, 11, 30));
+        patient.setAdmissionDate(LocalDate.now());
+        patient.setRoom(12);
+        patient.setBed(bed);
+        patient.setService(SERVICE);
+        return (PatientEntity) patientService.save(patient).get("patient");
+    }
+
+    private Long newHistory(Long patientId) {
+        historyService.save(new PatientHistoryEntity(), patientId);
+        return historyRepository.findIdByPatientId(patientId).orElseThrow();
+    }
+
+    private static NursingControlEntity control(LocalDateTime date, double temperature, int systolic) {
+        NursingControlEntity control = new NursingControlEntity();
+        control.setControlDate(date);
+        control.setTemperature(temperature);
+        control.setSystolic(systolic);
+        control.setDiastolic(80);
+        control.setHeartRate(72);
+        return control;
+    }
+}
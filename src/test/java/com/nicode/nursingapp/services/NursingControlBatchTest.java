@@ -0,0 +1,115 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.nicode.nursingapp.config.ControlIdGeneratorInitializer;
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
+import com.nicode.nursingapp.exceptions.NotFoundException;
+import com.nicode.nursingapp.repositories.NursingControlRepository;
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class NursingControlBatchTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientHistoryService historyService;
+
+    @Autowired
+    private NursingControlService controlService;
+
+    @Autowired
+    private PatientHistoryRepository historyRepository;
+
+    @Autowired
+    private NursingControlRepository controlRepository;
+
+    @Autowired
+    private ControlIdGeneratorInitializer idGeneratorInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void saveAllInsertsInJdbcBatchesAfterExistingIdentityIds() {
+        Long historyId = newHistory("40111222");
+
+        // Control cargado con AUTO_INCREMENT antes de la migración.
+        jdbcTemplate.update("INSERT INTO nursing_controls (nursing_control_id, patient_history_id, temperature) "
+                + "VALUES (100000, ?, 36.5)", historyId);
+        idGeneratorInitializer.afterPropertiesSet();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        controlService.saveAll(round(historyId, 40));
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(40);
+        // Una consulta para validar las historias y un único INSERT en lotes.
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(controlRepository.findByPatientHistoryEntityId(historyId))
+                .hasSize(41)
+                .allSatisfy(control -> assertThat(control.getId()).isGreaterThanOrEqualTo(100000L));
+    }
+
+    @Test
+    void saveAllRejectsTheWholeRoundWhenAHistoryDoesNotExist() {
+        Long historyId = newHistory("40111333");
+        List<ControlBatchItemDto> items = round(historyId, 3);
+        items.add(new ControlBatchItemDto(-1L, new NursingControlEntity()));
+
+        assertThatThrownBy(() -> controlService.saveAll(items)).isInstanceOf(NotFoundException.class);
+        assertThat(controlRepository.findByPatientHistoryEntityId(historyId)).isEmpty();
+    }
+
+    private Long newHistory(String idNumber) {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Ana");
+        patient.setLastName("González");
+        patient.setIdNumber(idNumber);
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 1));
+        patient.setAdmissionDate(LocalDate.now());
+        patient.setRoom(1);
+        patient.setBed(1);
+        patient.setService("Clínica Médica");
+        PatientEntity saved = (PatientEntity) patientService.save(patient).get("patient");
+
+        historyService.save(new PatientHistoryEntity(), saved.getId());
+        return historyRepository.getPatientHistoryEntityByPatientId(saved.getId()).orElseThrow().getId();
+    }
+
+    private static List<ControlBatchItemDto> round(Long historyId, int controls) {
+        List<ControlBatchItemDto> items = new ArrayList<>();
+        for (int i = 0; i < controls; i++) {
+            NursingControlEntity control = new NursingControlEntity();
+            control.setTemperature(36.5);
+            control.setControlDate(LocalDateTime.now().minusMinutes(i));
+            items.add(new ControlBatchItemDto(historyId, control));
+        }
+        return items;
+    }
+}
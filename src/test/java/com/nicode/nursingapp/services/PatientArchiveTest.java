@@ -0,0 +1,120 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.nicode.nursingapp.entities.ArchivedNursingControlEntity;
+import com.nicode.nursingapp.entities.ArchivedPatientEntity;
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.dto.ArchiveReportDto;
+import com.nicode.nursingapp.exceptions.NotFoundException;
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+
+@SpringBootTest(properties = "patients.archive.batch-size=1")
+@AutoConfigureMockMvc
+class PatientArchiveTest {
+
+    private static final LocalDate CUTOFF = LocalDate.of(1990, 2, 1);
+
+    @Autowired
+    private PatientArchiveService archiveService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientHistoryService historyService;
+
+    @Autowired
+    private NursingControlService controlService;
+
+    @Autowired
+    private PatientHistoryRepository historyRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void movesDischargedPatientsWithTheirHistoriesAndControls() throws Exception {
+        PatientEntity discharged = newPatient("41400001", LocalDate.of(1990, 1, 10));
+        PatientEntity withoutHistory = newPatient("41400002", LocalDate.of(1990, 1, 15));
+        PatientEntity admitted = newPatient("41400003", null);
+        PatientEntity recent = newPatient("41400004", CUTOFF);
+
+        historyService.save(new PatientHistoryEntity(), discharged.getId());
+        Long historyId = historyRepository.findIdByPatientId(discharged.getId()).orElseThrow();
+        LocalDateTime morning = LocalDateTime.of(1990, 1, 9, 8, 0);
+        controlService.save(control(morning.plusHours(8)), historyId);
+        controlService.save(control(morning), historyId);
+        controlService.save(control(morning.plusHours(4)), historyId);
+
+        ArchiveReportDto report = archiveService.archive(CUTOFF);
+        assertThat(report.getPatients()).isEqualTo(2);
+        assertThat(report.getHistories()).isEqualTo(1);
+        assertThat(report.getControls()).isEqualTo(3);
+        assertThat(report.getChunks()).isEqualTo(2);
+        assertThat(archiveService.archive(CUTOFF).getPatients()).isZero();
+
+        assertThatThrownBy(() -> patientService.findById(discharged.getId())).isInstanceOf(NotFoundException.class);
+        assertThat(patientService.findBy(0, 10, "Archivable").getContent()).extracting(PatientEntity::getId)
+                .containsExactlyInAnyOrder(admitted.getId(), recent.getId());
+        assertThat(controlService.getAllPaged(0, 10, historyId).getTotalElements()).isZero();
+
+        ArchivedPatientEntity archived = archiveService.findById(discharged.getId());
+        assertThat(archived.getIdNumber()).isEqualTo("41400001");
+        assertThat(archived.getArchivedAt()).isNotNull();
+        assertThat(archived.getPatientHistory().getId()).isEqualTo(historyId);
+        assertThat(archiveService.getControlsPaged(0, 10, historyId).getContent())
+                .extracting(ArchivedNursingControlEntity::getControlDate)
+                .containsExactly(morning, morning.plusHours(4), morning.plusHours(8));
+        assertThat(archiveService.findBy(0, 10, "41400002").getContent()).extracting(ArchivedPatientEntity::getId)
+                .containsExactly(withoutHistory.getId());
+
+        mockMvc.perform(get("/patients/patient/{id}", discharged.getId())).andExpect(status().isNotFound());
+        mockMvc.perform(get("/patients/patient/{id}", discharged.getId()).param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patientHistory.id").value(historyId));
+        mockMvc.perform(get("/controls/{id}", historyId).param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[0].bloodPressure").value("120/80"));
+    }
+
+    private PatientEntity newPatient(String idNumber, LocalDate dischargeDate) {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Rosa");
+        patient.setLastName("Archivable");
+        patient.setIdNumber(idNumber);
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1930, 3, 8));
+        patient.setAdmissionDate(LocalDate.of(1990, 1, 2));
+        patient.setMedicalDischargeDate(dischargeDate);
+        patient.setRoom(12);
+        patient.setBed(1);
+        patient.setService("Geriatría");
+        return (PatientEntity) patientService.save(patient).get("patient");
+    }
+
+    private static NursingControlEntity control(LocalDateTime date) {
+        NursingControlEntity control = new NursingControlEntity();
+        control.setControlDate(date);
+        control.setTemperature(36.8);
+        control.setBloodPressure("120/80");
+        control.setObservations("Sin novedad");
+        return control;
+    }
+}
@@ -0,0 +1,88 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+class PatientCacheTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientHistoryService historyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void servesRepeatedReadsFromCacheAndInvalidatesOnWrites() {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Lucía");
+        patient.setLastName("Fernández");
+        patient.setIdNumber("40444555");
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1980, 7, 9));
+        patient.setAdmissionDate(LocalDate.now());
+        patient.setRoom(7);
+        patient.setBed(1);
+        patient.setService("Traumatología");
+        Long id = ((PatientEntity) patientService.save(patient).get("patient")).getId();
+
+        double hits = gets("patients", "hit");
+        PatientEntity first = patientService.findById(id);
+        assertThat(patientService.findById(id)).isSameAs(first);
+        assertThat(gets("patients", "hit")).isEqualTo(hits + 1);
+
+        PatientEntity updates = patientService.findById(id);
+        PatientEntity changed = new PatientEntity();
+        changed.setId(id);
+        changed.setFirstName(updates.getFirstName());
+        changed.setLastName(updates.getLastName());
+        changed.setIdNumber(updates.getIdNumber());
+        changed.setPhoneNumber(updates.getPhoneNumber());
+        changed.setDateOfBirth(updates.getDateOfBirth());
+        changed.setAdmissionDate(updates.getAdmissionDate());
+        changed.setRoom(8);
+        changed.setBed(updates.getBed());
+        changed.setService(updates.getService());
+        patientService.update(changed);
+        assertThat(patientService.findById(id).getRoom()).isEqualTo(8);
+
+        PatientHistoryEntity history = new PatientHistoryEntity();
+        history.setObservations("Ingreso por fractura de cadera");
+        historyService.save(history, id);
+        assertThat(patientService.findById(id).getPatientHistory()).isNotNull();
+        Long historyId = historyService.findByPatientId(id).getId();
+        assertThat(historyService.findByPatientId(id)).isSameAs(historyService.findByPatientId(id));
+        double historyHits = gets("historiesByPatient", "hit");
+        assertThat(historyService.findByPatientId(id, 5).getHistory().getId()).isEqualTo(historyId);
+        assertThat(gets("historiesByPatient", "hit")).isEqualTo(historyHits + 1);
+
+        PatientHistoryEntity historyUpdates = new PatientHistoryEntity();
+        historyUpdates.setId(historyId);
+        historyUpdates.setObservations("Postoperatorio sin complicaciones");
+        historyService.update(historyUpdates, id);
+        assertThat(historyService.findByPatientId(id).getObservations())
+                .isEqualTo("Postoperatorio sin complicaciones");
+        assertThat(patientService.findById(id).getPatientHistory().getObservations())
+                .isEqualTo("Postoperatorio sin complicaciones");
+
+        historyService.delete(historyId);
+        assertThat(patientService.findById(id).getPatientHistory()).isNull();
+    }
+
+    private double gets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+}
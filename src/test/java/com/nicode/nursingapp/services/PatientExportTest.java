@@ -0,0 +1,117 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nicode.nursingapp.config.SqlStatementCounter;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.services.PatientExportService.ExportFormat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PatientExportTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientHistoryService historyService;
+
+    @Autowired
+    private PatientExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void exportsEveryPatientWithASingleStatement() throws Exception {
+        PatientEntity patient = patient("41000001", "Calle 12, \"B\"");
+        historyService.save(new PatientHistoryEntity(), patient.getId());
+        patient("41000002", null);
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            long exported = exportService.export(ExportFormat.NDJSON, ndjson);
+            assertThat(exported).isGreaterThanOrEqualTo(2);
+            assertThat(sql.count()).isEqualTo(1);
+        }
+        List<JsonNode> rows = ndjson.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> readTree(line))
+                .filter(row -> List.of("41000001", "41000002").contains(row.get("idNumber").asText()))
+                .toList();
+        assertThat(rows).extracting(row -> row.get("idNumber").asText()).containsExactly("41000001", "41000002");
+        assertThat(rows.get(0).get("address").asText()).isEqualTo("Calle 12, \"B\"");
+        assertThat(rows.get(0).get("dateOfBirth").asText()).isEqualTo("1955-03-08");
+        assertThat(rows.get(0).has("patientHistory")).isFalse();
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportService.export(ExportFormat.CSV, csv);
+        List<String> lines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines.get(0)).startsWith("id,firstName,lastName,idNumber,");
+        assertThat(lines).filteredOn(line -> line.contains(",41000001,")).singleElement()
+                .asString().endsWith(",\"Calle 12, \"\"B\"\"\"," + LocalDate.now() + ",3,1,Clínica Médica,");
+    }
+
+    @Test
+    void streamsTheExportThroughTheController() throws Exception {
+        patient("41000003", null);
+
+        MvcResult started = mockMvc.perform(get("/patients/export").param("format", "csv"))
+                .andExpect(request().asyncStarted()).andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(Arrays.stream(body.split("\n"))).anyMatch(line -> line.contains(",41000003,"));
+
+        MvcResult rejected = mockMvc.perform(get("/patients/export").param("format", "xml"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(rejected)).andExpect(status().isBadRequest());
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private PatientEntity patient(String idNumber, String address) {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Marta");
+        patient.setLastName("Quiroga");
+        patient.setIdNumber(idNumber);
+        patient.setPhoneNumber("1");
+        patient.setAddress(address);
+        patient.setDateOfBirth(LocalDate.of(1955, 3, 8));
+        patient.setAdmissionDate(LocalDate.now());
+        patient.setRoom(3);
+        patient.setBed(1);
+        patient.setService("Clínica Médica");
+        return (PatientEntity) patientService.save(patient).get("patient");
+    }
+}
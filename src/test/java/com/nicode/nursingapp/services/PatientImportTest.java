@@ -0,0 +1,146 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.dto.ImportRowErrorDto;
+import com.nicode.nursingapp.entities.dto.PatientImportReportDto;
+import com.nicode.nursingapp.repositories.PatientRepository;
+import com.nicode.nursingapp.search.BedOccupancyIndex;
+import com.nicode.nursingapp.search.IdNumberFilter;
+import com.nicode.nursingapp.search.ObservationSearchIndex;
+import com.nicode.nursingapp.search.PatientSearchIndex;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = { "patients.import.chunk-size=2", "patients.import.batch-size=2" })
+class PatientImportTest {
+
+    @Autowired
+    private PatientImportService importService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PatientSearchIndex searchIndex;
+
+    @Autowired
+    private ObservationSearchIndex observationIndex;
+
+    @Autowired
+    private IdNumberFilter idNumberFilter;
+
+    @Autowired
+    private BedOccupancyIndex bedOccupancy;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void importsValidRowsAndReportsTheRest() {
+        PatientEntity registered = new PatientEntity();
+        registered.setFirstName("Inés");
+        registered.setLastName("Paz");
+        registered.setIdNumber("41100009");
+        registered.setPhoneNumber("1");
+        registered.setDateOfBirth(LocalDate.of(1950, 1, 1));
+        registered.setAdmissionDate(LocalDate.now());
+        registered.setRoom(1);
+        registered.setBed(1);
+        registered.setService("Cirugía");
+        patientService.save(registered);
+
+        String csv = "\uFEFFid,idNumber,firstName,lastName,phoneNumber,dateOfBirth,admissionDate,room,bed,"
+                + "service,address\n"
+                + "7,41100001,Lucía,Ferreyra,111,1948-05-02,2024-06-01,4,1,Clínica Médica,\n"
+                + ",41100002,Raúl,Ferreyra,222,1951-07-09,2024-06-01,4,2,Clínica Médica,\"Av. Sur 10,\n2° B\"\r\n"
+                + ",41100001,Lucía,Ferreyra,111,1948-05-02,2024-06-01,4,1,Clínica Médica,\n"
+                + ",41100003,Ana,Ríos,333,09/07/1951,2024-06-01,5,1,Cirugía,\n"
+                + ",41100004,Ana,Ríos,333,1951-07-09,2024-06-01,5,1,,\n"
+                + ",41100009,Inés,Paz,1,1950-01-01,2024-06-01,1,1,Cirugía,\n"
+                + ",41100005,Hugo,Ledesma,555,1960-10-10,2024-06-02,6,1,Cirugía,\n";
+
+        PatientImportReportDto report = importService.importCsv(stream(csv));
+
+        assertThat(report.getRows()).isEqualTo(7);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getDuplicates()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(2);
+        assertThat(report.getRowsPerSecond()).isPositive();
+        assertThat(report.getErrors()).extracting(ImportRowErrorDto::getLine).containsExactlyInAnyOrder(5, 6, 7, 8);
+        assertThat(report.getErrors()).filteredOn(error -> error.getLine() == 6).singleElement()
+                .extracting(ImportRowErrorDto::getMessage).asString().contains("dateOfBirth");
+
+        assertThat(patientRepository.findExistingIdNumbers(List.of("41100001", "41100002", "41100005")))
+                .hasSize(3);
+        assertThat(patientService.isRegistered("41100005")).isTrue();
+        assertThat(patientService.findBy(0, 10, "Ledesma").getContent())
+                .extracting(PatientEntity::getIdNumber).containsExactly("41100005");
+        assertThat(patientRepository.findIndexDocumentsByIdNumbers(List.of("41100002"))).hasSize(1);
+        assertThat(patientService.getAll()).filteredOn(patient -> "41100002".equals(patient.getIdNumber()))
+                .singleElement().extracting(PatientEntity::getAddress).isEqualTo("Av. Sur 10,\n2° B");
+    }
+
+    @Test
+    void rejectsAFileWithoutTheRequiredColumns() {
+        assertThatThrownBy(() -> importService.importCsv(stream("idNumber,firstName\n41100010,Eva\n")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("lastName");
+        assertThatThrownBy(() -> importService.importCsv(stream(""))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Mide el rendimiento de la importación con los tamaños de bloque y de lote
+     * por defecto.
+     *
+     * Ejecutar con: mvn test -Dtest=PatientImportTest -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkImport() {
+        int rows = 100_000;
+        PatientImportService service = new PatientImportService(jdbcTemplate, transactionManager, patientRepository,
+                searchIndex, observationIndex, idNumberFilter, bedOccupancy, entityManagerFactory, 1000, 500);
+        InputStream header = stream(
+                "idNumber,firstName,lastName,phoneNumber,dateOfBirth,admissionDate,room,bed,service\n");
+        InputStream body = new SequenceInputStream(Collections.enumeration(IntStream.range(0, rows)
+                .mapToObj(i -> stream((50_000_000 + i) + ",Nombre,Apellido,1,1950-01-01,2024-01-01,1,1,Cirugía\n"))
+                .toList()));
+
+        PatientImportReportDto report = service.importCsv(new SequenceInputStream(header, body));
+
+        assertThat(report.getImported()).isEqualTo(rows);
+        System.out.printf("Importación de %d pacientes: %d ms, %.0f filas/s%n", rows, report.getElapsedMillis(),
+                report.getRowsPerSecond());
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,120 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.nicode.nursingapp.config.SqlStatementCounter;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.exceptions.AlreadyExistsException;
+import com.nicode.nursingapp.repositories.PatientRepository;
+
+@SpringBootTest
+class PatientRegistrationTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void registersEachIdNumberOnceUnderConcurrentAdmissions() throws Exception {
+        int admissions = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(admissions);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < admissions; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        patientService.save(patient("40888999"));
+                        return true;
+                    } catch (AlreadyExistsException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int registered = 0;
+            for (Future<Boolean> result : results) {
+                registered += result.get() ? 1 : 0;
+            }
+            assertThat(registered).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(patientRepository.findExistingIdNumbers(List.of("40888999"))).hasSize(1);
+    }
+
+    @Test
+    void registersWithASingleInsert() {
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            patientService.save(patient("40888001"));
+            assertThat(sql.count()).isEqualTo(1);
+        }
+        assertThatThrownBy(() -> patientService.save(patient("40888001")))
+                .isInstanceOf(AlreadyExistsException.class).hasMessageContaining("40888001");
+    }
+
+    @Test
+    void registersAllPatientsOrNone() {
+        patientService.saveAll(List.of(patient("40888101"), patient("40888102")));
+        assertThat(patientRepository.findExistingIdNumbers(List.of("40888101", "40888102"))).hasSize(2);
+
+        assertThatThrownBy(() -> patientService.saveAll(List.of(patient("40888103"), patient("40888101"))))
+                .isInstanceOf(AlreadyExistsException.class).hasMessageContaining("40888101");
+        assertThatThrownBy(() -> patientService.saveAll(List.of(patient("40888104"), patient("40888104"))))
+                .isInstanceOf(AlreadyExistsException.class).hasMessageContaining("40888104");
+        assertThat(patientRepository.findExistingIdNumbers(List.of("40888103", "40888104"))).isEmpty();
+
+        assertThatThrownBy(() -> patientService.saveAll(List.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void answersUnregisteredIdNumbersWithoutQueryingTheDatabase() {
+        patientService.save(patient("40999101"));
+
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            assertThat(patientService.isRegistered("40999199")).isFalse();
+            assertThat(sql.count()).isZero();
+        }
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            assertThat(patientService.isRegistered("40999101")).isTrue();
+            assertThat(sql.count()).isEqualTo(1);
+        }
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            patientService.saveAll(List.of(patient("40999102"), patient("40999103")));
+            assertThat(sql.statements().keySet()).noneMatch(statement -> statement.toLowerCase().startsWith("select"));
+        }
+        assertThat(patientService.isRegistered("40999103")).isTrue();
+        assertThat(patientService.idNumberFilterReport().isReady()).isTrue();
+    }
+
+    private static PatientEntity patient(String idNumber) {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Elena");
+        patient.setLastName("Sosa");
+        patient.setIdNumber(idNumber);
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1949, 2, 14));
+        patient.setAdmissionDate(LocalDate.now());
+        patient.setRoom(7);
+        patient.setBed(1);
+        patient.setService("Clínica Médica");
+        return patient;
+    }
+}
@@ -0,0 +1,54 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.nicode.nursingapp.entities.VitalSign;
+import com.nicode.nursingapp.entities.dto.ChartPointDto;
+import com.nicode.nursingapp.entities.dto.VitalSampleDto;
+
+class VitalSignDownsamplerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void keepsTheMinimumAndMaximumOfEachBucketInDateOrder() {
+        VitalSignDownsampler downsampler = new VitalSignDownsampler(START, START.plusDays(30), 100,
+                EnumSet.of(VitalSign.HEART_RATE, VitalSign.SPO2));
+
+        // Un control cada 30 segundos durante 30 días, con un pico aislado.
+        LocalDateTime spike = START.plusDays(12).plusHours(3);
+        for (LocalDateTime date = START; date.isBefore(START.plusDays(30)); date = date.plusSeconds(30)) {
+            int heartRate = date.equals(spike) ? 180 : 70 + (date.getMinute() % 10);
+            downsampler.accept(new VitalSampleDto(date, null, null, null, heartRate, null, null));
+        }
+
+        Map<VitalSign, List<ChartPointDto>> series = downsampler.finish();
+        List<ChartPointDto> heartRate = series.get(VitalSign.HEART_RATE);
+
+        assertThat(downsampler.samples()).isEqualTo(30 * 24 * 120);
+        assertThat(heartRate).hasSizeLessThanOrEqualTo(200);
+        assertThat(heartRate).extracting(ChartPointDto::getValue).contains(180.0, 70.0);
+        assertThat(heartRate).extracting(ChartPointDto::getDate).isSorted();
+        assertThat(series.get(VitalSign.SPO2)).isEmpty();
+    }
+
+    @Test
+    void keepsEveryPointWhenTheRangeHasFewerControlsThanBuckets() {
+        VitalSignDownsampler downsampler = new VitalSignDownsampler(START, START.plusDays(1), 250,
+                EnumSet.of(VitalSign.TEMPERATURE));
+
+        downsampler.accept(new VitalSampleDto(START.plusHours(1), 36.5, null, null, null, null, null));
+        downsampler.accept(new VitalSampleDto(START.plusHours(9), 38.2, null, null, null, null, null));
+        downsampler.accept(new VitalSampleDto(START.plusHours(17), 37.0, null, null, null, null, null));
+
+        assertThat(downsampler.finish().get(VitalSign.TEMPERATURE)).extracting(ChartPointDto::getValue)
+                .containsExactly(36.5, 38.2, 37.0);
+    }
+}
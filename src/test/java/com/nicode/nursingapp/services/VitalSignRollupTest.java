@@ -0,0 +1,115 @@
+package com.nicode.nursingapp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.nicode.nursingapp.entities.NursingControlEntity;
+import com.nicode.nursingapp.entities.PatientEntity;
+import com.nicode.nursingapp.entities.PatientHistoryEntity;
+import com.nicode.nursingapp.entities.RollupGranularity;
+import com.nicode.nursingapp.entities.VitalSign;
+import com.nicode.nursingapp.entities.VitalSignRollupEntity;
+import com.nicode.nursingapp.entities.dto.ControlBatchItemDto;
+import com.nicode.nursingapp.repositories.NursingControlRepository;
+import com.nicode.nursingapp.repositories.PatientHistoryRepository;
+
+@SpringBootTest
+class VitalSignRollupTest {
+
+    @Autowired
+    private NursingControlService controlService;
+
+    @Autowired
+    private VitalSignRollupService rollupService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientHistoryService historyService;
+
+    @Autowired
+    private PatientHistoryRepository historyRepository;
+
+    @Autowired
+    private NursingControlRepository controlRepository;
+
+    @Test
+    void keepsHourlyAndDailyRollupsUpToDate() {
+        Long historyId = newHistory("40333444");
+        LocalDateTime hour = LocalDateTime.of(2024, 3, 10, 8, 0);
+
+        controlService.save(control(hour.plusMinutes(5), 120, 70), historyId);
+        controlService.saveAll(List.of(
+                new ControlBatchItemDto(historyId, control(hour.plusMinutes(20), 140, 80)),
+                new ControlBatchItemDto(historyId, control(hour.plusMinutes(40), 130, null)),
+                new ControlBatchItemDto(historyId, control(hour.plusHours(3), 100, 60))));
+
+        List<VitalSignRollupEntity> hourly = rollupService.find(historyId, RollupGranularity.HOUR,
+                VitalSign.SYSTOLIC, hour, hour.plusDays(1));
+        assertThat(hourly).extracting(VitalSignRollupEntity::getBucketStart)
+                .containsExactly(hour, hour.plusHours(3));
+        assertThat(hourly.get(0).getSampleCount()).isEqualTo(3);
+        assertThat(hourly.get(0).getMinValue()).isEqualTo(120);
+        assertThat(hourly.get(0).getMaxValue()).isEqualTo(140);
+        assertThat(hourly.get(0).getAverage()).isEqualTo(130);
+
+        VitalSignRollupEntity daily = rollupService.find(historyId, RollupGranularity.DAY, VitalSign.HEART_RATE,
+                hour, hour.plusDays(1)).get(0);
+        assertThat(daily.getBucketStart()).isEqualTo(hour.toLocalDate().atStartOfDay());
+        assertThat(daily.getSampleCount()).isEqualTo(3);
+        assertThat(daily.getAverage()).isEqualTo(70);
+
+        NursingControlEntity highest = controlRepository.findByPatientHistoryEntityId(historyId).stream()
+                .filter(control -> control.getSystolic() == 140).findFirst().orElseThrow();
+        highest.setSystolic(110);
+        highest.setControlDate(hour.plusHours(3).plusMinutes(30));
+        controlService.update(highest, historyId);
+
+        hourly = rollupService.find(historyId, RollupGranularity.HOUR, VitalSign.SYSTOLIC, hour, hour.plusDays(1));
+        assertThat(hourly).extracting(VitalSignRollupEntity::getSampleCount).containsExactly(2L, 2L);
+        assertThat(hourly.get(0).getMaxValue()).isEqualTo(130);
+        assertThat(hourly.get(1).getMinValue()).isEqualTo(100);
+        assertThat(hourly.get(1).getMaxValue()).isEqualTo(110);
+
+        List<VitalSignRollupEntity> before = rollupService.find(historyId, RollupGranularity.HOUR, null, hour,
+                hour.plusDays(1));
+        assertThat(rollupService.rebuild(historyId)).isEqualTo(4);
+        assertThat(rollupService.find(historyId, RollupGranularity.HOUR, null, hour, hour.plusDays(1)))
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("patientHistory")
+                .containsExactlyElementsOf(before);
+    }
+
+    private static NursingControlEntity control(LocalDateTime date, Integer systolic, Integer heartRate) {
+        NursingControlEntity control = new NursingControlEntity();
+        control.setControlDate(date);
+        control.setSystolic(systolic);
+        control.setDiastolic(systolic == null ? null : systolic - 50);
+        control.setHeartRate(heartRate);
+        return control;
+    }
+
+    private Long newHistory(String idNumber) {
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Marta");
+        patient.setLastName("Gómez");
+        patient.setIdNumber(idNumber);
+        patient.setPhoneNumber("1");
+        patient.setDateOfBirth(LocalDate.of(1955, 2, 1));
+        patient.setAdmissionDate(LocalDate.now());
+        patient.setRoom(5);
+        patient.setBed(2);
+        patient.setService("Clínica Médica");
+        PatientEntity saved = (PatientEntity) patientService.save(patient).get("patient");
+
+        historyService.save(new PatientHistoryEntity(), saved.getId());
+        return historyRepository.getPatientHistoryEntityByPatientId(saved.getId()).orElseThrow().getId();
+    }
+}